@@ -0,0 +1,176 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last locations of each online player for {@code /back}: where they were before a teleport and
+ * where they died. Every player has a small ring buffer of primitive arrays (world id, packed block
+ * position, packed view direction) instead of a list of {@link Location} objects.
+ * A player's ring is only touched on that player's thread; the shared world table is synchronized.
+ * A player's history is dropped when they quit.
+ */
+public class BackHistory implements Listener {
+    public static final byte TELEPORT = 0;
+    public static final byte DEATH = 1;
+
+    private final InfiniteHomes plugin;
+    private final Map<UUID, Ring> rings = new ConcurrentHashMap<>();
+    // World UUIDs are stored once here; the rings only keep the index
+    private final List<UUID> worldUuids = new ArrayList<>();
+    private final Map<UUID, Integer> worldIds = new HashMap<>();
+
+    public BackHistory(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * One recorded location, resolved for display or teleporting.
+     */
+    public static final class Entry {
+        private final byte kind;
+        private final Location location;
+
+        Entry(byte kind, Location location) {
+            this.kind = kind;
+            this.location = location;
+        }
+
+        public boolean isDeath() { return kind == DEATH; }
+        public Location getLocation() { return location; }
+    }
+
+    private static final class Ring {
+        final int[] worlds;
+        final long[] positions;
+        final int[] looks;
+        final byte[] kinds;
+        int head; // next slot to write
+        int size;
+
+        Ring(int capacity) {
+            worlds = new int[capacity];
+            positions = new long[capacity];
+            looks = new int[capacity];
+            kinds = new byte[capacity];
+        }
+    }
+
+    public void record(Player player, byte kind) {
+        Settings settings = plugin.getSettings();
+        if (!settings.isBackEnabled()) return;
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        if (world == null) return;
+
+        Ring ring = rings.get(player.getUniqueId());
+        if (ring == null || ring.positions.length != settings.getBackHistorySize()) {
+            ring = resize(ring, settings.getBackHistorySize());
+            rings.put(player.getUniqueId(), ring);
+        }
+        int slot = ring.head;
+        ring.worlds[slot] = worldId(world.getUID());
+        ring.positions[slot] = pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        ring.looks[slot] = packLook(location.getYaw(), location.getPitch());
+        ring.kinds[slot] = kind;
+        ring.head = (slot + 1) % ring.positions.length;
+        ring.size = Math.min(ring.size + 1, ring.positions.length);
+    }
+
+    /**
+     * The {@code index}-th most recent location (0 = latest), or null if there is none.
+     * The location's world is null if that world is not loaded any more.
+     */
+    public Entry get(UUID player, int index) {
+        Ring ring = rings.get(player);
+        if (ring == null || index < 0 || index >= ring.size) return null;
+        int capacity = ring.positions.length;
+        int slot = ((ring.head - 1 - index) % capacity + capacity) % capacity;
+        long packed = ring.positions[slot];
+        int look = ring.looks[slot];
+        World world = Bukkit.getWorld(worldUuid(ring.worlds[slot]));
+        Location location = new Location(world, unpackX(packed) + 0.5, unpackY(packed), unpackZ(packed) + 0.5,
+                (short) (look >> 16) / 100f, (short) look / 100f);
+        return new Entry(ring.kinds[slot], location);
+    }
+
+    public int size(UUID player) {
+        Ring ring = rings.get(player);
+        return ring != null ? ring.size : 0;
+    }
+
+    public void clear() {
+        rings.clear();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeath(PlayerDeathEvent event) {
+        if (plugin.getSettings().isBackOnDeath()) {
+            record(event.getEntity(), DEATH);
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        rings.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Copies the newest entries into a ring of the new size, e.g. after the history size was changed by a reload.
+     */
+    private static Ring resize(Ring old, int capacity) {
+        Ring ring = new Ring(capacity);
+        if (old == null) return ring;
+        int keep = Math.min(old.size, capacity);
+        int oldCapacity = old.positions.length;
+        for (int i = keep - 1; i >= 0; i--) {
+            int from = ((old.head - 1 - i) % oldCapacity + oldCapacity) % oldCapacity;
+            ring.worlds[ring.head] = old.worlds[from];
+            ring.positions[ring.head] = old.positions[from];
+            ring.looks[ring.head] = old.looks[from];
+            ring.kinds[ring.head] = old.kinds[from];
+            ring.head = (ring.head + 1) % capacity;
+        }
+        ring.size = keep;
+        return ring;
+    }
+
+    private synchronized UUID worldUuid(int id) {
+        return worldUuids.get(id);
+    }
+
+    private synchronized int worldId(UUID world) {
+        Integer id = worldIds.get(world);
+        if (id == null) {
+            id = worldUuids.size();
+            worldUuids.add(world);
+            worldIds.put(world, id);
+        }
+        return id;
+    }
+
+    // x and z in 26 bits, y in 12 bits, like block positions in the Minecraft protocol
+    static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    static int unpackX(long packed) { return (int) (packed >> 38); }
+    static int unpackY(long packed) { return (int) (packed << 52 >> 52); }
+    static int unpackZ(long packed) { return (int) (packed << 26 >> 38); }
+
+    // Yaw and pitch in hundredths of a degree, 16 bits each
+    private static int packLook(float yaw, float pitch) {
+        float wrapped = ((yaw % 360) + 540) % 360 - 180;
+        return ((short) Math.round(wrapped * 100) << 16) | ((short) Math.round(pitch * 100) & 0xFFFF);
+    }
+}
@@ -0,0 +1,198 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.network.NetworkManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Deletes or moves every home matching a {@link HomeFilter}. The scan runs off the main thread over the
+ * live home map, or in network mode over the whole shared storage; matches are applied and staged to storage
+ * in batches, which are written out every few seconds and at the end.
+ */
+public class BulkHomeOperation implements Runnable {
+    private static final int BATCH_SIZE = 1000;
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+    private static final long FLUSH_INTERVAL_MS = 5000;
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    public enum Action { DELETE, MOVE }
+
+    private final InfiniteHomes plugin;
+    private final CommandSender sender;
+    private final Action action;
+    private final HomeFilter filter;
+    private final World targetWorld;
+    private final boolean dryRun;
+    private final NetworkManager network;
+    // Players changed since the last flush, announced to the other servers once it is written
+    private final Set<UUID> unpublished = new HashSet<>();
+
+    private long scanned;
+    private long matched;
+    private long applied;
+    private long lastReport;
+    private long lastFlush;
+    private long flushedAt; // applied count at the last flush
+
+    public BulkHomeOperation(InfiniteHomes plugin, CommandSender sender, Action action, HomeFilter filter,
+                             World targetWorld, boolean dryRun) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.action = action;
+        this.filter = filter;
+        this.targetWorld = targetWorld;
+        this.dryRun = dryRun;
+        this.network = plugin.getNetwork();
+    }
+
+    /**
+     * Starts the operation asynchronously. Returns false if another bulk operation is still running.
+     */
+    public boolean start() {
+        if (!RUNNING.compareAndSet(false, true)) return false;
+        plugin.getTaskScheduler().runAsync(this);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        long started = System.currentTimeMillis();
+        lastReport = started;
+        lastFlush = started;
+        try {
+            List<Match> batch = new ArrayList<>(BATCH_SIZE);
+            if (network != null) {
+                network.forEachPlayer((owner, homes) -> scan(owner, homes, batch));
+            } else {
+                for (Map.Entry<UUID, Map<String, HomeData>> playerEntry : plugin.getHomes().entrySet()) {
+                    scan(playerEntry.getKey(), playerEntry.getValue(), batch);
+                }
+            }
+            applyBatch(batch);
+
+            if (!dryRun && applied > flushedAt) {
+                flush();
+            }
+
+            long took = System.currentTimeMillis() - started;
+            String verb = action == Action.DELETE ? "deleted" : "moved to " + targetWorld.getName();
+            if (dryRun) {
+                report("§a[Dry run] " + matched + " of " + scanned + " homes would be " + verb + " (" + took + " ms).");
+            } else {
+                report("§a" + applied + " of " + scanned + " homes " + verb + " (" + took + " ms).");
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Bulk home operation failed", e);
+            report("§cBulk operation failed after " + applied + " changes: " + e.getMessage());
+        } finally {
+            RUNNING.set(false);
+        }
+    }
+
+    private void scan(UUID owner, Map<String, HomeData> homes, List<Match> batch) {
+        for (Map.Entry<String, HomeData> homeEntry : homes.entrySet()) {
+            scanned++;
+            if (filter.test(owner, homeEntry.getKey(), homeEntry.getValue())) {
+                batch.add(new Match(owner, homeEntry.getKey(), homeEntry.getValue()));
+                if (batch.size() >= BATCH_SIZE) {
+                    applyBatch(batch);
+                }
+            }
+        }
+    }
+
+    private void applyBatch(List<Match> batch) {
+        if (batch.isEmpty()) return;
+        matched += batch.size();
+
+        if (!dryRun) {
+            Map<UUID, Map<String, HomeData>> homes = plugin.getHomes();
+            // The maps changed, per player; in network mode players this server does not cache are read fresh
+            Map<UUID, Map<String, HomeData>> touched = new HashMap<>();
+            Map<UUID, Map<String, HomeData>> loaded = new HashMap<>();
+            for (Match match : batch) {
+                Map<String, HomeData> playerHomes = network != null
+                        ? loaded.computeIfAbsent(match.owner, network::homesToChange) : homes.get(match.owner);
+                if (playerHomes == null) continue;
+
+                boolean changed;
+                if (action == Action.DELETE) {
+                    changed = HomeData.removeIfSame(playerHomes, match.homeName, match.data);
+                } else {
+                    HomeData old = match.data;
+                    Location moved = new Location(targetWorld, old.getX(), old.getY(), old.getZ(), old.getYaw(), old.getPitch());
+                    HomeData replacement = new HomeData(moved, match.data.getIcon());
+                    replacement.setUsage(match.data.getLastUsed(), match.data.getUseCount());
+                    replacement.setExpiresAt(match.data.getExpiresAt());
+                    replacement.setCreatedAt(match.data.getCreatedAt());
+                    replacement.setAccess(match.data.getAccess(), match.data.getSharedWith(), match.data.getCategory());
+                    changed = HomeData.replaceIfSame(playerHomes, match.homeName, match.data, replacement);
+                    if (changed) {
+                        plugin.getHomeExpiry().track(match.owner, match.homeName, replacement);
+                    }
+                }
+                if (changed) {
+                    applied++;
+                    touched.put(match.owner, playerHomes);
+                }
+            }
+
+            // Emptied maps stay, as after /delhome: removing them here could drop a home set meanwhile
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : touched.entrySet()) {
+                UUID owner = entry.getKey();
+                plugin.getWorldCounts().invalidate(owner);
+                plugin.getNameMatcher().invalidate(owner);
+                if (network != null) {
+                    network.stage(owner, entry.getValue());
+                    unpublished.add(owner);
+                } else {
+                    plugin.stagePlayerHomes(owner);
+                }
+            }
+        }
+        batch.clear();
+
+        long now = System.currentTimeMillis();
+        // Write what is applied so far now and then, so a crash mid-run does not lose every applied batch
+        if (!dryRun && applied > flushedAt && now - lastFlush >= FLUSH_INTERVAL_MS) {
+            flush();
+            lastFlush = now;
+            flushedAt = applied;
+        }
+        if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+            lastReport = now;
+            report("§7Bulk " + action.name().toLowerCase() + ": scanned " + scanned + ", matched " + matched
+                    + (dryRun ? "" : ", applied " + applied) + "...");
+        }
+    }
+
+    private void flush() {
+        plugin.getStorage().flush();
+        if (network != null && !unpublished.isEmpty()) {
+            Set<UUID> owners = new HashSet<>(unpublished);
+            unpublished.clear();
+            plugin.getTaskScheduler().runGlobal(() -> owners.forEach(network::publishInvalidation));
+        }
+    }
+
+    private void report(String message) {
+        plugin.getTaskScheduler().runForSender(sender, () -> sender.sendMessage(message));
+    }
+
+    private static class Match {
+        final UUID owner;
+        final String homeName;
+        final HomeData data;
+
+        Match(UUID owner, String homeName, HomeData data) {
+            this.owner = owner;
+            this.homeName = homeName;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeAccess;
+import org.bukkit.Material;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Homes of offline players, packed outside the Java heap. Every home is a fixed-width record in one
+ * direct buffer; a player's records are stored next to each other and found through an open-addressing
+ * table of UUIDs kept in primitive arrays. Names, worlds, categories, servers and shared-with lists
+ * are stored once in a second buffer (the string table) and referenced by offset.
+ * <p>
+ * Replacing or removing a player leaves their old records behind; once more than half of the records
+ * are dead, both buffers are rebuilt from the live players. All methods are synchronized.
+ */
+public class ColdHomeSlab {
+    // Record layout
+    private static final int NAME = 0;
+    private static final int WORLD = 4;
+    private static final int X = 8;
+    private static final int Y = 16;
+    private static final int Z = 24;
+    private static final int YAW = 32;
+    private static final int PITCH = 36;
+    private static final int LAST_USED = 40;
+    private static final int EXPIRES_AT = 48;
+    private static final int USE_COUNT = 56;
+    private static final int CATEGORY = 60;
+    private static final int SERVER = 64;
+    private static final int SHARED = 68;
+    private static final int ICON = 72;
+    private static final int ACCESS = 74;
+    private static final int CREATED_AT = 76;
+    static final int RECORD_SIZE = 84;
+
+    private static final int NONE = -1;
+    private static final int MIN_COMPACT_RECORDS = 4096;
+    private static final Material[] MATERIALS = Material.values();
+    private static final HomeAccess[] ACCESS_LEVELS = HomeAccess.values();
+
+    private ByteBuffer records = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+    private int recordCount;      // records written, live and dead
+    private int liveRecords;
+    private ByteBuffer strings = ByteBuffer.allocateDirect(64 * 1024);
+    private int[] stringSlots = new int[1024]; // offset + 1 of each entry, 0 = empty
+    private int stringCount;
+
+    // UUID -> first record and record count; count 0 marks an empty slot
+    private long[] mostBits = new long[1024];
+    private long[] leastBits = new long[1024];
+    private int[] firsts = new int[1024];
+    private int[] counts = new int[1024];
+    private int players;
+
+    /**
+     * Packs the player's homes, replacing any stored before. An empty or null map removes the player.
+     */
+    public synchronized void put(UUID owner, Map<String, HomeData> homes) {
+        removeSlot(owner);
+        if (homes == null || homes.isEmpty()) return;
+        int first = recordCount;
+        int count = 0;
+        for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+            write(home.getKey(), home.getValue());
+            count++;
+        }
+        liveRecords += count;
+        insertSlot(owner, first, count);
+        if (recordCount - liveRecords > liveRecords && recordCount > MIN_COMPACT_RECORDS) {
+            compact();
+        }
+    }
+
+    /**
+     * A fresh copy of the player's homes, or null if the player is not stored here.
+     */
+    public synchronized Map<String, HomeData> get(UUID owner) {
+        int slot = findSlot(owner);
+        return slot < 0 ? null : read(records, strings, firsts[slot], counts[slot]);
+    }
+
+    /**
+     * Takes the player out of the slab and returns their homes, or null if the player is not stored here.
+     */
+    public synchronized Map<String, HomeData> remove(UUID owner) {
+        int slot = findSlot(owner);
+        if (slot < 0) return null;
+        Map<String, HomeData> homes = read(records, strings, firsts[slot], counts[slot]);
+        removeSlot(owner);
+        return homes;
+    }
+
+    public synchronized boolean contains(UUID owner) {
+        return findSlot(owner) >= 0;
+    }
+
+    /**
+     * Snapshot of the stored players.
+     */
+    public synchronized List<UUID> owners() {
+        List<UUID> owners = new ArrayList<>(players);
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) owners.add(new UUID(mostBits[slot], leastBits[slot]));
+        }
+        return owners;
+    }
+
+    public synchronized int getPlayerCount() {
+        return players;
+    }
+
+    public synchronized int getHomeCount() {
+        return liveRecords;
+    }
+
+    /** Off-heap bytes reserved by both buffers. */
+    public synchronized long getCapacityBytes() {
+        return (long) records.capacity() + strings.capacity();
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(counts, 0);
+        players = 0;
+        recordCount = 0;
+        liveRecords = 0;
+        Arrays.fill(stringSlots, 0);
+        strings.clear();
+        stringCount = 0;
+    }
+
+    private void write(String name, HomeData home) {
+        records = ensure(records, (recordCount + 1) * RECORD_SIZE);
+        int base = recordCount * RECORD_SIZE;
+        records.putInt(base + NAME, string(name));
+        records.putInt(base + WORLD, string(home.getWorldName()));
+        records.putDouble(base + X, home.getX());
+        records.putDouble(base + Y, home.getY());
+        records.putDouble(base + Z, home.getZ());
+        records.putFloat(base + YAW, home.getYaw());
+        records.putFloat(base + PITCH, home.getPitch());
+        records.putLong(base + LAST_USED, home.getLastUsed());
+        records.putLong(base + EXPIRES_AT, home.getExpiresAt());
+        records.putInt(base + USE_COUNT, home.getUseCount());
+        records.putInt(base + CATEGORY, home.getCategory() != null ? string(home.getCategory()) : NONE);
+        records.putInt(base + SERVER, home.getServer() != null ? string(home.getServer()) : NONE);
+        records.putInt(base + SHARED, home.getSharedWith().isEmpty() ? NONE : entry(uuids(home.getSharedWith())));
+        records.putShort(base + ICON, (short) home.getIcon().ordinal());
+        records.put(base + ACCESS, (byte) home.getAccess().ordinal());
+        records.putLong(base + CREATED_AT, home.getCreatedAt());
+        recordCount++;
+    }
+
+    private static Map<String, HomeData> read(ByteBuffer records, ByteBuffer strings, int first, int count) {
+        Map<String, HomeData> homes = new ConcurrentHashMap<>();
+        for (int i = first; i < first + count; i++) {
+            int base = i * RECORD_SIZE;
+            int server = records.getInt(base + SERVER);
+            HomeData home = new HomeData(readString(strings, records.getInt(base + WORLD)),
+                    records.getDouble(base + X), records.getDouble(base + Y), records.getDouble(base + Z),
+                    records.getFloat(base + YAW), records.getFloat(base + PITCH),
+                    MATERIALS[records.getShort(base + ICON)],
+                    server != NONE ? readString(strings, server) : null);
+            home.setUsage(records.getLong(base + LAST_USED), records.getInt(base + USE_COUNT));
+            home.setExpiresAt(records.getLong(base + EXPIRES_AT));
+            home.setCreatedAt(records.getLong(base + CREATED_AT));
+            int category = records.getInt(base + CATEGORY);
+            int shared = records.getInt(base + SHARED);
+            home.setAccess(ACCESS_LEVELS[records.get(base + ACCESS)],
+                    shared != NONE ? readUuids(strings, shared) : Collections.emptySet(),
+                    category != NONE ? readString(strings, category) : null);
+            homes.put(readString(strings, records.getInt(base + NAME)), home);
+        }
+        return homes;
+    }
+
+    /**
+     * Rebuilds both buffers with only the records and strings of stored players.
+     */
+    private void compact() {
+        ByteBuffer oldRecords = records;
+        ByteBuffer oldStrings = strings;
+        records = ByteBuffer.allocateDirect(Math.max(RECORD_SIZE * 1024, liveRecords * RECORD_SIZE * 3 / 2));
+        strings = ByteBuffer.allocateDirect(64 * 1024);
+        stringSlots = new int[1024];
+        stringCount = 0;
+        recordCount = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 0) continue;
+            int first = recordCount;
+            // One player at a time, so only their homes are on the heap at once
+            for (Map.Entry<String, HomeData> home : read(oldRecords, oldStrings, firsts[slot], counts[slot]).entrySet()) {
+                write(home.getKey(), home.getValue());
+            }
+            firsts[slot] = first;
+        }
+        liveRecords = recordCount;
+    }
+
+    // String table: each entry is a length followed by its bytes, deduplicated through an open-addressing table
+
+    private int string(String value) {
+        return entry(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int entry(byte[] bytes) {
+        if (stringCount * 2 >= stringSlots.length) {
+            rehashStrings();
+        }
+        int mask = stringSlots.length - 1;
+        for (int slot = mix(Arrays.hashCode(bytes)) & mask; ; slot = (slot + 1) & mask) {
+            int stored = stringSlots[slot];
+            if (stored == 0) {
+                strings = ensure(strings, strings.position() + 4 + bytes.length);
+                int offset = strings.position();
+                strings.putInt(bytes.length).put(bytes);
+                stringSlots[slot] = offset + 1;
+                stringCount++;
+                return offset;
+            }
+            if (entryEquals(stored - 1, bytes)) return stored - 1;
+        }
+    }
+
+    private boolean entryEquals(int offset, byte[] bytes) {
+        if (strings.getInt(offset) != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (strings.get(offset + 4 + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private void rehashStrings() {
+        int[] old = stringSlots;
+        stringSlots = new int[old.length * 2];
+        int mask = stringSlots.length - 1;
+        for (int stored : old) {
+            if (stored == 0) continue;
+            int slot = mix(Arrays.hashCode(readEntry(strings, stored - 1))) & mask;
+            while (stringSlots[slot] != 0) slot = (slot + 1) & mask;
+            stringSlots[slot] = stored;
+        }
+    }
+
+    private static byte[] readEntry(ByteBuffer strings, int offset) {
+        byte[] bytes = new byte[strings.getInt(offset)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = strings.get(offset + 4 + i);
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer strings, int offset) {
+        return new String(readEntry(strings, offset), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] uuids(Set<UUID> uuids) {
+        ByteBuffer buffer = ByteBuffer.allocate(uuids.size() * 16);
+        for (UUID uuid : uuids) {
+            buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    private static Set<UUID> readUuids(ByteBuffer strings, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(readEntry(strings, offset));
+        Set<UUID> uuids = new HashSet<>();
+        while (buffer.hasRemaining()) {
+            uuids.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return uuids;
+    }
+
+    /**
+     * Returns a buffer with room for {@code needed} bytes, doubling the capacity if necessary.
+     */
+    private static ByteBuffer ensure(ByteBuffer buffer, int needed) {
+        if (needed <= buffer.capacity()) return buffer;
+        int capacity = buffer.capacity();
+        while (capacity < needed) {
+            capacity = capacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : capacity * 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        int position = buffer.position();
+        ByteBuffer source = buffer.duplicate();
+        source.clear();
+        grown.put(source);
+        grown.position(position);
+        return grown;
+    }
+
+    // UUID table with linear probing and backward-shift deletion
+
+    private int findSlot(UUID owner) {
+        long most = owner.getMostSignificantBits(), least = owner.getLeastSignificantBits();
+        int mask = counts.length - 1;
+        for (int slot = hash(most, least) & mask; counts[slot] > 0; slot = (slot + 1) & mask) {
+            if (mostBits[slot] == most && leastBits[slot] == least) return slot;
+        }
+        return -1;
+    }
+
+    private void insertSlot(UUID owner, int first, int count) {
+        if (players * 2 >= counts.length) {
+            resizeSlots();
+        }
+        long most = owner.getMostSignificantBits(), least = owner.getLeastSignificantBits();
+        int mask = counts.length - 1;
+        int slot = hash(most, least) & mask;
+        while (counts[slot] > 0) slot = (slot + 1) & mask;
+        mostBits[slot] = most;
+        leastBits[slot] = least;
+        firsts[slot] = first;
+        counts[slot] = count;
+        players++;
+    }
+
+    private void removeSlot(UUID owner) {
+        int slot = findSlot(owner);
+        if (slot < 0) return;
+        liveRecords -= counts[slot];
+        players--;
+        int mask = counts.length - 1;
+        // Move later entries of the same probe run back into the gap
+        int gap = slot;
+        for (int next = (gap + 1) & mask; counts[next] > 0; next = (next + 1) & mask) {
+            int home = hash(mostBits[next], leastBits[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                mostBits[gap] = mostBits[next];
+                leastBits[gap] = leastBits[next];
+                firsts[gap] = firsts[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+        }
+        counts[gap] = 0;
+    }
+
+    private void resizeSlots() {
+        long[] oldMost = mostBits, oldLeast = leastBits;
+        int[] oldFirsts = firsts, oldCounts = counts;
+        int size = oldCounts.length * 2;
+        mostBits = new long[size];
+        leastBits = new long[size];
+        firsts = new int[size];
+        counts = new int[size];
+        players = 0;
+        for (int slot = 0; slot < oldCounts.length; slot++) {
+            if (oldCounts[slot] > 0) {
+                insertSlot(new UUID(oldMost[slot], oldLeast[slot]), oldFirsts[slot], oldCounts[slot]);
+            }
+        }
+    }
+
+    private static int hash(long most, long least) {
+        return mix(Long.hashCode(most ^ least));
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
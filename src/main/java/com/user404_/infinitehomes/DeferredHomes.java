@@ -0,0 +1,69 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.storage.HomeFileLoader;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Homes read while their world was not loaded, e.g. worlds loaded later by a multiworld plugin.
+ * Such homes only keep their world name; when the world loads, the homes of online players are
+ * resolved right away and the rest resolve the first time they are used.
+ */
+public class DeferredHomes implements Listener {
+    private final InfiniteHomes plugin;
+    private final TieredHomeMap homes;
+    // World name -> owners with homes there, and how many homes
+    private final Map<String, Set<UUID>> owners = new ConcurrentHashMap<>();
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    public DeferredHomes(InfiniteHomes plugin, TieredHomeMap homes) {
+        this.plugin = plugin;
+        this.homes = homes;
+    }
+
+    /**
+     * Replaces the waiting worlds with the ones of a load.
+     */
+    public void track(HomeFileLoader.Summary summary) {
+        owners.clear();
+        counts.clear();
+        if (summary == null) return;
+        owners.putAll(summary.getDeferredOwners());
+        counts.putAll(summary.getDeferredHomes());
+        for (Map.Entry<String, Integer> world : counts.entrySet()) {
+            plugin.getLogger().info(world.getValue() + " homes are in world '" + world.getKey()
+                    + "', which is not loaded yet; they are kept and can be used once it loads.");
+        }
+    }
+
+    /**
+     * Worlds that homes are still waiting for, with the number of homes.
+     */
+    public Map<String, Integer> getWaiting() {
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        String worldName = event.getWorld().getName();
+        Set<UUID> waiting = owners.remove(worldName);
+        Integer count = counts.remove(worldName);
+        if (waiting == null) return;
+        int resolved = 0;
+        for (UUID owner : waiting) {
+            // Cold players are unpacked with the world name and resolve on their own
+            Map<String, HomeData> playerHomes = homes.getIfHot(owner);
+            if (playerHomes == null) continue;
+            for (HomeData home : playerHomes.values()) {
+                if (home.getWorldName().equals(worldName) && home.getLocation() != null) resolved++;
+            }
+        }
+        plugin.getLogger().info("World '" + worldName + "' loaded: " + count + " waiting homes of " + waiting.size()
+                + " players can be used again (" + resolved + " resolved now).");
+    }
+}
@@ -0,0 +1,382 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.network.NetworkManager;
+import org.bukkit.Material;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Every home on the server in one sorted snapshot, for the admin browser: newest first, then by owner
+ * and name. The snapshot is packed into parallel arrays, built off the main thread for the first page
+ * request and built again on a later request once homes changed and it is older than {@link #MAX_AGE_MS}.
+ * Nobody browsing for {@link #IDLE_DROP_MS} drops it, so the index takes no memory while unused.
+ * <p>
+ * Pages start at a {@link Cursor}, the sort key of their first home, not at an offset: after a rebuild
+ * the cursor is found again by binary search, so homes added or removed meanwhile do not shift the page.
+ */
+public class GlobalHomeIndex {
+    private static final long MAX_AGE_MS = 30_000;
+    private static final long IDLE_DROP_MS = 5 * 60_000;
+    private static final Material[] MATERIALS = Material.values();
+
+    private final InfiniteHomes plugin;
+    private volatile Snapshot snapshot;
+    private volatile boolean dirty = true;
+    private volatile long lastUse;
+
+    public GlobalHomeIndex(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Position in the global order: the sort key of a home.
+     */
+    public static final class Cursor {
+        private final long createdAt;
+        private final long mostBits;
+        private final long leastBits;
+        private final String name;
+
+        Cursor(long createdAt, long mostBits, long leastBits, String name) {
+            this.createdAt = createdAt;
+            this.mostBits = mostBits;
+            this.leastBits = leastBits;
+            this.name = name;
+        }
+    }
+
+    /**
+     * One home as the index saw it. Check the live home before acting on it.
+     */
+    public static final class Entry {
+        private final UUID owner;
+        private final String name;
+        private final String world;
+        private final int x, y, z;
+        private final Material icon;
+        private final long createdAt;
+
+        Entry(UUID owner, String name, String world, int x, int y, int z, Material icon, long createdAt) {
+            this.owner = owner;
+            this.name = name;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.icon = icon;
+            this.createdAt = createdAt;
+        }
+
+        public UUID getOwner() { return owner; }
+        public String getName() { return name; }
+        public String getWorld() { return world; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public Material getIcon() { return icon; }
+        /** 0 if the home is older than creation tracking. */
+        public long getCreatedAt() { return createdAt; }
+
+        /**
+         * Whether the live home is still at the position the index saw.
+         */
+        public boolean matches(HomeData home) {
+            return home.getWorldName().equals(world) && (int) Math.floor(home.getX()) == x
+                    && (int) Math.floor(home.getY()) == y && (int) Math.floor(home.getZ()) == z;
+        }
+    }
+
+    /**
+     * Up to one page of matching homes.
+     */
+    public static final class Page {
+        private final List<Entry> entries;
+        private final Cursor next; // first match after this page, null at the end
+
+        Page(List<Entry> entries, Cursor next) {
+            this.entries = entries;
+            this.next = next;
+        }
+
+        public List<Entry> getEntries() { return entries; }
+        public Cursor getNext() { return next; }
+    }
+
+    /**
+     * Criteria the index can check on its own: {@code world:<name>}, {@code region:<x1>,<z1>,<x2>,<z2>},
+     * {@code icon:<material>}, {@code created:<days>} and {@code player:<name>}, with the same meaning
+     * as in {@link HomeFilter}. All must match.
+     */
+    public static final class Query {
+        private String world;
+        private boolean region;
+        private int minX, minZ, maxX, maxZ;
+        private Material icon;
+        private long createdAfter = Long.MIN_VALUE;
+        private UUID owner;
+        private final List<String> description = new ArrayList<>();
+
+        /**
+         * Adds the criterion described by the token. Returns false if the token is not a criterion.
+         *
+         * @throws IllegalArgumentException if the token is a criterion with an invalid value
+         */
+        public boolean parse(String token, PlayerIndex playerIndex) {
+            int colon = token.indexOf(':');
+            if (colon <= 0) return false;
+            String key = token.substring(0, colon).toLowerCase();
+            String value = token.substring(colon + 1);
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("Missing value for filter '" + key + "'.");
+            }
+
+            switch (key) {
+                case "world":
+                    world = value;
+                    break;
+                case "region": {
+                    String[] parts = value.split(",");
+                    if (parts.length != 4) {
+                        throw new IllegalArgumentException("Region must be <x1>,<z1>,<x2>,<z2>.");
+                    }
+                    try {
+                        int x1 = Integer.parseInt(parts[0]), z1 = Integer.parseInt(parts[1]);
+                        int x2 = Integer.parseInt(parts[2]), z2 = Integer.parseInt(parts[3]);
+                        minX = Math.min(x1, x2);
+                        maxX = Math.max(x1, x2);
+                        minZ = Math.min(z1, z2);
+                        maxZ = Math.max(z1, z2);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Region coordinates must be whole numbers.");
+                    }
+                    region = true;
+                    break;
+                }
+                case "icon":
+                    icon = Material.matchMaterial(value);
+                    if (icon == null) {
+                        throw new IllegalArgumentException("Unknown material '" + value + "'.");
+                    }
+                    break;
+                case "created":
+                    createdAfter = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(HomeFilter.parseDays(value));
+                    break;
+                case "player":
+                    owner = playerIndex.getUuid(value);
+                    if (owner == null) {
+                        throw new IllegalArgumentException("Unknown player '" + value + "'.");
+                    }
+                    break;
+                default:
+                    return false;
+            }
+            description.add(key + "=" + value);
+            return true;
+        }
+
+        private boolean matches(Snapshot snapshot, int i) {
+            if (world != null && !snapshot.worlds[snapshot.world[i]].equalsIgnoreCase(world)) return false;
+            if (region && (snapshot.x[i] < minX || snapshot.x[i] > maxX || snapshot.z[i] < minZ || snapshot.z[i] > maxZ)) {
+                return false;
+            }
+            if (icon != null && snapshot.icon[i] != icon.ordinal()) return false;
+            if (snapshot.createdAt[i] < createdAfter) return false;
+            return owner == null || (snapshot.mostBits[i] == owner.getMostSignificantBits()
+                    && snapshot.leastBits[i] == owner.getLeastSignificantBits());
+        }
+
+        @Override
+        public String toString() {
+            return description.isEmpty() ? "all homes" : String.join(", ", description);
+        }
+    }
+
+    /**
+     * Marks the snapshot as outdated. Called whenever a player's homes are staged for saving.
+     */
+    public void changed() {
+        dirty = true;
+    }
+
+    /**
+     * Reads up to {@code size} matching homes starting at {@code from} (null for the first page) off
+     * the main thread. The future completes off the main thread.
+     */
+    public CompletableFuture<Page> page(Query query, Cursor from, int size) {
+        CompletableFuture<Page> future = new CompletableFuture<>();
+        plugin.getTaskScheduler().runAsync(() -> {
+            try {
+                future.complete(read(query, from, size));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Drops the snapshot if nobody browsed for a while. Runs on a timer.
+     */
+    public void dropIfIdle() {
+        if (snapshot != null && System.currentTimeMillis() - lastUse >= IDLE_DROP_MS) {
+            snapshot = null;
+        }
+    }
+
+    private Page read(Query query, Cursor from, int size) {
+        Snapshot current = current();
+        int i = from == null ? 0 : current.find(from);
+        List<Entry> entries = new ArrayList<>(size);
+        for (; i < current.size && entries.size() < size; i++) {
+            if (query.matches(current, i)) {
+                entries.add(current.entry(i));
+            }
+        }
+        while (i < current.size && !query.matches(current, i)) i++;
+        return new Page(entries, i < current.size ? current.cursor(i) : null);
+    }
+
+    private synchronized Snapshot current() {
+        long now = System.currentTimeMillis();
+        lastUse = now;
+        Snapshot current = snapshot;
+        // In network mode other servers change homes without telling this index
+        boolean changed = dirty || plugin.getNetwork() != null;
+        if (current == null || (changed && now - current.builtAt >= MAX_AGE_MS)) {
+            dirty = false;
+            current = build();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private Snapshot build() {
+        List<Row> rows = new ArrayList<>();
+        Map<String, Integer> worldIds = new HashMap<>();
+        List<String> worlds = new ArrayList<>();
+        BiConsumer<UUID, Map<String, HomeData>> add = (owner, homes) -> {
+            for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+                HomeData data = home.getValue();
+                Integer world = worldIds.get(data.getWorldName());
+                if (world == null) {
+                    world = worlds.size();
+                    worlds.add(data.getWorldName());
+                    worldIds.put(data.getWorldName(), world);
+                }
+                rows.add(new Row(data.getCreatedAt(), owner.getMostSignificantBits(), owner.getLeastSignificantBits(),
+                        home.getKey(), world, data));
+            }
+        };
+        // In network mode the shared storage is the complete data set, read one player at a time;
+        // cached players may not be flushed yet and take precedence
+        NetworkManager network = plugin.getNetwork();
+        if (network != null) {
+            network.forEachPlayer(add);
+        } else {
+            for (Map.Entry<UUID, Map<String, HomeData>> player : plugin.getHomes().entrySet()) {
+                add.accept(player.getKey(), player.getValue());
+            }
+        }
+        rows.sort((a, b) -> compare(a.createdAt, a.mostBits, a.leastBits, a.name,
+                b.createdAt, b.mostBits, b.leastBits, b.name));
+        return new Snapshot(rows, worlds.toArray(new String[0]));
+    }
+
+    private static int compare(long createdA, long mostA, long leastA, String nameA,
+                               long createdB, long mostB, long leastB, String nameB) {
+        int result = Long.compare(createdB, createdA); // newest first
+        if (result == 0) result = Long.compare(mostA, mostB);
+        if (result == 0) result = Long.compare(leastA, leastB);
+        if (result == 0) result = nameA.compareTo(nameB);
+        return result;
+    }
+
+    private static final class Row {
+        final long createdAt;
+        final long mostBits;
+        final long leastBits;
+        final String name;
+        final int world;
+        final HomeData home;
+
+        Row(long createdAt, long mostBits, long leastBits, String name, int world, HomeData home) {
+            this.createdAt = createdAt;
+            this.mostBits = mostBits;
+            this.leastBits = leastBits;
+            this.name = name;
+            this.world = world;
+            this.home = home;
+        }
+    }
+
+    /**
+     * The sorted homes in parallel arrays; never changed after it was built.
+     */
+    private static final class Snapshot {
+        final int size;
+        final long builtAt = System.currentTimeMillis();
+        final long[] createdAt;
+        final long[] mostBits;
+        final long[] leastBits;
+        final String[] names;
+        final String[] worlds;
+        final int[] world;
+        final int[] x, y, z;
+        final short[] icon;
+
+        Snapshot(List<Row> rows, String[] worlds) {
+            size = rows.size();
+            this.worlds = worlds;
+            createdAt = new long[size];
+            mostBits = new long[size];
+            leastBits = new long[size];
+            names = new String[size];
+            world = new int[size];
+            x = new int[size];
+            y = new int[size];
+            z = new int[size];
+            icon = new short[size];
+            for (int i = 0; i < size; i++) {
+                Row row = rows.get(i);
+                createdAt[i] = row.createdAt;
+                mostBits[i] = row.mostBits;
+                leastBits[i] = row.leastBits;
+                names[i] = row.name;
+                world[i] = row.world;
+                x[i] = (int) Math.floor(row.home.getX());
+                y[i] = (int) Math.floor(row.home.getY());
+                z[i] = (int) Math.floor(row.home.getZ());
+                icon[i] = (short) row.home.getIcon().ordinal();
+            }
+        }
+
+        /**
+         * Index of the first home at or after the cursor.
+         */
+        int find(Cursor cursor) {
+            int low = 0, high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(createdAt[middle], mostBits[middle], leastBits[middle], names[middle],
+                        cursor.createdAt, cursor.mostBits, cursor.leastBits, cursor.name) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        Cursor cursor(int i) {
+            return new Cursor(createdAt[i], mostBits[i], leastBits[i], names[i]);
+        }
+
+        Entry entry(int i) {
+            return new Entry(new UUID(mostBits[i], leastBits[i]), names[i], worlds[world[i]], x[i], y[i], z[i],
+                    MATERIALS[icon[i]], createdAt[i]);
+        }
+    }
+}
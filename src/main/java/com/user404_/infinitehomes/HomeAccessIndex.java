@@ -0,0 +1,132 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeAccess;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Reverse indexes over home sharing: the homes shared with each player, and all public homes
+ * sorted by name, per directory category. A player's entries are replaced whenever their homes
+ * are staged for saving, so the indexes never need a full scan after startup.
+ */
+public class HomeAccessIndex {
+    private static final Comparator<Ref> BY_NAME = Comparator.comparing((Ref ref) -> ref.homeName)
+            .thenComparing(ref -> ref.owner);
+
+    private final Map<UUID, Set<Ref>> sharedWith = new ConcurrentHashMap<>();          // viewer -> homes
+    private final ConcurrentSkipListSet<Ref> publicHomes = new ConcurrentSkipListSet<>(BY_NAME);
+    private final Map<UUID, List<Ref>> byOwner = new ConcurrentHashMap<>();            // owner -> indexed refs
+    // Sorted arrays handed out to the directory, dropped on every change ("" = all categories)
+    private final Map<String, Ref[]> directoryCache = new ConcurrentHashMap<>();
+
+    /**
+     * A shared or public home as seen from the index.
+     */
+    public static final class Ref {
+        private final UUID owner;
+        private final String homeName;
+        private final HomeData home;
+        private final Set<UUID> viewers; // shared-with set at indexing time, to find the entries again
+
+        Ref(UUID owner, String homeName, HomeData home) {
+            this.owner = owner;
+            this.homeName = homeName;
+            this.home = home;
+            this.viewers = home.getSharedWith();
+        }
+
+        public UUID getOwner() { return owner; }
+        public String getHomeName() { return homeName; }
+        public HomeData getHome() { return home; }
+    }
+
+    /**
+     * Replaces the indexed entries of one player with their current homes (null if they have none).
+     */
+    public synchronized void update(UUID owner, Map<String, HomeData> homes) {
+        List<Ref> previous = byOwner.remove(owner);
+        if (previous != null) {
+            for (Ref ref : previous) {
+                publicHomes.remove(ref);
+                for (UUID viewer : ref.viewers) {
+                    Set<Ref> refs = sharedWith.get(viewer);
+                    if (refs != null) {
+                        refs.remove(ref);
+                        if (refs.isEmpty()) sharedWith.remove(viewer);
+                    }
+                }
+            }
+        }
+
+        List<Ref> current = new ArrayList<>();
+        if (homes != null) {
+            for (Map.Entry<String, HomeData> entry : homes.entrySet()) {
+                HomeData home = entry.getValue();
+                if (home.getAccess() == HomeAccess.PRIVATE) continue;
+                Ref ref = new Ref(owner, entry.getKey(), home);
+                current.add(ref);
+                if (home.getAccess() == HomeAccess.PUBLIC) {
+                    publicHomes.add(ref);
+                }
+                // Shared players keep their entry while the home is public, so going back to SHARED needs no re-share
+                for (UUID viewer : ref.viewers) {
+                    sharedWith.computeIfAbsent(viewer, uuid -> ConcurrentHashMap.newKeySet()).add(ref);
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            byOwner.put(owner, current);
+        }
+        if (previous != null || !current.isEmpty()) {
+            directoryCache.clear();
+        }
+    }
+
+    /**
+     * Indexes all loaded homes from scratch, e.g. on startup or after a backup was swapped in.
+     */
+    public synchronized void rebuild(Map<UUID, Map<String, HomeData>> homes) {
+        sharedWith.clear();
+        publicHomes.clear();
+        byOwner.clear();
+        directoryCache.clear();
+        for (Map.Entry<UUID, Map<String, HomeData>> player : homes.entrySet()) {
+            update(player.getKey(), player.getValue());
+        }
+    }
+
+    /**
+     * Homes other players shared with the viewer, sorted by name.
+     */
+    public List<Ref> getSharedWith(UUID viewer) {
+        Set<Ref> refs = sharedWith.get(viewer);
+        if (refs == null) return Collections.emptyList();
+        List<Ref> result = new ArrayList<>();
+        for (Ref ref : refs) {
+            if (ref.home.canUse(viewer)) result.add(ref);
+        }
+        result.sort(BY_NAME);
+        return result;
+    }
+
+    /**
+     * Public homes sorted by name, optionally only one category. Do not modify the returned array.
+     */
+    public Ref[] getPublic(String category) {
+        String key = category == null ? "" : category.toLowerCase();
+        Ref[] cached = directoryCache.get(key);
+        if (cached != null) return cached;
+        // Built under the lock so an update cannot clear the cache while a stale array is being stored
+        synchronized (this) {
+            return directoryCache.computeIfAbsent(key, k -> {
+                List<Ref> result = new ArrayList<>();
+                for (Ref ref : publicHomes) {
+                    if (k.isEmpty() || k.equalsIgnoreCase(ref.home.getCategory())) result.add(ref);
+                }
+                return result.toArray(new Ref[0]);
+            });
+        }
+    }
+}
@@ -1,35 +1,283 @@
 package com.user404_.infinitehomes;
 
+import com.user404_.infinitehomes.api.HomeAccess;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class HomeData implements ConfigurationSerializable {
+    /** Longest home name, the size of the name column in the SQL storage. */
+    public static final int MAX_NAME_LENGTH = 64;
+
+    // Null while the home's world is not loaded on this server (e.g. a home on another backend)
     private Location location;
-    private Material icon;
+    private final String worldName;
+    private final double x, y, z;
+    private final float yaw, pitch;
+    private volatile Material icon; // changed from the icon GUI, read by async saves, scans and the home index
+    private String server; // backend the home was set on, null if not in network mode
+    // Usage, bumped by teleporting players on any region thread. 0 = not used since usage was tracked
+    private final AtomicLong lastUsed = new AtomicLong();
+    private final AtomicInteger useCount = new AtomicInteger();
+    private volatile long expiresAt; // 0 = never
+    private volatile long createdAt; // 0 = set before creation times were recorded
+    // Sharing; the set is never modified, only replaced, so readers on other threads see a consistent copy
+    private volatile HomeAccess access = HomeAccess.PRIVATE;
+    private volatile Set<UUID> sharedWith = Collections.emptySet();
+    private volatile String category;
 
     public HomeData(Location location, Material icon) {
         this.location = location;
+        this.worldName = location.getWorld().getName();
+        this.x = location.getX();
+        this.y = location.getY();
+        this.z = location.getZ();
+        this.yaw = location.getYaw();
+        this.pitch = location.getPitch();
         this.icon = icon;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Home whose world may not be loaded here. The location is resolved lazily once the world exists.
+     */
+    public HomeData(String worldName, double x, double y, double z, float yaw, float pitch, Material icon, String server) {
+        this.worldName = worldName;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        this.icon = icon;
+        this.server = server;
     }
 
     public HomeData(Map<String, Object> map) {
-        this.location = (Location) map.get("location");
-        this.icon = Material.valueOf((String) map.get("icon"));
+        Object loc = map.get("location");
+        if (loc instanceof Location) {
+            this.location = (Location) loc;
+            this.worldName = location.getWorld().getName();
+            this.x = location.getX();
+            this.y = location.getY();
+            this.z = location.getZ();
+            this.yaw = location.getYaw();
+            this.pitch = location.getPitch();
+        } else {
+            this.worldName = (String) map.get("world");
+            this.x = ((Number) map.get("x")).doubleValue();
+            this.y = ((Number) map.get("y")).doubleValue();
+            this.z = ((Number) map.get("z")).doubleValue();
+            this.yaw = ((Number) map.getOrDefault("yaw", 0)).floatValue();
+            this.pitch = ((Number) map.getOrDefault("pitch", 0)).floatValue();
+        }
+        this.icon = parseIcon((String) map.get("icon"));
+        this.server = (String) map.get("server");
+        setUsage(((Number) map.getOrDefault("last-used", 0L)).longValue(), ((Number) map.getOrDefault("uses", 0)).intValue());
+        this.expiresAt = ((Number) map.getOrDefault("expires-at", 0L)).longValue();
+        this.createdAt = ((Number) map.getOrDefault("created-at", 0L)).longValue();
+        Object sharedList = map.get("shared-with");
+        setAccess(parseAccess((String) map.get("access")),
+                sharedList instanceof List ? parseUuids((List<?>) sharedList) : Collections.emptySet(),
+                (String) map.get("category"));
     }
 
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> map = new HashMap<>();
-        map.put("location", location);
+        Location resolved = getLocation();
+        if (resolved != null) {
+            map.put("location", resolved);
+        } else {
+            map.put("world", worldName);
+            map.put("x", x);
+            map.put("y", y);
+            map.put("z", z);
+            map.put("yaw", yaw);
+            map.put("pitch", pitch);
+        }
         map.put("icon", icon.name());
+        if (server != null) {
+            map.put("server", server);
+        }
+        map.put("last-used", lastUsed.get());
+        map.put("uses", useCount.get());
+        if (expiresAt > 0) {
+            map.put("expires-at", expiresAt);
+        }
+        if (createdAt > 0) {
+            map.put("created-at", createdAt);
+        }
+        if (access != HomeAccess.PRIVATE) {
+            map.put("access", access.name());
+        }
+        if (!sharedWith.isEmpty()) {
+            List<String> shared = new ArrayList<>();
+            for (UUID uuid : sharedWith) {
+                shared.add(uuid.toString());
+            }
+            map.put("shared-with", shared);
+        }
+        if (category != null) {
+            map.put("category", category);
+        }
         return map;
     }
 
-    public Location getLocation() { return location; }
+    /**
+     * The home's location, or null if its world is not loaded on this server.
+     */
+    public Location getLocation() {
+        if (location == null) {
+            World world = Bukkit.getWorld(worldName);
+            if (world != null) {
+                location = new Location(world, x, y, z, yaw, pitch);
+            }
+        }
+        return location;
+    }
+
+    public String getWorldName() { return worldName; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getZ() { return z; }
+    public float getYaw() { return yaw; }
+    public float getPitch() { return pitch; }
     public Material getIcon() { return icon; }
-    public void setIcon(Material icon) { this.icon = icon; }
-}
\ No newline at end of file
+    public void setIcon(Material icon) {
+        if (!isValidIcon(icon)) {
+            throw new IllegalArgumentException(icon + " cannot be shown as an item");
+        }
+        this.icon = icon;
+    }
+    public String getServer() { return server; }
+    public void setServer(String server) { this.server = server; }
+    public long getLastUsed() { return lastUsed.get(); }
+    public int getUseCount() { return useCount.get(); }
+
+    /** When the home is deleted automatically (epoch millis), 0 if it is permanent. */
+    public long getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(long expiresAt) { this.expiresAt = expiresAt; }
+
+    /** When the home was set (epoch millis), 0 if it is older than creation tracking. */
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public HomeAccess getAccess() { return access; }
+    public Set<UUID> getSharedWith() { return sharedWith; }
+    /** Directory category of a public home, null if none was given. */
+    public String getCategory() { return category; }
+
+    /**
+     * Replaces who may use this home. The set is copied.
+     */
+    public void setAccess(HomeAccess access, Set<UUID> sharedWith, String category) {
+        this.sharedWith = sharedWith.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(sharedWith));
+        this.category = category;
+        this.access = access;
+    }
+
+    /**
+     * Whether the player may teleport here. Only looks at the home itself, so it is O(1).
+     */
+    public boolean canUse(UUID player) {
+        HomeAccess current = access;
+        return current == HomeAccess.PUBLIC || (current == HomeAccess.SHARED && sharedWith.contains(player));
+    }
+
+    /**
+     * Whether the other object describes the same home: the same object, or a copy of it, e.g. one
+     * unpacked from the cold tier while the owner was offline. A home set again at exactly the same
+     * spot with the same expiry counts as the same home.
+     */
+    public boolean isSameHome(HomeData other) {
+        return other == this || (other != null && worldName.equals(other.worldName)
+                && x == other.x && y == other.y && z == other.z && yaw == other.yaw && pitch == other.pitch
+                && expiresAt == other.expiresAt);
+    }
+
+    /**
+     * Removes the named home if it is still the {@linkplain #isSameHome same home} as {@code expected}.
+     */
+    public static boolean removeIfSame(Map<String, HomeData> homes, String name, HomeData expected) {
+        return replaceIfSame(homes, name, expected, null);
+    }
+
+    /**
+     * Atomically replaces (or with null removes) the named home if it is still the
+     * {@linkplain #isSameHome same home} as {@code expected}.
+     */
+    public static boolean replaceIfSame(Map<String, HomeData> homes, String name, HomeData expected, HomeData replacement) {
+        boolean[] replaced = new boolean[1];
+        homes.computeIfPresent(name, (key, current) -> {
+            if (!current.isSameHome(expected)) return current;
+            replaced[0] = true;
+            return replacement;
+        });
+        return replaced[0];
+    }
+
+    /**
+     * Whether the material can be shown as an item, and so be a home icon.
+     */
+    public static boolean isValidIcon(Material material) {
+        return material != null && material.isItem() && !material.isAir() && !material.isLegacy();
+    }
+
+    /**
+     * Reads a stored icon; unknown materials (e.g. removed in this version) and non-items become a red bed.
+     */
+    public static Material parseIcon(String value) {
+        Material icon = value != null ? Material.matchMaterial(value) : null;
+        return isValidIcon(icon) ? icon : Material.RED_BED;
+    }
+
+    /**
+     * Reads a stored access level; missing or unknown values mean private.
+     */
+    public static HomeAccess parseAccess(String value) {
+        if (value == null) return HomeAccess.PRIVATE;
+        try {
+            return HomeAccess.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return HomeAccess.PRIVATE;
+        }
+    }
+
+    /**
+     * Reads a stored list of UUID strings, skipping invalid entries.
+     */
+    public static Set<UUID> parseUuids(Collection<?> values) {
+        Set<UUID> uuids = new HashSet<>();
+        for (Object value : values) {
+            try {
+                uuids.add(UUID.fromString(String.valueOf(value).trim()));
+            } catch (IllegalArgumentException ignored) {
+                // not a UUID
+            }
+        }
+        return uuids;
+    }
+
+    /**
+     * Restores stored usage. A last-used time of 0 means the home was not used since usage was tracked.
+     */
+    public void setUsage(long lastUsed, int useCount) {
+        this.lastUsed.set(lastUsed);
+        this.useCount.set(useCount);
+    }
+
+    /**
+     * Counts a teleport to this home. On regionized servers players in different regions may use a
+     * shared home at the same time; the counters are atomic and the last-used time never goes back.
+     */
+    void markUsed(long now) {
+        lastUsed.accumulateAndGet(now, Math::max);
+        useCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,291 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeDeleteEvent;
+import com.user404_.infinitehomes.api.HomeSnapshot;
+import com.user404_.infinitehomes.network.NetworkManager;
+import com.user404_.infinitehomes.storage.YamlHomeStorage;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes temporary homes ({@code /sethome arena 2h}) once they expire.
+ * Expiring homes are kept in one index ordered by expiry time, so the periodic task only looks at
+ * the homes that are actually due. Owners that are offline are told on their next join.
+ * In network mode due homes are taken from the shared storage instead, so homes of players no server
+ * caches expire too, each on one server only; notices for offline owners are kept there as well.
+ */
+public class HomeExpiry implements Listener {
+    private static final Pattern DURATION = Pattern.compile("(\\d+)([smhdw])");
+
+    private final InfiniteHomes plugin;
+    private final File noticeFile;
+    private final ConcurrentSkipListSet<Entry> index = new ConcurrentSkipListSet<>();
+    // Insertion order of index entries, to tell apart entries that are otherwise equal
+    private final AtomicLong sequence = new AtomicLong();
+    // Owners that were offline when their homes expired -> names of those homes
+    private final Map<UUID, List<String>> notices = new ConcurrentHashMap<>();
+    private TaskScheduler.Task task;
+
+    public HomeExpiry(InfiniteHomes plugin) {
+        this.plugin = plugin;
+        this.noticeFile = new File(plugin.getDataFolder(), "expired-homes.yml");
+    }
+
+    /**
+     * Parses durations like {@code 30m}, {@code 2h} or {@code 1d12h}. Returns -1 if the text is not a duration.
+     */
+    public static long parseDuration(String text) {
+        Matcher matcher = DURATION.matcher(text.toLowerCase());
+        long millis = 0;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            long amount = Long.parseLong(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "s": millis += TimeUnit.SECONDS.toMillis(amount); break;
+                case "m": millis += TimeUnit.MINUTES.toMillis(amount); break;
+                case "h": millis += TimeUnit.HOURS.toMillis(amount); break;
+                case "d": millis += TimeUnit.DAYS.toMillis(amount); break;
+                default: millis += TimeUnit.DAYS.toMillis(amount * 7); break;
+            }
+            end = matcher.end();
+        }
+        return end == text.length() && millis > 0 ? millis : -1;
+    }
+
+    /**
+     * Formats a duration the way {@link #parseDuration(String)} reads it, e.g. {@code 1d2h}.
+     */
+    public static String formatDuration(long millis) {
+        long minutes = Math.max(1, TimeUnit.MILLISECONDS.toMinutes(millis));
+        long days = minutes / (60 * 24);
+        long hours = (minutes / 60) % 24;
+        StringBuilder text = new StringBuilder();
+        if (days > 0) text.append(days).append('d');
+        if (hours > 0) text.append(hours).append('h');
+        if (days == 0 && minutes % 60 > 0) text.append(minutes % 60).append('m');
+        return text.toString();
+    }
+
+    public void load() {
+        if (!noticeFile.exists()) return;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(noticeFile);
+        for (String key : config.getKeys(false)) {
+            try {
+                notices.put(UUID.fromString(key), new ArrayList<>(config.getStringList(key)));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Skipping invalid entry in expired-homes.yml: " + key);
+            }
+        }
+    }
+
+    public void start(int intervalSeconds) {
+        stop();
+        long ticks = Math.max(1, intervalSeconds) * 20L;
+        task = plugin.getTaskScheduler().runAsyncTimer(this::expireDue, ticks, ticks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Adds a home to the index if it has an expiry time. Entries of homes that were deleted or
+     * replaced in the meantime are skipped when they come due.
+     */
+    public void track(UUID owner, String homeName, HomeData home) {
+        long expiresAt = home.getExpiresAt();
+        if (expiresAt <= 0 || plugin.getNetwork() != null) return;
+        // Reloads (e.g. in network mode) track the same home or a copy of it again; one entry is enough
+        for (Entry entry : index.subSet(new Entry(expiresAt, owner, homeName, null, Long.MIN_VALUE), true,
+                new Entry(expiresAt, owner, homeName, null, Long.MAX_VALUE), true)) {
+            if (entry.home.isSameHome(home)) return;
+        }
+        index.add(new Entry(expiresAt, owner, homeName, home, sequence.getAndIncrement()));
+    }
+
+    public void trackAll(UUID owner, Map<String, HomeData> homes) {
+        for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+            track(owner, home.getKey(), home.getValue());
+        }
+    }
+
+    /**
+     * Rebuilds the index from all loaded homes, e.g. after a backup was swapped in.
+     */
+    public void rebuild() {
+        index.clear();
+        for (Map.Entry<UUID, Map<String, HomeData>> player : plugin.getHomes().entrySet()) {
+            trackAll(player.getKey(), player.getValue());
+        }
+    }
+
+    /**
+     * Removes every home that is due and writes all affected players in one flush. Runs off the main thread.
+     */
+    private void expireDue() {
+        long now = System.currentTimeMillis();
+        NetworkManager network = plugin.getNetwork();
+        Map<UUID, Map<String, HomeData>> expired = network != null ? expireShared(network, now) : expireLocal(now);
+        if (expired.isEmpty()) return;
+        plugin.getStorage().flush();
+
+        plugin.getTaskScheduler().runGlobal(() -> {
+            boolean noticesChanged = false;
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : expired.entrySet()) {
+                UUID owner = entry.getKey();
+                for (Map.Entry<String, HomeData> home : entry.getValue().entrySet()) {
+                    plugin.getServer().getPluginManager().callEvent(
+                            HomeDeleteEvent.expired(new HomeSnapshot(owner, home.getKey(), home.getValue())));
+                }
+                if (network != null) {
+                    network.publishInvalidation(owner);
+                }
+                List<String> homeNames = new ArrayList<>(entry.getValue().keySet());
+                Player player = Bukkit.getPlayer(owner);
+                if (player != null) {
+                    plugin.getTaskScheduler().runFor(player, () -> {
+                        for (String homeName : homeNames) {
+                            player.sendMessage(plugin.getMessage(player, "home.expired").replace("{home}", homeName));
+                        }
+                    });
+                } else if (network != null) {
+                    // The owner may join any server next
+                    plugin.getTaskScheduler().runAsync(() -> network.getStorage().addExpiredNotices(owner, homeNames));
+                } else {
+                    // Lists are replaced, not changed, as an async save may be reading them
+                    notices.merge(owner, homeNames, (old, added) -> {
+                        List<String> merged = new ArrayList<>(old);
+                        merged.addAll(added);
+                        return merged;
+                    });
+                    noticesChanged = true;
+                }
+            }
+            if (noticesChanged) {
+                saveNoticesAsync();
+            }
+        });
+    }
+
+    private Map<UUID, Map<String, HomeData>> expireLocal(long now) {
+        Map<UUID, Map<String, HomeData>> expired = new LinkedHashMap<>();
+        Entry next;
+        while ((next = index.pollFirst()) != null) {
+            if (next.expiresAt > now) {
+                index.add(next); // not due yet, and neither is anything after it
+                break;
+            }
+            Map<String, HomeData> playerHomes = plugin.getHomes().get(next.owner);
+            if (playerHomes != null && HomeData.removeIfSame(playerHomes, next.homeName, next.home)) {
+                expired.computeIfAbsent(next.owner, uuid -> new LinkedHashMap<>()).put(next.homeName, next.home);
+            }
+        }
+        for (UUID owner : expired.keySet()) {
+            // Emptied maps stay, as after /delhome: removing them here could drop a home set meanwhile
+            plugin.getWorldCounts().invalidate(owner);
+            plugin.getNameMatcher().invalidate(owner);
+            plugin.stagePlayerHomes(owner);
+        }
+        return expired;
+    }
+
+    private Map<UUID, Map<String, HomeData>> expireShared(NetworkManager network, long now) {
+        Map<UUID, Map<String, HomeData>> expired = network.getStorage().takeExpired(now);
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : expired.entrySet()) {
+            UUID owner = entry.getKey();
+            // Already deleted in the shared storage; a cached copy would bring them back with the player's next write
+            Map<String, HomeData> cached = plugin.getHomes().get(owner);
+            if (cached == null) continue;
+            for (Map.Entry<String, HomeData> home : entry.getValue().entrySet()) {
+                HomeData.removeIfSame(cached, home.getKey(), home.getValue());
+            }
+            plugin.getWorldCounts().invalidate(owner);
+            plugin.getNameMatcher().invalidate(owner);
+            plugin.stagePlayerHomes(owner);
+        }
+        return expired;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        NetworkManager network = plugin.getNetwork();
+        if (network != null) {
+            plugin.getTaskScheduler().runAsync(() -> {
+                List<String> expired = network.getStorage().takeExpiredNotices(player.getUniqueId());
+                if (expired.isEmpty()) return;
+                plugin.getTaskScheduler().runFor(player, () -> player.sendMessage(plugin.getMessage(player,
+                        "home.expired_offline").replace("{homes}", String.join(", ", expired))));
+            });
+            return;
+        }
+        List<String> expired = notices.remove(player.getUniqueId());
+        if (expired == null) return;
+        player.sendMessage(plugin.getMessage(player, "home.expired_offline").replace("{homes}", String.join(", ", expired)));
+        saveNoticesAsync();
+    }
+
+    private void saveNoticesAsync() {
+        plugin.getTaskScheduler().runAsync(this::saveNotices);
+    }
+
+    /**
+     * Writes the current notices. Every call writes the latest state, so overlapping saves cannot go backwards.
+     */
+    public synchronized void saveNotices() {
+        YamlConfiguration config = new YamlConfiguration();
+        for (Map.Entry<UUID, List<String>> entry : notices.entrySet()) {
+            config.set(entry.getKey().toString(), new ArrayList<>(entry.getValue()));
+        }
+        try {
+            YamlHomeStorage.writeAtomically(noticeFile.toPath(), config.saveToString());
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Could not save expired-homes.yml", e);
+        }
+    }
+
+    private static class Entry implements Comparable<Entry> {
+        final long expiresAt;
+        final UUID owner;
+        final String homeName;
+        final HomeData home;
+        final long sequence;
+
+        Entry(long expiresAt, UUID owner, String homeName, HomeData home, long sequence) {
+            this.expiresAt = expiresAt;
+            this.owner = owner;
+            this.homeName = homeName;
+            this.home = home;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = Long.compare(expiresAt, other.expiresAt);
+            if (result == 0) result = owner.compareTo(other.owner);
+            if (result == 0) result = homeName.compareTo(other.homeName);
+            if (result == 0) result = Long.compare(sequence, other.sequence);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeExportFormat;
+import com.user404_.infinitehomes.network.NetworkManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes homes to a CSV, JSON Lines or GeoJSON file on an async task. Homes are read straight from
+ * the concurrent home map and encoded one at a time into a fixed buffer that is drained to a file
+ * channel (through gzip if requested), so memory use does not grow with the number of homes.
+ * The file is written under a temporary name and moved into place when complete.
+ */
+public class HomeExporter {
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    private static final String CSV_HEADER = "owner,owner_name,home,world,x,y,z,yaw,pitch,icon,access,category,"
+            + "server,expires_at,last_used,use_count\n";
+
+    /**
+     * Which homes to export. Called off the main thread.
+     */
+    @FunctionalInterface
+    public interface Filter {
+        boolean test(UUID owner, String homeName, HomeData home);
+    }
+
+    /**
+     * Outcome of a finished export.
+     */
+    public static final class Result {
+        private final Path file;
+        private final long homes;
+        private final long bytes;
+        private final long fileSize;
+        private final long millis;
+
+        Result(Path file, long homes, long bytes, long fileSize, long millis) {
+            this.file = file;
+            this.homes = homes;
+            this.bytes = bytes;
+            this.fileSize = fileSize;
+            this.millis = millis;
+        }
+
+        public Path getFile() { return file; }
+        public long getHomes() { return homes; }
+        /** Bytes of text written, before compression. */
+        public long getBytes() { return bytes; }
+        public long getFileSize() { return fileSize; }
+        public long getMillis() { return millis; }
+
+        public long getHomesPerSecond() {
+            return homes * 1000 / Math.max(1, millis);
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(1, millis) / 1000.0;
+            return homes + " homes to " + file.getFileName() + " (" + (fileSize / 1024) + " KiB) in " + millis
+                    + " ms, " + getHomesPerSecond() + " homes/s, "
+                    + String.format("%.1f", bytes / 1048576.0 / seconds) + " MiB/s";
+        }
+    }
+
+    private final InfiniteHomes plugin;
+    private final HomeExportFormat format;
+    private final Path target;
+    private final boolean gzip;
+    private final Filter filter;
+    private final Consumer<String> progress; // may be null
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder record = new StringBuilder(256);
+    private WritableByteChannel channel;
+    private long homes;
+    private long bytes;
+    private long lastReport;
+
+    public HomeExporter(InfiniteHomes plugin, HomeExportFormat format, Path target, boolean gzip,
+                        Filter filter, Consumer<String> progress) {
+        this.plugin = plugin;
+        this.format = format;
+        this.target = target;
+        this.gzip = gzip;
+        this.filter = filter;
+        this.progress = progress;
+    }
+
+    /**
+     * Starts the export asynchronously. Returns null if another export is still running.
+     * The future completes off the main thread.
+     */
+    public CompletableFuture<Result> start() {
+        if (!RUNNING.compareAndSet(false, true)) return null;
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        plugin.getTaskScheduler().runAsync(() -> {
+            try {
+                future.complete(run());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                RUNNING.set(false);
+            }
+        });
+        return future;
+    }
+
+    private Result run() throws IOException {
+        long started = System.currentTimeMillis();
+        lastReport = started;
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = gzip ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE)) : file;
+            try {
+                writeHeader();
+                // In network mode the shared storage is the complete data set, read one player at a time
+                NetworkManager network = plugin.getNetwork();
+                if (network != null) {
+                    try {
+                        network.forEachPlayer((owner, playerHomes) -> {
+                            try {
+                                writePlayer(owner, playerHomes);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                } else {
+                    for (Map.Entry<UUID, Map<String, HomeData>> player : plugin.getHomes().entrySet()) {
+                        writePlayer(player.getKey(), player.getValue());
+                    }
+                }
+                writeFooter();
+                drain();
+            } finally {
+                channel.close(); // finishes the gzip trailer
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        return new Result(target, homes, bytes, Files.size(target), System.currentTimeMillis() - started);
+    }
+
+    private void writePlayer(UUID owner, Map<String, HomeData> playerHomes) throws IOException {
+        String ownerName = plugin.getPlayerIndex().getName(owner);
+        for (Map.Entry<String, HomeData> home : playerHomes.entrySet()) {
+            if (filter != null && !filter.test(owner, home.getKey(), home.getValue())) continue;
+            writeHome(owner, ownerName, home.getKey(), home.getValue());
+            homes++;
+        }
+        long now = System.currentTimeMillis();
+        if (progress != null && now - lastReport >= PROGRESS_INTERVAL_MS) {
+            lastReport = now;
+            progress.accept("§7Export: " + homes + " homes written...");
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (format == HomeExportFormat.CSV) {
+            record.append(CSV_HEADER);
+        } else if (format == HomeExportFormat.GEOJSON) {
+            record.append("{\"type\":\"FeatureCollection\",\"features\":[\n");
+        }
+        flushRecord();
+    }
+
+    private void writeFooter() throws IOException {
+        if (format == HomeExportFormat.GEOJSON) {
+            record.append(homes > 0 ? "\n]}\n" : "]}\n");
+            flushRecord();
+        }
+    }
+
+    private void writeHome(UUID owner, String ownerName, String name, HomeData home) throws IOException {
+        switch (format) {
+            case CSV:
+                csv(owner.toString()).append(',');
+                csv(ownerName).append(',');
+                csv(name).append(',');
+                csv(home.getWorldName()).append(',');
+                record.append(home.getX()).append(',').append(home.getY()).append(',').append(home.getZ()).append(',')
+                        .append(home.getYaw()).append(',').append(home.getPitch()).append(',')
+                        .append(home.getIcon().name()).append(',')
+                        .append(home.getAccess().name()).append(',');
+                csv(home.getCategory()).append(',');
+                csv(home.getServer()).append(',');
+                record.append(home.getExpiresAt()).append(',').append(home.getLastUsed()).append(',')
+                        .append(home.getUseCount()).append('\n');
+                break;
+            case JSON_LINES:
+                record.append('{');
+                properties(owner, ownerName, name, home);
+                record.append(",\"x\":").append(home.getX())
+                        .append(",\"y\":").append(home.getY())
+                        .append(",\"z\":").append(home.getZ())
+                        .append("}\n");
+                break;
+            case GEOJSON:
+                if (homes > 0) record.append(",\n");
+                record.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[")
+                        .append(home.getX()).append(',').append(home.getZ()).append(',').append(home.getY())
+                        .append("]},\"properties\":{");
+                properties(owner, ownerName, name, home);
+                record.append("}}");
+                break;
+        }
+        flushRecord();
+    }
+
+    private void properties(UUID owner, String ownerName, String name, HomeData home) {
+        record.append("\"owner\":\"").append(owner).append('"');
+        record.append(",\"owner_name\":");
+        json(ownerName);
+        record.append(",\"home\":");
+        json(name);
+        record.append(",\"world\":");
+        json(home.getWorldName());
+        record.append(",\"yaw\":").append(home.getYaw())
+                .append(",\"pitch\":").append(home.getPitch())
+                .append(",\"icon\":\"").append(home.getIcon().name()).append('"')
+                .append(",\"access\":\"").append(home.getAccess().name()).append('"');
+        record.append(",\"category\":");
+        json(home.getCategory());
+        record.append(",\"server\":");
+        json(home.getServer());
+        record.append(",\"expires_at\":").append(home.getExpiresAt())
+                .append(",\"last_used\":").append(home.getLastUsed())
+                .append(",\"use_count\":").append(home.getUseCount());
+    }
+
+    private StringBuilder csv(String value) {
+        if (value == null) return record;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return record.append(value);
+        }
+        return record.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private void json(String value) {
+        if (value == null) {
+            record.append("null");
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': record.append("\\\""); break;
+                case '\\': record.append("\\\\"); break;
+                case '\n': record.append("\\n"); break;
+                case '\r': record.append("\\r"); break;
+                case '\t': record.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        record.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        record.append(c);
+                    }
+            }
+        }
+        record.append('"');
+    }
+
+    /**
+     * Moves the current record into the buffer, draining the buffer to the channel whenever it is full.
+     */
+    private void flushRecord() throws IOException {
+        byte[] encoded = record.toString().getBytes(StandardCharsets.UTF_8);
+        record.setLength(0);
+        bytes += encoded.length;
+        int offset = 0;
+        while (offset < encoded.length) {
+            if (!buffer.hasRemaining()) drain();
+            int length = Math.min(buffer.remaining(), encoded.length - offset);
+            buffer.put(encoded, offset, length);
+            offset += length;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicate over stored homes, built from admin command tokens like
+ * {@code world:<name>}, {@code region:<x1>,<z1>,<x2>,<z2>}, {@code inactive:<days>}, {@code unused:<days>},
+ * {@code created:<days>} (set within the last days), {@code icon:<material>} and {@code player:<name>}.
+ * All criteria must match. Safe to evaluate off the main thread.
+ */
+public class HomeFilter {
+    private final List<Criterion> criteria = new ArrayList<>();
+    private final List<String> description = new ArrayList<>();
+
+    /**
+     * Adds the criterion described by the token. Returns false if the token is not a filter.
+     *
+     * @throws IllegalArgumentException if the token is a filter with an invalid value
+     */
+    public boolean parse(String token, PlayerIndex playerIndex) {
+        int colon = token.indexOf(':');
+        if (colon <= 0) return false;
+        String key = token.substring(0, colon).toLowerCase();
+        String value = token.substring(colon + 1);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing value for filter '" + key + "'.");
+        }
+
+        switch (key) {
+            case "world":
+                // By name, so homes in worlds that are not loaded (any more) can be found too
+                criteria.add((owner, name, data) -> data.getWorldName().equalsIgnoreCase(value));
+                break;
+            case "region": {
+                String[] parts = value.split(",");
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException("Region must be <x1>,<z1>,<x2>,<z2>.");
+                }
+                int x1, z1, x2, z2;
+                try {
+                    x1 = Integer.parseInt(parts[0]);
+                    z1 = Integer.parseInt(parts[1]);
+                    x2 = Integer.parseInt(parts[2]);
+                    z2 = Integer.parseInt(parts[3]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Region coordinates must be whole numbers.");
+                }
+                int minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+                int minZ = Math.min(z1, z2), maxZ = Math.max(z1, z2);
+                criteria.add((owner, name, data) -> {
+                    int blockX = (int) Math.floor(data.getX());
+                    int blockZ = (int) Math.floor(data.getZ());
+                    return blockX >= minX && blockX <= maxX && blockZ >= minZ && blockZ <= maxZ;
+                });
+                break;
+            }
+            case "inactive": {
+                long days = parseDays(value);
+                long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+                // Players the index has never seen are left alone
+                criteria.add((owner, name, data) -> {
+                    long lastSeen = playerIndex.getLastSeen(owner);
+                    return lastSeen > 0 && lastSeen < cutoff;
+                });
+                break;
+            }
+            case "unused": {
+                long days = parseDays(value);
+                long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+                // Never used: counted from creation, and homes without a creation time match as well
+                criteria.add((owner, name, data) ->
+                        (data.getLastUsed() > 0 ? data.getLastUsed() : data.getCreatedAt()) < cutoff);
+                break;
+            }
+            case "created": {
+                // Homes from before creation tracking (0) never match
+                long days = parseDays(value);
+                long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+                criteria.add((owner, name, data) -> data.getCreatedAt() >= cutoff);
+                break;
+            }
+            case "icon": {
+                Material icon = Material.matchMaterial(value);
+                if (icon == null) {
+                    throw new IllegalArgumentException("Unknown material '" + value + "'.");
+                }
+                criteria.add((owner, name, data) -> data.getIcon() == icon);
+                break;
+            }
+            case "player": {
+                UUID player = playerIndex.getUuid(value);
+                if (player == null) {
+                    throw new IllegalArgumentException("Unknown player '" + value + "'.");
+                }
+                criteria.add((owner, name, data) -> owner.equals(player));
+                break;
+            }
+            default:
+                return false;
+        }
+        description.add(key + "=" + value);
+        return true;
+    }
+
+    static long parseDays(String value) {
+        try {
+            long days = Long.parseLong(value);
+            if (days < 0) throw new NumberFormatException();
+            return days;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Days must be a positive whole number.");
+        }
+    }
+
+    public boolean isEmpty() {
+        return criteria.isEmpty();
+    }
+
+    public boolean test(UUID owner, String homeName, HomeData data) {
+        for (Criterion criterion : criteria) {
+            if (!criterion.test(owner, homeName, data)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return description.isEmpty() ? "all homes" : String.join(", ", description);
+    }
+
+    @FunctionalInterface
+    private interface Criterion {
+        boolean test(UUID owner, String homeName, HomeData data);
+    }
+}
@@ -0,0 +1,272 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.network.NetworkManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Imports homes from another plugin's per-player data files. Files are parsed in parallel into
+ * in-memory {@link HomeData}, merged into the home map without overwriting existing homes
+ * (unless requested) and written to storage in a single flush.
+ */
+public class HomeImporter implements Runnable {
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+    private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+    /**
+     * A foreign data format. Implementations must be thread-safe, files are read concurrently.
+     */
+    public interface Format {
+        /** Player UUID the file belongs to, or null if the file should be skipped. */
+        UUID owner(Path file);
+
+        /** Reads all homes of one file. Returns the player's last known name, or null. */
+        String read(Path file, Map<String, World> worlds, Map<String, HomeData> into, HomeImporter importer);
+    }
+
+    /**
+     * EssentialsX userdata/&lt;uuid&gt;.yml. Newer versions store the world UUID in "world" and
+     * the name in "world-name", older ones only the name.
+     */
+    public static final Format ESSENTIALS = new Format() {
+        @Override
+        public UUID owner(Path file) {
+            String fileName = file.getFileName().toString();
+            try {
+                return UUID.fromString(fileName.substring(0, fileName.length() - ".yml".length()));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String read(Path file, Map<String, World> worlds, Map<String, HomeData> into, HomeImporter importer) {
+            YamlConfiguration config = YamlConfiguration.loadConfiguration(file.toFile());
+            ConfigurationSection section = config.getConfigurationSection("homes");
+            if (section != null) {
+                for (String homeName : section.getKeys(false)) {
+                    ConfigurationSection home = section.getConfigurationSection(homeName);
+                    if (home == null) {
+                        importer.skip("malformed entry");
+                        continue;
+                    }
+                    if (homeName.length() > HomeData.MAX_NAME_LENGTH) {
+                        importer.skip("name too long");
+                        continue;
+                    }
+                    if (homeName.indexOf(':') >= 0) {
+                        importer.skip("':' in name");
+                        continue;
+                    }
+                    World world = worlds.get(home.getString("world", "").toLowerCase());
+                    if (world == null) {
+                        world = worlds.get(home.getString("world-name", "").toLowerCase());
+                    }
+                    if (world == null) {
+                        importer.skip("unknown world");
+                        continue;
+                    }
+                    Location location = new Location(world, home.getDouble("x"), home.getDouble("y"), home.getDouble("z"),
+                            (float) home.getDouble("yaw"), (float) home.getDouble("pitch"));
+                    if (into.putIfAbsent(homeName.toLowerCase(), new HomeData(location, Material.RED_BED)) != null) {
+                        importer.duplicate();
+                    }
+                }
+            }
+            return config.getString("last-account-name");
+        }
+    };
+
+    private final InfiniteHomes plugin;
+    private final CommandSender sender;
+    private final Format format;
+    private final Path directory;
+    private final boolean overwrite;
+    private final boolean dryRun;
+    // World names and UUIDs (lower-case) -> world, resolved once on the main thread
+    private final Map<String, World> worlds = new HashMap<>();
+
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong read = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final Map<String, AtomicLong> skipped = new ConcurrentHashMap<>();
+    private final AtomicLong lastReport = new AtomicLong();
+    // Players that got at least one home, published to the other servers after the flush in network mode
+    private final Set<UUID> changed = new HashSet<>();
+
+    public HomeImporter(InfiniteHomes plugin, CommandSender sender, Format format, Path directory,
+                        boolean overwrite, boolean dryRun) {
+        this.plugin = plugin;
+        this.sender = sender;
+        this.format = format;
+        this.directory = directory;
+        this.overwrite = overwrite;
+        this.dryRun = dryRun;
+        for (World world : Bukkit.getWorlds()) {
+            worlds.put(world.getName().toLowerCase(), world);
+            worlds.put(world.getUID().toString(), world);
+        }
+    }
+
+    /**
+     * Starts the import asynchronously. Returns false if another import is still running.
+     */
+    public boolean start() {
+        if (!RUNNING.compareAndSet(false, true)) return false;
+        plugin.getTaskScheduler().runAsync(this);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        long started = System.currentTimeMillis();
+        lastReport.set(started);
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            List<Path> paths = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.yml")) {
+                for (Path path : stream) {
+                    paths.add(path);
+                }
+            }
+
+            Map<UUID, Map<String, HomeData>> imported = new ConcurrentHashMap<>();
+            pool.submit(() -> paths.parallelStream().forEach(path -> readFile(path, imported))).get();
+            long parsed = System.currentTimeMillis() - started;
+
+            long added = merge(imported);
+            if (!dryRun && added > 0) {
+                plugin.getStorage().flush();
+                NetworkManager network = plugin.getNetwork();
+                if (network != null) {
+                    plugin.getTaskScheduler().runGlobal(() -> changed.forEach(network::publishInvalidation));
+                }
+            }
+
+            long took = System.currentTimeMillis() - started;
+            report("§a" + (dryRun ? "[Dry run] " : "") + "Imported " + added + " homes for " + imported.size()
+                    + " players from " + files.get() + " files (parsed in " + parsed + " ms, total " + took + " ms).");
+            report("§7Duplicates: " + duplicates.get() + ", skipped: " + describeSkipped());
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Home import from " + directory + " failed", e);
+            report("§cImport failed: " + e.getMessage());
+        } finally {
+            pool.shutdown();
+            RUNNING.set(false);
+        }
+    }
+
+    private void readFile(Path path, Map<UUID, Map<String, HomeData>> imported) {
+        UUID owner = format.owner(path);
+        if (owner == null) {
+            skip("unrecognised file name");
+        } else {
+            try {
+                Map<String, HomeData> playerHomes = new HashMap<>();
+                String name = format.read(path, worlds, playerHomes, this);
+                if (!playerHomes.isEmpty()) {
+                    read.addAndGet(playerHomes.size());
+                    imported.put(owner, playerHomes);
+                }
+                if (name != null && !dryRun) {
+                    plugin.getPlayerIndex().recordIfUnknown(owner, name);
+                }
+            } catch (Exception e) {
+                skip("unreadable file");
+                plugin.getLogger().warning("Could not import " + path.getFileName() + ": " + e.getMessage());
+            }
+        }
+
+        long count = files.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long last = lastReport.get();
+        if (now - last >= PROGRESS_INTERVAL_MS && lastReport.compareAndSet(last, now)) {
+            report("§7Import: " + count + " files read, " + read.get() + " homes found...");
+        }
+    }
+
+    private long merge(Map<UUID, Map<String, HomeData>> imported) {
+        long added = 0;
+        Map<UUID, Map<String, HomeData>> homes = plugin.getHomes();
+        // In network mode this server only caches some players; the others are merged into their stored homes
+        NetworkManager network = plugin.getNetwork();
+        for (Map.Entry<UUID, Map<String, HomeData>> playerEntry : imported.entrySet()) {
+            if (dryRun) {
+                Map<String, HomeData> existing = network != null ? network.homesToChange(playerEntry.getKey())
+                        : homes.getOrDefault(playerEntry.getKey(), Collections.emptyMap());
+                for (String homeName : playerEntry.getValue().keySet()) {
+                    if (existing.containsKey(homeName)) {
+                        duplicates.incrementAndGet();
+                        if (overwrite) added++;
+                    } else {
+                        added++;
+                    }
+                }
+                continue;
+            }
+
+            Map<String, HomeData> playerHomes = network != null ? network.homesToChange(playerEntry.getKey())
+                    : homes.computeIfAbsent(playerEntry.getKey(), uuid -> new ConcurrentHashMap<>());
+            long addedBefore = added;
+            for (Map.Entry<String, HomeData> homeEntry : playerEntry.getValue().entrySet()) {
+                if (overwrite) {
+                    if (playerHomes.put(homeEntry.getKey(), homeEntry.getValue()) != null) {
+                        duplicates.incrementAndGet();
+                    }
+                    added++;
+                } else if (playerHomes.putIfAbsent(homeEntry.getKey(), homeEntry.getValue()) == null) {
+                    added++;
+                } else {
+                    duplicates.incrementAndGet();
+                }
+            }
+            if (added == addedBefore) continue;
+            changed.add(playerEntry.getKey());
+            plugin.getWorldCounts().invalidate(playerEntry.getKey());
+            plugin.getNameMatcher().invalidate(playerEntry.getKey());
+            if (network != null) {
+                network.stage(playerEntry.getKey(), playerHomes);
+            } else {
+                plugin.stagePlayerHomes(playerEntry.getKey());
+            }
+        }
+        return added;
+    }
+
+    void duplicate() {
+        duplicates.incrementAndGet();
+    }
+
+    void skip(String reason) {
+        skipped.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+    }
+
+    private String describeSkipped() {
+        if (skipped.isEmpty()) return "0";
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, AtomicLong> entry : skipped.entrySet()) {
+            if (builder.length() > 0) builder.append(", ");
+            builder.append(entry.getValue().get()).append(" (").append(entry.getKey()).append(")");
+        }
+        return builder.toString();
+    }
+
+    private void report(String message) {
+        plugin.getTaskScheduler().runForSender(sender, () -> sender.sendMessage(message));
+    }
+}
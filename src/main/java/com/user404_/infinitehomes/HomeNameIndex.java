@@ -0,0 +1,54 @@
+package com.user404_.infinitehomes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sorted home names per player, so listing a page only touches the names on that page.
+ * An entry is built on first use and dropped whenever the player's homes are staged for saving,
+ * which every change to a player's homes goes through.
+ */
+public class HomeNameIndex {
+    private static final String[] EMPTY = new String[0];
+
+    private final Map<UUID, String[]> sorted = new ConcurrentHashMap<>();
+
+    /**
+     * The player's home names in alphabetical order. Do not modify the returned array.
+     */
+    public String[] get(UUID owner, Map<String, HomeData> homes) {
+        if (homes == null || homes.isEmpty()) return EMPTY;
+        return sorted.computeIfAbsent(owner, uuid -> {
+            String[] names = homes.keySet().toArray(new String[0]);
+            Arrays.sort(names);
+            return names;
+        });
+    }
+
+    public void invalidate(UUID owner) {
+        sorted.remove(owner);
+    }
+
+    public void clear() {
+        sorted.clear();
+    }
+
+    /**
+     * Index of the first name that is not smaller than {@code prefix}.
+     */
+    public static int lowerBound(String[] names, String prefix) {
+        int index = Arrays.binarySearch(names, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Index after the last name starting with {@code prefix}, searching from {@code from}.
+     */
+    public static int prefixEnd(String[] names, String prefix, int from) {
+        // Every name with the prefix sorts before prefix + the highest char
+        int index = Arrays.binarySearch(names, from, names.length, prefix + Character.MAX_VALUE);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,174 @@
+package com.user404_.infinitehomes;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Did you mean" lookups over each player's home names by Levenshtein distance. Every player gets a
+ * trie of their names, built on their first mistyped name and then kept up to date by sethome,
+ * delete and GUI creation. Deleted names leave their nodes behind until most of the trie is unused.
+ * Bulk changes (expiry, /homebulk, imports, network reloads) drop the player's trie instead, so it is
+ * rebuilt once.
+ */
+public class HomeNameMatcher {
+    public static final int MAX_SUGGESTIONS = 5;
+
+    private final Map<UUID, Tree> trees = new ConcurrentHashMap<>();
+
+    /**
+     * A home name close to the typed one.
+     */
+    public static final class Match {
+        private final String name;
+        private final int distance;
+
+        Match(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+
+        public String getName() { return name; }
+        /** Number of inserted, deleted or replaced characters between the typed name and this one. */
+        public int getDistance() { return distance; }
+    }
+
+    /**
+     * Existing homes within a few typos of {@code name}, closest first, at most {@link #MAX_SUGGESTIONS}.
+     * One typo is allowed for names of up to four characters, two for longer ones.
+     */
+    public List<Match> suggest(UUID owner, String name, Map<String, HomeData> homes) {
+        if (homes == null || homes.isEmpty()) return Collections.emptyList();
+        Tree tree = trees.computeIfAbsent(owner, uuid -> {
+            Tree built = new Tree();
+            for (String home : homes.keySet()) {
+                built.add(home);
+            }
+            return built;
+        });
+        List<Match> matches = tree.search(name, name.length() <= 4 ? 1 : 2);
+        // The tree may briefly lag behind the map, e.g. while a bulk change is applied
+        matches.removeIf(match -> !homes.containsKey(match.name));
+        matches.sort(Comparator.comparingInt((Match match) -> match.distance).thenComparing(match -> match.name));
+        return matches.size() > MAX_SUGGESTIONS ? new ArrayList<>(matches.subList(0, MAX_SUGGESTIONS)) : matches;
+    }
+
+    public void added(UUID owner, String name) {
+        Tree tree = trees.get(owner);
+        if (tree != null) tree.add(name);
+    }
+
+    public void removed(UUID owner, String name) {
+        Tree tree = trees.get(owner);
+        if (tree != null && tree.remove(name)) {
+            trees.remove(owner, tree); // mostly unused nodes now, rebuild on the next lookup
+        }
+    }
+
+    public void invalidate(UUID owner) {
+        trees.remove(owner);
+    }
+
+    public void clear() {
+        trees.clear();
+    }
+
+    /**
+     * Trie of the names in parallel arrays: every node holds one character and links to its first child
+     * and its next sibling. A lookup walks the trie with one row of the edit distance table per depth, so
+     * names sharing a prefix share the work, and leaves a branch as soon as every entry of its row is
+     * above the allowed distance.
+     */
+    private static final class Tree {
+        private char[] labels = new char[64];
+        private int[] firstChild = new int[64];
+        private int[] nextSibling = new int[64];
+        private String[] words = new String[64]; // name ending at the node, null if none or deleted
+        private int size = 1; // node 0 is the root
+        private int live;
+        private int dead;
+
+        Tree() {
+            firstChild[0] = -1;
+            nextSibling[0] = -1;
+        }
+
+        synchronized void add(String word) {
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                int child = firstChild[node];
+                while (child >= 0 && labels[child] != c) child = nextSibling[child];
+                if (child < 0) {
+                    if (size == labels.length) grow();
+                    child = size++;
+                    labels[child] = c;
+                    firstChild[child] = -1;
+                    nextSibling[child] = firstChild[node];
+                    firstChild[node] = child;
+                }
+                node = child;
+            }
+            if (words[node] == null) {
+                words[node] = word;
+                live++;
+            }
+        }
+
+        /**
+         * Drops the word; its nodes stay. Returns true once most words in the trie were deleted.
+         */
+        synchronized boolean remove(String word) {
+            int node = 0;
+            for (int i = 0; i < word.length() && node >= 0; i++) {
+                char c = word.charAt(i);
+                int child = firstChild[node];
+                while (child >= 0 && labels[child] != c) child = nextSibling[child];
+                node = child;
+            }
+            if (node >= 0 && words[node] != null) {
+                words[node] = null;
+                live--;
+                dead++;
+            }
+            return dead > 16 && dead > live;
+        }
+
+        synchronized List<Match> search(String word, int maxDistance) {
+            List<Match> matches = new ArrayList<>();
+            int[] first = new int[word.length() + 1];
+            for (int j = 0; j < first.length; j++) first[j] = j;
+            for (int child = firstChild[0]; child >= 0; child = nextSibling[child]) {
+                visit(child, word, first, maxDistance, matches);
+            }
+            return matches;
+        }
+
+        private void visit(int node, String word, int[] previous, int maxDistance, List<Match> matches) {
+            int columns = previous.length;
+            int[] row = new int[columns];
+            row[0] = previous[0] + 1;
+            int rowMin = row[0];
+            char c = labels[node];
+            for (int j = 1; j < columns; j++) {
+                int substitute = previous[j - 1] + (word.charAt(j - 1) == c ? 0 : 1);
+                row[j] = Math.min(substitute, Math.min(previous[j], row[j - 1]) + 1);
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (words[node] != null && row[columns - 1] <= maxDistance) {
+                matches.add(new Match(words[node], row[columns - 1]));
+            }
+            if (rowMin > maxDistance) return; // rows never get smaller further down
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                visit(child, word, row, maxDistance, matches);
+            }
+        }
+
+        private void grow() {
+            int capacity = labels.length * 2;
+            labels = Arrays.copyOf(labels, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.user404_.infinitehomes;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Number of homes per player and world, for per-world home caps. A player's counts are built on
+ * first use and then kept up to date by sethome, delete and GUI creation. Bulk changes (expiry,
+ * /homebulk, imports, network reloads) drop the player's counts instead, so they are rebuilt once.
+ */
+public class HomeWorldCounts {
+    private final Map<UUID, Map<String, Integer>> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Homes the player has in the given world. Call on the main thread.
+     */
+    public int get(UUID owner, String worldName, Map<String, HomeData> homes) {
+        if (homes == null || homes.isEmpty()) return 0;
+        Map<String, Integer> perWorld = counts.computeIfAbsent(owner, uuid -> {
+            Map<String, Integer> built = new ConcurrentHashMap<>();
+            for (HomeData home : homes.values()) {
+                built.merge(home.getWorldName(), 1, Integer::sum);
+            }
+            return built;
+        });
+        return perWorld.getOrDefault(worldName, 0);
+    }
+
+    /**
+     * Records that {@code previous} (null for a new name) was replaced by {@code current}
+     * (null for a deletion). Call on the main thread after the home map was changed.
+     */
+    public void replaced(UUID owner, HomeData previous, HomeData current) {
+        Map<String, Integer> perWorld = counts.get(owner);
+        if (perWorld == null) return; // not built yet; the next get() counts the current homes
+        if (previous != null) {
+            perWorld.computeIfPresent(previous.getWorldName(), (world, count) -> count > 1 ? count - 1 : null);
+        }
+        if (current != null) {
+            perWorld.merge(current.getWorldName(), 1, Integer::sum);
+        }
+    }
+
+    public void invalidate(UUID owner) {
+        counts.remove(owner);
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+}
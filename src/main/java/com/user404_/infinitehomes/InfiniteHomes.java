@@ -1,18 +1,41 @@
 package com.user404_.infinitehomes;
 
+import com.user404_.infinitehomes.api.HomeAccess;
+import com.user404_.infinitehomes.api.HomeDeleteEvent;
+import com.user404_.infinitehomes.api.HomeExportFormat;
+import com.user404_.infinitehomes.api.HomeSetEvent;
+import com.user404_.infinitehomes.api.HomeSnapshot;
+import com.user404_.infinitehomes.api.HomesService;
+import com.user404_.infinitehomes.gui.AdminHomeBrowserGUI;
 import com.user404_.infinitehomes.gui.GUIListener;
+import com.user404_.infinitehomes.gui.HomeDirectoryGUI;
 import com.user404_.infinitehomes.gui.HomeListGUI;
+import com.user404_.infinitehomes.gui.IconCatalog;
+import com.user404_.infinitehomes.gui.TextPrompts;
+import com.user404_.infinitehomes.network.LocalMessageBus;
+import com.user404_.infinitehomes.network.MessageBus;
+import com.user404_.infinitehomes.network.NetworkManager;
+import com.user404_.infinitehomes.network.PluginMessageBus;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import com.user404_.infinitehomes.storage.*;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.hover.content.Text;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
@@ -20,38 +43,61 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 public class InfiniteHomes extends JavaPlugin implements TabCompleter {
+    private static final int HOMES_PER_PAGE = 10;
+    private static final Pattern CATEGORY = Pattern.compile("[a-z0-9_-]{1,24}");
 
-    private Map<UUID, Map<String, HomeData>> homes;
+    private TieredHomeMap homes;
+    private DeferredHomes deferredHomes;
     private Map<UUID, Long> cooldowns;
-    private FileConfiguration homesConfig;
-    private File homesFile;
-    private Map<String, FileConfiguration> translations;
+    private TaskScheduler taskScheduler;
+    private volatile HomeStorage storage; // swapped on the global thread, read by async saves
+    private BackupManager backupManager;
+    private volatile Map<String, FileConfiguration> translations;
     private File translationsDir;
     private GUIListener guiListener;
+    private TextPrompts textPrompts;
+    private IconCatalog iconCatalog;
     private TeleportManager teleportManager;   // NEW
+    private PlayerIndex playerIndex;
+    private SafeDestinationChecker safeDestinationChecker;
+    private volatile NetworkManager network;
+    private UsageTracker usageTracker;
+    private HomeExpiry homeExpiry;
+    private BackHistory backHistory;
+    private RateLimiter rateLimiter;
+    private volatile Settings settings;
+    private volatile FileConfiguration config; // config.yml as of the last reload, null before the first one
+    private final HomeNameIndex nameIndex = new HomeNameIndex();
+    private final HomeNameMatcher nameMatcher = new HomeNameMatcher();
+    private final HomeAccessIndex accessIndex = new HomeAccessIndex();
+    private final GlobalHomeIndex globalIndex = new GlobalHomeIndex(this);
+    private final HomeWorldCounts worldCounts = new HomeWorldCounts();
+    private WorldPolicies worldPolicies;
+    private final AtomicLong configVersion = new AtomicLong();
+    private long writtenConfigVersion;
 
     @Override
     public void onEnable() {
         // Register HomeData for serialization
         ConfigurationSerialization.registerClass(HomeData.class);
 
-        homes = new HashMap<>();
-        cooldowns = new HashMap<>();
-        translations = new HashMap<>();
+        taskScheduler = TaskScheduler.create(this);
+        homes = new TieredHomeMap(this);
+        cooldowns = new ConcurrentHashMap<>();
 
-        setupHomesConfig();
-        // Force a reload after registration just to be safe
-        try {
-            homesConfig.load(homesFile);
-        } catch (Exception e) {
-            getLogger().severe("Could not reload homes.yml");
-        }
-
-        loadHomesFromConfig();
         setupTranslations();
 
         // Standardkonfiguration erstellen, falls nicht vorhanden
@@ -60,20 +106,110 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         // NEW default values
         getConfig().addDefault("teleport-delay", -1);
         getConfig().addDefault("teleport-delay-cancel-on-move", true);
+        getConfig().addDefault("safe-teleport.enabled", true);
+        getConfig().addDefault("safe-teleport.find-nearest", true);
+        getConfig().addDefault("safe-teleport.search-radius", 4);
+        getConfig().addDefault("safe-teleport.block-budget", 1024);
+        getConfig().addDefault("safe-teleport.cache-ttl-seconds", 300);
+        getConfig().addDefault("backups.enabled", true);
+        getConfig().addDefault("backups.interval-minutes", 60);
+        getConfig().addDefault("backups.keep", 24);
+        getConfig().addDefault("backups.max-age-days", 7);
+        getConfig().addDefault("usage.flush-interval-seconds", 300);
+        getConfig().addDefault("expiry.check-interval-seconds", 30);
+        getConfig().addDefault("back.enabled", true);
+        getConfig().addDefault("back.history-size", 5);
+        getConfig().addDefault("back.record-deaths", true);
+        getConfig().addDefault("fuzzy-match.enabled", true);
+        getConfig().addDefault("fuzzy-match.auto-teleport", false);
+        getConfig().addDefault("cold-tier.enabled", true);
+        getConfig().addDefault("cold-tier.demote-after-seconds", 300);
+        getConfig().addDefault("gui.name-input", "chat");
+        getConfig().addDefault("gui.prompt-timeout-seconds", 30);
+        getConfig().addDefault("rate-limits.enabled", true);
+        for (RateLimiter.Action action : RateLimiter.Action.values()) {
+            RateLimiter.Limit limit = Settings.defaultLimit(action);
+            getConfig().addDefault("rate-limits." + action.getConfigKey() + ".capacity", limit.getCapacity());
+            getConfig().addDefault("rate-limits." + action.getConfigKey() + ".refill-per-second", limit.getRefillPerSecond());
+        }
+        getConfig().addDefault("network.enabled", false);
+        getConfig().addDefault("network.server-name", "");
+        getConfig().addDefault("network.storage", "sql");
+        getConfig().addDefault("network.message-bus", "plugin-message");
+        getConfig().addDefault("network.sql.url", "jdbc:mysql://localhost:3306/minecraft");
+        getConfig().addDefault("network.sql.user", "minecraft");
+        getConfig().addDefault("network.sql.password", "");
+        getConfig().addDefault("network.sql.table-prefix", "infinitehomes_");
+        getConfig().addDefault("network.shared-file.directory", "../shared-homes");
         getConfig().options().copyDefaults(true);
         saveConfig();
+        settings = Settings.load(getConfig(), getLogger());
+
+        // Token-Buckets gegen Spam von Befehlen, Klicks und Tab-Vervollständigung
+        rateLimiter = new RateLimiter(this);
+        getServer().getPluginManager().registerEvents(rateLimiter, this);
+
+        // Regeln pro Welt, als Tabelle nach Welt-UUID vorberechnet
+        worldPolicies = new WorldPolicies(getLogger());
+        worldPolicies.load(getConfig().getConfigurationSection("world-policies"), settings);
+        getServer().getPluginManager().registerEvents(worldPolicies, this);
+
+        // Temporary homes; created before the storage so network loads can register their homes
+        homeExpiry = new HomeExpiry(this);
+        homeExpiry.load();
+        deferredHomes = new DeferredHomes(this, homes);
+        getServer().getPluginManager().registerEvents(deferredHomes, this);
+        installStorage(openStorage(settings));
+        homeExpiry.rebuild();
+        accessIndex.rebuild(homes);
+        homeExpiry.start(settings.getExpiryCheckSeconds());
+        getServer().getPluginManager().registerEvents(homeExpiry, this);
+        getServer().getPluginManager().registerEvents(homes, this);
+
+        // Rotierende Backups von homes.yml
+        backupManager = new BackupManager(this, taskScheduler, new File(getDataFolder(), "homes.yml"), homes);
+        applyBackupSettings();
+
+        // Admin browser snapshot, dropped while nobody browses
+        taskScheduler.runAsyncTimer(globalIndex::dropIfIdle, 20L * 60, 20L * 60);
+
+        // Teleport counters per home, written out in batches
+        usageTracker = new UsageTracker(this);
+        usageTracker.start(settings.getUsageFlushSeconds());
 
         // TabCompleter registrieren
         getCommand("home").setTabCompleter(this);
         getCommand("delhome").setTabCompleter(this);
+        getCommand("homeadmin").setTabCompleter(this);
+        getCommand("homebrowse").setTabCompleter(this);
+        getCommand("homeshare").setTabCompleter(this);
+        getCommand("infinitehomes").setTabCompleter(this);
 
         // GUI Listener registrieren
         guiListener = new GUIListener(this);
         getServer().getPluginManager().registerEvents(guiListener, this);
+        // Icon picker pages are built once here instead of on every open
+        iconCatalog = new IconCatalog();
+        textPrompts = new TextPrompts(this);
+        getServer().getPluginManager().registerEvents(textPrompts, this);
 
         // NEW: TeleportManager registrieren
         teleportManager = new TeleportManager(this);
         getServer().getPluginManager().registerEvents(teleportManager, this);
+        safeDestinationChecker = new SafeDestinationChecker(this);
+        getServer().getPluginManager().registerEvents(safeDestinationChecker, this);
+        taskScheduler.runAsyncTimer(safeDestinationChecker::sweep, 20L * 60, 20L * 60);
+        backHistory = new BackHistory(this);
+        getServer().getPluginManager().registerEvents(backHistory, this);
+
+        // Name <-> UUID index for /homeadmin
+        playerIndex = new PlayerIndex(this);
+        playerIndex.load();
+        playerIndex.startAutoSave();
+        getServer().getPluginManager().registerEvents(playerIndex, this);
+
+        // Public API for other plugins
+        getServer().getServicesManager().register(HomesService.class, new InfiniteHomesService(this), this, ServicePriority.Normal);
 
         getLogger().info("InfiniteHomes plugin enabled!");
         getLogger().info("Please only use the official Version from User404/User404_/deutschich!");
@@ -82,17 +218,303 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        if (textPrompts != null) {
+            textPrompts.clear();
+        }
         saveHomesToConfig();
+        if (network != null) {
+            network.close();
+        }
+        if (playerIndex != null) {
+            playerIndex.save();
+        }
+        if (homeExpiry != null) {
+            homeExpiry.saveNotices();
+        }
         getLogger().info("InfiniteHomes plugin disabled!");
     }
 
+    /**
+     * A home storage opened off the main thread, ready for {@link #installStorage}.
+     */
+    private static final class OpenedStorage {
+        final HomeStorage storage;
+        final Map<UUID, Map<String, HomeData>> homes; // all homes of local storage, empty in network mode
+
+        OpenedStorage(HomeStorage storage, Map<UUID, Map<String, HomeData>> homes) {
+            this.storage = storage;
+            this.homes = homes;
+        }
+    }
+
+    /**
+     * Opens the storage the settings ask for and reads its homes. Blocks on files and the database.
+     */
+    private OpenedStorage openStorage(Settings settings) {
+        if (settings.isNetworkEnabled()) {
+            SharedHomeStorage sharedStorage;
+            if (settings.getNetworkStorage().equals("shared-file")) {
+                File directory = new File(getDataFolder(), settings.getSharedFileDirectory());
+                sharedStorage = new SharedFileHomeStorage(directory, getLogger());
+            } else {
+                sharedStorage = new SqlHomeStorage(settings.getSqlUrl(), settings.getSqlUser(), settings.getSqlPassword(),
+                        settings.getSqlTablePrefix(), getLogger(), new File(getDataFolder(), "quarantine.yml"));
+            }
+            return new OpenedStorage(sharedStorage, Collections.emptyMap());
+        }
+        YamlHomeStorage yamlStorage = new YamlHomeStorage(getDataFolder(), getLogger(), homes);
+        return new OpenedStorage(yamlStorage, yamlStorage.loadAll());
+    }
+
+    /**
+     * Makes an opened storage the live one and fills the home cache from it. Main/global thread.
+     */
+    private void installStorage(OpenedStorage opened) {
+        storage = opened.storage;
+        if (opened.storage instanceof SharedHomeStorage) {
+            deferredHomes.track(null);
+            setupNetwork((SharedHomeStorage) opened.storage);
+        } else {
+            homes.putAll(opened.homes);
+            deferredHomes.track(((YamlHomeStorage) opened.storage).getLastLoad());
+        }
+        applyColdTierSettings();
+    }
+
+    /**
+     * Offline players' homes are only packed off-heap with local storage; in network mode idle ones are dropped instead.
+     */
+    private void applyColdTierSettings() {
+        homes.setColdTier(network == null && settings.isColdTierEnabled(), settings.getColdTierDemoteSeconds());
+    }
+
+    private void applyBackupSettings() {
+        backupManager.setRetention(settings.getBackupKeep(), settings.getBackupMaxAgeDays());
+        backupManager.stopSchedule();
+        if (network == null && settings.isBackupsEnabled()) {
+            backupManager.startSchedule(settings.getBackupIntervalMinutes());
+        }
+    }
+
+    private void setupNetwork(SharedHomeStorage sharedStorage) {
+        String serverName = settings.getServerName();
+        if (serverName.isEmpty()) {
+            getLogger().warning("network.server-name is not set, homes cannot be matched to this server.");
+        }
+
+        MessageBus bus = settings.getMessageBus().equals("local")
+                ? new LocalMessageBus() : new PluginMessageBus(this);
+
+        network = new NetworkManager(this, serverName, sharedStorage, bus);
+        getServer().getPluginManager().registerEvents(network, this);
+        homes.setEvictIdle(network::evictIdle);
+
+        // After a reload players are already online: fill the cache for them
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            network.loadAsync(online.getUniqueId());
+        }
+        getLogger().info("Network mode enabled as server '" + serverName + "'.");
+    }
+
+    /**
+     * Re-reads config.yml and the translations off the main thread, then swaps in the new settings.
+     * The fresh config is only published on the global thread, so the live one is never replaced
+     * under code reading it. The home storage is only set up again if its settings changed.
+     */
+    private void reload(CommandSender sender) {
+        Configuration defaults = getConfig().getDefaults();
+        taskScheduler.runAsync(() -> {
+            YamlConfiguration fresh = YamlConfiguration.loadConfiguration(new File(getDataFolder(), "config.yml"));
+            if (defaults != null) {
+                fresh.setDefaults(defaults);
+            }
+            Settings next = Settings.load(fresh, getLogger());
+            Map<String, FileConfiguration> loaded = readTranslations();
+            taskScheduler.runGlobal(() -> {
+                Settings previous = settings;
+                config = fresh;
+                translations = loaded;
+                settings = next;
+                worldPolicies.load(fresh.getConfigurationSection("world-policies"), next);
+                applyBackupSettings();
+                applyColdTierSettings();
+                usageTracker.start(next.getUsageFlushSeconds());
+                homeExpiry.start(next.getExpiryCheckSeconds());
+                Runnable done = () -> taskScheduler.runForSender(sender,
+                        () -> sender.sendMessage("§aInfiniteHomes reloaded (" + loaded.size() + " translations)."));
+                if (next.storageDiffers(previous)) {
+                    switchStorage(sender, previous, next, done);
+                } else {
+                    done.run();
+                }
+            });
+        });
+    }
+
+    /**
+     * Moves the homes to the storage the new settings ask for. Writing and closing the old storage and
+     * opening and reading the new one happen off the main thread; only the swap runs on the global thread.
+     * Changes made in between go to the old storage. If the new storage cannot be opened, the previous
+     * one is opened again.
+     */
+    private void switchStorage(CommandSender sender, Settings previous, Settings next, Runnable done) {
+        nameIndex.clear();
+        globalIndex.changed();
+        HomeStorage oldStorage = storage;
+        NetworkManager oldNetwork = network;
+        // The shared storage already has every change staged per player; closing the network flushes them
+        if (oldNetwork != null) {
+            HandlerList.unregisterAll(oldNetwork);
+        } else {
+            oldStorage.saveAll(homes);
+        }
+        taskScheduler.runAsync(() -> {
+            if (oldNetwork != null) {
+                oldNetwork.close();
+            } else {
+                oldStorage.flush();
+            }
+            OpenedStorage opened;
+            try {
+                opened = openStorage(next);
+            } catch (RuntimeException e) {
+                getLogger().log(Level.SEVERE, "Could not set up the new home storage, keeping the previous one", e);
+                taskScheduler.runForSender(sender, () -> sender.sendMessage("§cCould not set up the new home storage: "
+                        + e.getMessage() + ". The previous storage is used until the next reload."));
+                opened = openStorage(previous);
+            }
+            OpenedStorage installed = opened;
+            taskScheduler.runGlobal(() -> {
+                network = null;
+                homes.setEvictIdle(null);
+                homes.clear();
+                installStorage(installed);
+                homeExpiry.rebuild();
+                accessIndex.rebuild(homes);
+                worldCounts.clear();
+                nameMatcher.clear();
+                getLogger().info("Home storage set up again after reload.");
+                done.run();
+            });
+        });
+    }
+
+    /**
+     * config.yml as of the last reload. Reloads parse a new configuration instead of re-reading this one.
+     */
+    @Override
+    public FileConfiguration getConfig() {
+        FileConfiguration reloaded = config;
+        return reloaded != null ? reloaded : super.getConfig();
+    }
+
+    /**
+     * Applies a change to config.yml, swaps in the new settings right away and writes the file off the main thread.
+     */
+    private void updateConfig(Consumer<FileConfiguration> change) {
+        change.accept(getConfig());
+        settings = Settings.load(getConfig(), getLogger());
+        worldPolicies.load(getConfig().getConfigurationSection("world-policies"), settings);
+        String content = getConfig().saveToString();
+        long version = configVersion.incrementAndGet();
+        Path file = new File(getDataFolder(), "config.yml").toPath();
+        taskScheduler.runAsync(() -> {
+            synchronized (configVersion) {
+                if (version < writtenConfigVersion) return; // a newer change was already written
+                try {
+                    YamlHomeStorage.writeAtomically(file, content);
+                    writtenConfigVersion = version;
+                } catch (IOException e) {
+                    getLogger().log(Level.SEVERE, "Could not save config.yml", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Prints the cache sizes, the last load, worlds homes wait for and throttling counters for /infinitehomes stats.
+     */
+    private void sendStats(CommandSender sender) {
+        sender.sendMessage("§6InfiniteHomes stats:");
+        sender.sendMessage("§7Players loaded: §f" + homes.size() + " §7Homes loaded: §f" + homes.getHomeCount());
+        if (homes.isColdTierEnabled()) {
+            ColdHomeSlab cold = homes.getColdTier();
+            sender.sendMessage("§7Cold tier: §f" + cold.getPlayerCount() + " §7players, §f" + cold.getHomeCount()
+                    + " §7homes, §f" + (cold.getCapacityBytes() / 1024) + " KiB §7off-heap");
+        }
+        if (storage instanceof YamlHomeStorage && ((YamlHomeStorage) storage).getLastLoad() != null) {
+            sender.sendMessage("§7Last load: §f" + ((YamlHomeStorage) storage).getLastLoad());
+        }
+        if (!deferredHomes.getWaiting().isEmpty()) {
+            sender.sendMessage("§7Waiting for worlds: §f" + deferredHomes.getWaiting());
+        }
+        StringBuilder throttled = new StringBuilder("§7Throttled:");
+        for (RateLimiter.Action action : RateLimiter.Action.values()) {
+            throttled.append(" §f").append(action.getConfigKey()).append(" §e").append(rateLimiter.getThrottled(action));
+        }
+        sender.sendMessage(throttled.toString());
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         List<String> completions = new ArrayList<>();
+        if (sender instanceof Player && !rateLimiter.tryAcquire((Player) sender, RateLimiter.Action.TAB_COMPLETE)) {
+            return completions;
+        }
+
+        if (command.getName().equalsIgnoreCase("infinitehomes")) {
+            if (args.length == 1 && sender.hasPermission("infinitehomes.admin")) {
+                for (String sub : new String[]{"reload", "stats"}) {
+                    if (sub.startsWith(args[0].toLowerCase())) completions.add(sub);
+                }
+            }
+            return completions;
+        }
 
-        // Nur für Spieler und für die Befehle home und delhome
+        // /homeexport <format> [gzip] [filter...]
+        if (command.getName().equalsIgnoreCase("homeexport")) {
+            if (args.length == 1 && sender.hasPermission("infinitehomes.admin")) {
+                for (HomeExportFormat format : HomeExportFormat.values()) {
+                    if (format.getExtension().startsWith(args[0].toLowerCase())) completions.add(format.getExtension());
+                }
+            }
+            return completions;
+        }
+
+        // Filter für /homebrowse
+        if (command.getName().equalsIgnoreCase("homebrowse")) {
+            if (args.length > 0 && sender.hasPermission("infinitehomes.admin")) {
+                for (String filter : new String[]{"world:", "region:", "icon:", "created:", "player:"}) {
+                    if (filter.startsWith(args[args.length - 1].toLowerCase())) completions.add(filter);
+                }
+            }
+            return completions;
+        }
+
+        // Bekannte Spielernamen für /homeadmin
+        if (command.getName().equalsIgnoreCase("homeadmin")) {
+            if (args.length == 1 && sender.hasPermission("infinitehomes.admin")) {
+                completions.addAll(playerIndex.complete(args[0], 50));
+            }
+            return completions;
+        }
+
+        // /homeshare <home> <aktion> [spieler|kategorie]
+        if (command.getName().equalsIgnoreCase("homeshare") && args.length > 1) {
+            if (args.length == 2) {
+                for (String action : new String[]{"private", "public", "add", "remove"}) {
+                    if (action.startsWith(args[1].toLowerCase())) completions.add(action);
+                }
+            } else if (args.length == 3 && (args[1].equalsIgnoreCase("add") || args[1].equalsIgnoreCase("remove"))) {
+                completions.addAll(playerIndex.complete(args[2], 50));
+            }
+            return completions;
+        }
+
+        // Nur für Spieler und für die Befehle home, delhome und homeshare
         if (!(sender instanceof Player) || (!command.getName().equalsIgnoreCase("home") &&
-                !command.getName().equalsIgnoreCase("delhome"))) {
+                !command.getName().equalsIgnoreCase("delhome") && !command.getName().equalsIgnoreCase("homeshare"))) {
             return completions;
         }
 
@@ -123,24 +545,6 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         return completions;
     }
 
-    private void setupHomesConfig() {
-        if (!getDataFolder().exists()) {
-            getDataFolder().mkdirs();
-        }
-
-        homesFile = new File(getDataFolder(), "homes.yml");
-
-        if (!homesFile.exists()) {
-            try {
-                homesFile.createNewFile();
-            } catch (IOException e) {
-                getLogger().log(Level.SEVERE, "Could not create homes.yml", e);
-            }
-        }
-
-        homesConfig = YamlConfiguration.loadConfiguration(homesFile);
-    }
-
     private void setupTranslations() {
         translationsDir = new File(getDataFolder(), "translations");
         if (!translationsDir.exists()) {
@@ -158,11 +562,11 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         saveResource("translations/texts_ru.yml", false);
 
         // Verfügbare Übersetzungen laden
-        loadTranslations();
+        translations = readTranslations();
     }
 
-    private void loadTranslations() {
-        translations.clear();
+    private Map<String, FileConfiguration> readTranslations() {
+        Map<String, FileConfiguration> loaded = new HashMap<>();
 
         File[] translationFiles = translationsDir.listFiles((dir, name) ->
                 name.startsWith("texts_") && name.endsWith(".yml"));
@@ -172,7 +576,12 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                 try {
                     String locale = file.getName().replace("texts_", "").replace(".yml", "");
                     FileConfiguration config = YamlConfiguration.loadConfiguration(file);
-                    translations.put(locale, config);
+                    // Keys added in newer versions are missing from files saved by older ones
+                    InputStream bundled = getResource("translations/" + file.getName());
+                    if (bundled != null) {
+                        config.setDefaults(YamlConfiguration.loadConfiguration(new InputStreamReader(bundled, StandardCharsets.UTF_8)));
+                    }
+                    loaded.put(locale, config);
                     getLogger().info("Loaded translation: " + locale);
                 } catch (Exception e) {
                     getLogger().log(Level.WARNING, "Error loading translation file: " + file.getName(), e);
@@ -181,18 +590,70 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         }
 
         // Fallback: Englische Übersetzung aus Ressourcen laden
-        if (!translations.containsKey("en")) {
+        if (!loaded.containsKey("en")) {
             try {
                 InputStream stream = getResource("translations/texts_en.yml");
                 if (stream != null) {
                     FileConfiguration config = YamlConfiguration.loadConfiguration(
                             new InputStreamReader(stream, StandardCharsets.UTF_8));
-                    translations.put("en", config);
+                    loaded.put("en", config);
                 }
             } catch (Exception e) {
                 getLogger().log(Level.WARNING, "Error loading default English translation", e);
             }
         }
+        return loaded;
+    }
+
+    public HomeNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    public GlobalHomeIndex getGlobalIndex() {
+        return globalIndex;
+    }
+
+    public HomeAccessIndex getAccessIndex() {
+        return accessIndex;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Takes a token from the player's save bucket before a change that writes their homes.
+     */
+    public boolean allowSave(Player player) {
+        return rateLimiter.tryAcquire(player, RateLimiter.Action.SAVE);
+    }
+
+    public BackHistory getBackHistory() {
+        return backHistory;
+    }
+
+    public HomeNameMatcher getNameMatcher() {
+        return nameMatcher;
+    }
+
+    public HomeWorldCounts getWorldCounts() {
+        return worldCounts;
+    }
+
+    public WorldPolicies getWorldPolicies() {
+        return worldPolicies;
+    }
+
+    public HomeExpiry getHomeExpiry() {
+        return homeExpiry;
+    }
+
+    public UsageTracker getUsageTracker() {
+        return usageTracker;
+    }
+
+    public Settings getSettings() {
+        return settings;
     }
 
     public String getMessage(Player player, String key) {
@@ -229,66 +690,113 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         return message;
     }
 
-    private void loadHomesFromConfig() {
-        homes.clear(); // Ensure map is empty before loading
-        for (String playerUuidString : homesConfig.getKeys(false)) {
-            try {
-                UUID playerUuid = UUID.fromString(playerUuidString);
-                Map<String, HomeData> playerHomes = new HashMap<>();
-
-                if (homesConfig.isConfigurationSection(playerUuidString)) {
-                    for (String homeName : homesConfig.getConfigurationSection(playerUuidString).getKeys(false)) {
-                        try {
-                            String path = playerUuidString + "." + homeName;
-                            Object obj = homesConfig.get(path);
-
-                            if (obj instanceof HomeData) {
-                                playerHomes.put(homeName, (HomeData) obj);
-                            } else if (obj instanceof org.bukkit.configuration.ConfigurationSection) {
-                                // If it's a section but not yet a HomeData object,
-                                // try to force deserialization from the Map
-                                Map<String, Object> values = homesConfig.getConfigurationSection(path).getValues(false);
-                                playerHomes.put(homeName, new HomeData(values));
-                            }
-                        } catch (Exception e) {
-                            getLogger().warning("Failed to load home '" + homeName + "' for player " + playerUuidString);
-                        }
-                    }
-                }
-
-                if (!playerHomes.isEmpty()) {
-                    homes.put(playerUuid, playerHomes);
-                }
-            } catch (Exception e) {
-                getLogger().log(Level.WARNING, "Failed to load UUID: " + playerUuidString, e);
-            }
+    /**
+     * Writes all homes. In network mode only the staged changes are written: the cache holds just some players
+     * and may be older than the shared storage, so rewriting them from it could undo other servers' changes.
+     */
+    public void saveHomesToConfig() {
+        nameIndex.clear();
+        globalIndex.changed();
+        if (network == null) {
+            storage.saveAll(homes);
         }
+        storage.flush();
     }
 
-    public void saveHomesToConfig() {
-        try {
-            // Clear existing data
-            for (String key : homesConfig.getKeys(false)) {
-                homesConfig.set(key, null);
-            }
-
-            // Save all homes in new format
-            for (Map.Entry<UUID, Map<String, HomeData>> playerEntry : homes.entrySet()) {
-                String playerUuidString = playerEntry.getKey().toString();
-                for (Map.Entry<String, HomeData> homeEntry : playerEntry.getValue().entrySet()) {
-                    String path = playerUuidString + "." + homeEntry.getKey();
-                    homesConfig.set(path, homeEntry.getValue()); // ConfigurationSerializable will be stored as a section
-                }
+    /**
+     * Persists one player's homes off the main thread and, in network mode, tells the other servers.
+     */
+    public void savePlayerHomes(UUID playerUuid) {
+        stagePlayerHomes(playerUuid);
+        taskScheduler.runAsync(() -> {
+            storage.flush();
+            if (network != null) {
+                taskScheduler.runGlobal(() -> network.publishInvalidation(playerUuid));
             }
+        });
+    }
 
-            homesConfig.save(homesFile);
-        } catch (IOException e) {
-            getLogger().log(Level.SEVERE, "Could not save homes to config", e);
+    /**
+     * Creates a home at the given location, tagged with this server in network mode.
+     */
+    public HomeData createHome(Location location, Material icon) {
+        HomeData home = new HomeData(location, icon);
+        if (network != null) {
+            home.setServer(network.getServerName());
         }
+        return home;
+    }
+
+    /**
+     * Fires a {@link HomeSetEvent}. Returns false if a listener cancelled it.
+     */
+    public boolean callHomeSet(Player player, UUID owner, String homeName, HomeData home) {
+        Map<String, HomeData> playerHomes = homes.get(owner);
+        HomeData previous = playerHomes != null ? playerHomes.get(homeName) : null;
+        HomeSetEvent event = new HomeSetEvent(player, new HomeSnapshot(owner, homeName, home),
+                previous != null ? new HomeSnapshot(owner, homeName, previous) : null);
+        getServer().getPluginManager().callEvent(event);
+        return !event.isCancelled();
+    }
+
+    /**
+     * Fires a {@link HomeDeleteEvent}. Returns false if a listener cancelled it.
+     */
+    public boolean callHomeDelete(Player player, UUID owner, String homeName, HomeData home) {
+        HomeDeleteEvent event = new HomeDeleteEvent(player, new HomeSnapshot(owner, homeName, home));
+        getServer().getPluginManager().callEvent(event);
+        return !event.isCancelled();
+    }
+
+    /**
+     * Stages only the given player's homes; call {@link HomeStorage#flush()} to write them out.
+     */
+    public void stagePlayerHomes(UUID playerUuid) {
+        nameIndex.invalidate(playerUuid);
+        accessIndex.update(playerUuid, homes.get(playerUuid));
+        globalIndex.changed();
+        storage.savePlayer(playerUuid, homes.get(playerUuid));
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command cmd, String label, String[] args) {
+        if (sender instanceof Player && !rateLimiter.tryAcquire((Player) sender, RateLimiter.Action.COMMAND)) {
+            return true;
+        }
+        // Bulk operations may also be run from the console
+        if (cmd.getName().equalsIgnoreCase("homebulk")) {
+            handleBulkCommand(sender, args);
+            return true;
+        }
+        if (cmd.getName().equalsIgnoreCase("homeimport")) {
+            handleImportCommand(sender, args);
+            return true;
+        }
+        if (cmd.getName().equalsIgnoreCase("homebackup")) {
+            handleBackupCommand(sender, args);
+            return true;
+        }
+        if (cmd.getName().equalsIgnoreCase("homeexport")) {
+            handleExportCommand(sender, args);
+            return true;
+        }
+        if (cmd.getName().equalsIgnoreCase("infinitehomes")) {
+            if (!sender.hasPermission("infinitehomes.admin")) {
+                sender.sendMessage(sender instanceof Player ? getMessage((Player) sender, "no_permission") : "§cNo permission.");
+                return true;
+            }
+            if (args.length == 1 && args[0].equalsIgnoreCase("stats")) {
+                sendStats(sender);
+                return true;
+            }
+            if (args.length != 1 || !args[0].equalsIgnoreCase("reload")) {
+                sender.sendMessage("§cUsage: /infinitehomes <reload|stats>");
+                return true;
+            }
+            reload(sender);
+            return true;
+        }
+
         if (!(sender instanceof Player)) {
             sender.sendMessage("This command can only be executed by a player.");
             return true;
@@ -298,13 +806,19 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         UUID playerUuid = player.getUniqueId();
 
         if (cmd.getName().equalsIgnoreCase("sethome")) {
-            if (args.length != 1) {
+            if (args.length != 1 && args.length != 2) {
+                player.sendMessage(getMessage(player, "usage.sethome"));
+                return true;
+            }
+            // Optional lifetime for temporary homes, e.g. /sethome arena 2h
+            long lifetime = args.length == 2 ? HomeExpiry.parseDuration(args[1]) : 0;
+            if (lifetime < 0) {
                 player.sendMessage(getMessage(player, "usage.sethome"));
                 return true;
             }
 
             // Check home limit
-            int maxHomes = getConfig().getInt("max-homes", -1);
+            int maxHomes = settings.getMaxHomes();
             if (maxHomes != -1) {
                 int currentHomes = homes.containsKey(playerUuid) ? homes.get(playerUuid).size() : 0;
                 if (currentHomes >= maxHomes) {
@@ -314,13 +828,44 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
             }
 
             String homeName = args[0].toLowerCase();
-            if (!homes.containsKey(playerUuid)) {
-                homes.put(playerUuid, new HashMap<>());
+            if (homeName.length() > HomeData.MAX_NAME_LENGTH) {
+                player.sendMessage(getMessage(player, "home.name_too_long").replace("{max}", String.valueOf(HomeData.MAX_NAME_LENGTH)));
+                return true;
+            }
+            // /home reads "a:b" as player a's home b
+            if (homeName.indexOf(':') >= 0) {
+                player.sendMessage(getMessage(player, "home.invalid_name"));
+                return true;
+            }
+            if (!checkWorldPolicy(player, playerUuid, homeName) || !allowSave(player)) {
+                return true;
+            }
+            HomeData home = createHome(player.getLocation(), Material.RED_BED);
+            if (lifetime > 0) {
+                home.setExpiresAt(System.currentTimeMillis() + lifetime);
+            }
+            // Setting a home again only moves it; who may use it, its category and its history stay
+            Map<String, HomeData> ownHomes = homes.get(playerUuid);
+            HomeData existing = ownHomes != null ? ownHomes.get(homeName) : null;
+            if (existing != null) {
+                home.setUsage(existing.getLastUsed(), existing.getUseCount());
+                home.setCreatedAt(existing.getCreatedAt());
+                home.setAccess(existing.getAccess(), existing.getSharedWith(), existing.getCategory());
+            }
+            if (!callHomeSet(player, playerUuid, homeName, home)) {
+                return true;
+            }
+            HomeData previous = homes.computeIfAbsent(playerUuid, uuid -> new ConcurrentHashMap<>()).put(homeName, home);
+            worldCounts.replaced(playerUuid, previous, home);
+            nameMatcher.added(playerUuid, homeName);
+            savePlayerHomes(playerUuid);
+            if (lifetime > 0) {
+                homeExpiry.track(playerUuid, homeName, home);
+                player.sendMessage(getMessage(player, "home.set_expiring").replace("{home}", homeName)
+                        .replace("{time}", HomeExpiry.formatDuration(lifetime)));
+            } else {
+                player.sendMessage(getMessage(player, "home.set").replace("{home}", homeName));
             }
-
-            homes.get(playerUuid).put(homeName, new HomeData(player.getLocation(), Material.RED_BED));
-            saveHomesToConfig();
-            player.sendMessage(getMessage(player, "home.set").replace("{home}", homeName));
             return true;
         }
 
@@ -332,11 +877,15 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
 
             String homeName = args[0].toLowerCase();
             if (homes.containsKey(playerUuid) && homes.get(playerUuid).containsKey(homeName)) {
-                homes.get(playerUuid).remove(homeName);
-                saveHomesToConfig();
+                if (!allowSave(player) || !callHomeDelete(player, playerUuid, homeName, homes.get(playerUuid).get(homeName))) {
+                    return true;
+                }
+                worldCounts.replaced(playerUuid, homes.get(playerUuid).remove(homeName), null);
+                nameMatcher.removed(playerUuid, homeName);
+                savePlayerHomes(playerUuid);
                 player.sendMessage(getMessage(player, "home.deleted").replace("{home}", homeName));
             } else {
-                player.sendMessage(getMessage(player, "home.not_exist").replace("{home}", homeName));
+                handleMissingHome(player, playerUuid, homeName, false);
             }
             return true;
         }
@@ -353,30 +902,44 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                 return true;
             }
 
-            // Check cooldown
-            int cooldown = getConfig().getInt("home-cooldown", -1);
-            if (cooldown > 0) {
-                long currentTime = System.currentTimeMillis();
-                if (cooldowns.containsKey(playerUuid)) {
-                    long lastUsed = cooldowns.get(playerUuid);
-                    long timeLeft = ((lastUsed / 1000) + cooldown) - (currentTime / 1000);
-
-                    if (timeLeft > 0) {
-                        player.sendMessage(getMessage(player, "home.cooldown").replace("{time}", String.valueOf(timeLeft)));
-                        return true;
-                    }
-                }
-
-                // Set cooldown
-                cooldowns.put(playerUuid, currentTime);
+            // Another player's home: /home <player>:<name>
+            int separator = args[0].indexOf(':');
+            if (separator > 0 && separator < args[0].length() - 1) {
+                useForeignHome(player, args[0].substring(0, separator), args[0].substring(separator + 1).toLowerCase());
+                return true;
             }
 
             String homeName = args[0].toLowerCase();
             if (homes.containsKey(playerUuid) && homes.get(playerUuid).containsKey(homeName)) {
+                HomeData home = homes.get(playerUuid).get(homeName);
+                if (!checkCooldown(player, home)) {
+                    return true;
+                }
                 // NEW: Use TeleportManager instead of direct teleport
-                teleportManager.requestTeleport(player, homeName, homes.get(playerUuid).get(homeName).getLocation());
+                teleportManager.requestTeleport(player, playerUuid, homeName, home);
             } else {
-                player.sendMessage(getMessage(player, "home.not_exist").replace("{home}", homeName));
+                handleMissingHome(player, playerUuid, homeName, true);
+            }
+            return true;
+        }
+
+        if (cmd.getName().equalsIgnoreCase("back")) {
+            handleBack(player, args);
+            return true;
+        }
+
+        if (cmd.getName().equalsIgnoreCase("homeshare")) {
+            handleShare(player, args);
+            return true;
+        }
+
+        if (cmd.getName().equalsIgnoreCase("homedirectory")) {
+            if (args.length == 0) {
+                new HomeDirectoryGUI(this, player, false, null, 0).open();
+            } else if (args[0].equalsIgnoreCase("shared")) {
+                new HomeDirectoryGUI(this, player, true, null, 0).open();
+            } else {
+                new HomeDirectoryGUI(this, player, false, args[0].toLowerCase(), 0).open();
             }
             return true;
         }
@@ -388,25 +951,7 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                 return true;
             }
 
-            Set<String> homeNames = homes.get(playerUuid).keySet();
-            int maxHomes = getConfig().getInt("max-homes", -1);
-            int currentHomes = homeNames.size();
-
-            String limitText = (maxHomes == -1) ? getMessage(player, "homes.unlimited") : String.valueOf(maxHomes);
-            player.sendMessage(getMessage(player, "homes.list.header")
-                    .replace("{current}", String.valueOf(currentHomes))
-                    .replace("{max}", limitText));
-
-            // List all home names
-            StringBuilder homesList = new StringBuilder();
-            for (String home : homeNames) {
-                if (homesList.length() > 0) {
-                    homesList.append(", ");
-                }
-                homesList.append(home);
-            }
-
-            player.sendMessage(getMessage(player, "homes.list.items").replace("{homes}", homesList.toString()));
+            sendHomeList(player, args);
             return true;
         }
 
@@ -423,8 +968,11 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
 
             try {
                 int newMax = Integer.parseInt(args[0]);
-                getConfig().set("max-homes", newMax);
-                saveConfig();
+                if (newMax < -1) {
+                    player.sendMessage(getMessage(player, "invalid_number"));
+                    return true;
+                }
+                updateConfig(config -> config.set("max-homes", newMax));
                 player.sendMessage(getMessage(player, "homes.limit.set").replace("{max}", String.valueOf(newMax)));
             } catch (NumberFormatException e) {
                 player.sendMessage(getMessage(player, "invalid_number"));
@@ -450,8 +998,7 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                     return true;
                 }
 
-                getConfig().set("home-cooldown", cooldown);
-                saveConfig();
+                updateConfig(config -> config.set("home-cooldown", cooldown));
 
                 if (cooldown == -1) {
                     player.sendMessage(getMessage(player, "cooldown.disabled"));
@@ -474,27 +1021,44 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                 return true;
             }
             String targetName = args[0];
-            Player target = Bukkit.getPlayer(targetName);
-            UUID targetUuid;
+            Player target = Bukkit.getPlayerExact(targetName);
             if (target != null) {
-                targetUuid = target.getUniqueId();
-            } else {
-                // Try offline player
-                @SuppressWarnings("deprecation")
-                OfflinePlayer offline = Bukkit.getOfflinePlayer(targetName);
-                if (offline.hasPlayedBefore()) {
-                    targetUuid = offline.getUniqueId();
-                } else {
-                    player.sendMessage("§cPlayer not found.");
-                    return true;
-                }
+                openAdminHomes(player, target.getUniqueId());
+                return true;
             }
-            // Check if target has any homes
-            if (!homes.containsKey(targetUuid) || homes.get(targetUuid).isEmpty()) {
-                player.sendMessage("§cThat player has no homes.");
+
+            // Offline player: resolve from the local index off the main thread, then open the GUI back on it
+            playerIndex.resolveAsync(targetName).thenAccept(targetUuid ->
+                    taskScheduler.runFor(player, () -> {
+                        if (!player.isOnline()) return;
+                        if (targetUuid == null) {
+                            player.sendMessage("§cPlayer not found.");
+                            return;
+                        }
+                        openAdminHomes(player, targetUuid);
+                    }));
+            return true;
+        }
+
+        // Alle Homes des Servers durchblättern
+        if (cmd.getName().equalsIgnoreCase("homebrowse")) {
+            if (!player.hasPermission("infinitehomes.admin")) {
+                player.sendMessage(getMessage(player, "no_permission"));
                 return true;
             }
-            new HomeListGUI(this, player, targetUuid, true, 0).open();
+            GlobalHomeIndex.Query query = new GlobalHomeIndex.Query();
+            for (String arg : args) {
+                try {
+                    if (!query.parse(arg, playerIndex)) {
+                        player.sendMessage("§cUnknown filter: " + arg);
+                        return true;
+                    }
+                } catch (IllegalArgumentException e) {
+                    player.sendMessage("§c" + e.getMessage());
+                    return true;
+                }
+            }
+            AdminHomeBrowserGUI.show(this, player, new AdminHomeBrowserGUI.Session(query), 0);
             return true;
         }
 
@@ -514,7 +1078,7 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                     player.sendMessage("§cSeconds must be between -1 and 60.");
                     return true;
                 }
-                boolean cancelOnMove = getConfig().getBoolean("teleport-delay-cancel-on-move", true);
+                boolean cancelOnMove = settings.isCancelOnMove();
                 if (args.length >= 2) {
                     String bool = args[1].toLowerCase();
                     if (bool.equals("true") || bool.equals("false")) {
@@ -525,9 +1089,11 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
                     }
                 }
                 // Save to config
-                getConfig().set("teleport-delay", seconds);
-                getConfig().set("teleport-delay-cancel-on-move", cancelOnMove);
-                saveConfig();
+                boolean cancel = cancelOnMove;
+                updateConfig(config -> {
+                    config.set("teleport-delay", seconds);
+                    config.set("teleport-delay-cancel-on-move", cancel);
+                });
 
                 if (seconds == -1) {
                     player.sendMessage(getMessage(player, "teleport.set.disabled"));
@@ -545,15 +1111,614 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
         return false;
     }
 
+    /**
+     * Answers /home or /delhome for a name the player has no home with: lists close names as clickable
+     * suggestions, or for /home teleports right away if exactly one home is a single typo away and
+     * {@code fuzzy-match.auto-teleport} is on. Suggestions for /delhome are only put into the chat box.
+     */
+    private void handleMissingHome(Player player, UUID playerUuid, String homeName, boolean teleport) {
+        Map<String, HomeData> playerHomes = homes.get(playerUuid);
+        List<HomeNameMatcher.Match> matches = settings.isFuzzyMatchEnabled()
+                ? nameMatcher.suggest(playerUuid, homeName, playerHomes) : Collections.emptyList();
+        if (matches.isEmpty()) {
+            player.sendMessage(getMessage(player, "home.not_exist").replace("{home}", homeName));
+            return;
+        }
+
+        if (teleport && settings.isFuzzyAutoTeleport() && matches.get(0).getDistance() == 1
+                && (matches.size() == 1 || matches.get(1).getDistance() > 1)) {
+            String match = matches.get(0).getName();
+            HomeData home = playerHomes.get(match);
+            if (home != null) {
+                player.sendMessage(getMessage(player, "home.fuzzy_teleport").replace("{home}", homeName)
+                        .replace("{match}", match));
+                if (checkCooldown(player, home)) {
+                    teleportManager.requestTeleport(player, playerUuid, match, home);
+                }
+                return;
+            }
+        }
+
+        TextComponent message = new TextComponent(getMessage(player, "home.did_you_mean").replace("{home}", homeName));
+        for (int i = 0; i < matches.size(); i++) {
+            if (i > 0) message.addExtra("§7, ");
+            String match = matches.get(i).getName();
+            TextComponent link = new TextComponent("§e" + match);
+            link.setClickEvent(teleport ? new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/home " + match)
+                    : new ClickEvent(ClickEvent.Action.SUGGEST_COMMAND, "/delhome " + match));
+            message.addExtra(link);
+        }
+        player.spigot().sendMessage(message);
+    }
+
+    /**
+     * /homes [page] [filter]: one page of the player's homes as clickable entries, filtered by name prefix.
+     */
+    private void sendHomeList(Player player, String[] args) {
+        UUID playerUuid = player.getUniqueId();
+        int page = 1;
+        String filter = "";
+        int next = 0;
+        if (args.length > next) {
+            try {
+                page = Integer.parseInt(args[next]);
+                next++;
+            } catch (NumberFormatException ignored) {
+                // no page given, the argument is the filter
+            }
+        }
+        if (args.length > next) {
+            filter = args[next].toLowerCase();
+        }
+
+        Map<String, HomeData> playerHomes = homes.get(playerUuid);
+        String[] names = nameIndex.get(playerUuid, playerHomes);
+        int from = filter.isEmpty() ? 0 : HomeNameIndex.lowerBound(names, filter);
+        int to = filter.isEmpty() ? names.length : HomeNameIndex.prefixEnd(names, filter, from);
+        int matches = to - from;
+        if (matches == 0) {
+            player.sendMessage(filter.isEmpty() ? getMessage(player, "homes.none")
+                    : getMessage(player, "homes.list.no_match").replace("{filter}", filter));
+            return;
+        }
+
+        int pages = (matches + HOMES_PER_PAGE - 1) / HOMES_PER_PAGE;
+        page = Math.max(1, Math.min(page, pages));
+        int maxHomes = settings.getMaxHomes();
+        String limitText = (maxHomes == -1) ? getMessage(player, "homes.unlimited") : String.valueOf(maxHomes);
+        player.sendMessage(getMessage(player, "homes.list.header")
+                .replace("{current}", String.valueOf(names.length))
+                .replace("{max}", limitText));
+
+        String hover = getMessage(player, "homes.list.hover");
+        int first = from + (page - 1) * HOMES_PER_PAGE;
+        int last = Math.min(first + HOMES_PER_PAGE, to);
+        for (int i = first; i < last; i++) {
+            HomeData data = playerHomes.get(names[i]);
+            if (data == null) continue; // deleted since the index was built
+            TextComponent entry = new TextComponent("§7- §e" + names[i]);
+            entry.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/home " + names[i]));
+            entry.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text(hover
+                    .replace("{world}", data.getWorldName())
+                    .replace("{x}", String.valueOf((int) Math.floor(data.getX())))
+                    .replace("{y}", String.valueOf((int) Math.floor(data.getY())))
+                    .replace("{z}", String.valueOf((int) Math.floor(data.getZ())))
+                    .replace("{uses}", String.valueOf(data.getUseCount())))));
+            player.spigot().sendMessage(entry);
+        }
+
+        if (pages > 1) {
+            String suffix = filter.isEmpty() ? "" : " " + filter;
+            TextComponent navigation = new TextComponent();
+            if (page > 1) {
+                navigation.addExtra(pageLink(getMessage(player, "homes.list.previous"), "/homes " + (page - 1) + suffix));
+                navigation.addExtra(" ");
+            }
+            navigation.addExtra(getMessage(player, "homes.list.page")
+                    .replace("{page}", String.valueOf(page)).replace("{pages}", String.valueOf(pages)));
+            if (page < pages) {
+                navigation.addExtra(" ");
+                navigation.addExtra(pageLink(getMessage(player, "homes.list.next"), "/homes " + (page + 1) + suffix));
+            }
+            player.spigot().sendMessage(navigation);
+        }
+    }
+
+    private static TextComponent pageLink(String text, String command) {
+        TextComponent link = new TextComponent(text);
+        link.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command));
+        link.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text(command)));
+        return link;
+    }
+
+    private void handleBulkCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("infinitehomes.admin")) {
+            sender.sendMessage(sender instanceof Player ? getMessage((Player) sender, "no_permission") : "§cNo permission.");
+            return;
+        }
+        String usage = "§cUsage: /homebulk <delete|move <world>> [world:<name>] [region:<x1>,<z1>,<x2>,<z2>] [inactive:<days>] [icon:<material>] [player:<name>] [dry]";
+        if (args.length == 0) {
+            sender.sendMessage(usage);
+            return;
+        }
+
+        BulkHomeOperation.Action action;
+        World targetWorld = null;
+        int index = 1;
+        if (args[0].equalsIgnoreCase("delete")) {
+            action = BulkHomeOperation.Action.DELETE;
+        } else if (args[0].equalsIgnoreCase("move") && args.length >= 2) {
+            action = BulkHomeOperation.Action.MOVE;
+            targetWorld = Bukkit.getWorld(args[1]);
+            if (targetWorld == null) {
+                sender.sendMessage("§cWorld '" + args[1] + "' is not loaded.");
+                return;
+            }
+            index = 2;
+        } else {
+            sender.sendMessage(usage);
+            return;
+        }
+
+        HomeFilter filter = new HomeFilter();
+        boolean dryRun = false;
+        for (int i = index; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("dry")) {
+                dryRun = true;
+                continue;
+            }
+            try {
+                if (!filter.parse(args[i], playerIndex)) {
+                    sender.sendMessage("§cUnknown filter: " + args[i]);
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                sender.sendMessage("§c" + e.getMessage());
+                return;
+            }
+        }
+        if (filter.isEmpty()) {
+            // Never touch every home on the server by accident
+            sender.sendMessage("§cPlease specify at least one filter.");
+            return;
+        }
+
+        BulkHomeOperation operation = new BulkHomeOperation(this, sender, action, filter, targetWorld, dryRun);
+        if (!operation.start()) {
+            sender.sendMessage("§cAnother bulk operation is still running.");
+            return;
+        }
+        sender.sendMessage("§7Bulk " + action.name().toLowerCase() + (dryRun ? " (dry run)" : "") + " started for " + filter + ".");
+    }
+
+    private void handleExportCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("infinitehomes.admin")) {
+            sender.sendMessage(sender instanceof Player ? getMessage((Player) sender, "no_permission") : "§cNo permission.");
+            return;
+        }
+        HomeExportFormat format = args.length > 0 ? HomeExportFormat.fromName(args[0]) : null;
+        if (format == null) {
+            sender.sendMessage("§cUsage: /homeexport <csv|jsonl|geojson> [gzip] [world:<name>] [player:<name>] [filters...]");
+            return;
+        }
+
+        HomeFilter filter = new HomeFilter();
+        boolean gzip = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("gzip")) {
+                gzip = true;
+                continue;
+            }
+            try {
+                if (!filter.parse(args[i], playerIndex)) {
+                    sender.sendMessage("§cUnknown filter: " + args[i]);
+                    return;
+                }
+            } catch (IllegalArgumentException e) {
+                sender.sendMessage("§c" + e.getMessage());
+                return;
+            }
+        }
+
+        String fileName = "homes-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "." + format.getExtension() + (gzip ? ".gz" : "");
+        Path file = getDataFolder().toPath().resolve("exports").resolve(fileName);
+        Consumer<String> report = message -> taskScheduler.runForSender(sender, () -> sender.sendMessage(message));
+        HomeExporter exporter = new HomeExporter(this, format, file, gzip, filter.isEmpty() ? null : filter::test, report);
+        CompletableFuture<HomeExporter.Result> result = exporter.start();
+        if (result == null) {
+            sender.sendMessage("§cAnother export is still running.");
+            return;
+        }
+        sender.sendMessage("§7Exporting " + filter + " as " + format.getExtension() + (gzip ? " (gzip)" : "") + "...");
+        result.whenComplete((done, error) -> {
+            if (error != null) {
+                getLogger().log(Level.SEVERE, "Home export to " + file + " failed", error);
+                report.accept("§cExport failed: " + error.getMessage());
+            } else {
+                getLogger().info("Exported " + done);
+                report.accept("§aExported " + done + ".");
+            }
+        });
+    }
+
+    private void handleImportCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("infinitehomes.admin")) {
+            sender.sendMessage(sender instanceof Player ? getMessage((Player) sender, "no_permission") : "§cNo permission.");
+            return;
+        }
+        if (args.length == 0 || !args[0].equalsIgnoreCase("essentials")) {
+            sender.sendMessage("§cUsage: /homeimport essentials [directory] [overwrite] [dry]");
+            return;
+        }
+
+        Path directory = getDataFolder().getParentFile().toPath().resolve("Essentials").resolve("userdata");
+        boolean overwrite = false;
+        boolean dryRun = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("overwrite")) {
+                overwrite = true;
+            } else if (args[i].equalsIgnoreCase("dry")) {
+                dryRun = true;
+            } else {
+                directory = Paths.get(args[i]);
+            }
+        }
+        if (!Files.isDirectory(directory)) {
+            sender.sendMessage("§cDirectory not found: " + directory);
+            return;
+        }
+
+        HomeImporter importer = new HomeImporter(this, sender, HomeImporter.ESSENTIALS, directory, overwrite, dryRun);
+        if (!importer.start()) {
+            sender.sendMessage("§cAnother import is still running.");
+            return;
+        }
+        sender.sendMessage("§7Importing homes from " + directory + (dryRun ? " (dry run)" : "") + "...");
+    }
+
+    private void handleBackupCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("infinitehomes.admin")) {
+            sender.sendMessage(sender instanceof Player ? getMessage((Player) sender, "no_permission") : "§cNo permission.");
+            return;
+        }
+        String sub = args.length > 0 ? args[0].toLowerCase() : "";
+        // Backups are copies of the local homes file, which network mode does not keep up to date
+        if (network != null && (sub.equals("now") || sub.equals("restore") || sub.equals("apply"))) {
+            sender.sendMessage("§cBackups are not available in network mode; back up the shared storage instead.");
+            return;
+        }
+        switch (sub) {
+            case "list": {
+                List<File> backups = backupManager.list();
+                if (backups.isEmpty()) {
+                    sender.sendMessage("§7No backups yet.");
+                    return;
+                }
+                sender.sendMessage("§aBackups (newest first):");
+                for (File backup : backups) {
+                    sender.sendMessage("§e" + backup.getName() + " §7(" + (backup.length() / 1024) + " KiB)");
+                }
+                return;
+            }
+            case "now":
+                backupManager.backupNow(name -> sender.sendMessage(name != null
+                        ? "§aBackup created: " + name : "§cBackup failed, see console."));
+                return;
+            case "restore":
+                if (args.length != 2) {
+                    sender.sendMessage("§cUsage: /homebackup restore <file>");
+                    return;
+                }
+                sender.sendMessage("§7Loading " + args[1] + " into staging...");
+                backupManager.stage(args[1], sender::sendMessage);
+                return;
+            case "apply": {
+                String stagedName = backupManager.getStagedName();
+                if (stagedName == null) {
+                    sender.sendMessage("§cNothing staged. Use /homebackup restore <file> first.");
+                    return;
+                }
+                // Keep the current state restorable before swapping the backup in
+                backupManager.backupNow(safety -> {
+                    Map<UUID, Map<String, HomeData>> staged = backupManager.takeStaged();
+                    if (staged == null) return;
+                    homes.clear();
+                    homes.putAll(staged);
+                    saveHomesToConfig();
+                    homeExpiry.rebuild();
+                    accessIndex.rebuild(homes);
+                    worldCounts.clear();
+                    nameMatcher.clear();
+                    sender.sendMessage("§aRestored " + stagedName + "."
+                            + (safety != null ? " Previous state saved as " + safety + "." : ""));
+                });
+                return;
+            }
+            case "discard":
+                sender.sendMessage(backupManager.takeStaged() != null ? "§aStaged backup discarded." : "§7Nothing staged.");
+                return;
+            default:
+                sender.sendMessage("§cUsage: /homebackup <list|now|restore <file>|apply|discard>");
+        }
+    }
+
+    /**
+     * Checks the rules of the player's current world before a home is set there for {@code owner}.
+     * Returns false (and tells the player) if homes are not allowed or the per-world cap is reached.
+     */
+    public boolean checkWorldPolicy(Player player, UUID owner, String homeName) {
+        World world = player.getWorld();
+        WorldPolicy policy = worldPolicies.get(world).forPlayer(player);
+        if (!policy.isAllowHomes()) {
+            player.sendMessage(getMessage(player, "policy.no_homes").replace("{world}", world.getName()));
+            return false;
+        }
+        int max = policy.getMaxHomes();
+        if (max < 0) return true;
+        Map<String, HomeData> ownerHomes = homes.get(owner);
+        int inWorld = worldCounts.get(owner, world.getName(), ownerHomes);
+        HomeData previous = ownerHomes != null ? ownerHomes.get(homeName) : null;
+        if (previous != null && previous.getWorldName().equals(world.getName())) {
+            inWorld--; // overwriting a home in the same world does not add one
+        }
+        if (inWorld >= max) {
+            player.sendMessage(getMessage(player, "policy.world_limit").replace("{max}", String.valueOf(max))
+                    .replace("{world}", world.getName()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks and starts the /home cooldown of the destination's world. Returns false (and tells the player)
+     * if it is still running.
+     */
+    public boolean checkCooldown(Player player, HomeData destination) {
+        return checkCooldown(player, destination.getWorldName());
+    }
+
+    private boolean checkCooldown(Player player, String worldName) {
+        int cooldown = worldPolicies.get(worldName).forPlayer(player).getHomeCooldown();
+        if (cooldown <= 0) return true;
+        UUID playerUuid = player.getUniqueId();
+        long currentTime = System.currentTimeMillis();
+        Long lastUsed = cooldowns.get(playerUuid);
+        if (lastUsed != null) {
+            long timeLeft = ((lastUsed / 1000) + cooldown) - (currentTime / 1000);
+            if (timeLeft > 0) {
+                player.sendMessage(getMessage(player, "home.cooldown").replace("{time}", String.valueOf(timeLeft)));
+                return false;
+            }
+        }
+        cooldowns.put(playerUuid, currentTime);
+        return true;
+    }
+
+    /**
+     * Teleports to a home of another player if it is public, shared with the player, or the player is an admin.
+     */
+    private void useForeignHome(Player player, String ownerName, String homeName) {
+        Player online = Bukkit.getPlayerExact(ownerName);
+        if (online != null) {
+            useForeignHome(player, online.getUniqueId(), homeName);
+            return;
+        }
+        playerIndex.resolveAsync(ownerName).thenAccept(ownerUuid ->
+                taskScheduler.runFor(player, () -> {
+                    if (!player.isOnline()) return;
+                    if (ownerUuid == null) {
+                        player.sendMessage(getMessage(player, "player.unknown").replace("{player}", ownerName));
+                        return;
+                    }
+                    useForeignHome(player, ownerUuid, homeName);
+                }));
+    }
+
+    private void useForeignHome(Player player, UUID ownerUuid, String homeName) {
+        if (network != null && !homes.containsKey(ownerUuid)) {
+            // Offline players are not cached in network mode
+            network.loadAsync(ownerUuid).thenRun(() -> taskScheduler.runFor(player, () -> {
+                if (player.isOnline()) teleportToForeignHome(player, ownerUuid, homeName);
+            }));
+            return;
+        }
+        teleportToForeignHome(player, ownerUuid, homeName);
+    }
+
+    private void teleportToForeignHome(Player player, UUID ownerUuid, String homeName) {
+        Map<String, HomeData> ownerHomes = homes.get(ownerUuid);
+        HomeData home = ownerHomes != null ? ownerHomes.get(homeName) : null;
+        UUID playerUuid = player.getUniqueId();
+        // Unknown homes answer like private ones, so names cannot be probed
+        if (home == null || !(ownerUuid.equals(playerUuid) || home.canUse(playerUuid)
+                || player.hasPermission("infinitehomes.admin"))) {
+            player.sendMessage(getMessage(player, "home.no_access"));
+            return;
+        }
+        if (!checkCooldown(player, home)) return;
+        teleportManager.requestTeleport(player, ownerUuid, homeName, home);
+    }
+
+    /**
+     * /back [n|list] - to the n-th most recent location before a teleport or death (1 = latest).
+     */
+    private void handleBack(Player player, String[] args) {
+        if (!settings.isBackEnabled()) {
+            player.sendMessage(getMessage(player, "back.disabled"));
+            return;
+        }
+        UUID playerUuid = player.getUniqueId();
+        if (args.length == 1 && args[0].equalsIgnoreCase("list")) {
+            int size = backHistory.size(playerUuid);
+            if (size == 0) {
+                player.sendMessage(getMessage(player, "back.none"));
+                return;
+            }
+            player.sendMessage(getMessage(player, "back.list.header"));
+            for (int i = 0; i < size; i++) {
+                BackHistory.Entry entry = backHistory.get(playerUuid, i);
+                Location location = entry.getLocation();
+                TextComponent line = new TextComponent(getMessage(player, entry.isDeath() ? "back.list.death" : "back.list.teleport")
+                        .replace("{index}", String.valueOf(i + 1))
+                        .replace("{world}", location.getWorld() != null ? location.getWorld().getName() : "?")
+                        .replace("{x}", String.valueOf(location.getBlockX()))
+                        .replace("{y}", String.valueOf(location.getBlockY()))
+                        .replace("{z}", String.valueOf(location.getBlockZ())));
+                line.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/back " + (i + 1)));
+                player.spigot().sendMessage(line);
+            }
+            return;
+        }
+
+        int index = 0;
+        if (args.length == 1) {
+            try {
+                index = Integer.parseInt(args[0]) - 1;
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+        }
+        if (args.length > 1 || index < 0) {
+            player.sendMessage(getMessage(player, "usage.back"));
+            return;
+        }
+        BackHistory.Entry entry = backHistory.get(playerUuid, index);
+        if (entry == null) {
+            player.sendMessage(getMessage(player, "back.none"));
+            return;
+        }
+        World world = entry.getLocation().getWorld();
+        if (world == null) {
+            player.sendMessage(getMessage(player, "back.unavailable"));
+            return;
+        }
+        if (!checkCooldown(player, world.getName())) return;
+        teleportManager.requestBack(player, entry.getLocation());
+    }
+
+    /**
+     * /homeshare &lt;home&gt; &lt;private|public [category]|add &lt;player&gt;|remove &lt;player&gt;&gt;
+     */
+    private void handleShare(Player player, String[] args) {
+        UUID playerUuid = player.getUniqueId();
+        if (args.length < 2) {
+            player.sendMessage(getMessage(player, "usage.homeshare"));
+            return;
+        }
+        String homeName = args[0].toLowerCase();
+        Map<String, HomeData> playerHomes = homes.get(playerUuid);
+        HomeData home = playerHomes != null ? playerHomes.get(homeName) : null;
+        if (home == null) {
+            player.sendMessage(getMessage(player, "home.not_exist").replace("{home}", homeName));
+            return;
+        }
+
+        if (!allowSave(player)) return;
+        String action = args[1].toLowerCase();
+        switch (action) {
+            case "private":
+                home.setAccess(HomeAccess.PRIVATE, Collections.emptySet(), null);
+                savePlayerHomes(playerUuid);
+                player.sendMessage(getMessage(player, "share.private").replace("{home}", homeName));
+                return;
+            case "public": {
+                String category = args.length >= 3 ? args[2].toLowerCase() : null;
+                if (category != null && !CATEGORY.matcher(category).matches()) {
+                    player.sendMessage(getMessage(player, "usage.homeshare"));
+                    return;
+                }
+                home.setAccess(HomeAccess.PUBLIC, home.getSharedWith(), category);
+                savePlayerHomes(playerUuid);
+                player.sendMessage(getMessage(player, "share.public").replace("{home}", homeName));
+                return;
+            }
+            case "add":
+            case "remove": {
+                if (args.length < 3) {
+                    player.sendMessage(getMessage(player, "usage.homeshare"));
+                    return;
+                }
+                String targetName = args[2];
+                playerIndex.resolveAsync(targetName).thenAccept(targetUuid ->
+                        taskScheduler.runFor(player, () -> {
+                            if (!player.isOnline()) return;
+                            if (targetUuid == null || targetUuid.equals(playerUuid)) {
+                                player.sendMessage(getMessage(player, "player.unknown").replace("{player}", targetName));
+                                return;
+                            }
+                            // The home may have been replaced or deleted while the name was resolved
+                            Map<String, HomeData> current = homes.get(playerUuid);
+                            if (current == null || current.get(homeName) != home) {
+                                player.sendMessage(getMessage(player, "home.not_exist").replace("{home}", homeName));
+                                return;
+                            }
+                            Set<UUID> viewers = new HashSet<>(home.getSharedWith());
+                            HomeAccess access = home.getAccess();
+                            if (action.equals("add")) {
+                                viewers.add(targetUuid);
+                                if (access == HomeAccess.PRIVATE) access = HomeAccess.SHARED;
+                            } else {
+                                viewers.remove(targetUuid);
+                                if (access == HomeAccess.SHARED && viewers.isEmpty()) access = HomeAccess.PRIVATE;
+                            }
+                            home.setAccess(access, viewers, home.getCategory());
+                            savePlayerHomes(playerUuid);
+                            player.sendMessage(getMessage(player, action.equals("add") ? "share.added" : "share.removed")
+                                    .replace("{home}", homeName).replace("{player}", targetName));
+                        }));
+                return;
+            }
+            default:
+                player.sendMessage(getMessage(player, "usage.homeshare"));
+        }
+    }
+
+    public void openAdminHomes(Player admin, UUID targetUuid) {
+        if (network != null && !homes.containsKey(targetUuid)) {
+            // Offline players are not cached in network mode
+            network.loadAsync(targetUuid).thenRun(() -> taskScheduler.runFor(admin, () -> {
+                if (admin.isOnline() && homes.containsKey(targetUuid)) {
+                    new HomeListGUI(this, admin, targetUuid, true, 0).open();
+                } else if (admin.isOnline()) {
+                    admin.sendMessage("§cThat player has no homes.");
+                }
+            }));
+            return;
+        }
+        // Check if target has any homes
+        if (!homes.containsKey(targetUuid) || homes.get(targetUuid).isEmpty()) {
+            admin.sendMessage("§cThat player has no homes.");
+            return;
+        }
+        new HomeListGUI(this, admin, targetUuid, true, 0).open();
+    }
+
     // Getters for other classes
     public Map<UUID, Map<String, HomeData>> getHomes() {
         return homes;
     }
 
+    public HomeStorage getStorage() {
+        return storage;
+    }
+
     public Map<UUID, Long> getCooldowns() {
         return cooldowns;
     }
 
+    public TextPrompts getTextPrompts() {
+        return textPrompts;
+    }
+
+    public TaskScheduler getTaskScheduler() {
+        return taskScheduler;
+    }
+
+    public IconCatalog getIconCatalog() {
+        return iconCatalog;
+    }
+
     public GUIListener getGUIListener() {
         return guiListener;
     }
@@ -562,4 +1727,16 @@ public class InfiniteHomes extends JavaPlugin implements TabCompleter {
     public TeleportManager getTeleportManager() {
         return teleportManager;
     }
+
+    public SafeDestinationChecker getSafeDestinationChecker() {
+        return safeDestinationChecker;
+    }
+
+    public NetworkManager getNetwork() {
+        return network;
+    }
+
+    public PlayerIndex getPlayerIndex() {
+        return playerIndex;
+    }
 }
\ No newline at end of file
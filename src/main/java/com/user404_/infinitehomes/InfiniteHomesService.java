@@ -0,0 +1,145 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeExportFormat;
+import com.user404_.infinitehomes.api.HomeSnapshot;
+import com.user404_.infinitehomes.api.HomesService;
+import com.user404_.infinitehomes.network.NetworkManager;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link HomesService} backed by the plugin's home map. Both levels of that map are concurrent,
+ * so lookups read it directly from the caller's thread and only copy the homes they return.
+ * In network mode players that are not cached here are read from the shared storage off the main thread.
+ */
+public class InfiniteHomesService implements HomesService {
+    private final InfiniteHomes plugin;
+
+    public InfiniteHomesService(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public CompletableFuture<List<HomeSnapshot>> getHomes(UUID owner) {
+        Map<String, HomeData> cached = plugin.getHomes().get(owner);
+        NetworkManager network = plugin.getNetwork();
+        if (cached != null || network == null) {
+            return CompletableFuture.completedFuture(snapshot(owner, cached));
+        }
+        return async(() -> snapshot(owner, network.getStorage().loadPlayer(owner)));
+    }
+
+    @Override
+    public CompletableFuture<Optional<HomeSnapshot>> getHome(UUID owner, String name) {
+        String key = name.toLowerCase();
+        return getHomes(owner).thenApply(homes -> homes.stream().filter(h -> h.getName().equals(key)).findFirst());
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, List<HomeSnapshot>>> getHomes(Collection<UUID> owners) {
+        Map<UUID, List<HomeSnapshot>> result = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID owner : new HashSet<>(owners)) {
+            Map<String, HomeData> cached = plugin.getHomes().get(owner);
+            if (cached != null) {
+                List<HomeSnapshot> homes = snapshot(owner, cached);
+                if (!homes.isEmpty()) result.put(owner, homes);
+            } else {
+                missing.add(owner);
+            }
+        }
+
+        NetworkManager network = plugin.getNetwork();
+        if (missing.isEmpty() || network == null) {
+            return CompletableFuture.completedFuture(Collections.unmodifiableMap(result));
+        }
+        return async(() -> {
+            for (UUID owner : missing) {
+                List<HomeSnapshot> homes = snapshot(owner, network.getStorage().loadPlayer(owner));
+                if (!homes.isEmpty()) result.put(owner, homes);
+            }
+            return Collections.unmodifiableMap(result);
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<HomeSnapshot>> getHomesInWorld(String worldName) {
+        return scan(home -> home.getWorldName().equals(worldName));
+    }
+
+    @Override
+    public CompletableFuture<List<HomeSnapshot>> getHomesInRegion(String worldName, int x1, int z1, int x2, int z2) {
+        int minX = Math.min(x1, x2), maxX = Math.max(x1, x2);
+        int minZ = Math.min(z1, z2), maxZ = Math.max(z1, z2);
+        return scan(home -> {
+            if (!home.getWorldName().equals(worldName)) return false;
+            int x = (int) Math.floor(home.getX());
+            int z = (int) Math.floor(home.getZ());
+            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> exportHomes(Path file, HomeExportFormat format, boolean gzip, Predicate<HomeSnapshot> filter) {
+        HomeExporter exporter = new HomeExporter(plugin, format, file, gzip, filter == null ? null
+                : (owner, name, home) -> filter.test(new HomeSnapshot(owner, name, home)), null);
+        CompletableFuture<HomeExporter.Result> result = exporter.start();
+        if (result == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another export is still running"));
+        }
+        return result.thenApply(HomeExporter.Result::getHomes);
+    }
+
+    /**
+     * Walks all homes off the main thread. In network mode that is the whole shared storage, read one player
+     * at a time, with this server's cached players taking precedence as they may not be flushed yet.
+     */
+    private CompletableFuture<List<HomeSnapshot>> scan(Predicate<HomeData> filter) {
+        NetworkManager network = plugin.getNetwork();
+        return async(() -> {
+            List<HomeSnapshot> result = new ArrayList<>();
+            BiConsumer<UUID, Map<String, HomeData>> collect = (owner, homes) -> {
+                for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+                    if (filter.test(home.getValue())) {
+                        result.add(new HomeSnapshot(owner, home.getKey(), home.getValue()));
+                    }
+                }
+            };
+            if (network != null) {
+                network.forEachPlayer(collect);
+            } else {
+                for (Map.Entry<UUID, Map<String, HomeData>> player : plugin.getHomes().entrySet()) {
+                    collect.accept(player.getKey(), player.getValue());
+                }
+            }
+            return Collections.unmodifiableList(result);
+        });
+    }
+
+    private static List<HomeSnapshot> snapshot(UUID owner, Map<String, HomeData> homes) {
+        if (homes == null || homes.isEmpty()) return Collections.emptyList();
+        List<HomeSnapshot> result = new ArrayList<>(homes.size());
+        for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+            result.add(new HomeSnapshot(owner, home.getKey(), home.getValue()));
+        }
+        result.sort(Comparator.comparing(HomeSnapshot::getName));
+        return Collections.unmodifiableList(result);
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        plugin.getTaskScheduler().runAsync(() -> {
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,175 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+
+/**
+ * Local name <-> UUID index of every player that has been seen on this server.
+ * Lets /homeadmin resolve offline players without Bukkit.getOfflinePlayer(name),
+ * which may block the main thread on a profile lookup.
+ */
+public class PlayerIndex implements Listener {
+    private static final long SAVE_INTERVAL_TICKS = 20L * 60 * 5; // 5 minutes
+
+    private final InfiniteHomes plugin;
+    private final File indexFile;
+    private final Map<UUID, Entry> byUuid = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, UUID> byName = new ConcurrentSkipListMap<>(); // lower-case name -> uuid
+    private volatile boolean dirty;
+
+    public PlayerIndex(InfiniteHomes plugin) {
+        this.plugin = plugin;
+        this.indexFile = new File(plugin.getDataFolder(), "players.yml");
+    }
+
+    public void load() {
+        if (!indexFile.exists()) {
+            // First start with the index: seed it from the players the server already knows
+            for (OfflinePlayer offline : Bukkit.getOfflinePlayers()) {
+                if (offline.getName() != null) {
+                    put(offline.getUniqueId(), offline.getName(), offline.getLastPlayed());
+                }
+            }
+            dirty = true;
+            plugin.getLogger().info("Created player index with " + byUuid.size() + " entries.");
+            return;
+        }
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(indexFile);
+        for (String key : config.getKeys(false)) {
+            try {
+                ConfigurationSection section = config.getConfigurationSection(key);
+                if (section == null || section.getString("name") == null) continue;
+                put(UUID.fromString(key), section.getString("name"), section.getLong("last-seen", 0L));
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Skipping invalid player index entry: " + key);
+            }
+        }
+    }
+
+    public void startAutoSave() {
+        plugin.getTaskScheduler().runAsyncTimer(() -> {
+            if (dirty) save();
+        }, SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+    }
+
+    public synchronized void save() {
+        dirty = false;
+        YamlConfiguration config = new YamlConfiguration();
+        for (Map.Entry<UUID, Entry> e : byUuid.entrySet()) {
+            String path = e.getKey().toString();
+            config.set(path + ".name", e.getValue().name);
+            config.set(path + ".last-seen", e.getValue().lastSeen);
+        }
+        try {
+            config.save(indexFile);
+        } catch (IOException e) {
+            dirty = true;
+            plugin.getLogger().log(Level.SEVERE, "Could not save players.yml", e);
+        }
+    }
+
+    /**
+     * Records a player's current name. A renamed player loses the mapping for the old name.
+     */
+    public void record(UUID uuid, String name, long lastSeen) {
+        put(uuid, name, lastSeen);
+        dirty = true;
+    }
+
+    /**
+     * Records a name learned from elsewhere (e.g. an import) without overriding what the server has seen itself.
+     */
+    public void recordIfUnknown(UUID uuid, String name) {
+        if (!byUuid.containsKey(uuid)) {
+            record(uuid, name, 0L);
+        }
+    }
+
+    private void put(UUID uuid, String name, long lastSeen) {
+        Entry previous = byUuid.put(uuid, new Entry(name, lastSeen));
+        if (previous != null && !previous.name.equalsIgnoreCase(name)) {
+            byName.remove(previous.name.toLowerCase(), uuid);
+        }
+        byName.put(name.toLowerCase(), uuid);
+    }
+
+    /**
+     * Looks up a player by name off the main thread. The future completes with null if the name is unknown.
+     */
+    public CompletableFuture<UUID> resolveAsync(String name) {
+        CompletableFuture<UUID> future = new CompletableFuture<>();
+        plugin.getTaskScheduler().runAsync(() -> future.complete(byName.get(name.toLowerCase())));
+        return future;
+    }
+
+    /** UUID of a known player by name (case-insensitive), or null. */
+    public UUID getUuid(String name) {
+        return byName.get(name.toLowerCase());
+    }
+
+    public String getName(UUID uuid) {
+        Entry entry = byUuid.get(uuid);
+        return entry != null ? entry.name : null;
+    }
+
+    /** Last time the player was seen online in epoch millis, or 0 if unknown. */
+    public long getLastSeen(UUID uuid) {
+        Entry entry = byUuid.get(uuid);
+        return entry != null ? entry.lastSeen : 0L;
+    }
+
+    /**
+     * Known player names starting with the given prefix (case-insensitive), at most {@code limit} entries.
+     */
+    public List<String> complete(String prefix, int limit) {
+        String lower = prefix.toLowerCase();
+        ConcurrentNavigableMap<String, UUID> range = byName.subMap(lower, true, lower + Character.MAX_VALUE, false);
+        List<String> names = new ArrayList<>();
+        for (UUID uuid : range.values()) {
+            String name = getName(uuid);
+            if (name != null) names.add(name);
+            if (names.size() >= limit) break;
+        }
+        return names;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        record(player.getUniqueId(), player.getName(), System.currentTimeMillis());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        record(player.getUniqueId(), player.getName(), System.currentTimeMillis());
+    }
+
+    private static class Entry {
+        final String name;
+        final long lastSeen;
+
+        Entry(String name, long lastSeen) {
+            this.name = name;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
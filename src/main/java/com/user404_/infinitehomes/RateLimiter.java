@@ -0,0 +1,132 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per player and action class, so a single player cannot flood the main thread with
+ * commands, GUI clicks, tab completions or saves. Each bucket is one long (last refill time and
+ * tokens in thousandths) updated with compare-and-set; no locks are taken.
+ */
+public class RateLimiter implements Listener {
+    public enum Action {
+        COMMAND("commands"),
+        GUI_CLICK("gui-clicks"),
+        TAB_COMPLETE("tab-completions"),
+        SAVE("saves");
+
+        private final String configKey;
+
+        Action(String configKey) {
+            this.configKey = configKey;
+        }
+
+        public String getConfigKey() {
+            return configKey;
+        }
+    }
+
+    /**
+     * Size and refill rate of one bucket.
+     */
+    public static final class Limit {
+        private final int capacity;
+        private final double refillPerSecond;
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public int getCapacity() { return capacity; }
+        public double getRefillPerSecond() { return refillPerSecond; }
+    }
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final int WARNED_SLOT = Action.values().length; // last "slow down" message
+    private static final long WARN_INTERVAL_MILLIS = 2000;
+
+    private final InfiniteHomes plugin;
+    private final long epoch = System.currentTimeMillis();
+    private final Map<UUID, AtomicLongArray> buckets = new ConcurrentHashMap<>();
+    private final LongAdder[] throttled = new LongAdder[Action.values().length];
+
+    public RateLimiter(InfiniteHomes plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < throttled.length; i++) {
+            throttled[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Takes one token for the action. Returns false if the player is over the limit; they are told
+     * to slow down, at most every two seconds. Tab completions are throttled silently.
+     */
+    public boolean tryAcquire(Player player, Action action) {
+        Settings settings = plugin.getSettings();
+        if (!settings.isRateLimitsEnabled() || player.hasPermission("infinitehomes.ratelimit.bypass")) return true;
+
+        AtomicLongArray state = buckets.computeIfAbsent(player.getUniqueId(), uuid -> newState());
+        if (take(state, action.ordinal(), settings.getRateLimit(action))) return true;
+
+        throttled[action.ordinal()].increment();
+        if (action != Action.TAB_COMPLETE) {
+            long now = System.currentTimeMillis() - epoch;
+            long warned = state.get(WARNED_SLOT);
+            if (now - warned >= WARN_INTERVAL_MILLIS && state.compareAndSet(WARNED_SLOT, warned, now)) {
+                player.sendMessage(plugin.getMessage(player, "rate.slow_down"));
+            }
+        }
+        return false;
+    }
+
+    private boolean take(AtomicLongArray state, int slot, Limit limit) {
+        long capacity = Math.min((long) limit.getCapacity() * 1000, TOKEN_MASK);
+        while (true) {
+            long now = System.currentTimeMillis() - epoch;
+            long current = state.get(slot);
+            long last = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+
+            // Tokens per second = thousandths per millisecond
+            long added = (long) (Math.max(0, now - last) * limit.getRefillPerSecond());
+            long refilled = Math.min(capacity, tokens + added);
+            // Keep the old time while less than a thousandth was added, so slow rates still refill
+            long refillTime = added > 0 || refilled == capacity ? now : last;
+            if (refilled < 1000) {
+                if (refilled == tokens && refillTime == last) return false;
+                if (state.compareAndSet(slot, current, (refillTime << TOKEN_BITS) | refilled)) return false;
+                continue;
+            }
+            if (state.compareAndSet(slot, current, (refillTime << TOKEN_BITS) | (refilled - 1000))) return true;
+        }
+    }
+
+    private static AtomicLongArray newState() {
+        AtomicLongArray state = new AtomicLongArray(WARNED_SLOT + 1);
+        for (int i = 0; i < WARNED_SLOT; i++) {
+            state.set(i, TOKEN_MASK); // full; capped to the bucket size on first use
+        }
+        state.set(WARNED_SLOT, Long.MIN_VALUE / 2);
+        return state;
+    }
+
+    /** Actions refused since startup. */
+    public long getThrottled(Action action) {
+        return throttled[action.ordinal()].sum();
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        buckets.remove(event.getPlayer().getUniqueId());
+    }
+}
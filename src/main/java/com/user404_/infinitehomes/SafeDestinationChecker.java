@@ -0,0 +1,374 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks whether a home is safe to teleport to (solid ground, room to stand, no lava or fire).
+ * Chunk snapshots are taken by the thread owning the chunks, the block scan runs async. Verdicts are cached
+ * per home (and per player for /back) until a block changes in one of the scanned chunks or the TTL expires;
+ * expired verdicts are swept out once a minute. A verdict is not cached if a block changed in its chunks
+ * while they were being scanned.
+ */
+public class SafeDestinationChecker implements Listener {
+    private static final Set<Material> DANGEROUS = EnumSet.of(
+            Material.LAVA, Material.FIRE, Material.SOUL_FIRE, Material.MAGMA_BLOCK, Material.CACTUS,
+            Material.CAMPFIRE, Material.SOUL_CAMPFIRE, Material.SWEET_BERRY_BUSH, Material.WITHER_ROSE,
+            Material.POWDER_SNOW, Material.COBWEB, Material.POINTED_DRIPSTONE, Material.END_PORTAL,
+            Material.NETHER_PORTAL);
+
+    // Search radius -> block offsets within it, packed as dx, dy, dz and sorted by distance
+    private static final Map<Integer, int[]> OFFSETS = new ConcurrentHashMap<>();
+
+    private final InfiniteHomes plugin;
+    private final Map<Key, Verdict> cache = new ConcurrentHashMap<>();
+    // world -> packed chunk coordinates -> cached keys that scanned this chunk
+    private final Map<UUID, Map<Long, Set<Key>>> byChunk = new ConcurrentHashMap<>();
+    // Numbers the block changes; world -> packed chunk coordinates -> number of the last change in that chunk
+    private final AtomicLong changes = new AtomicLong();
+    private final Map<UUID, Map<Long, Long>> changedAt = new ConcurrentHashMap<>();
+    private volatile long sweptAt; // number of the last change at the previous sweep
+
+    public SafeDestinationChecker(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * What a verdict is cached for: a home, or the /back location of a player (homeName null).
+     */
+    private static final class Key {
+        private final UUID owner;
+        private final String homeName;
+
+        Key(UUID owner, String homeName) {
+            this.owner = owner;
+            this.homeName = homeName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return owner.equals(other.owner) && Objects.equals(homeName, other.homeName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * owner.hashCode() + Objects.hashCode(homeName);
+        }
+    }
+
+    /**
+     * Result of a check. {@code destination} is the home itself if it is safe, a nearby safe spot
+     * if one was found, or null if the player should not be teleported.
+     */
+    public static class Verdict {
+        private final Location home;
+        private final Location destination;
+        private final long checkedAt;
+        private final Set<Long> chunks; // packed coordinates of the scanned chunks
+
+        Verdict(Location home, Location destination, long checkedAt, Set<Long> chunks) {
+            this.home = home;
+            this.destination = destination;
+            this.checkedAt = checkedAt;
+            this.chunks = chunks;
+        }
+
+        public boolean isSafe() {
+            return destination != null && destination == home;
+        }
+
+        public Location getDestination() {
+            return destination == null ? null : destination.clone();
+        }
+    }
+
+    /**
+     * Checks a home. The future completes off the main thread.
+     */
+    public CompletableFuture<Verdict> check(UUID owner, String homeName, Location home) {
+        return check(new Key(owner, homeName), home);
+    }
+
+    /**
+     * Checks where /back would take the player. Cached apart from the player's homes, whatever they are called.
+     */
+    public CompletableFuture<Verdict> checkBack(UUID player, Location target) {
+        return check(new Key(player, null), target);
+    }
+
+    private CompletableFuture<Verdict> check(Key key, Location home) {
+        Settings settings = plugin.getSettings();
+        long ttl = settings.getSafeCacheTtlMillis();
+        Verdict cached = cache.get(key);
+        if (cached != null && cached.home.equals(home) && System.currentTimeMillis() - cached.checkedAt < ttl) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        World world = home.getWorld();
+        if (world == null) {
+            return CompletableFuture.completedFuture(new Verdict(home, null, System.currentTimeMillis(), Collections.emptySet()));
+        }
+        CompletableFuture<Verdict> future = new CompletableFuture<>();
+        int homeChunkX = home.getBlockX() >> 4, homeChunkZ = home.getBlockZ() >> 4;
+        // Snapshots must be taken by the thread owning the home's chunks (the main thread, or the home's
+        // region on regionized servers). An unloaded home chunk is loaded in the background first where
+        // the server supports it; neighbours are only used if they are already loaded.
+        plugin.getTaskScheduler().executeAt(home, () -> {
+            if (world.isChunkLoaded(homeChunkX, homeChunkZ)) {
+                scan(key, home, world.getChunkAt(homeChunkX, homeChunkZ), future);
+                return;
+            }
+            plugin.getTaskScheduler().loadChunk(world, homeChunkX, homeChunkZ).whenComplete((chunk, error) -> {
+                if (error != null) {
+                    plugin.getLogger().warning("Could not load the chunk of " + home + " for the safety check: " + error);
+                    future.complete(new Verdict(home, null, System.currentTimeMillis(), Collections.emptySet()));
+                    return;
+                }
+                plugin.getTaskScheduler().executeAt(home, () -> scan(key, home, chunk, future));
+            });
+        });
+        return future;
+    }
+
+    /**
+     * Snapshots the home's chunk and its loaded neighbours, then scans them async. Runs on the thread owning the home.
+     */
+    private void scan(Key key, Location home, Chunk homeChunk, CompletableFuture<Verdict> future) {
+        Settings settings = plugin.getSettings();
+        boolean findNearest = settings.isFindNearest();
+        int radius = findNearest ? settings.getSearchRadius() : 0;
+        int budget = settings.getBlockBudget();
+        World world = home.getWorld();
+        long snapshotAt = changes.get();
+        Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+        snapshots.put(pack(homeChunk.getX(), homeChunk.getZ()), homeChunk.getChunkSnapshot());
+        for (int cx = (home.getBlockX() - radius) >> 4; cx <= (home.getBlockX() + radius) >> 4; cx++) {
+            for (int cz = (home.getBlockZ() - radius) >> 4; cz <= (home.getBlockZ() + radius) >> 4; cz++) {
+                if (!snapshots.containsKey(pack(cx, cz)) && world.isChunkLoaded(cx, cz)) {
+                    snapshots.put(pack(cx, cz), world.getChunkAt(cx, cz).getChunkSnapshot());
+                }
+            }
+        }
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+
+        plugin.getTaskScheduler().runAsync(() -> {
+            Scan scan = new Scan(snapshots, minY, maxY, budget);
+            Location destination = null;
+            if (scan.isSafe(home.getBlockX(), home.getBlockY(), home.getBlockZ())) {
+                destination = home;
+            } else if (findNearest) {
+                destination = scan.findNearest(home, radius);
+            }
+            Verdict verdict = new Verdict(home, destination, System.currentTimeMillis(), snapshots.keySet());
+            Verdict previous = cache.put(key, verdict);
+            Map<Long, Set<Key>> chunks = byChunk.computeIfAbsent(world.getUID(), uid -> new ConcurrentHashMap<>());
+            if (previous != null) {
+                forget(chunks, key, previous);
+            }
+            for (Long chunk : verdict.chunks) {
+                chunks.compute(chunk, (c, keys) -> {
+                    if (keys == null) keys = new HashSet<>();
+                    keys.add(key);
+                    return keys;
+                });
+            }
+            // Checked after registering: a change from now on finds the verdict and drops it itself
+            if (changedSince(world.getUID(), verdict.chunks, snapshotAt) && cache.remove(key, verdict)) {
+                forget(chunks, key, verdict);
+            }
+            future.complete(verdict);
+        });
+    }
+
+    private boolean changedSince(UUID world, Set<Long> chunks, long since) {
+        Map<Long, Long> changed = changedAt.get(world);
+        if (changed == null) return false;
+        for (Long chunk : chunks) {
+            Long last = changed.get(chunk);
+            if (last != null && last > since) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops verdicts past the TTL, and change numbers old enough that no scan can still be running from before
+     * them. Runs off the main thread once a minute.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        long ttl = plugin.getSettings().getSafeCacheTtlMillis();
+        for (Map.Entry<Key, Verdict> entry : cache.entrySet()) {
+            Verdict verdict = entry.getValue();
+            if (now - verdict.checkedAt < ttl || !cache.remove(entry.getKey(), verdict)) continue;
+            World world = verdict.home.getWorld();
+            Map<Long, Set<Key>> chunks = world != null ? byChunk.get(world.getUID()) : null;
+            if (chunks != null) {
+                forget(chunks, entry.getKey(), verdict);
+            }
+        }
+        long before = sweptAt;
+        sweptAt = changes.get();
+        for (Map<Long, Long> changed : changedAt.values()) {
+            changed.values().removeIf(last -> last <= before);
+        }
+    }
+
+    private static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
+    }
+
+    /**
+     * Drops the cached verdicts that scanned the block's chunk, and their entries for the other chunks they scanned.
+     */
+    private void invalidate(Block block) {
+        UUID world = block.getWorld().getUID();
+        long chunk = pack(block.getX() >> 4, block.getZ() >> 4);
+        changedAt.computeIfAbsent(world, uid -> new ConcurrentHashMap<>()).put(chunk, changes.incrementAndGet());
+        Map<Long, Set<Key>> chunks = byChunk.get(world);
+        if (chunks == null) return;
+        Set<Key> keys = chunks.remove(chunk);
+        if (keys == null) return;
+        for (Key key : keys) {
+            Verdict verdict = cache.remove(key);
+            if (verdict != null) {
+                forget(chunks, key, verdict);
+            }
+        }
+    }
+
+    private static void forget(Map<Long, Set<Key>> chunks, Key key, Verdict verdict) {
+        for (Long chunk : verdict.chunks) {
+            chunks.computeIfPresent(chunk, (c, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        invalidate(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            invalidate(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            invalidate(block);
+        }
+    }
+
+    /**
+     * Block scan over chunk snapshots. Runs off the main thread.
+     */
+    private static class Scan {
+        private final Map<Long, ChunkSnapshot> snapshots;
+        private final int minY;
+        private final int maxY;
+        private int budget;
+
+        Scan(Map<Long, ChunkSnapshot> snapshots, int minY, int maxY, int budget) {
+            this.snapshots = snapshots;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.budget = budget;
+        }
+
+        boolean isSafe(int x, int y, int z) {
+            if (y - 1 < minY || y + 1 >= maxY) return false;
+            Material ground = type(x, y - 1, z);
+            Material feet = type(x, y, z);
+            Material head = type(x, y + 1, z);
+            if (ground == null || feet == null || head == null) return false; // chunk not available
+            return ground.isSolid() && !DANGEROUS.contains(ground)
+                    && isFree(feet) && isFree(head);
+        }
+
+        private static boolean isFree(Material material) {
+            return !material.isSolid() && material != Material.WATER && !DANGEROUS.contains(material);
+        }
+
+        private Material type(int x, int y, int z) {
+            budget--;
+            ChunkSnapshot snapshot = snapshots.get(pack(x >> 4, z >> 4));
+            return snapshot == null ? null : snapshot.getBlockType(x & 15, y, z & 15);
+        }
+
+        /**
+         * Searches the blocks within the radius closest first, until the block budget is used up.
+         */
+        Location findNearest(Location home, int radius) {
+            int hx = home.getBlockX(), hy = home.getBlockY(), hz = home.getBlockZ();
+            int[] offsets = offsets(radius);
+            for (int i = 3; i < offsets.length; i += 3) { // the first one is the home itself
+                if (budget <= 0) return null;
+                int x = hx + offsets[i], y = hy + offsets[i + 1], z = hz + offsets[i + 2];
+                if (isSafe(x, y, z)) {
+                    return new Location(home.getWorld(), x + 0.5, y, z + 0.5, home.getYaw(), home.getPitch());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Offsets within the radius by distance; at equal distance the same height comes first.
+         */
+        private static int[] offsets(int radius) {
+            return OFFSETS.computeIfAbsent(radius, r -> {
+                List<int[]> within = new ArrayList<>();
+                for (int dx = -r; dx <= r; dx++) {
+                    for (int dy = -r; dy <= r; dy++) {
+                        for (int dz = -r; dz <= r; dz++) {
+                            if (dx * dx + dy * dy + dz * dz <= r * r) within.add(new int[]{dx, dy, dz});
+                        }
+                    }
+                }
+                within.sort(Comparator.<int[]>comparingInt(o -> o[0] * o[0] + o[1] * o[1] + o[2] * o[2])
+                        .thenComparingInt(o -> Math.abs(o[1])));
+                int[] packed = new int[within.size() * 3];
+                for (int i = 0; i < within.size(); i++) {
+                    System.arraycopy(within.get(i), 0, packed, i * 3, 3);
+                }
+                return packed;
+            });
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Parsed and validated copy of config.yml. Instances never change; the plugin swaps in a new one
+ * on reload or when an admin command changes a value, so hot paths can read plain fields.
+ */
+public final class Settings {
+    private final int maxHomes;
+    private final int homeCooldown;
+    private final int teleportDelay;
+    private final boolean cancelOnMove;
+
+    private final boolean safeTeleport;
+    private final boolean findNearest;
+    private final int searchRadius;
+    private final int blockBudget;
+    private final long safeCacheTtlMillis;
+
+    private final boolean backupsEnabled;
+    private final int backupIntervalMinutes;
+    private final int backupKeep;
+    private final int backupMaxAgeDays;
+
+    private final int usageFlushSeconds;
+    private final int expiryCheckSeconds;
+
+    private final boolean backEnabled;
+    private final int backHistorySize;
+    private final boolean backOnDeath;
+
+    private final boolean fuzzyMatchEnabled;
+    private final boolean fuzzyAutoTeleport;
+
+    private final boolean coldTierEnabled;
+    private final int coldTierDemoteSeconds;
+
+    private final boolean anvilNameInput;
+    private final int promptTimeoutSeconds;
+
+    private final boolean rateLimitsEnabled;
+    private final RateLimiter.Limit[] rateLimits = new RateLimiter.Limit[RateLimiter.Action.values().length];
+
+    private final boolean networkEnabled;
+    private final String serverName;
+    private final String networkStorage;
+    private final String messageBus;
+    private final String sqlUrl;
+    private final String sqlUser;
+    private final String sqlPassword;
+    private final String sqlTablePrefix;
+    private final String sharedFileDirectory;
+
+    private Settings(ConfigurationSection config, Logger logger) {
+        maxHomes = atLeast(config, "max-homes", -1, -1, logger);
+        homeCooldown = range(config, "home-cooldown", -1, -1, 60, logger);
+        teleportDelay = range(config, "teleport-delay", -1, -1, 60, logger);
+        cancelOnMove = config.getBoolean("teleport-delay-cancel-on-move", true);
+
+        safeTeleport = config.getBoolean("safe-teleport.enabled", true);
+        findNearest = config.getBoolean("safe-teleport.find-nearest", true);
+        searchRadius = range(config, "safe-teleport.search-radius", 4, 0, 16, logger);
+        blockBudget = atLeast(config, "safe-teleport.block-budget", 1024, 1, logger);
+        safeCacheTtlMillis = TimeUnit.SECONDS.toMillis(atLeast(config, "safe-teleport.cache-ttl-seconds", 300, 0, logger));
+
+        backupsEnabled = config.getBoolean("backups.enabled", true);
+        backupIntervalMinutes = atLeast(config, "backups.interval-minutes", 60, 1, logger);
+        backupKeep = atLeast(config, "backups.keep", 24, 0, logger);
+        backupMaxAgeDays = atLeast(config, "backups.max-age-days", 7, 0, logger);
+
+        usageFlushSeconds = atLeast(config, "usage.flush-interval-seconds", 300, 1, logger);
+        expiryCheckSeconds = atLeast(config, "expiry.check-interval-seconds", 30, 1, logger);
+
+        backEnabled = config.getBoolean("back.enabled", true);
+        backHistorySize = range(config, "back.history-size", 5, 1, 64, logger);
+        backOnDeath = config.getBoolean("back.record-deaths", true);
+
+        fuzzyMatchEnabled = config.getBoolean("fuzzy-match.enabled", true);
+        fuzzyAutoTeleport = config.getBoolean("fuzzy-match.auto-teleport", false);
+
+        coldTierEnabled = config.getBoolean("cold-tier.enabled", true);
+        coldTierDemoteSeconds = range(config, "cold-tier.demote-after-seconds", 300, 10, 86400, logger);
+
+        anvilNameInput = oneOf(config, "gui.name-input", "chat", logger, "chat", "anvil").equals("anvil");
+        promptTimeoutSeconds = range(config, "gui.prompt-timeout-seconds", 30, 5, 600, logger);
+
+        rateLimitsEnabled = config.getBoolean("rate-limits.enabled", true);
+        for (RateLimiter.Action action : RateLimiter.Action.values()) {
+            String path = "rate-limits." + action.getConfigKey();
+            RateLimiter.Limit def = defaultLimit(action);
+            int capacity = range(config, path + ".capacity", def.getCapacity(), 1, 1000, logger);
+            double refill = config.getDouble(path + ".refill-per-second", def.getRefillPerSecond());
+            if (refill <= 0 || refill > 1000) {
+                logger.warning("Invalid value " + refill + " for " + path + ".refill-per-second (allowed: above 0 to 1000), using "
+                        + def.getRefillPerSecond());
+                refill = def.getRefillPerSecond();
+            }
+            rateLimits[action.ordinal()] = new RateLimiter.Limit(capacity, refill);
+        }
+
+        networkEnabled = config.getBoolean("network.enabled", false);
+        serverName = config.getString("network.server-name", "");
+        networkStorage = oneOf(config, "network.storage", "sql", logger, "sql", "shared-file");
+        messageBus = oneOf(config, "network.message-bus", "plugin-message", logger, "plugin-message", "local");
+        sqlUrl = config.getString("network.sql.url", "jdbc:mysql://localhost:3306/minecraft");
+        sqlUser = config.getString("network.sql.user", "minecraft");
+        sqlPassword = config.getString("network.sql.password", "");
+        sqlTablePrefix = config.getString("network.sql.table-prefix", "infinitehomes_");
+        sharedFileDirectory = config.getString("network.shared-file.directory", "../shared-homes");
+    }
+
+    /**
+     * Reads all settings. Invalid values are logged and replaced by their default.
+     */
+    public static Settings load(ConfigurationSection config, Logger logger) {
+        return new Settings(config, logger);
+    }
+
+    /**
+     * Bucket sizes used when config.yml has none: short bursts are fine, sustained spam is not.
+     */
+    static RateLimiter.Limit defaultLimit(RateLimiter.Action action) {
+        switch (action) {
+            case COMMAND: return new RateLimiter.Limit(10, 2);
+            case GUI_CLICK: return new RateLimiter.Limit(20, 8);
+            case TAB_COMPLETE: return new RateLimiter.Limit(30, 10);
+            default: return new RateLimiter.Limit(5, 1);
+        }
+    }
+
+    private static int range(ConfigurationSection config, String path, int def, int min, int max, Logger logger) {
+        int value = config.getInt(path, def);
+        if (value < min || value > max) {
+            logger.warning("Invalid value " + value + " for " + path + " (allowed: " + min + " to " + max + "), using " + def);
+            return def;
+        }
+        return value;
+    }
+
+    private static int atLeast(ConfigurationSection config, String path, int def, int min, Logger logger) {
+        return range(config, path, def, min, Integer.MAX_VALUE, logger);
+    }
+
+    private static String oneOf(ConfigurationSection config, String path, String def, Logger logger, String... allowed) {
+        String value = config.getString(path, def).toLowerCase();
+        for (String option : allowed) {
+            if (option.equals(value)) return value;
+        }
+        logger.warning("Invalid value '" + value + "' for " + path + ", using " + def);
+        return def;
+    }
+
+    /**
+     * Whether switching from {@code other} to these settings needs the home storage to be set up again.
+     */
+    boolean storageDiffers(Settings other) {
+        if (networkEnabled != other.networkEnabled) return true;
+        if (!networkEnabled) return false;
+        return !serverName.equals(other.serverName) || !networkStorage.equals(other.networkStorage)
+                || !messageBus.equals(other.messageBus) || !sqlUrl.equals(other.sqlUrl)
+                || !sqlUser.equals(other.sqlUser) || !Objects.equals(sqlPassword, other.sqlPassword)
+                || !sqlTablePrefix.equals(other.sqlTablePrefix) || !sharedFileDirectory.equals(other.sharedFileDirectory);
+    }
+
+    /** Home limit, -1 for unlimited. */
+    public int getMaxHomes() { return maxHomes; }
+    /** Seconds between /home uses, -1 if disabled. */
+    public int getHomeCooldown() { return homeCooldown; }
+    /** Teleport warmup in seconds, -1 if disabled. */
+    public int getTeleportDelay() { return teleportDelay; }
+    public boolean isCancelOnMove() { return cancelOnMove; }
+
+    public boolean isSafeTeleport() { return safeTeleport; }
+    public boolean isFindNearest() { return findNearest; }
+    public int getSearchRadius() { return searchRadius; }
+    public int getBlockBudget() { return blockBudget; }
+    public long getSafeCacheTtlMillis() { return safeCacheTtlMillis; }
+
+    public boolean isBackupsEnabled() { return backupsEnabled; }
+    public int getBackupIntervalMinutes() { return backupIntervalMinutes; }
+    public int getBackupKeep() { return backupKeep; }
+    public int getBackupMaxAgeDays() { return backupMaxAgeDays; }
+
+    /** How often collected home usage is written to storage. */
+    public int getUsageFlushSeconds() { return usageFlushSeconds; }
+    /** How often temporary homes are checked for expiry. */
+    public int getExpiryCheckSeconds() { return expiryCheckSeconds; }
+
+    public boolean isBackEnabled() { return backEnabled; }
+    /** Locations kept per online player for /back. */
+    public int getBackHistorySize() { return backHistorySize; }
+    /** Whether deaths are recorded for /back. */
+    public boolean isBackOnDeath() { return backOnDeath; }
+
+    /** Whether /home and /delhome suggest similar names for a home that does not exist. */
+    public boolean isFuzzyMatchEnabled() { return fuzzyMatchEnabled; }
+    /** Whether /home goes straight to the only home one typo away from the typed name. */
+    public boolean isFuzzyAutoTeleport() { return fuzzyAutoTeleport; }
+
+    /** Whether offline players' homes are packed off-heap (only without network mode). */
+    public boolean isColdTierEnabled() { return coldTierEnabled; }
+    /** Seconds after which an unused offline player's homes go back to the cold tier. */
+    public int getColdTierDemoteSeconds() { return coldTierDemoteSeconds; }
+
+    /** Whether new home names are typed into an anvil instead of the chat. */
+    public boolean isAnvilNameInput() { return anvilNameInput; }
+    public int getPromptTimeoutSeconds() { return promptTimeoutSeconds; }
+
+    public boolean isRateLimitsEnabled() { return rateLimitsEnabled; }
+    public RateLimiter.Limit getRateLimit(RateLimiter.Action action) { return rateLimits[action.ordinal()]; }
+
+    public boolean isNetworkEnabled() { return networkEnabled; }
+    public String getServerName() { return serverName; }
+    public String getNetworkStorage() { return networkStorage; }
+    public String getMessageBus() { return messageBus; }
+    public String getSqlUrl() { return sqlUrl; }
+    public String getSqlUser() { return sqlUser; }
+    public String getSqlPassword() { return sqlPassword; }
+    public String getSqlTablePrefix() { return sqlTablePrefix; }
+    public String getSharedFileDirectory() { return sharedFileDirectory; }
+}
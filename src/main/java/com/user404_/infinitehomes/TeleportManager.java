@@ -1,51 +1,46 @@
 package com.user404_.infinitehomes;
 
+import com.user404_.infinitehomes.api.HomeSnapshot;
+import com.user404_.infinitehomes.api.HomeTeleportEvent;
+import com.user404_.infinitehomes.network.NetworkManager;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Warmups and teleports. Everything about a player runs on that player's thread, which on
+ * regionized servers is the thread of the region the player is in.
+ */
 public class TeleportManager implements Listener {
     private final InfiniteHomes plugin;
-    private final Map<UUID, PendingTeleport> pendingTeleports = new HashMap<>();
+    private final Map<UUID, PendingTeleport> pendingTeleports = new ConcurrentHashMap<>();
 
     public TeleportManager(InfiniteHomes plugin) {
         this.plugin = plugin;
     }
 
-    public void requestTeleport(Player player, String homeName, Location target) {
+    public void requestTeleport(Player player, UUID owner, String homeName, HomeData home) {
         cancelPending(player.getUniqueId(), "new request");
 
-        int delay = plugin.getConfig().getInt("teleport-delay", -1);
+        Settings settings = plugin.getSettings();
+        // Warmup of the destination world, with permission overrides
+        int delay = plugin.getWorldPolicies().get(home.getWorldName()).forPlayer(player).getTeleportDelay();
         if (delay <= 0) {
-            player.teleport(target);
-            player.sendMessage(plugin.getMessage(player, "home.teleport").replace("{home}", homeName));
+            teleport(player, owner, homeName, home);
             return;
         }
 
-        boolean cancelOnMove = plugin.getConfig().getBoolean("teleport-delay-cancel-on-move", true);
-
-        BukkitTask task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (pendingTeleports.containsKey(player.getUniqueId())) {
-                    player.teleport(target);
-                    player.sendMessage(plugin.getMessage(player, "home.teleport").replace("{home}", homeName));
-                    pendingTeleports.remove(player.getUniqueId());
-                }
-            }
-        }.runTaskLater(plugin, delay * 20L);
-
-        PendingTeleport pending = new PendingTeleport(player.getUniqueId(), target, homeName, cancelOnMove, task);
-        pendingTeleports.put(player.getUniqueId(), pending);
+        boolean cancelOnMove = settings.isCancelOnMove();
+        schedule(player, delay, cancelOnMove, () -> teleport(player, owner, homeName, home));
 
         String cancelMsg = cancelOnMove ? plugin.getMessage(player, "teleport.cancel_on_move") : "";
         player.sendMessage(plugin.getMessage(player, "teleport.delayed")
@@ -54,6 +49,109 @@ public class TeleportManager implements Listener {
                 .replace("{cancelMessage}", cancelMsg));
     }
 
+    /**
+     * Teleports back to a location from the player's {@link BackHistory}, with the warmup of its world.
+     */
+    public void requestBack(Player player, Location target) {
+        cancelPending(player.getUniqueId(), "new request");
+
+        int delay = plugin.getWorldPolicies().get(target.getWorld()).forPlayer(player).getTeleportDelay();
+        if (delay <= 0) {
+            backNow(player, target);
+            return;
+        }
+
+        boolean cancelOnMove = plugin.getSettings().isCancelOnMove();
+        schedule(player, delay, cancelOnMove, () -> backNow(player, target));
+
+        String cancelMsg = cancelOnMove ? plugin.getMessage(player, "teleport.cancel_on_move") : "";
+        player.sendMessage(plugin.getMessage(player, "back.delayed")
+                .replace("{time}", String.valueOf(delay))
+                .replace("{cancelMessage}", cancelMsg));
+    }
+
+    private void schedule(Player player, int delay, boolean cancelOnMove, Runnable action) {
+        TaskScheduler.Task task = plugin.getTaskScheduler().runForLater(player, () -> {
+            if (pendingTeleports.remove(player.getUniqueId()) != null) {
+                action.run();
+            }
+        }, delay * 20L);
+        if (task == null) return; // player left meanwhile
+
+        pendingTeleports.put(player.getUniqueId(), new PendingTeleport(player.getUniqueId(), cancelOnMove, task));
+    }
+
+    private void backNow(Player player, Location target) {
+        if (Bukkit.getWorld(target.getWorld().getUID()) == null) { // unloaded during the warmup
+            player.sendMessage(plugin.getMessage(player, "back.unavailable"));
+            return;
+        }
+        if (!plugin.getSettings().isSafeTeleport()) {
+            plugin.getBackHistory().record(player, BackHistory.TELEPORT);
+            plugin.getTaskScheduler().teleport(player, target);
+            player.sendMessage(plugin.getMessage(player, "back.teleport"));
+            return;
+        }
+        // Cached per player like a home; a different location never reuses the old verdict
+        plugin.getSafeDestinationChecker().checkBack(player.getUniqueId(), target).thenAccept(verdict ->
+                plugin.getTaskScheduler().runFor(player, () -> {
+                    Location destination = verdict.getDestination();
+                    if (destination == null) {
+                        player.sendMessage(plugin.getMessage(player, "back.unsafe"));
+                        return;
+                    }
+                    plugin.getBackHistory().record(player, BackHistory.TELEPORT);
+                    plugin.getTaskScheduler().teleport(player, destination);
+                    player.sendMessage(plugin.getMessage(player, "back.teleport"));
+                }));
+    }
+
+    private void teleport(Player player, UUID owner, String homeName, HomeData home) {
+        HomeTeleportEvent event = new HomeTeleportEvent(player, new HomeSnapshot(owner, homeName, home));
+        plugin.getServer().getPluginManager().callEvent(event);
+        if (event.isCancelled()) return;
+
+        NetworkManager network = plugin.getNetwork();
+        if (network != null && network.isRemote(home)) {
+            network.handOff(player, owner, homeName, home.getServer());
+            return;
+        }
+        teleportNow(player, owner, homeName, home);
+    }
+
+    /**
+     * Teleports right away, or after an async safety check of the destination if safe-teleport is enabled.
+     */
+    public void teleportNow(Player player, UUID owner, String homeName, HomeData home) {
+        Location target = home.getLocation();
+        if (target == null) {
+            player.sendMessage(plugin.getMessage(player, "home.world_unavailable").replace("{home}", homeName));
+            return;
+        }
+
+        if (!plugin.getSettings().isSafeTeleport()) {
+            plugin.getBackHistory().record(player, BackHistory.TELEPORT);
+            plugin.getTaskScheduler().teleport(player, target);
+            plugin.getUsageTracker().recordUse(owner, home);
+            player.sendMessage(plugin.getMessage(player, "home.teleport").replace("{home}", homeName));
+            return;
+        }
+
+        plugin.getSafeDestinationChecker().check(owner, homeName, target).thenAccept(verdict ->
+                plugin.getTaskScheduler().runFor(player, () -> {
+                    Location destination = verdict.getDestination();
+                    if (destination == null) {
+                        player.sendMessage(plugin.getMessage(player, "teleport.unsafe").replace("{home}", homeName));
+                        return;
+                    }
+                    plugin.getBackHistory().record(player, BackHistory.TELEPORT);
+                    plugin.getTaskScheduler().teleport(player, destination);
+                    plugin.getUsageTracker().recordUse(owner, home);
+                    player.sendMessage(plugin.getMessage(player, verdict.isSafe() ? "home.teleport" : "teleport.relocated")
+                            .replace("{home}", homeName));
+                }));
+    }
+
     public void cancelPending(UUID playerId, String reason) {
         PendingTeleport pending = pendingTeleports.remove(playerId);
         if (pending != null) {
@@ -95,15 +193,11 @@ public class TeleportManager implements Listener {
 
     private static class PendingTeleport {
         UUID playerId;
-        Location target;
-        String homeName;
         boolean cancelOnMove;
-        BukkitTask task;
+        TaskScheduler.Task task;
 
-        PendingTeleport(UUID playerId, Location target, String homeName, boolean cancelOnMove, BukkitTask task) {
+        PendingTeleport(UUID playerId, boolean cancelOnMove, TaskScheduler.Task task) {
             this.playerId = playerId;
-            this.target = target;
-            this.homeName = homeName;
             this.cancelOnMove = cancelOnMove;
             this.task = task;
         }
@@ -0,0 +1,327 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * All loaded homes, keyed by player UUID, in two tiers: online players (and offline players someone
+ * is working with) as {@link HomeData} objects on the heap, everyone else packed into a {@link ColdHomeSlab}.
+ * <p>
+ * {@link #get} moves a cold player to the hot tier, so every home that is changed or teleported to
+ * is a heap object. Players are promoted when they log in and demoted a tick after they quit; offline
+ * players promoted by an admin, a shared home or a bulk operation go back once they were not accessed
+ * for {@code cold-tier.demote-after-seconds}. Iterating returns cold players as read-only copies
+ * without promoting them, so exports and scans do not fill the heap. Like the iterators of a
+ * {@link ConcurrentHashMap}, iteration is weakly consistent: a player changing tiers meanwhile may be missed.
+ * <p>
+ * Tier changes and lookups that miss the hot tier are synchronized on the slab; hits on the hot tier take no lock.
+ * With the cold tier disabled this is a plain concurrent map. In network mode offline players are only
+ * cached while someone uses them: with {@link #setEvictIdle} set, they are handed to the callback instead
+ * of being demoted.
+ */
+public class TieredHomeMap extends AbstractMap<UUID, Map<String, HomeData>> implements Listener {
+    private static final long SWEEP_TICKS = 20L * 60;
+
+    private final InfiniteHomes plugin;
+    private final Map<UUID, Map<String, HomeData>> hot = new ConcurrentHashMap<>();
+    private final ColdHomeSlab cold = new ColdHomeSlab();
+    // Last get() per hot player, to find offline players nobody needs any more
+    private final Map<UUID, Long> lastAccess = new ConcurrentHashMap<>();
+    private volatile boolean coldEnabled;
+    private volatile long demoteAfterMillis;
+    private volatile Consumer<UUID> evictIdle;
+    private TaskScheduler.Task sweeper;
+
+    public TieredHomeMap(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Turns the cold tier on or off. Turning it off moves every player back to the heap;
+     * turning it on demotes all offline players right away.
+     */
+    public void setColdTier(boolean enabled, int demoteAfterSeconds) {
+        demoteAfterMillis = demoteAfterSeconds * 1000L;
+        if (sweeper != null) {
+            sweeper.cancel();
+            sweeper = null;
+        }
+        synchronized (cold) {
+            coldEnabled = enabled;
+            if (!enabled) {
+                for (UUID owner : cold.owners()) {
+                    hot.put(owner, cold.remove(owner));
+                }
+                if (evictIdle == null) lastAccess.clear();
+            }
+        }
+        if (enabled) {
+            demoteIdle(0);
+        }
+        if (enabled || evictIdle != null) {
+            sweeper = plugin.getTaskScheduler().runGlobalTimer(() -> demoteIdle(demoteAfterMillis), SWEEP_TICKS, SWEEP_TICKS);
+        }
+    }
+
+    /**
+     * Sets who drops idle offline players while the cold tier is off, or null to keep them. The callback
+     * runs on the global thread and is expected to remove the player from this map; call
+     * {@link #setColdTier} afterwards so the sweep is started or stopped.
+     */
+    public void setEvictIdle(Consumer<UUID> evictIdle) {
+        this.evictIdle = evictIdle;
+    }
+
+    private boolean tracksAccess() {
+        return coldEnabled || evictIdle != null;
+    }
+
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.cancel();
+            sweeper = null;
+        }
+    }
+
+    /**
+     * Demotes (or evicts, see {@link #setEvictIdle}) every offline player in the hot tier who was not
+     * accessed for {@code idleMillis}. Runs on the global thread.
+     */
+    private void demoteIdle(long idleMillis) {
+        Consumer<UUID> evict = evictIdle;
+        if (!coldEnabled && evict == null) return;
+        long now = System.currentTimeMillis();
+        for (UUID owner : hot.keySet()) {
+            Long accessed = lastAccess.get(owner);
+            if ((accessed == null || now - accessed >= idleMillis) && Bukkit.getPlayer(owner) == null) {
+                if (coldEnabled) {
+                    demote(owner);
+                } else {
+                    evict.accept(owner);
+                }
+            }
+        }
+    }
+
+    private void demote(UUID owner) {
+        synchronized (cold) {
+            if (!coldEnabled) return;
+            Map<String, HomeData> homes = hot.get(owner);
+            if (homes == null) return;
+            // Packed before it leaves the hot tier, so a lookup always finds the player in one of them
+            cold.put(owner, homes);
+            hot.remove(owner);
+            lastAccess.remove(owner);
+        }
+    }
+
+    /**
+     * Moves a cold player to the hot tier and returns their homes, or null if the player has none.
+     */
+    private Map<String, HomeData> promote(UUID owner) {
+        synchronized (cold) {
+            Map<String, HomeData> homes = hot.get(owner);
+            if (homes == null && coldEnabled) {
+                homes = cold.remove(owner);
+                if (homes != null) hot.put(owner, homes);
+            }
+            return homes;
+        }
+    }
+
+    /**
+     * The player's homes, moved to the hot tier first if they were cold. Changes to the returned map are kept.
+     */
+    @Override
+    public Map<String, HomeData> get(Object key) {
+        if (!(key instanceof UUID)) return null;
+        UUID owner = (UUID) key;
+        Map<String, HomeData> homes = hot.get(owner);
+        if (homes == null && coldEnabled) {
+            homes = promote(owner);
+        }
+        if (homes != null && tracksAccess()) {
+            lastAccess.put(owner, System.currentTimeMillis());
+        }
+        return homes;
+    }
+
+    /**
+     * The player's homes if they are in the hot tier, without promoting a cold player.
+     */
+    public Map<String, HomeData> getIfHot(UUID owner) {
+        return hot.get(owner);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (hot.containsKey(key)) return true;
+        if (!coldEnabled || !(key instanceof UUID)) return false;
+        synchronized (cold) {
+            return hot.containsKey(key) || cold.contains((UUID) key);
+        }
+    }
+
+    @Override
+    public Map<String, HomeData> put(UUID owner, Map<String, HomeData> homes) {
+        synchronized (cold) {
+            Map<String, HomeData> previous = hot.put(owner, homes);
+            Map<String, HomeData> coldPrevious = cold.remove(owner);
+            if (tracksAccess()) lastAccess.put(owner, System.currentTimeMillis());
+            return previous != null ? previous : coldPrevious;
+        }
+    }
+
+    @Override
+    public Map<String, HomeData> remove(Object key) {
+        if (!(key instanceof UUID)) return null;
+        synchronized (cold) {
+            lastAccess.remove(key);
+            Map<String, HomeData> previous = hot.remove(key);
+            Map<String, HomeData> coldPrevious = cold.remove((UUID) key);
+            return previous != null ? previous : coldPrevious;
+        }
+    }
+
+    @Override
+    public Map<String, HomeData> computeIfAbsent(UUID owner, Function<? super UUID, ? extends Map<String, HomeData>> function) {
+        synchronized (cold) {
+            get(owner);
+            return hot.computeIfAbsent(owner, function);
+        }
+    }
+
+    @Override
+    public Map<String, HomeData> computeIfPresent(UUID owner,
+            BiFunction<? super UUID, ? super Map<String, HomeData>, ? extends Map<String, HomeData>> function) {
+        synchronized (cold) {
+            get(owner);
+            return hot.computeIfPresent(owner, function);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cold) {
+            hot.clear();
+            cold.clear();
+            lastAccess.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return hot.size() + cold.getPlayerCount();
+    }
+
+    /**
+     * Number of homes in both tiers, without unpacking the cold one.
+     */
+    public long getHomeCount() {
+        long total = cold.getHomeCount();
+        for (Map<String, HomeData> homes : hot.values()) {
+            total += homes.size();
+        }
+        return total;
+    }
+
+    public ColdHomeSlab getColdTier() {
+        return cold;
+    }
+
+    public boolean isColdTierEnabled() {
+        return coldEnabled;
+    }
+
+    @Override
+    public Set<Map.Entry<UUID, Map<String, HomeData>>> entrySet() {
+        return new AbstractSet<Map.Entry<UUID, Map<String, HomeData>>>() {
+            @Override
+            public Iterator<Map.Entry<UUID, Map<String, HomeData>>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return TieredHomeMap.this.size();
+            }
+        };
+    }
+
+    /**
+     * Hot players first, then a snapshot of the cold ones, unpacked one at a time.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<UUID, Map<String, HomeData>>> {
+        private final Iterator<Map.Entry<UUID, Map<String, HomeData>>> hotEntries = hot.entrySet().iterator();
+        private Iterator<UUID> coldOwners;
+        private Map.Entry<UUID, Map<String, HomeData>> next;
+        private UUID lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (hotEntries.hasNext()) {
+                next = hotEntries.next();
+                return true;
+            }
+            if (coldOwners == null) {
+                coldOwners = coldEnabled ? cold.owners().iterator() : Collections.emptyIterator();
+            }
+            while (coldOwners.hasNext()) {
+                UUID owner = coldOwners.next();
+                if (hot.containsKey(owner)) continue; // promoted meanwhile
+                Map<String, HomeData> homes = cold.get(owner);
+                if (homes != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(owner, Collections.unmodifiableMap(homes));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Map.Entry<UUID, Map<String, HomeData>> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Map.Entry<UUID, Map<String, HomeData>> result = next;
+            next = null;
+            lastReturned = result.getKey();
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) throw new IllegalStateException();
+            TieredHomeMap.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+
+    // Unpacked off the main thread; a failed login leaves the player hot until the next sweep
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            get(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID owner = event.getPlayer().getUniqueId();
+        if (!coldEnabled || !hot.containsKey(owner)) return;
+        // A tick later, so quit handlers and saves still see the heap objects
+        plugin.getTaskScheduler().runGlobal(() -> {
+            if (Bukkit.getPlayer(owner) == null) demote(owner);
+        });
+    }
+}
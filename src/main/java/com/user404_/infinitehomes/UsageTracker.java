@@ -0,0 +1,85 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.network.NetworkManager;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts teleports per home. The counters live on {@link HomeData} and are bumped on the teleporting player's thread;
+ * players whose homes changed are collected and written out in one batch per interval instead of per teleport.
+ * In network mode only the counters are written, so changes other servers made to the homes meanwhile are kept.
+ */
+public class UsageTracker {
+    private final InfiniteHomes plugin;
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private TaskScheduler.Task task;
+
+    public UsageTracker(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start(int intervalSeconds) {
+        stop();
+        long ticks = Math.max(1, intervalSeconds) * 20L;
+        task = plugin.getTaskScheduler().runAsyncTimer(this::flush, ticks, ticks);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Records a teleport to the home. Called on the teleported player's thread.
+     */
+    public void recordUse(UUID owner, HomeData home) {
+        home.markUsed(System.currentTimeMillis());
+        dirty.add(owner);
+    }
+
+    /**
+     * Whether the player has usage that was not written yet.
+     */
+    public boolean isPending(UUID owner) {
+        return dirty.contains(owner);
+    }
+
+    /**
+     * Stages every player with new usage and writes them in one go. Runs off the main thread.
+     */
+    private void flush() {
+        if (dirty.isEmpty()) return;
+        NetworkManager network = plugin.getNetwork();
+        List<UUID> batch = new ArrayList<>();
+        for (UUID owner : dirty) {
+            // Looked up while still pending, so the network cache does not drop the player in between
+            Map<String, HomeData> homes = plugin.getHomes().get(owner);
+            dirty.remove(owner);
+            // Players deleted meanwhile must not be written back
+            if (homes == null) continue;
+            if (network != null) {
+                network.getStorage().saveUsage(owner, homes);
+            } else {
+                plugin.stagePlayerHomes(owner);
+            }
+            batch.add(owner);
+        }
+        if (batch.isEmpty()) return;
+        if (network != null) {
+            network.getStorage().flush();
+        } else {
+            plugin.getStorage().flush();
+        }
+        if (plugin.getNetwork() != null) {
+            plugin.getTaskScheduler().runGlobal(() -> batch.forEach(plugin.getNetwork()::publishInvalidation));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Home rules per world and world group ({@code world-policies} in config.yml). The rules are
+ * resolved once into a lookup table keyed by world UUID (and by name for homes in worlds that are
+ * not loaded here), so sethome and teleports only do a map lookup. The table is rebuilt when the
+ * config changes or a world is loaded or unloaded.
+ */
+public class WorldPolicies implements Listener {
+    private final Logger logger;
+    private volatile Rules rules;
+    private volatile Map<UUID, WorldPolicy> byWorld = Collections.emptyMap();
+
+    public WorldPolicies(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Parses the {@code world-policies} section (may be null) on top of the global settings and rebuilds the table.
+     * Must be called on the main thread.
+     */
+    public void load(ConfigurationSection section, Settings settings) {
+        rules = new Rules(section, settings, logger);
+        index();
+    }
+
+    /**
+     * The policy for a loaded world. Apply {@link WorldPolicy#forPlayer} for permission overrides.
+     */
+    public WorldPolicy get(World world) {
+        WorldPolicy policy = byWorld.get(world.getUID());
+        return policy != null ? policy : get(world.getName());
+    }
+
+    /**
+     * The policy for a world by name, e.g. the world of a stored home.
+     */
+    public WorldPolicy get(String worldName) {
+        Rules current = rules;
+        WorldPolicy policy = current.byName.get(worldName.toLowerCase());
+        return policy != null ? policy : current.defaults;
+    }
+
+    private void index() {
+        Rules current = rules;
+        Map<UUID, WorldPolicy> table = new HashMap<>();
+        for (World world : Bukkit.getWorlds()) {
+            WorldPolicy policy = current.byName.get(world.getName().toLowerCase());
+            table.put(world.getUID(), policy != null ? policy : current.defaults);
+        }
+        byWorld = table;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        index();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        if (!event.isCancelled()) {
+            Map<UUID, WorldPolicy> table = new HashMap<>(byWorld);
+            table.remove(event.getWorld().getUID());
+            byWorld = table;
+        }
+    }
+
+    /**
+     * Parsed config: the resolved policy of every world named in a rule or group.
+     */
+    private static final class Rules {
+        final WorldPolicy defaults;
+        final Map<String, WorldPolicy> byName = new HashMap<>();
+
+        Rules(ConfigurationSection section, Settings settings, Logger logger) {
+            defaults = new WorldPolicy(true, -1, settings.getHomeCooldown(), settings.getTeleportDelay(),
+                    Collections.emptyList());
+            if (section == null) return;
+
+            // Group -> member worlds, and world -> groups it is in (config order)
+            Map<String, List<String>> groupsOfWorld = new HashMap<>();
+            Set<String> groupNames = new HashSet<>();
+            ConfigurationSection groups = section.getConfigurationSection("groups");
+            if (groups != null) {
+                for (String group : groups.getKeys(false)) {
+                    groupNames.add(group.toLowerCase());
+                    for (String world : groups.getStringList(group)) {
+                        groupsOfWorld.computeIfAbsent(world.toLowerCase(), w -> new ArrayList<>()).add(group.toLowerCase());
+                    }
+                }
+            }
+
+            Map<String, Rule> rules = new HashMap<>();
+            ConfigurationSection rulesSection = section.getConfigurationSection("rules");
+            if (rulesSection != null) {
+                for (String key : rulesSection.getKeys(false)) {
+                    ConfigurationSection ruleSection = rulesSection.getConfigurationSection(key);
+                    if (ruleSection == null) {
+                        logger.warning("Ignoring world-policies.rules." + key + ": not a section");
+                        continue;
+                    }
+                    rules.put(key.toLowerCase(), new Rule(ruleSection.getValues(false), "world-policies.rules." + key, logger));
+                }
+            }
+
+            // Every world that is named somewhere gets its own resolved policy; all others use the defaults
+            Set<String> worlds = new HashSet<>(groupsOfWorld.keySet());
+            for (String key : rules.keySet()) {
+                if (!groupNames.contains(key)) worlds.add(key);
+            }
+            for (String world : worlds) {
+                List<Rule> chain = new ArrayList<>();
+                for (String group : groupsOfWorld.getOrDefault(world, Collections.emptyList())) {
+                    Rule rule = rules.get(group);
+                    if (rule != null) chain.add(rule);
+                }
+                Rule own = rules.get(world);
+                if (own != null) chain.add(own);
+                byName.put(world, resolve(chain));
+            }
+        }
+
+        /**
+         * Applies the rules in order (later ones win) on top of the defaults. Overrides of later rules are checked first.
+         */
+        private WorldPolicy resolve(List<Rule> chain) {
+            WorldPolicy base = defaults;
+            for (Rule rule : chain) {
+                base = rule.apply(base, Collections.emptyList());
+            }
+            Map<String, Rule> overrides = new LinkedHashMap<>();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                for (Map.Entry<String, Rule> override : chain.get(i).overrides.entrySet()) {
+                    overrides.putIfAbsent(override.getKey(), override.getValue());
+                }
+            }
+            if (overrides.isEmpty()) return base;
+
+            List<Map.Entry<String, WorldPolicy>> resolved = new ArrayList<>();
+            for (Map.Entry<String, Rule> override : overrides.entrySet()) {
+                resolved.add(new AbstractMap.SimpleImmutableEntry<>(override.getKey(),
+                        override.getValue().apply(base, Collections.emptyList())));
+            }
+            return new WorldPolicy(base.isAllowHomes(), base.getMaxHomes(), base.getHomeCooldown(),
+                    base.getTeleportDelay(), resolved);
+        }
+    }
+
+    /**
+     * One rule as written in the config; unset values are inherited.
+     */
+    private static final class Rule {
+        final Boolean allowHomes;
+        final Integer maxHomes;
+        final Integer homeCooldown;
+        final Integer teleportDelay;
+        final Map<String, Rule> overrides = new LinkedHashMap<>();
+
+        Rule(Map<?, ?> values, String path, Logger logger) {
+            Object allow = values.get("allow-homes");
+            allowHomes = allow instanceof Boolean ? (Boolean) allow : null;
+            maxHomes = readInt(values, "max-homes", -1, Integer.MAX_VALUE, path, logger);
+            homeCooldown = readInt(values, "home-cooldown", -1, 86400, path, logger);
+            teleportDelay = readInt(values, "teleport-delay", -1, 60, path, logger);
+            // A list, since permission nodes contain dots and cannot be config keys
+            Object list = values.get("overrides");
+            if (list instanceof List) {
+                for (Object entry : (List<?>) list) {
+                    Object permission = entry instanceof Map ? ((Map<?, ?>) entry).get("permission") : null;
+                    if (permission == null) {
+                        logger.warning("Ignoring override without permission in " + path);
+                        continue;
+                    }
+                    overrides.put(permission.toString(), new Rule((Map<?, ?>) entry, path + " override " + permission, logger));
+                }
+            }
+        }
+
+        private static Integer readInt(Map<?, ?> values, String key, int min, int max, String path, Logger logger) {
+            Object raw = values.get(key);
+            if (raw == null) return null;
+            if (!(raw instanceof Number) || ((Number) raw).intValue() < min || ((Number) raw).intValue() > max) {
+                logger.warning("Invalid value " + raw + " for " + key + " in " + path + " (allowed: " + min + " to " + max + "), ignoring it");
+                return null;
+            }
+            return ((Number) raw).intValue();
+        }
+
+        WorldPolicy apply(WorldPolicy base, List<Map.Entry<String, WorldPolicy>> overrides) {
+            return new WorldPolicy(
+                    allowHomes != null ? allowHomes : base.isAllowHomes(),
+                    maxHomes != null ? maxHomes : base.getMaxHomes(),
+                    homeCooldown != null ? homeCooldown : base.getHomeCooldown(),
+                    teleportDelay != null ? teleportDelay : base.getTeleportDelay(),
+                    overrides);
+        }
+    }
+}
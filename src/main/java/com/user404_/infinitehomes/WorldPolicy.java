@@ -0,0 +1,47 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.permissions.Permissible;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fully resolved home rules for one world. Built by {@link WorldPolicies}; never changes afterwards.
+ */
+public final class WorldPolicy {
+    private final boolean allowHomes;
+    private final int maxHomes;
+    private final int homeCooldown;
+    private final int teleportDelay;
+    // Permission -> policy for players with that permission, checked in config order
+    private final List<Map.Entry<String, WorldPolicy>> overrides;
+
+    WorldPolicy(boolean allowHomes, int maxHomes, int homeCooldown, int teleportDelay,
+                List<Map.Entry<String, WorldPolicy>> overrides) {
+        this.allowHomes = allowHomes;
+        this.maxHomes = maxHomes;
+        this.homeCooldown = homeCooldown;
+        this.teleportDelay = teleportDelay;
+        this.overrides = overrides.isEmpty() ? Collections.emptyList() : overrides;
+    }
+
+    /**
+     * The policy that applies to the given player: the first override whose permission they have, otherwise this one.
+     */
+    public WorldPolicy forPlayer(Permissible player) {
+        for (Map.Entry<String, WorldPolicy> override : overrides) {
+            if (player.hasPermission(override.getKey())) return override.getValue();
+        }
+        return this;
+    }
+
+    /** Whether homes may be set in this world. */
+    public boolean isAllowHomes() { return allowHomes; }
+    /** Homes a player may have in this world, -1 for no per-world cap. */
+    public int getMaxHomes() { return maxHomes; }
+    /** Seconds between /home uses with this world as destination, -1 if disabled. */
+    public int getHomeCooldown() { return homeCooldown; }
+    /** Teleport warmup in seconds for homes in this world, -1 if disabled. */
+    public int getTeleportDelay() { return teleportDelay; }
+}
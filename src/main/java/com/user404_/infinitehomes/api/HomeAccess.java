@@ -0,0 +1,13 @@
+package com.user404_.infinitehomes.api;
+
+/**
+ * Who besides the owner may teleport to a home.
+ */
+public enum HomeAccess {
+    /** Only the owner. */
+    PRIVATE,
+    /** The owner and the players the home is shared with. */
+    SHARED,
+    /** Everyone; listed in the public home directory. */
+    PUBLIC
+}
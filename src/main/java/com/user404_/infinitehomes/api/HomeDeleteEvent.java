@@ -0,0 +1,58 @@
+package com.user404_.infinitehomes.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread before a player deletes a home with /delhome or the GUI, and after a temporary
+ * home expired. Expired homes are already gone, so that event cannot be cancelled; in network mode it is
+ * fired on the one server that removed the home. Admin bulk operations and backup restores do not fire it.
+ */
+public class HomeDeleteEvent extends Event implements Cancellable {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Player player;
+    private final HomeSnapshot home;
+    private final boolean expired;
+    private boolean cancelled;
+
+    public HomeDeleteEvent(Player player, HomeSnapshot home) {
+        this(player, home, false);
+    }
+
+    private HomeDeleteEvent(Player player, HomeSnapshot home, boolean expired) {
+        this.player = player;
+        this.home = home;
+        this.expired = expired;
+    }
+
+    /**
+     * The event for a temporary home that expired.
+     */
+    public static HomeDeleteEvent expired(HomeSnapshot home) {
+        return new HomeDeleteEvent(null, home, true);
+    }
+
+    /**
+     * The player deleting the home, or null if it expired. May differ from the owner when an admin deletes it.
+     */
+    public Player getPlayer() { return player; }
+    public HomeSnapshot getHome() { return home; }
+
+    /** Whether the home expired; it is already deleted and the event cannot be cancelled. */
+    public boolean isExpired() { return expired; }
+
+    @Override
+    public boolean isCancelled() { return cancelled; }
+
+    /** Ignored for expired homes. */
+    @Override
+    public void setCancelled(boolean cancelled) { this.cancelled = cancelled && !expired; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -0,0 +1,41 @@
+package com.user404_.infinitehomes.api;
+
+/**
+ * File formats for {@link HomesService#exportHomes}. All formats are UTF-8 and hold the same fields:
+ * owner, owner name, home name, world, position, view direction, icon, access, category, server,
+ * expiry and usage.
+ */
+public enum HomeExportFormat {
+    /** Comma-separated values with a header line. */
+    CSV("csv"),
+    /** One JSON object per line. */
+    JSON_LINES("jsonl"),
+    /**
+     * A GeoJSON FeatureCollection of points. Coordinates are {@code [x, z, y]} in blocks, so the
+     * horizontal position comes first as map renderers expect and the height is the third value.
+     */
+    GEOJSON("geojson");
+
+    private final String extension;
+
+    HomeExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /** File extension without the dot, also accepted as the format name by {@code /homeexport}. */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * The format with the given extension or name (case-insensitive), or null.
+     */
+    public static HomeExportFormat fromName(String name) {
+        for (HomeExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name) || format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
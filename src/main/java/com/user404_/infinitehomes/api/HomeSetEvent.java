@@ -0,0 +1,47 @@
+package com.user404_.infinitehomes.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread before a player sets (or overwrites) a home with /sethome or the GUI.
+ * Cancelling it keeps the old home, if any.
+ */
+public class HomeSetEvent extends Event implements Cancellable {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Player player;
+    private final HomeSnapshot home;
+    private final HomeSnapshot previous;
+    private boolean cancelled;
+
+    public HomeSetEvent(Player player, HomeSnapshot home, HomeSnapshot previous) {
+        this.player = player;
+        this.home = home;
+        this.previous = previous;
+    }
+
+    /**
+     * The player setting the home. May differ from the owner when an admin creates it.
+     */
+    public Player getPlayer() { return player; }
+    public HomeSnapshot getHome() { return home; }
+
+    /**
+     * The home that will be overwritten, or null if the name is new.
+     */
+    public HomeSnapshot getPrevious() { return previous; }
+
+    @Override
+    public boolean isCancelled() { return cancelled; }
+
+    @Override
+    public void setCancelled(boolean cancelled) { this.cancelled = cancelled; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
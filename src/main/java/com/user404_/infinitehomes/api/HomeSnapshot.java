@@ -0,0 +1,92 @@
+package com.user404_.infinitehomes.api;
+
+import com.user404_.infinitehomes.HomeData;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a single home. Safe to keep and read from any thread.
+ */
+public final class HomeSnapshot {
+    private final UUID owner;
+    private final String name;
+    private final String worldName;
+    private final double x, y, z;
+    private final float yaw, pitch;
+    private final Material icon;
+    private final String server;
+    private final long expiresAt;
+    private final long createdAt;
+    private final HomeAccess access;
+    private final Set<UUID> sharedWith;
+
+    public HomeSnapshot(UUID owner, String name, HomeData home) {
+        this.owner = owner;
+        this.name = name;
+        this.worldName = home.getWorldName();
+        this.x = home.getX();
+        this.y = home.getY();
+        this.z = home.getZ();
+        this.yaw = home.getYaw();
+        this.pitch = home.getPitch();
+        this.icon = home.getIcon();
+        this.server = home.getServer();
+        this.expiresAt = home.getExpiresAt();
+        this.createdAt = home.getCreatedAt();
+        this.access = home.getAccess();
+        this.sharedWith = home.getSharedWith(); // already an unmodifiable copy
+    }
+
+    public UUID getOwner() { return owner; }
+    public String getName() { return name; }
+    public String getWorldName() { return worldName; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getZ() { return z; }
+    public float getYaw() { return yaw; }
+    public float getPitch() { return pitch; }
+    public Material getIcon() { return icon; }
+
+    /**
+     * Backend the home was set on in network mode, otherwise null.
+     */
+    public String getServer() { return server; }
+
+    /**
+     * When the home is deleted automatically (epoch millis), 0 if it is permanent.
+     */
+    public long getExpiresAt() { return expiresAt; }
+
+    /**
+     * When the home was set (epoch millis), 0 if it was set before creation times were recorded.
+     */
+    public long getCreatedAt() { return createdAt; }
+
+    /**
+     * Who besides the owner may use the home.
+     */
+    public HomeAccess getAccess() { return access; }
+
+    /**
+     * Players the home was shared with. Unmodifiable.
+     */
+    public Set<UUID> getSharedWith() { return sharedWith; }
+
+    /**
+     * A new location for this home, or null if its world is not loaded on this server.
+     */
+    public Location toLocation() {
+        World world = Bukkit.getWorld(worldName);
+        return world == null ? null : new Location(world, x, y, z, yaw, pitch);
+    }
+
+    @Override
+    public String toString() {
+        return owner + ":" + name + " (" + worldName + " " + (int) x + ", " + (int) y + ", " + (int) z + ")";
+    }
+}
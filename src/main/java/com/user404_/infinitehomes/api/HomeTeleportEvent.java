@@ -0,0 +1,37 @@
+package com.user404_.infinitehomes.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called on the main thread when a teleport to a home is about to start, after the warmup has passed.
+ * For homes on another backend it is called before the player is sent there.
+ */
+public class HomeTeleportEvent extends Event implements Cancellable {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final Player player;
+    private final HomeSnapshot home;
+    private boolean cancelled;
+
+    public HomeTeleportEvent(Player player, HomeSnapshot home) {
+        this.player = player;
+        this.home = home;
+    }
+
+    public Player getPlayer() { return player; }
+    public HomeSnapshot getHome() { return home; }
+
+    @Override
+    public boolean isCancelled() { return cancelled; }
+
+    @Override
+    public void setCancelled(boolean cancelled) { this.cancelled = cancelled; }
+
+    @Override
+    public HandlerList getHandlers() { return HANDLERS; }
+
+    public static HandlerList getHandlerList() { return HANDLERS; }
+}
@@ -0,0 +1,55 @@
+package com.user404_.infinitehomes.api;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Read access to InfiniteHomes for other plugins. Get it from Bukkit's ServicesManager:
+ * <pre>
+ * HomesService homes = Bukkit.getServicesManager().load(HomesService.class);
+ * </pre>
+ * All methods may be called from any thread. Results are immutable snapshots; the futures may
+ * complete on a background thread, so switch back to the main thread before touching the world.
+ * Changes made through the plugin fire {@link HomeSetEvent}, {@link HomeDeleteEvent} and {@link HomeTeleportEvent}.
+ */
+public interface HomesService {
+
+    /**
+     * All homes of a player, sorted by name. Empty if the player has none.
+     */
+    CompletableFuture<List<HomeSnapshot>> getHomes(UUID owner);
+
+    /**
+     * One home of a player. Home names are case-insensitive.
+     */
+    CompletableFuture<Optional<HomeSnapshot>> getHome(UUID owner, String name);
+
+    /**
+     * Homes of several players at once. Players without homes are left out of the map.
+     */
+    CompletableFuture<Map<UUID, List<HomeSnapshot>>> getHomes(Collection<UUID> owners);
+
+    /**
+     * All homes in the given world.
+     */
+    CompletableFuture<List<HomeSnapshot>> getHomesInWorld(String worldName);
+
+    /**
+     * All homes in the given world whose block coordinates lie inside the rectangle (bounds inclusive).
+     */
+    CompletableFuture<List<HomeSnapshot>> getHomesInRegion(String worldName, int x1, int z1, int x2, int z2);
+
+    /**
+     * Streams all homes accepted by the filter (null for all) to a file, gzip-compressed if requested.
+     * Homes are written one at a time, so this is suitable for very large servers.
+     * The future completes with the number of homes written, or fails with an {@link IllegalStateException}
+     * if another export is still running.
+     */
+    CompletableFuture<Long> exportHomes(Path file, HomeExportFormat format, boolean gzip, Predicate<HomeSnapshot> filter);
+}
@@ -0,0 +1,229 @@
+package com.user404_.infinitehomes.gui;
+
+import com.user404_.infinitehomes.GlobalHomeIndex;
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.InfiniteHomes;
+import com.user404_.infinitehomes.network.NetworkManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * All homes on the server, newest first, for admins. Pages come from the {@link GlobalHomeIndex} off
+ * the main thread; the pages next to the open one are kept or fetched ahead, so paging back and forth
+ * usually needs no wait. Left-click teleports, right-click opens the owner's homes and shift-right-click
+ * deletes, each after checking the live home.
+ */
+public class AdminHomeBrowserGUI implements InventoryHolder {
+    private static final int ITEMS_PER_PAGE = 45;
+    private static final int PREV_BUTTON_SLOT = 48;
+    private static final int INFO_SLOT = 49;
+    private static final int NEXT_BUTTON_SLOT = 50;
+
+    /**
+     * One admin's browse: the query, where each visited page starts, and the pages around the open one.
+     * Only used on the viewer's thread.
+     */
+    public static final class Session {
+        private final GlobalHomeIndex.Query query;
+        private final List<GlobalHomeIndex.Cursor> starts = new ArrayList<>(); // page number -> first home
+        private final Map<Integer, CompletableFuture<GlobalHomeIndex.Page>> pages = new HashMap<>();
+        // Homes deleted from the browser, hidden until the index catches up ("owner/name")
+        private final Set<String> hidden = new HashSet<>();
+
+        public Session(GlobalHomeIndex.Query query) {
+            this.query = query;
+            starts.add(null);
+        }
+    }
+
+    private final InfiniteHomes plugin;
+    private final Player viewer;
+    private final Session session;
+    private final int page;
+    private final GlobalHomeIndex.Page content;
+    private final List<GlobalHomeIndex.Entry> shown = new ArrayList<>();
+    private final Inventory inventory;
+
+    private AdminHomeBrowserGUI(InfiniteHomes plugin, Player viewer, Session session, int page, GlobalHomeIndex.Page content) {
+        this.plugin = plugin;
+        this.viewer = viewer;
+        this.session = session;
+        this.page = page;
+        this.content = content;
+        this.inventory = Bukkit.createInventory(this, 54, "All Homes - Page " + (page + 1));
+        populate();
+    }
+
+    /**
+     * Fetches the page if it is not cached yet and opens it on the viewer's thread.
+     */
+    public static void show(InfiniteHomes plugin, Player viewer, Session session, int page) {
+        CompletableFuture<GlobalHomeIndex.Page> future = session.pages.get(page);
+        if (future == null) {
+            future = plugin.getGlobalIndex().page(session.query, session.starts.get(page), ITEMS_PER_PAGE);
+            session.pages.put(page, future);
+        }
+        if (!future.isDone()) {
+            viewer.sendMessage("§7Loading homes...");
+        }
+        future.whenComplete((content, error) -> plugin.getTaskScheduler().runFor(viewer, () -> {
+            if (!viewer.isOnline()) return;
+            if (error != null) {
+                session.pages.remove(page);
+                viewer.sendMessage("§cCould not load homes: " + error.getMessage());
+                return;
+            }
+            new AdminHomeBrowserGUI(plugin, viewer, session, page, content).open();
+            prefetch(plugin, session, page, content);
+        }));
+    }
+
+    /**
+     * Keeps the previous page and starts fetching the next one; everything else is dropped.
+     */
+    private static void prefetch(InfiniteHomes plugin, Session session, int page, GlobalHomeIndex.Page content) {
+        session.pages.keySet().removeIf(cached -> cached < page - 1 || cached > page + 1);
+        if (content.getNext() == null) return;
+        if (session.starts.size() == page + 1) {
+            session.starts.add(content.getNext());
+        } else if (!session.pages.containsKey(page + 1)) {
+            session.starts.set(page + 1, content.getNext()); // the index may have been rebuilt since
+        }
+        session.pages.computeIfAbsent(page + 1,
+                next -> plugin.getGlobalIndex().page(session.query, session.starts.get(next), ITEMS_PER_PAGE));
+    }
+
+    private void populate() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+        for (GlobalHomeIndex.Entry entry : content.getEntries()) {
+            if (session.hidden.contains(entry.getOwner() + "/" + entry.getName())) continue;
+            String ownerName = ownerName(entry.getOwner());
+            ItemStack item = new ItemStack(entry.getIcon());
+            ItemMeta meta = item.getItemMeta();
+            meta.setDisplayName("§e" + ownerName + ":" + entry.getName());
+            List<String> lore = new ArrayList<>();
+            lore.add("§7Owner: §f" + ownerName);
+            lore.add("§7" + entry.getWorld() + " §f" + entry.getX() + ", " + entry.getY() + ", " + entry.getZ());
+            lore.add("§7Created: §f" + (entry.getCreatedAt() > 0 ? dateFormat.format(new Date(entry.getCreatedAt())) : "unknown"));
+            lore.add("§7Left-click to teleport");
+            lore.add("§7Right-click for the owner's homes");
+            lore.add("§7Shift-right-click to delete");
+            meta.setLore(lore);
+            item.setItemMeta(meta);
+            inventory.setItem(shown.size(), item);
+            shown.add(entry);
+        }
+
+        if (page > 0) {
+            ItemStack prev = new ItemStack(Material.ARROW);
+            ItemMeta prevMeta = prev.getItemMeta();
+            prevMeta.setDisplayName("§aPrevious Page");
+            prev.setItemMeta(prevMeta);
+            inventory.setItem(PREV_BUTTON_SLOT, prev);
+        }
+        if (content.getNext() != null) {
+            ItemStack next = new ItemStack(Material.ARROW);
+            ItemMeta nextMeta = next.getItemMeta();
+            nextMeta.setDisplayName("§aNext Page");
+            next.setItemMeta(nextMeta);
+            inventory.setItem(NEXT_BUTTON_SLOT, next);
+        }
+
+        ItemStack info = new ItemStack(Material.PAPER);
+        ItemMeta infoMeta = info.getItemMeta();
+        infoMeta.setDisplayName("§ePage " + (page + 1));
+        infoMeta.setLore(Arrays.asList("§7Filter: §f" + session.query, "§7Newest homes first"));
+        info.setItemMeta(infoMeta);
+        inventory.setItem(INFO_SLOT, info);
+
+        ItemStack filler = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
+        ItemMeta fillerMeta = filler.getItemMeta();
+        fillerMeta.setDisplayName(" ");
+        filler.setItemMeta(fillerMeta);
+        for (int i = 45; i < 54; i++) {
+            if (inventory.getItem(i) == null) {
+                inventory.setItem(i, filler);
+            }
+        }
+    }
+
+    private String ownerName(UUID owner) {
+        String name = plugin.getPlayerIndex().getName(owner);
+        return name != null ? name : owner.toString().substring(0, 8);
+    }
+
+    public void open() {
+        viewer.openInventory(inventory);
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public void handleClick(InventoryClickEvent event) {
+        Player player = (Player) event.getWhoClicked();
+        int slot = event.getRawSlot();
+        if (slot < 0 || slot >= inventory.getSize()) return;
+
+        if (slot < ITEMS_PER_PAGE) {
+            if (slot >= shown.size()) return;
+            GlobalHomeIndex.Entry entry = shown.get(slot);
+            if (event.isRightClick() && event.isShiftClick()) {
+                withLiveHome(player, entry, home -> new ConfirmDeleteGUI(plugin, player, entry.getOwner(), entry.getName(), () -> {
+                    Map<String, HomeData> homes = plugin.getHomes().get(entry.getOwner());
+                    if (homes == null || !homes.containsKey(entry.getName())) {
+                        session.hidden.add(entry.getOwner() + "/" + entry.getName());
+                    }
+                    show(plugin, player, session, page);
+                }).open());
+            } else if (event.isRightClick()) {
+                plugin.openAdminHomes(player, entry.getOwner());
+            } else if (event.isLeftClick()) {
+                player.closeInventory();
+                withLiveHome(player, entry,
+                        home -> plugin.getTeleportManager().requestTeleport(player, entry.getOwner(), entry.getName(), home));
+            }
+        } else if (slot == PREV_BUTTON_SLOT && page > 0) {
+            show(plugin, player, session, page - 1);
+        } else if (slot == NEXT_BUTTON_SLOT && content.getNext() != null) {
+            show(plugin, player, session, page + 1);
+        }
+    }
+
+    /**
+     * Runs the action with the owner's live home if it is still where the index saw it. Offline owners
+     * are loaded first in network mode, where they are not cached.
+     */
+    private void withLiveHome(Player player, GlobalHomeIndex.Entry entry, Consumer<HomeData> action) {
+        NetworkManager network = plugin.getNetwork();
+        if (network != null && !plugin.getHomes().containsKey(entry.getOwner())) {
+            network.loadAsync(entry.getOwner()).thenRun(() -> plugin.getTaskScheduler().runFor(player, () -> {
+                if (player.isOnline()) withCachedHome(player, entry, action);
+            }));
+            return;
+        }
+        withCachedHome(player, entry, action);
+    }
+
+    private void withCachedHome(Player player, GlobalHomeIndex.Entry entry, Consumer<HomeData> action) {
+        Map<String, HomeData> homes = plugin.getHomes().get(entry.getOwner());
+        HomeData home = homes != null ? homes.get(entry.getName()) : null;
+        if (home == null || !entry.matches(home)) {
+            player.sendMessage("§cThat home was moved or deleted since the page was loaded.");
+            return;
+        }
+        action.accept(home);
+    }
+}
@@ -1,5 +1,6 @@
 package com.user404_.infinitehomes.gui;
 
+import com.user404_.infinitehomes.HomeData;
 import com.user404_.infinitehomes.InfiniteHomes;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -19,6 +20,7 @@ public class ConfirmDeleteGUI implements InventoryHolder {
     private final String homeName;
     private final boolean admin;
     private final int returnPage;
+    private final Runnable back; // null to go back to the home list
     private Inventory inventory;
 
     public ConfirmDeleteGUI(InfiniteHomes plugin, Player viewer, UUID targetUUID, String homeName, boolean admin, int returnPage) {
@@ -28,6 +30,22 @@ public class ConfirmDeleteGUI implements InventoryHolder {
         this.homeName = homeName;
         this.admin = admin;
         this.returnPage = returnPage;
+        this.back = null;
+        this.inventory = Bukkit.createInventory(this, 27, "Delete " + homeName + "?");
+        populate();
+    }
+
+    /**
+     * Admin deletion that runs {@code back} afterwards instead of opening the owner's home list.
+     */
+    public ConfirmDeleteGUI(InfiniteHomes plugin, Player viewer, UUID targetUUID, String homeName, Runnable back) {
+        this.plugin = plugin;
+        this.viewer = viewer;
+        this.targetUUID = targetUUID;
+        this.homeName = homeName;
+        this.admin = true;
+        this.returnPage = 0;
+        this.back = back;
         this.inventory = Bukkit.createInventory(this, 27, "Delete " + homeName + "?");
         populate();
     }
@@ -62,17 +80,28 @@ public class ConfirmDeleteGUI implements InventoryHolder {
         int slot = event.getRawSlot();
         if (slot == 11) {
             // Confirm delete
-            Map<String, ?> homes = plugin.getHomes().get(targetUUID);
-            if (homes != null && homes.containsKey(homeName)) {
+            Map<String, HomeData> homes = plugin.getHomes().get(targetUUID);
+            HomeData home = homes != null ? homes.get(homeName) : null;
+            if (home != null && plugin.allowSave(player) && plugin.callHomeDelete(player, targetUUID, homeName, home)) {
                 homes.remove(homeName);
-                plugin.saveHomesToConfig();
+                plugin.getWorldCounts().replaced(targetUUID, home, null);
+                plugin.getNameMatcher().removed(targetUUID, homeName);
+                plugin.savePlayerHomes(targetUUID);
                 player.sendMessage(plugin.getMessage(player, "home.deleted").replace("{home}", homeName));
             }
             player.closeInventory();
             // Optionally reopen home list
-            new HomeListGUI(plugin, player, targetUUID, admin, returnPage).open();
+            goBack(player);
         } else if (slot == 15) {
             // Cancel
+            goBack(player);
+        }
+    }
+
+    private void goBack(Player player) {
+        if (back != null) {
+            back.run();
+        } else {
             new HomeListGUI(plugin, player, targetUUID, admin, returnPage).open();
         }
     }
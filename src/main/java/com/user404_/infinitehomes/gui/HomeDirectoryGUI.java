@@ -0,0 +1,143 @@
+package com.user404_.infinitehomes.gui;
+
+import com.user404_.infinitehomes.HomeAccessIndex;
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.InfiniteHomes;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+
+/**
+ * Public homes of all players (optionally one category), or the homes shared with the viewer.
+ * Reads the pre-sorted arrays of the {@link HomeAccessIndex}, so a page only touches its own entries.
+ */
+public class HomeDirectoryGUI implements InventoryHolder {
+    private static final int ITEMS_PER_PAGE = 45;
+    private static final int PREV_BUTTON_SLOT = 48;
+    private static final int NEXT_BUTTON_SLOT = 50;
+
+    private final InfiniteHomes plugin;
+    private final Player viewer;
+    private final boolean shared;
+    private final String category;
+    private final int page;
+    private final HomeAccessIndex.Ref[] entries;
+    private final Inventory inventory;
+
+    /**
+     * @param shared   true for the homes shared with the viewer, false for the public directory
+     * @param category directory category, null for all (ignored for shared homes)
+     */
+    public HomeDirectoryGUI(InfiniteHomes plugin, Player viewer, boolean shared, String category, int page) {
+        this.plugin = plugin;
+        this.viewer = viewer;
+        this.shared = shared;
+        this.category = category;
+        this.page = page;
+        this.entries = shared
+                ? plugin.getAccessIndex().getSharedWith(viewer.getUniqueId()).toArray(new HomeAccessIndex.Ref[0])
+                : plugin.getAccessIndex().getPublic(category);
+        String title = shared ? "Shared Homes" : (category == null ? "Public Homes" : "Public: " + category);
+        this.inventory = Bukkit.createInventory(this, 54, title + " - Page " + (page + 1));
+        populate();
+    }
+
+    private void populate() {
+        int start = page * ITEMS_PER_PAGE;
+        int end = Math.min(start + ITEMS_PER_PAGE, entries.length);
+
+        for (int i = start; i < end; i++) {
+            HomeAccessIndex.Ref ref = entries[i];
+            HomeData data = ref.getHome();
+            String ownerName = ownerName(ref.getOwner());
+            ItemStack item = new ItemStack(data.getIcon());
+            ItemMeta meta = item.getItemMeta();
+            meta.setDisplayName("§e" + ownerName + ":" + ref.getHomeName());
+            List<String> lore = new ArrayList<>();
+            lore.add("§7Owner: §f" + ownerName);
+            if (data.getCategory() != null) {
+                lore.add("§7Category: §f" + data.getCategory());
+            }
+            lore.add("§7" + data.getWorldName() + " §f" + (int) Math.floor(data.getX()) + ", "
+                    + (int) Math.floor(data.getY()) + ", " + (int) Math.floor(data.getZ()));
+            lore.add("§7Click to teleport");
+            meta.setLore(lore);
+            item.setItemMeta(meta);
+            inventory.setItem(i - start, item);
+        }
+
+        if (page > 0) {
+            ItemStack prev = new ItemStack(Material.ARROW);
+            ItemMeta prevMeta = prev.getItemMeta();
+            prevMeta.setDisplayName("§aPrevious Page");
+            prev.setItemMeta(prevMeta);
+            inventory.setItem(PREV_BUTTON_SLOT, prev);
+        }
+        if (end < entries.length) {
+            ItemStack next = new ItemStack(Material.ARROW);
+            ItemMeta nextMeta = next.getItemMeta();
+            nextMeta.setDisplayName("§aNext Page");
+            next.setItemMeta(nextMeta);
+            inventory.setItem(NEXT_BUTTON_SLOT, next);
+        }
+
+        ItemStack filler = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
+        ItemMeta fillerMeta = filler.getItemMeta();
+        fillerMeta.setDisplayName(" ");
+        filler.setItemMeta(fillerMeta);
+        for (int i = 45; i < 54; i++) {
+            if (inventory.getItem(i) == null) {
+                inventory.setItem(i, filler);
+            }
+        }
+    }
+
+    private String ownerName(UUID owner) {
+        String name = plugin.getPlayerIndex().getName(owner);
+        return name != null ? name : owner.toString().substring(0, 8);
+    }
+
+    public void open() {
+        viewer.openInventory(inventory);
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public void handleClick(InventoryClickEvent event) {
+        Player player = (Player) event.getWhoClicked();
+        int slot = event.getRawSlot();
+        if (slot < 0 || slot >= inventory.getSize()) return;
+
+        if (slot < ITEMS_PER_PAGE) {
+            int index = page * ITEMS_PER_PAGE + slot;
+            if (index >= entries.length) return;
+            HomeAccessIndex.Ref ref = entries[index];
+            player.closeInventory();
+            // The page may be outdated: the home must still exist and still be open to the player
+            // (the index may hold a copy unpacked from the cold tier; teleports use the owner's live home)
+            Map<String, HomeData> homes = plugin.getHomes().get(ref.getOwner());
+            HomeData home = homes != null ? homes.get(ref.getHomeName()) : null;
+            if (home == null || !home.isSameHome(ref.getHome())
+                    || !(home.canUse(player.getUniqueId()) || ref.getOwner().equals(player.getUniqueId()))) {
+                player.sendMessage(plugin.getMessage(player, "home.no_access"));
+                return;
+            }
+            if (!plugin.checkCooldown(player, home)) return;
+            plugin.getTeleportManager().requestTeleport(player, ref.getOwner(), ref.getHomeName(), home);
+        } else if (slot == PREV_BUTTON_SLOT && page > 0) {
+            new HomeDirectoryGUI(plugin, player, shared, category, page - 1).open();
+        } else if (slot == NEXT_BUTTON_SLOT && (page + 1) * ITEMS_PER_PAGE < entries.length) {
+            new HomeDirectoryGUI(plugin, player, shared, category, page + 1).open();
+        }
+    }
+}
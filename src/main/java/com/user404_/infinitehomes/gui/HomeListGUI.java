@@ -2,6 +2,7 @@ package com.user404_.infinitehomes.gui;
 
 import com.user404_.infinitehomes.InfiniteHomes;
 import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.HomeExpiry;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -12,6 +13,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HomeListGUI implements InventoryHolder {
     private final InfiniteHomes plugin;
@@ -20,11 +22,14 @@ public class HomeListGUI implements InventoryHolder {
     private final boolean admin;
     private int page;
     private Inventory inventory;
+    private final HomeSort sort;
+    private final List<String> homeNames = new ArrayList<>();
 
     private static final int ITEMS_PER_PAGE = 45; // slots 0-44 for homes, last row for controls
     private static final int PREV_BUTTON_SLOT = 48;
     private static final int NEXT_BUTTON_SLOT = 50;
     private static final int CREATE_BUTTON_SLOT = 49;
+    private static final int SORT_BUTTON_SLOT = 46;
 
     public HomeListGUI(InfiniteHomes plugin, Player viewer, UUID targetUUID, boolean admin, int page) {
         this.plugin = plugin;
@@ -32,6 +37,7 @@ public class HomeListGUI implements InventoryHolder {
         this.targetUUID = targetUUID;
         this.admin = admin;
         this.page = page;
+        this.sort = plugin.getGUIListener().getSortMode(viewer.getUniqueId());
         this.inventory = Bukkit.createInventory(this, 54, (admin ? "Admin Homes" : "Your Homes") + " - Page " + (page+1));
         populate();
     }
@@ -39,9 +45,11 @@ public class HomeListGUI implements InventoryHolder {
     private void populate() {
         Map<String, HomeData> homes = plugin.getHomes().get(targetUUID);
         if (homes == null) homes = new HashMap<>();
-        List<String> homeNames = new ArrayList<>(homes.keySet());
-        // Sort alphabetically
-        homeNames.sort(String.CASE_INSENSITIVE_ORDER);
+        List<Map.Entry<String, HomeData>> entries = new ArrayList<>(homes.entrySet());
+        entries.sort(sort.getComparator());
+        for (Map.Entry<String, HomeData> entry : entries) {
+            homeNames.add(entry.getKey());
+        }
 
         int start = page * ITEMS_PER_PAGE;
         int end = Math.min(start + ITEMS_PER_PAGE, homeNames.size());
@@ -53,6 +61,10 @@ public class HomeListGUI implements InventoryHolder {
             ItemMeta meta = item.getItemMeta();
             meta.setDisplayName("§e" + name);
             List<String> lore = new ArrayList<>();
+            lore.add("§7Used §e" + data.getUseCount() + "§7x, last " + (data.getLastUsed() > 0 ? formatAge(data.getLastUsed()) : "never"));
+            if (data.getExpiresAt() > 0) {
+                lore.add("§cExpires in " + HomeExpiry.formatDuration(data.getExpiresAt() - System.currentTimeMillis()));
+            }
             lore.add("§7Left-click to teleport");
             lore.add("§7Right-click to delete");
             lore.add("§7Shift-click to change icon");
@@ -80,6 +92,14 @@ public class HomeListGUI implements InventoryHolder {
             inventory.setItem(NEXT_BUTTON_SLOT, next);
         }
 
+        // Sort mode button
+        ItemStack sortItem = new ItemStack(Material.CLOCK);
+        ItemMeta sortMeta = sortItem.getItemMeta();
+        sortMeta.setDisplayName("§aSort: §e" + sort.getDisplayName());
+        sortMeta.setLore(Collections.singletonList("§7Click to sort by " + sort.next().getDisplayName().toLowerCase()));
+        sortItem.setItemMeta(sortMeta);
+        inventory.setItem(SORT_BUTTON_SLOT, sortItem);
+
         // Create home button
         ItemStack create = new ItemStack(Material.EMERALD);
         ItemMeta createMeta = create.getItemMeta();
@@ -100,6 +120,13 @@ public class HomeListGUI implements InventoryHolder {
         }
     }
 
+    private static String formatAge(long time) {
+        long minutes = (System.currentTimeMillis() - time) / 60000;
+        if (minutes < 60) return minutes + "m ago";
+        if (minutes < 60 * 24) return (minutes / 60) + "h ago";
+        return (minutes / (60 * 24)) + "d ago";
+    }
+
     public void open() {
         viewer.openInventory(inventory);
     }
@@ -118,35 +145,20 @@ public class HomeListGUI implements InventoryHolder {
             // Home item clicked
             int index = page * ITEMS_PER_PAGE + slot;
             Map<String, HomeData> homes = plugin.getHomes().get(targetUUID);
-            if (homes == null) return;
-            List<String> homeNames = new ArrayList<>(homes.keySet());
-            homeNames.sort(String.CASE_INSENSITIVE_ORDER);
-            if (index >= homeNames.size()) return;
+            if (homes == null || index >= homeNames.size()) return;
             String homeName = homeNames.get(index);
             HomeData data = homes.get(homeName);
+            if (data == null) return; // deleted since the page was built
 
             if (event.isLeftClick() && !event.isShiftClick()) {
                 // Teleport
                 // Check cooldown for non-admin? Or admin ignores cooldown? We'll let admin bypass cooldown.
-                if (!admin) {
-                    int cooldown = plugin.getConfig().getInt("home-cooldown", -1);
-                    if (cooldown > 0) {
-                        long currentTime = System.currentTimeMillis();
-                        Map<UUID, Long> cooldowns = plugin.getCooldowns();
-                        if (cooldowns.containsKey(player.getUniqueId())) {
-                            long lastUsed = cooldowns.get(player.getUniqueId());
-                            long timeLeft = ((lastUsed / 1000) + cooldown) - (currentTime / 1000);
-                            if (timeLeft > 0) {
-                                player.sendMessage(plugin.getMessage(player, "home.cooldown").replace("{time}", String.valueOf(timeLeft)));
-                                player.closeInventory();
-                                return;
-                            }
-                        }
-                        cooldowns.put(player.getUniqueId(), currentTime);
-                    }
+                if (!admin && !plugin.checkCooldown(player, data)) {
+                    player.closeInventory();
+                    return;
                 }
                 // NEW: Use TeleportManager
-                plugin.getTeleportManager().requestTeleport(player, homeName, data.getLocation());
+                plugin.getTeleportManager().requestTeleport(player, targetUUID, homeName, data);
                 player.closeInventory();
             } else if (event.isRightClick() && !event.isShiftClick()) {
                 // Delete confirmation
@@ -159,15 +171,63 @@ public class HomeListGUI implements InventoryHolder {
             new HomeListGUI(plugin, player, targetUUID, admin, page - 1).open();
         } else if (slot == NEXT_BUTTON_SLOT) {
             new HomeListGUI(plugin, player, targetUUID, admin, page + 1).open();
+        } else if (slot == SORT_BUTTON_SLOT) {
+            plugin.getGUIListener().setSortMode(player.getUniqueId(), sort.next());
+            new HomeListGUI(plugin, player, targetUUID, admin, 0).open();
         } else if (slot == CREATE_BUTTON_SLOT) {
-            // Create new home via chat prompt
-            player.closeInventory();
-            player.sendMessage("§aEnter the name of your new home in chat (30s timeout):");
-            plugin.getGUIListener().addPendingCreation(player, targetUUID, admin);
-            // schedule timeout (optional)
-            Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                // remove if still pending (implement later)
-            }, 600L); // 30 seconds
+            // Create new home; the name is asked in chat or in an anvil
+            UUID target = targetUUID;
+            boolean adminMode = admin;
+            plugin.getTextPrompts().ask(player, "Home name", "§aEnter the name of your new home in chat",
+                    input -> createHome(plugin, player, target, adminMode, input));
+        }
+    }
+
+    /**
+     * Checks the typed name and creates the home at the player's position. Main thread only.
+     */
+    private static void createHome(InfiniteHomes plugin, Player player, UUID targetUUID, boolean admin, String input) {
+        String homeName = input.toLowerCase();
+        if (homeName.isEmpty()) {
+            player.sendMessage("§cHome name cannot be empty.");
+            return;
+        }
+        if (homeName.contains(" ") || homeName.contains(":")) {
+            player.sendMessage("§cHome names cannot contain spaces or ':'.");
+            return;
+        }
+        if (homeName.length() > HomeData.MAX_NAME_LENGTH) {
+            player.sendMessage("§cHome names can be at most " + HomeData.MAX_NAME_LENGTH + " characters long.");
+            return;
+        }
+        // Check limit
+        int maxHomes = plugin.getSettings().getMaxHomes();
+        Map<String, HomeData> playerHomes = plugin.getHomes().get(targetUUID);
+        int count = playerHomes != null ? playerHomes.size() : 0;
+        if (maxHomes != -1 && count >= maxHomes) {
+            player.sendMessage(plugin.getMessage(player, "homes.limit.reached").replace("{max}", String.valueOf(maxHomes)));
+            return;
+        }
+        // Check if name already exists
+        if (playerHomes != null && playerHomes.containsKey(homeName)) {
+            player.sendMessage("§cA home with that name already exists.");
+            return;
+        }
+        // Rules of the world the player is standing in
+        if (!plugin.checkWorldPolicy(player, targetUUID, homeName) || !plugin.allowSave(player)) {
+            return;
+        }
+        HomeData home = plugin.createHome(player.getLocation(), Material.RED_BED);
+        if (!plugin.callHomeSet(player, targetUUID, homeName, home)) {
+            return;
         }
+        plugin.getHomes().computeIfAbsent(targetUUID, uuid -> new ConcurrentHashMap<>()).put(homeName, home);
+        plugin.getWorldCounts().replaced(targetUUID, null, home);
+        plugin.getNameMatcher().added(targetUUID, homeName);
+        plugin.savePlayerHomes(targetUUID);
+        player.sendMessage(plugin.getMessage(player, "home.set").replace("{home}", homeName));
+
+        // Reopen GUI for the target player (if viewer is same as target, or admin)
+        new HomeListGUI(plugin, player, admin ? targetUUID : player.getUniqueId(), admin, 0).open();
     }
 }
\ No newline at end of file
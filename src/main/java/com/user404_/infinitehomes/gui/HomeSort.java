@@ -0,0 +1,36 @@
+package com.user404_.infinitehomes.gui;
+
+import com.user404_.infinitehomes.HomeData;
+
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Order of the homes in the home list GUI. Cycled with the clock button.
+ */
+public enum HomeSort {
+    NAME("Name", Comparator.comparing(Map.Entry::getKey, String.CASE_INSENSITIVE_ORDER)),
+    RECENT("Recently used", Comparator.comparingLong((Map.Entry<String, HomeData> e) -> e.getValue().getLastUsed()).reversed()),
+    MOST_USED("Most used", Comparator.comparingInt((Map.Entry<String, HomeData> e) -> e.getValue().getUseCount()).reversed());
+
+    private final String displayName;
+    private final Comparator<Map.Entry<String, HomeData>> comparator;
+
+    HomeSort(String displayName, Comparator<Map.Entry<String, HomeData>> comparator) {
+        this.displayName = displayName;
+        // Ties are broken by name so the order is stable between page views
+        this.comparator = comparator.thenComparing(Map.Entry::getKey, String.CASE_INSENSITIVE_ORDER);
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Comparator<Map.Entry<String, HomeData>> getComparator() {
+        return comparator;
+    }
+
+    public HomeSort next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -0,0 +1,311 @@
+package com.user404_.infinitehomes.gui;
+
+import com.user404_.infinitehomes.HomeData;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every item that can be a home icon, built once at startup: one display item per material, sorted
+ * into categories, a word index for searching by name and the finished contents of every category
+ * page. The picker copies a page into the viewer's inventory instead of creating items on each open;
+ * only the recent-icons row and search results are filled in per viewer.
+ */
+public class IconCatalog {
+    static final int ICONS_PER_PAGE = 36; // slots 0-35
+    static final int RECENT_ROW_START = 36; // slots 36-44
+    static final int RECENT_SIZE = 9;
+    static final int CATEGORY_BUTTON_SLOT = 45;
+    static final int SEARCH_BUTTON_SLOT = 46;
+    static final int PREV_BUTTON_SLOT = 48;
+    static final int BACK_BUTTON_SLOT = 49;
+    static final int NEXT_BUTTON_SLOT = 50;
+    static final int SIZE = 54;
+
+    public enum Category {
+        FEATURED("Featured", Material.RED_BED),
+        BUILDING("Building Blocks", Material.BRICKS),
+        NATURE("Nature", Material.OAK_SAPLING),
+        TOOLS("Tools & Combat", Material.IRON_PICKAXE),
+        FOOD("Food", Material.BREAD),
+        REDSTONE("Redstone", Material.REDSTONE),
+        MISC("Miscellaneous", Material.COMPASS);
+
+        private final String displayName;
+        private final Material button;
+
+        Category(String displayName, Material button) {
+            this.displayName = displayName;
+            this.button = button;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public Category next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+
+        public Category previous() {
+            return values()[(ordinal() + values().length - 1) % values().length];
+        }
+    }
+
+    // The old fixed icon list, shown first (updated for 1.21)
+    private static final List<Material> FEATURED = Arrays.asList(
+            // 🏠 Base / Haus
+            Material.RED_BED, Material.OAK_DOOR, Material.CHEST, Material.BARREL, Material.LANTERN, Material.FLOWER_POT,
+            // ⛏ Mining
+            Material.IRON_PICKAXE, Material.DIAMOND_PICKAXE, Material.NETHERITE_PICKAXE, Material.COAL,
+            Material.RAW_IRON, Material.RAW_GOLD, Material.DIAMOND, Material.EMERALD,
+            // 🌾 Farm
+            Material.WHEAT, Material.CARROT, Material.POTATO, Material.HAY_BLOCK, Material.BAMBOO, Material.HONEY_BOTTLE,
+            // 🌲 Nature
+            Material.OAK_SAPLING, Material.OAK_LOG, Material.GRASS_BLOCK, Material.MOSS_BLOCK, Material.VINE,
+            // ⚔ PvP / Kampf
+            Material.DIAMOND_SWORD, Material.SHIELD, Material.BOW, Material.ARROW, Material.CROSSBOW,
+            Material.TRIDENT, Material.TOTEM_OF_UNDYING,
+            // 🧭 Travel
+            Material.COMPASS, Material.RECOVERY_COMPASS, Material.MAP, Material.ENDER_PEARL, Material.ENDER_EYE,
+            Material.ELYTRA, Material.FIREWORK_ROCKET,
+            // ✨ Endgame / Magic
+            Material.ENCHANTED_BOOK, Material.BEACON, Material.DRAGON_EGG, Material.NETHER_STAR, Material.ENDER_CHEST
+    );
+
+    // Words of material names that decide the category; checked in this order after the edible check
+    private static final Set<String> REDSTONE_WORDS = new HashSet<>(Arrays.asList(
+            "REDSTONE", "REPEATER", "COMPARATOR", "PISTON", "OBSERVER", "HOPPER", "DROPPER", "DISPENSER", "LEVER",
+            "BUTTON", "PLATE", "TRIPWIRE", "DAYLIGHT", "TARGET", "RAIL", "SENSOR", "TNT", "CRAFTER"));
+    private static final Set<String> NATURE_WORDS = new HashSet<>(Arrays.asList(
+            "LOG", "STEM", "LEAVES", "SAPLING", "PROPAGULE", "FLOWER", "TULIP", "DANDELION", "POPPY", "ORCHID",
+            "ALLIUM", "BLUET", "DAISY", "CORNFLOWER", "ROSE", "PEONY", "LILAC", "SUNFLOWER", "DIRT", "GRASS",
+            "PODZOL", "MYCELIUM", "NYLIUM", "SAND", "GRAVEL", "CLAY", "SEEDS", "MUSHROOM", "FUNGUS", "CORAL",
+            "ORE", "MOSS", "VINE", "VINES", "FERN", "BUSH", "ROOTS", "KELP", "SEAGRASS", "LILY", "CACTUS", "BAMBOO",
+            "DRIPLEAF", "AZALEA", "WART", "SNOW", "ICE", "PUMPKIN", "MELON", "SUGAR", "LICHEN", "DRIPSTONE"));
+
+    private final Material[] materials;
+    private final ItemStack[] icons;
+    private final Map<Material, Integer> indexOf = new EnumMap<>(Material.class);
+    private final ItemStack[][][] pages; // category -> page -> inventory contents
+    // Search index: sorted distinct name words and, per word, the ascending indexes of the materials containing it
+    private final String[] words;
+    private final int[][] postings;
+
+    private final ItemStack searchButton;
+    private final ItemStack backButton;
+    private final ItemStack filler;
+    private final ItemStack recentFiller;
+    private final Map<UUID, List<Material>> recent = new ConcurrentHashMap<>();
+
+    public IconCatalog() {
+        List<Material> items = new ArrayList<>();
+        for (Material material : Material.values()) {
+            if (HomeData.isValidIcon(material)) items.add(material);
+        }
+        materials = items.toArray(new Material[0]);
+        icons = new ItemStack[materials.length];
+        TreeMap<String, List<Integer>> index = new TreeMap<>();
+        List<List<ItemStack>> byCategory = new ArrayList<>();
+        for (int c = 0; c < Category.values().length; c++) {
+            byCategory.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < materials.length; i++) {
+            Material material = materials[i];
+            String name = displayName(material);
+            icons[i] = button(material, "§e" + name, "§7Click to use as icon");
+            indexOf.put(material, i);
+            byCategory.get(categorize(material).ordinal()).add(icons[i]);
+            for (String word : name.toLowerCase().split(" ")) {
+                List<Integer> list = index.computeIfAbsent(word, w -> new ArrayList<>());
+                if (list.isEmpty() || list.get(list.size() - 1) != i) list.add(i);
+            }
+        }
+        for (Material material : FEATURED) {
+            Integer i = indexOf.get(material);
+            if (i != null) byCategory.get(Category.FEATURED.ordinal()).add(icons[i]);
+        }
+
+        words = index.keySet().toArray(new String[0]);
+        postings = new int[words.length][];
+        for (int w = 0; w < words.length; w++) {
+            postings[w] = index.get(words[w]).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        searchButton = button(Material.NAME_TAG, "§bSearch", "§7Find an item by name");
+        backButton = button(Material.BARRIER, "§cBack");
+        filler = button(Material.GRAY_STAINED_GLASS_PANE, " ");
+        recentFiller = button(Material.LIGHT_GRAY_STAINED_GLASS_PANE, "§7Recently used icons appear here");
+
+        pages = new ItemStack[Category.values().length][][];
+        for (Category category : Category.values()) {
+            List<ItemStack> list = byCategory.get(category.ordinal());
+            int count = pageCount(list.size());
+            pages[category.ordinal()] = new ItemStack[count][];
+            for (int page = 0; page < count; page++) {
+                pages[category.ordinal()][page] = buildPage(list, page, count, categoryButton(category), searchButton);
+            }
+        }
+    }
+
+    static Category categorize(Material material) {
+        if (material.isEdible()) return Category.FOOD;
+        Set<String> parts = new HashSet<>(Arrays.asList(material.name().split("_")));
+        if (!Collections.disjoint(parts, REDSTONE_WORDS)) return Category.REDSTONE;
+        if (material.getMaxDurability() > 0 || parts.contains("ARROW")) return Category.TOOLS;
+        if (!Collections.disjoint(parts, NATURE_WORDS)) return Category.NATURE;
+        if (material.isBlock() && material.isSolid()) return Category.BUILDING;
+        return Category.MISC;
+    }
+
+    /** "OAK_LOG" -> "Oak Log" */
+    static String displayName(Material material) {
+        StringBuilder name = new StringBuilder();
+        for (String word : material.name().split("_")) {
+            if (name.length() > 0) name.append(' ');
+            name.append(word.charAt(0)).append(word.substring(1).toLowerCase());
+        }
+        return name.toString();
+    }
+
+    public int pageCount(Category category) {
+        return pages[category.ordinal()].length;
+    }
+
+    /**
+     * Prebuilt contents of a category page without the recent-icons row. Shared; do not modify.
+     */
+    ItemStack[] getPage(Category category, int page) {
+        ItemStack[][] categoryPages = pages[category.ordinal()];
+        return categoryPages[Math.max(0, Math.min(page, categoryPages.length - 1))];
+    }
+
+    /**
+     * Materials whose name contains words starting with every word of the query, in catalog order.
+     */
+    public List<Material> search(String query) {
+        BitSet matches = null;
+        for (String token : query.toLowerCase().split("[\\s_]+")) {
+            if (token.isEmpty()) continue;
+            BitSet tokenMatches = new BitSet(materials.length);
+            // Words with this prefix form one range of the sorted word array
+            int from = Arrays.binarySearch(words, token);
+            if (from < 0) from = -from - 1;
+            for (int w = from; w < words.length && words[w].startsWith(token); w++) {
+                for (int i : postings[w]) tokenMatches.set(i);
+            }
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+        }
+        List<Material> result = new ArrayList<>();
+        if (matches != null) {
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                result.add(materials[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Contents of one page of search results, made from the prebuilt icons.
+     */
+    ItemStack[] getSearchPage(String query, List<Material> results, int page) {
+        List<ItemStack> list = new ArrayList<>(results.size());
+        for (Material material : results) {
+            list.add(icons[indexOf.get(material)]);
+        }
+        ItemStack category = button(Material.COMPASS, "§6Search: §f" + query, "§7Click to go back to the categories");
+        ItemStack search = button(Material.NAME_TAG, "§bSearch", "§7Search for something else");
+        return buildPage(list, page, pageCount(list.size()), category, search);
+    }
+
+    /**
+     * Fills the recent-icons row of a page copy for the player.
+     */
+    void fillRecent(ItemStack[] contents, UUID player) {
+        List<Material> recentIcons = getRecent(player);
+        for (int i = 0; i < RECENT_SIZE; i++) {
+            contents[RECENT_ROW_START + i] = i < recentIcons.size()
+                    ? icons[indexOf.get(recentIcons.get(i))] : recentFiller;
+        }
+    }
+
+    /**
+     * Icons the player picked most recently, newest first. Kept until the server stops.
+     */
+    public List<Material> getRecent(UUID player) {
+        List<Material> list = recent.get(player);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    public void addRecent(UUID player, Material material) {
+        if (!indexOf.containsKey(material)) return;
+        recent.compute(player, (uuid, old) -> {
+            List<Material> list = new ArrayList<>(RECENT_SIZE);
+            list.add(material);
+            if (old != null) {
+                for (Material previous : old) {
+                    if (previous != material && list.size() < RECENT_SIZE) list.add(previous);
+                }
+            }
+            return Collections.unmodifiableList(list);
+        });
+    }
+
+    static int pageCount(int icons) {
+        return Math.max(1, (icons + ICONS_PER_PAGE - 1) / ICONS_PER_PAGE);
+    }
+
+    private ItemStack[] buildPage(List<ItemStack> list, int page, int pageCount, ItemStack category, ItemStack search) {
+        ItemStack[] contents = new ItemStack[SIZE];
+        int start = page * ICONS_PER_PAGE;
+        for (int i = start; i < Math.min(start + ICONS_PER_PAGE, list.size()); i++) {
+            contents[i - start] = list.get(i);
+        }
+        for (int i = CATEGORY_BUTTON_SLOT; i < SIZE; i++) {
+            contents[i] = filler;
+        }
+        contents[CATEGORY_BUTTON_SLOT] = category;
+        contents[SEARCH_BUTTON_SLOT] = search;
+        contents[BACK_BUTTON_SLOT] = backButton;
+        if (page > 0) {
+            contents[PREV_BUTTON_SLOT] = button(Material.ARROW, "§aPrevious Page");
+        }
+        if (page + 1 < pageCount) {
+            contents[NEXT_BUTTON_SLOT] = button(Material.ARROW, "§aNext Page");
+        }
+        return contents;
+    }
+
+    private static ItemStack categoryButton(Category current) {
+        List<String> lore = new ArrayList<>();
+        for (Category category : Category.values()) {
+            lore.add(category == current ? "§a▶ " + category.getDisplayName() : "§7  " + category.getDisplayName());
+        }
+        lore.add("§7Left-click: next, right-click: previous");
+        ItemStack item = new ItemStack(current.button);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName("§6Category: §f" + current.getDisplayName());
+        meta.setLore(lore);
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    private static ItemStack button(Material material, String name, String... lore) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        if (lore.length > 0) {
+            meta.setLore(Arrays.asList(lore));
+        }
+        item.setItemMeta(meta);
+        return item;
+    }
+}
@@ -9,10 +9,13 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.*;
 
+/**
+ * Icon picker over the whole {@link IconCatalog}: one category or the results of a name search,
+ * 36 icons per page, with the viewer's recently used icons in the row below.
+ */
 public class IconSelectionGUI implements InventoryHolder {
     private final InfiniteHomes plugin;
     private final Player viewer;
@@ -20,96 +23,49 @@ public class IconSelectionGUI implements InventoryHolder {
     private final String homeName;
     private final boolean admin;
     private final int returnPage;
+    private final IconCatalog.Category category;
+    private final String query; // null unless showing search results
+    private final List<Material> results;
+    private final int page;
+    private final int pageCount;
+    private final List<Material> recent;
     private Inventory inventory;
 
-    // A set of common materials for icons (updated for 1.21)
-    private static final List<Material> ICONS = Arrays.asList(
-            // 🏠 Base / Haus
-            Material.RED_BED,
-            Material.OAK_DOOR,
-            Material.CHEST,
-            Material.BARREL,
-            Material.LANTERN,
-            Material.FLOWER_POT,
-
-            // ⛏ Mining
-            Material.IRON_PICKAXE,
-            Material.DIAMOND_PICKAXE,
-            Material.NETHERITE_PICKAXE,
-            Material.COAL,
-            Material.RAW_IRON,
-            Material.RAW_GOLD,
-            Material.DIAMOND,
-            Material.EMERALD,
-
-            // 🌾 Farm
-            Material.WHEAT,
-            Material.CARROT,
-            Material.POTATO,
-            Material.HAY_BLOCK,
-            Material.BAMBOO,
-            Material.HONEY_BOTTLE,
-
-            // 🌲 Nature
-            Material.OAK_SAPLING,
-            Material.OAK_LOG,
-            Material.GRASS_BLOCK,
-            Material.MOSS_BLOCK,
-            Material.VINE,
-
-            // ⚔ PvP / Kampf
-            Material.DIAMOND_SWORD,
-            Material.SHIELD,
-            Material.BOW,
-            Material.ARROW,
-            Material.CROSSBOW,
-            Material.TRIDENT,
-            Material.TOTEM_OF_UNDYING,
-
-            // 🧭 Travel
-            Material.COMPASS,
-            Material.RECOVERY_COMPASS,
-            Material.MAP,
-            Material.ENDER_PEARL,
-            Material.ENDER_EYE,
-            Material.ELYTRA,
-            Material.FIREWORK_ROCKET,
-
-            // ✨ Endgame / Magic
-            Material.ENCHANTED_BOOK,
-            Material.BEACON,
-            Material.DRAGON_EGG,
-            Material.NETHER_STAR,
-            Material.ENDER_CHEST
-    );
-
     public IconSelectionGUI(InfiniteHomes plugin, Player viewer, UUID targetUUID, String homeName, boolean admin, int returnPage) {
+        this(plugin, viewer, targetUUID, homeName, admin, returnPage, IconCatalog.Category.FEATURED, null, 0);
+    }
+
+    private IconSelectionGUI(InfiniteHomes plugin, Player viewer, UUID targetUUID, String homeName, boolean admin,
+                             int returnPage, IconCatalog.Category category, String query, int page) {
         this.plugin = plugin;
         this.viewer = viewer;
         this.targetUUID = targetUUID;
         this.homeName = homeName;
         this.admin = admin;
         this.returnPage = returnPage;
-        this.inventory = Bukkit.createInventory(this, 54, "Select Icon for " + homeName);
-        populate();
+        this.category = category;
+        this.query = query;
+
+        IconCatalog catalog = plugin.getIconCatalog();
+        this.results = query != null ? catalog.search(query) : null;
+        this.pageCount = query != null
+                ? IconCatalog.pageCount(results.size())
+                : catalog.pageCount(category);
+        this.page = Math.max(0, Math.min(page, pageCount - 1));
+        this.recent = catalog.getRecent(viewer.getUniqueId());
+
+        this.inventory = Bukkit.createInventory(this, IconCatalog.SIZE,
+                "Icon for " + homeName + " (" + (this.page + 1) + "/" + pageCount + ")");
+        populate(catalog);
     }
 
-    private void populate() {
-        int slot = 0;
-        for (Material mat : ICONS) {
-            if (slot >= 54) break;
-            ItemStack item = new ItemStack(mat);
-            ItemMeta meta = item.getItemMeta();
-            meta.setDisplayName("§e" + mat.name());
-            item.setItemMeta(meta);
-            inventory.setItem(slot++, item);
-        }
-        // Back button
-        ItemStack back = new ItemStack(Material.BARRIER);
-        ItemMeta backMeta = back.getItemMeta();
-        backMeta.setDisplayName("§cBack");
-        back.setItemMeta(backMeta); // FIXED: use backMeta, not back
-        inventory.setItem(53, back);
+    private void populate(IconCatalog catalog) {
+        // Copy of the prebuilt page; only the recent row is the viewer's own
+        ItemStack[] contents = query != null
+                ? catalog.getSearchPage(query, results, page)
+                : catalog.getPage(category, page).clone();
+        catalog.fillRecent(contents, viewer.getUniqueId());
+        inventory.setContents(contents);
     }
 
     public void open() {
@@ -126,25 +82,53 @@ public class IconSelectionGUI implements InventoryHolder {
         int slot = event.getRawSlot();
         if (slot < 0 || slot >= inventory.getSize()) return;
 
-        if (slot == 53) {
+        if (slot < IconCatalog.ICONS_PER_PAGE) {
+            ItemStack clicked = inventory.getItem(slot);
+            if (clicked != null && clicked.getType() != Material.AIR) {
+                select(player, clicked.getType());
+            }
+        } else if (slot < IconCatalog.RECENT_ROW_START + IconCatalog.RECENT_SIZE) {
+            int index = slot - IconCatalog.RECENT_ROW_START;
+            if (index < recent.size()) {
+                select(player, recent.get(index));
+            }
+        } else if (slot == IconCatalog.CATEGORY_BUTTON_SLOT) {
+            IconCatalog.Category next = query != null ? category
+                    : event.isRightClick() ? category.previous() : category.next();
+            show(player, next, null, 0);
+        } else if (slot == IconCatalog.SEARCH_BUTTON_SLOT) {
+            plugin.getTextPrompts().ask(player, "Search icons", "§aEnter part of an item name in chat",
+                    input -> show(player, category, input.isEmpty() ? null : input, 0));
+        } else if (slot == IconCatalog.PREV_BUTTON_SLOT && page > 0) {
+            show(player, category, query, page - 1);
+        } else if (slot == IconCatalog.NEXT_BUTTON_SLOT && page + 1 < pageCount) {
+            show(player, category, query, page + 1);
+        } else if (slot == IconCatalog.BACK_BUTTON_SLOT) {
             // Back to home list
             new HomeListGUI(plugin, player, targetUUID, admin, returnPage).open();
-            return;
         }
+    }
 
-        ItemStack clicked = inventory.getItem(slot);
-        if (clicked == null || clicked.getType() == Material.AIR) return;
+    private void show(Player player, IconCatalog.Category category, String query, int page) {
+        IconSelectionGUI gui = new IconSelectionGUI(plugin, player, targetUUID, homeName, admin, returnPage, category, query, page);
+        if (query != null && gui.results.isEmpty()) {
+            player.sendMessage("§cNo item matches '" + query + "'.");
+        }
+        gui.open();
+    }
 
-        Material newIcon = clicked.getType();
+    private void select(Player player, Material newIcon) {
+        if (!HomeData.isValidIcon(newIcon)) return;
         // Update home data
         Map<String, HomeData> homes = plugin.getHomes().get(targetUUID);
-        if (homes != null && homes.containsKey(homeName)) {
+        if (homes != null && homes.containsKey(homeName) && plugin.allowSave(player)) {
             HomeData data = homes.get(homeName);
             data.setIcon(newIcon);
-            plugin.saveHomesToConfig();
+            plugin.getIconCatalog().addRecent(player.getUniqueId(), newIcon);
+            plugin.savePlayerHomes(targetUUID);
             player.sendMessage("§aIcon for home '" + homeName + "' updated.");
         }
         // Return to home list
         new HomeListGUI(plugin, player, targetUUID, admin, returnPage).open();
     }
-}
\ No newline at end of file
+}
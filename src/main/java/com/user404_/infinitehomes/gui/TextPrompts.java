@@ -0,0 +1,225 @@
+package com.user404_.infinitehomes.gui;
+
+import com.user404_.infinitehomes.InfiniteHomes;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.MenuType;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.view.AnvilView;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Asks a player for a line of text from the GUIs (a new home's name, an icon search), in chat or in
+ * an anvil ({@code gui.name-input}). Open prompts live in one concurrent map; a single task removes
+ * expired ones, and the chat listener is only registered while a chat prompt is open. The handler
+ * runs once, on the player's thread.
+ */
+public class TextPrompts implements Listener {
+    private static final int ANVIL_INPUT_SLOT = 0;
+    private static final int ANVIL_RESULT_SLOT = 2;
+
+    private final InfiniteHomes plugin;
+    private final Map<UUID, Prompt> prompts = new ConcurrentHashMap<>();
+    private final Listener chatInput = new ChatInput();
+    private boolean chatRegistered; // guarded by updateListeners
+    private TaskScheduler.Task sweeper;
+
+    private static final class Prompt {
+        final long expiresAt;
+        final AnvilView anvil; // null for chat input
+        final Consumer<String> handler;
+
+        Prompt(long expiresAt, AnvilView anvil, Consumer<String> handler) {
+            this.expiresAt = expiresAt;
+            this.anvil = anvil;
+            this.handler = handler;
+        }
+    }
+
+    public TextPrompts(InfiniteHomes plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Asks the player for input. {@code title} names the anvil, {@code question} is sent in chat.
+     * The handler gets the trimmed text on the player's thread. Replaces any open prompt.
+     */
+    public void ask(Player player, String title, String question, Consumer<String> handler) {
+        int timeout = plugin.getSettings().getPromptTimeoutSeconds();
+        long expiresAt = System.currentTimeMillis() + timeout * 1000L;
+        player.closeInventory();
+
+        AnvilView anvil = null;
+        if (plugin.getSettings().isAnvilNameInput()) {
+            anvil = MenuType.ANVIL.create(player, title);
+            ItemStack paper = new ItemStack(Material.PAPER);
+            ItemMeta meta = paper.getItemMeta();
+            meta.setDisplayName(" ");
+            paper.setItemMeta(meta);
+            anvil.getTopInventory().setItem(ANVIL_INPUT_SLOT, paper);
+        }
+        prompts.put(player.getUniqueId(), new Prompt(expiresAt, anvil, handler));
+        if (anvil != null) {
+            player.openInventory(anvil);
+        } else {
+            player.sendMessage(question + " §7(" + timeout + "s timeout)");
+        }
+        updateListeners();
+    }
+
+    /**
+     * Drops all prompts, e.g. when the plugin is disabled.
+     */
+    public void clear() {
+        for (Prompt prompt : prompts.values()) {
+            if (prompt.anvil != null) {
+                prompt.anvil.getTopInventory().clear(); // the paper must not end up with the player
+            }
+        }
+        prompts.clear();
+        updateListeners();
+    }
+
+    /**
+     * Registers the chat listener and the sweeper while they are needed, and removes them afterwards.
+     */
+    private synchronized void updateListeners() {
+        boolean chatNeeded = false;
+        for (Prompt prompt : prompts.values()) {
+            if (prompt.anvil == null) {
+                chatNeeded = true;
+                break;
+            }
+        }
+        if (chatNeeded && !chatRegistered) {
+            plugin.getServer().getPluginManager().registerEvents(chatInput, plugin);
+            chatRegistered = true;
+        } else if (!chatNeeded && chatRegistered) {
+            HandlerList.unregisterAll(chatInput);
+            chatRegistered = false;
+        }
+
+        if (!prompts.isEmpty() && sweeper == null) {
+            sweeper = plugin.getTaskScheduler().runGlobalTimer(this::sweep, 20L, 20L);
+        } else if (prompts.isEmpty() && sweeper != null) {
+            sweeper.cancel();
+            sweeper = null;
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (Iterator<Map.Entry<UUID, Prompt>> it = prompts.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<UUID, Prompt> entry = it.next();
+            if (entry.getValue().expiresAt > now) continue;
+            it.remove();
+            Prompt prompt = entry.getValue();
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null) {
+                plugin.getTaskScheduler().runFor(player, () -> {
+                    if (prompt.anvil != null && isPromptAnvil(prompt, player.getOpenInventory())) {
+                        prompt.anvil.getTopInventory().clear();
+                        player.closeInventory();
+                    }
+                    player.sendMessage("§cNo input received, cancelled.");
+                });
+            }
+        }
+        updateListeners();
+    }
+
+    /**
+     * Hands the input to the prompt's handler on the player's thread. The prompt is only used once.
+     */
+    private void complete(Player player, Prompt prompt, String input) {
+        if (!prompts.remove(player.getUniqueId(), prompt)) return; // expired or replaced meanwhile
+        updateListeners();
+        if (!player.isOnline()) return;
+        prompt.handler.accept(input.trim());
+    }
+
+    private Prompt anvilPrompt(Player player, InventoryView view) {
+        Prompt prompt = prompts.get(player.getUniqueId());
+        return prompt != null && prompt.anvil != null && isPromptAnvil(prompt, view) ? prompt : null;
+    }
+
+    private static boolean isPromptAnvil(Prompt prompt, InventoryView view) {
+        return prompt.anvil.getTopInventory().equals(view.getTopInventory());
+    }
+
+    @EventHandler
+    public void onPrepareAnvil(PrepareAnvilEvent event) {
+        if (!(event.getView().getPlayer() instanceof Player)) return;
+        if (anvilPrompt((Player) event.getView().getPlayer(), event.getView()) == null) return;
+        // Renaming is free here, so the result can always be taken
+        event.getView().setRepairCost(0);
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onAnvilClick(InventoryClickEvent event) {
+        if (!(event.getWhoClicked() instanceof Player)) return;
+        Player player = (Player) event.getWhoClicked();
+        Prompt prompt = anvilPrompt(player, event.getView());
+        if (prompt == null) return;
+        event.setCancelled(true);
+        if (event.getRawSlot() != ANVIL_RESULT_SLOT) return;
+        String text = prompt.anvil.getRenameText();
+        // Paper in slot 0 belongs to the prompt, not the player
+        prompt.anvil.getTopInventory().clear();
+        complete(player, prompt, text != null ? text : "");
+        if (isPromptAnvil(prompt, player.getOpenInventory())) {
+            player.closeInventory(); // the handler did not open another GUI
+        }
+    }
+
+    @EventHandler
+    public void onAnvilClose(InventoryCloseEvent event) {
+        if (!(event.getPlayer() instanceof Player)) return;
+        Player player = (Player) event.getPlayer();
+        Prompt prompt = anvilPrompt(player, event.getView());
+        if (prompt != null && prompts.remove(player.getUniqueId(), prompt)) {
+            prompt.anvil.getTopInventory().clear();
+            updateListeners();
+        }
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        if (prompts.remove(event.getPlayer().getUniqueId()) != null) {
+            updateListeners();
+        }
+    }
+
+    /**
+     * Only registered while at least one chat prompt is open.
+     */
+    private final class ChatInput implements Listener {
+        @EventHandler(priority = EventPriority.LOWEST)
+        public void onChat(AsyncPlayerChatEvent event) {
+            Player player = event.getPlayer();
+            Prompt prompt = prompts.get(player.getUniqueId());
+            if (prompt == null || prompt.anvil != null) return;
+            event.setCancelled(true);
+            String message = event.getMessage();
+            plugin.getTaskScheduler().runFor(player, () -> complete(player, prompt, message));
+        }
+    }
+}
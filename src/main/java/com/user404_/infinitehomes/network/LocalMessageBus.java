@@ -0,0 +1,41 @@
+package com.user404_.infinitehomes.network;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-memory bus connecting all instances in the same JVM. Stand-in for the proxy in tests
+ * and the default for a single server using shared storage.
+ */
+public class LocalMessageBus implements MessageBus {
+    private static final List<LocalMessageBus> BUSES = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<UUID>> listeners = new CopyOnWriteArrayList<>();
+
+    public LocalMessageBus() {
+        BUSES.add(this);
+    }
+
+    @Override
+    public void publishInvalidation(UUID playerUuid) {
+        for (LocalMessageBus bus : BUSES) {
+            if (bus == this) continue;
+            for (Consumer<UUID> listener : bus.listeners) {
+                listener.accept(playerUuid);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UUID> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        BUSES.remove(this);
+        listeners.clear();
+    }
+}
@@ -0,0 +1,18 @@
+package com.user404_.infinitehomes.network;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Carries per-player cache invalidations between backend servers.
+ */
+public interface MessageBus {
+
+    /** Tells all other servers that the homes of this player changed. */
+    void publishInvalidation(UUID playerUuid);
+
+    /** Registers the listener for invalidations sent by other servers. It may be called on any thread. */
+    void subscribe(Consumer<UUID> listener);
+
+    void close();
+}
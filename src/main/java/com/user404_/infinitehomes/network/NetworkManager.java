@@ -0,0 +1,219 @@
+package com.user404_.infinitehomes.network;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.InfiniteHomes;
+import com.user404_.infinitehomes.storage.Handoff;
+import com.user404_.infinitehomes.storage.SharedHomeStorage;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Network mode: homes live in a {@link SharedHomeStorage} used by all backends and the plugin's home map
+ * only caches the players this server needs: online players, and offline players whose homes are used here
+ * (opened by admins, shared homes) until they go unused for {@code cold-tier.demote-after-seconds}.
+ * Changes are written to the shared storage and announced per player over the {@link MessageBus};
+ * teleports to homes set on another backend hand the player off through the proxy.
+ */
+public class NetworkManager implements Listener {
+    private static final long HANDOFF_TIMEOUT_MS = 60_000;
+
+    private final InfiniteHomes plugin;
+    private final String serverName;
+    private final SharedHomeStorage storage;
+    private final MessageBus bus;
+
+    public NetworkManager(InfiniteHomes plugin, String serverName, SharedHomeStorage storage, MessageBus bus) {
+        this.plugin = plugin;
+        this.serverName = serverName;
+        this.storage = storage;
+        this.bus = bus;
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, PluginMessageBus.BUNGEE_CHANNEL);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public SharedHomeStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Whether the home was set on another backend and needs a server switch.
+     */
+    public boolean isRemote(HomeData home) {
+        return home.getServer() != null && !home.getServer().equalsIgnoreCase(serverName);
+    }
+
+    /**
+     * Loads (or reloads) a player's homes into the local cache off the main thread.
+     */
+    public CompletableFuture<Void> loadAsync(UUID playerUuid) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        plugin.getTaskScheduler().runAsync(() -> {
+            cache(playerUuid, storage.loadPlayer(playerUuid));
+            future.complete(null);
+        });
+        return future;
+    }
+
+    private void cache(UUID playerUuid, Map<String, HomeData> homes) {
+        if (homes.isEmpty()) {
+            plugin.getHomes().remove(playerUuid);
+        } else {
+            plugin.getHomes().put(playerUuid, homes);
+            plugin.getHomeExpiry().trackAll(playerUuid, homes);
+        }
+        plugin.getNameIndex().invalidate(playerUuid);
+        plugin.getAccessIndex().update(playerUuid, plugin.getHomes().get(playerUuid));
+        plugin.getWorldCounts().invalidate(playerUuid);
+        plugin.getNameMatcher().invalidate(playerUuid);
+    }
+
+    /**
+     * The homes of a player to change in place: the cached map, or else a fresh copy from the shared storage
+     * that is not cached. Hand it to {@link #stage} afterwards. Blocks, so never call it on the main thread.
+     */
+    public Map<String, HomeData> homesToChange(UUID playerUuid) {
+        Map<String, HomeData> cached = plugin.getHomes().get(playerUuid);
+        return cached != null ? cached : storage.loadPlayer(playerUuid);
+    }
+
+    /**
+     * Stages homes changed after {@link #homesToChange} or {@link #forEachPlayer}. Publish an invalidation
+     * for the player once they are flushed.
+     */
+    public void stage(UUID playerUuid, Map<String, HomeData> homes) {
+        if (plugin.getHomes().get(playerUuid) == homes) {
+            plugin.stagePlayerHomes(playerUuid);
+        } else {
+            plugin.getGlobalIndex().changed();
+            storage.savePlayer(playerUuid, homes);
+        }
+    }
+
+    /**
+     * Visits every player in the shared storage, one at a time. Cached players get their cached map, as it may
+     * not be flushed yet; everyone else a fresh copy that is not cached. Blocks, so never call it on the main thread.
+     */
+    public void forEachPlayer(BiConsumer<UUID, Map<String, HomeData>> visitor) {
+        Set<UUID> cached = new HashSet<>();
+        // Iterating does not promote cold players or count as a use
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : plugin.getHomes().entrySet()) {
+            cached.add(entry.getKey());
+            visitor.accept(entry.getKey(), entry.getValue());
+        }
+        storage.forEachPlayer((playerUuid, homes) -> {
+            if (!cached.contains(playerUuid)) visitor.accept(playerUuid, homes);
+        });
+    }
+
+    /**
+     * Must be called on the main thread after the player's changes were flushed to the shared storage.
+     */
+    public void publishInvalidation(UUID playerUuid) {
+        bus.publishInvalidation(playerUuid);
+    }
+
+    private void onInvalidation(UUID playerUuid) {
+        // Only players we actually cache need a reload; everyone else is read fresh when needed
+        if (plugin.getHomes().containsKey(playerUuid) || Bukkit.getPlayer(playerUuid) != null) {
+            loadAsync(playerUuid);
+        }
+    }
+
+    /**
+     * Sends the player to the home's backend, which teleports them once they arrive.
+     */
+    public void handOff(Player player, UUID owner, String homeName, String server) {
+        player.sendMessage(plugin.getMessage(player, "teleport.handoff")
+                .replace("{home}", homeName).replace("{server}", server));
+        UUID playerUuid = player.getUniqueId();
+        plugin.getTaskScheduler().runAsync(() -> {
+            storage.putHandoff(playerUuid, new Handoff(owner, homeName, System.currentTimeMillis()));
+            plugin.getTaskScheduler().runFor(player, () -> {
+                try {
+                    ByteArrayOutputStream message = new ByteArrayOutputStream();
+                    DataOutputStream out = new DataOutputStream(message);
+                    out.writeUTF("Connect");
+                    out.writeUTF(server);
+                    player.sendPluginMessage(plugin, PluginMessageBus.BUNGEE_CHANNEL, message.toByteArray());
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Could not send " + player.getName() + " to " + server + ": " + e.getMessage());
+                }
+            });
+        });
+    }
+
+    // Already off the main thread: load the joining player's homes into the cache, unless the login was refused
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            cache(event.getUniqueId(), storage.loadPlayer(event.getUniqueId()));
+        }
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        plugin.getTaskScheduler().runAsync(() -> {
+            Handoff handoff = storage.takeHandoff(player.getUniqueId());
+            if (handoff == null || System.currentTimeMillis() - handoff.getCreatedAt() > HANDOFF_TIMEOUT_MS) return;
+
+            CompletableFuture<Void> loaded = plugin.getHomes().containsKey(handoff.getOwner())
+                    ? CompletableFuture.completedFuture(null) : loadAsync(handoff.getOwner());
+            loaded.thenRun(() -> plugin.getTaskScheduler().runFor(player, () -> {
+                Map<String, HomeData> homes = plugin.getHomes().get(handoff.getOwner());
+                HomeData home = homes != null ? homes.get(handoff.getHomeName()) : null;
+                if (home == null) return;
+                plugin.getTeleportManager().teleportNow(player, handoff.getOwner(), handoff.getHomeName(), home);
+            }));
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        forget(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Drops an offline player nobody used for a while from the cache; they are loaded again when needed.
+     * Called by the home map's sweep on the global thread. Players with usage not written yet are kept
+     * for the next sweep.
+     */
+    public void evictIdle(UUID playerUuid) {
+        if (Bukkit.getPlayer(playerUuid) != null || plugin.getUsageTracker().isPending(playerUuid)) return;
+        forget(playerUuid);
+    }
+
+    private void forget(UUID playerUuid) {
+        plugin.getHomes().remove(playerUuid);
+        plugin.getNameIndex().invalidate(playerUuid);
+        plugin.getAccessIndex().update(playerUuid, null);
+        plugin.getWorldCounts().invalidate(playerUuid);
+        plugin.getNameMatcher().invalidate(playerUuid);
+    }
+
+    public void close() {
+        bus.close();
+        storage.close();
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin);
+    }
+}
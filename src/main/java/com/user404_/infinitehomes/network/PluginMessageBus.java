@@ -0,0 +1,86 @@
+package com.user404_.infinitehomes.network;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.io.*;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations through the proxy with the BungeeCord "Forward" sub-channel (also understood by Velocity).
+ * Plugin messages travel through a player connection, so nothing can be sent while the server is empty;
+ * servers without players pick up fresh data from the shared storage when someone joins.
+ */
+public class PluginMessageBus implements MessageBus, PluginMessageListener {
+    static final String BUNGEE_CHANNEL = "BungeeCord";
+    private static final String SUB_CHANNEL = "InfiniteHomes";
+
+    private final Plugin plugin;
+    private final List<Consumer<UUID>> listeners = new CopyOnWriteArrayList<>();
+
+    public PluginMessageBus(Plugin plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, BUNGEE_CHANNEL, this);
+    }
+
+    @Override
+    public void publishInvalidation(UUID playerUuid) {
+        Player carrier = Bukkit.getOnlinePlayers().stream().findFirst().orElse(null);
+        if (carrier == null) return;
+
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream payloadOut = new DataOutputStream(payload);
+            payloadOut.writeUTF("invalidate");
+            payloadOut.writeUTF(playerUuid.toString());
+
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(message);
+            out.writeUTF("Forward");
+            out.writeUTF("ALL");
+            out.writeUTF(SUB_CHANNEL);
+            out.writeShort(payload.size());
+            out.write(payload.toByteArray());
+            carrier.sendPluginMessage(plugin, BUNGEE_CHANNEL, message.toByteArray());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not publish home invalidation: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!channel.equals(BUNGEE_CHANNEL)) return;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            if (!in.readUTF().equals(SUB_CHANNEL)) return;
+            byte[] payload = new byte[in.readShort()];
+            in.readFully(payload);
+
+            DataInputStream payloadIn = new DataInputStream(new ByteArrayInputStream(payload));
+            if (payloadIn.readUTF().equals("invalidate")) {
+                UUID uuid = UUID.fromString(payloadIn.readUTF());
+                for (Consumer<UUID> listener : listeners) {
+                    listener.accept(uuid);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Ignoring malformed home network message: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<UUID> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin);
+        listeners.clear();
+    }
+}
@@ -0,0 +1,121 @@
+package com.user404_.infinitehomes.scheduler;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link TaskScheduler} for servers with a single main thread: every context except async is the main thread.
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+    private final Plugin plugin;
+    private final Method chunkAtAsync; // Paper's World#getChunkAtAsync, null on Spigot
+
+    public BukkitTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        Method method;
+        try {
+            method = World.class.getMethod("getChunkAtAsync", int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            method = null;
+        }
+        this.chunkAtAsync = method;
+    }
+
+    @Override
+    public Task runGlobal(Runnable task) {
+        return wrap(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public Task runAt(Location location, Runnable task) {
+        return runGlobal(task);
+    }
+
+    @Override
+    public Task runFor(Entity entity, Runnable task) {
+        if (!isPresent(entity)) return null;
+        return runGlobal(() -> {
+            if (isPresent(entity)) task.run();
+        });
+    }
+
+    @Override
+    public Task runForLater(Entity entity, Runnable task, long delayTicks) {
+        if (!isPresent(entity)) return null;
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (isPresent(entity)) task.run();
+        }, delayTicks));
+    }
+
+    @Override
+    public Task runAsync(Runnable task) {
+        return wrap(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public boolean isOwnedByCurrentRegion(Location location) {
+        return Bukkit.isPrimaryThread();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return CompletableFuture.completedFuture(entity.teleport(location));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Chunk> loadChunk(World world, int chunkX, int chunkZ) {
+        if (chunkAtAsync != null) {
+            try {
+                return (CompletableFuture<Chunk>) chunkAtAsync.invoke(world, chunkX, chunkZ);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                CompletableFuture<Chunk> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e instanceof InvocationTargetException ? e.getCause() : e);
+                return failed;
+            }
+        }
+        // Spigot can only load chunks on the main thread; a teleport there would load it the same way
+        CompletableFuture<Chunk> future = new CompletableFuture<>();
+        runGlobal(() -> future.complete(world.getChunkAt(chunkX, chunkZ)));
+        return future;
+    }
+
+    // Same rule as Folia's entity scheduler: dead players keep their tasks, players who left do not
+    private static boolean isPresent(Entity entity) {
+        return entity instanceof Player ? ((Player) entity).isOnline() : entity.isValid();
+    }
+
+    private static Task wrap(BukkitTask task) {
+        return new Task() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
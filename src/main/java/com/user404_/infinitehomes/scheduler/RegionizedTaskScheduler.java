@@ -0,0 +1,166 @@
+package com.user404_.infinitehomes.scheduler;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@link TaskScheduler} for Folia's regionized threading. The plugin is compiled against the Spigot API,
+ * which lacks Folia's schedulers, so they are looked up once by reflection and called through the
+ * cached {@link Method}s.
+ */
+public class RegionizedTaskScheduler implements TaskScheduler {
+    private static final String PACKAGE = "io.papermc.paper.threadedregions";
+
+    private final Plugin plugin;
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+    private final Method globalRun;
+    private final Method globalRunAtFixedRate;
+    private final Method regionRun;
+    private final Method entityGetScheduler;
+    private final Method entityRun;
+    private final Method entityRunDelayed;
+    private final Method asyncRunNow;
+    private final Method asyncRunAtFixedRate;
+    private final Method taskCancel;
+    private final Method taskIsCancelled;
+    private final Method ownsLocation;
+    private final Method teleportAsync;
+    private final Method chunkAtAsync;
+
+    public static boolean isSupported() {
+        try {
+            Class.forName(PACKAGE + ".RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    RegionizedTaskScheduler(Plugin plugin) throws ReflectiveOperationException {
+        this.plugin = plugin;
+        Server server = plugin.getServer();
+        Class<?> global = Class.forName(PACKAGE + ".scheduler.GlobalRegionScheduler");
+        Class<?> region = Class.forName(PACKAGE + ".scheduler.RegionScheduler");
+        Class<?> entity = Class.forName(PACKAGE + ".scheduler.EntityScheduler");
+        Class<?> async = Class.forName(PACKAGE + ".scheduler.AsyncScheduler");
+        Class<?> task = Class.forName(PACKAGE + ".scheduler.ScheduledTask");
+
+        globalScheduler = Server.class.getMethod("getGlobalRegionScheduler").invoke(server);
+        regionScheduler = Server.class.getMethod("getRegionScheduler").invoke(server);
+        asyncScheduler = Server.class.getMethod("getAsyncScheduler").invoke(server);
+        globalRun = global.getMethod("run", Plugin.class, Consumer.class);
+        globalRunAtFixedRate = global.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+        regionRun = region.getMethod("run", Plugin.class, Location.class, Consumer.class);
+        entityGetScheduler = Entity.class.getMethod("getScheduler");
+        entityRun = entity.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+        entityRunDelayed = entity.getMethod("runDelayed", Plugin.class, Consumer.class, Runnable.class, long.class);
+        asyncRunNow = async.getMethod("runNow", Plugin.class, Consumer.class);
+        asyncRunAtFixedRate = async.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class, TimeUnit.class);
+        taskCancel = task.getMethod("cancel");
+        taskIsCancelled = task.getMethod("isCancelled");
+        ownsLocation = Server.class.getMethod("isOwnedByCurrentRegion", Location.class);
+        teleportAsync = Entity.class.getMethod("teleportAsync", Location.class);
+        chunkAtAsync = World.class.getMethod("getChunkAtAsync", int.class, int.class);
+    }
+
+    @Override
+    public Task runGlobal(Runnable task) {
+        return wrap(invoke(globalRun, globalScheduler, plugin, consumer(task)));
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        // Folia rejects delays below one tick
+        return wrap(invoke(globalRunAtFixedRate, globalScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks), Math.max(1, periodTicks)));
+    }
+
+    @Override
+    public Task runAt(Location location, Runnable task) {
+        return wrap(invoke(regionRun, regionScheduler, plugin, location, consumer(task)));
+    }
+
+    @Override
+    public Task runFor(Entity entity, Runnable task) {
+        Object scheduler = invoke(entityGetScheduler, entity);
+        return wrap(invoke(entityRun, scheduler, plugin, consumer(task), null));
+    }
+
+    @Override
+    public Task runForLater(Entity entity, Runnable task, long delayTicks) {
+        Object scheduler = invoke(entityGetScheduler, entity);
+        return wrap(invoke(entityRunDelayed, scheduler, plugin, consumer(task), null, Math.max(1, delayTicks)));
+    }
+
+    @Override
+    public Task runAsync(Runnable task) {
+        return wrap(invoke(asyncRunNow, asyncScheduler, plugin, consumer(task)));
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(invoke(asyncRunAtFixedRate, asyncScheduler, plugin, consumer(task),
+                Math.max(1, delayTicks) * 50, Math.max(1, periodTicks) * 50, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public boolean isOwnedByCurrentRegion(Location location) {
+        return (Boolean) invoke(ownsLocation, plugin.getServer(), location);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        return (CompletableFuture<Boolean>) invoke(teleportAsync, entity, location);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<Chunk> loadChunk(World world, int chunkX, int chunkZ) {
+        return (CompletableFuture<Chunk>) invoke(chunkAtAsync, world, chunkX, chunkZ);
+    }
+
+    private static Consumer<Object> consumer(Runnable task) {
+        return scheduledTask -> task.run();
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Task wrap(Object scheduledTask) {
+        if (scheduledTask == null) return null; // entity already removed
+        return new Task() {
+            @Override
+            public void cancel() {
+                invoke(taskCancel, scheduledTask);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return (Boolean) invoke(taskIsCancelled, scheduledTask);
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.user404_.infinitehomes.scheduler;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs tasks in the right context on both normal servers and servers with regionized threading
+ * (Folia), where the world is split into regions ticked on different threads:
+ * <ul>
+ *   <li>global: plugin-wide state that belongs to no world, e.g. reloads and network messages</li>
+ *   <li>location: the region owning a block position, e.g. taking chunk snapshots</li>
+ *   <li>entity: wherever the entity currently is, e.g. messages, inventories and teleports of a player</li>
+ *   <li>async: file and database work</li>
+ * </ul>
+ * On a normal server the first three are all the main thread. Delays and periods are in ticks.
+ */
+public interface TaskScheduler {
+
+    /**
+     * A scheduled task.
+     */
+    interface Task {
+        void cancel();
+
+        boolean isCancelled();
+    }
+
+    Task runGlobal(Runnable task);
+
+    Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    Task runAt(Location location, Runnable task);
+
+    /**
+     * Runs the task on the entity's thread. Tasks of removed entities and players who left are
+     * dropped; returns null if the entity is already gone.
+     */
+    Task runFor(Entity entity, Runnable task);
+
+    Task runForLater(Entity entity, Runnable task, long delayTicks);
+
+    Task runAsync(Runnable task);
+
+    Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Whether the calling thread may touch the blocks at the location right now.
+     */
+    boolean isOwnedByCurrentRegion(Location location);
+
+    /**
+     * Teleports the entity. Completes with false if the teleport was refused, e.g. by another plugin.
+     * Must be called on the entity's thread; the future may complete on another region's thread.
+     */
+    CompletableFuture<Boolean> teleport(Entity entity, Location location);
+
+    /**
+     * Loads a chunk in the background where the server can (Paper and Folia), so the calling thread is
+     * not blocked by disk or generation. The future completes on the thread owning the chunk.
+     */
+    CompletableFuture<Chunk> loadChunk(World world, int chunkX, int chunkZ);
+
+    /**
+     * Runs the task where the location's blocks may be read: right away if this thread owns them,
+     * otherwise on the owning region.
+     */
+    default void executeAt(Location location, Runnable task) {
+        if (isOwnedByCurrentRegion(location)) {
+            task.run();
+        } else {
+            runAt(location, task);
+        }
+    }
+
+    /**
+     * Runs the task where messages to the sender belong: the player's thread, or the global one for the console.
+     */
+    default Task runForSender(CommandSender sender, Runnable task) {
+        return sender instanceof Entity ? runFor((Entity) sender, task) : runGlobal(task);
+    }
+
+    /**
+     * The scheduler for the running server: regionized if Folia's region classes are present.
+     */
+    static TaskScheduler create(Plugin plugin) {
+        if (RegionizedTaskScheduler.isSupported()) {
+            try {
+                return new RegionizedTaskScheduler(plugin);
+            } catch (ReflectiveOperationException e) {
+                plugin.getLogger().warning("Regionized server detected, but its scheduler API could not be used: " + e);
+            }
+        }
+        return new BukkitTaskScheduler(plugin);
+    }
+}
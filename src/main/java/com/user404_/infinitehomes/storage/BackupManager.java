@@ -0,0 +1,230 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.scheduler.TaskScheduler;
+import org.bukkit.plugin.Plugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps rotating gzip backups of homes.yml and can load one into a staging registry
+ * so it can be compared with the live homes before it is swapped in.
+ * All file work happens on async tasks.
+ */
+public class BackupManager {
+    private static final String PREFIX = "homes-";
+    private static final String SUFFIX = ".yml.gz";
+
+    private final Plugin plugin;
+    private final TaskScheduler scheduler;
+    private final File source;
+    private final File backupDir;
+    private final Map<UUID, Map<String, HomeData>> live;
+    private long lastBackedUp;
+    private volatile int keep = 24;
+    private volatile int maxAgeDays = 7;
+    private TaskScheduler.Task schedule;
+
+    private volatile Map<UUID, Map<String, HomeData>> staged;
+    private volatile String stagedName;
+
+    public BackupManager(Plugin plugin, TaskScheduler scheduler, File source, Map<UUID, Map<String, HomeData>> live) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.source = source;
+        this.backupDir = new File(plugin.getDataFolder(), "backups");
+        this.live = live;
+    }
+
+    public void startSchedule(int intervalMinutes) {
+        long ticks = Math.max(1, intervalMinutes) * 60L * 20L;
+        schedule = scheduler.runAsyncTimer(() -> backup(false), ticks, ticks);
+    }
+
+    public void stopSchedule() {
+        if (schedule != null) {
+            schedule.cancel();
+            schedule = null;
+        }
+    }
+
+    /**
+     * Backups beyond {@code keep} or older than {@code maxAgeDays} are deleted on the next backup (0 = no limit).
+     */
+    public void setRetention(int keep, int maxAgeDays) {
+        this.keep = keep;
+        this.maxAgeDays = maxAgeDays;
+    }
+
+    /**
+     * Creates a backup now (off the main thread) and calls back on the global thread with its name, or null on failure.
+     */
+    public void backupNow(Consumer<String> callback) {
+        scheduler.runAsync(() -> {
+            String name = backup(true);
+            scheduler.runGlobal(() -> callback.accept(name));
+        });
+    }
+
+    private synchronized String backup(boolean force) {
+        if (!source.exists() || (!force && source.lastModified() == lastBackedUp)) {
+            return null; // nothing changed since the last backup
+        }
+        if (!backupDir.exists()) {
+            backupDir.mkdirs();
+        }
+
+        // Millisecond names; if one is taken (two backups in the same millisecond) the next millisecond is used,
+        // so names stay unique and still sort by age
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS");
+        long time = System.currentTimeMillis();
+        String name;
+        File target;
+        do {
+            name = PREFIX + format.format(new Date(time++)) + SUFFIX;
+            target = new File(backupDir, name);
+        } while (target.exists());
+        File temp = new File(backupDir, name + ".tmp");
+        long modified = source.lastModified();
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(temp))) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            temp.delete();
+            plugin.getLogger().log(Level.SEVERE, "Could not back up homes.yml", e);
+            return null;
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            plugin.getLogger().severe("Could not finish backup " + name);
+            return null;
+        }
+        lastBackedUp = modified;
+        rotate();
+        return name;
+    }
+
+    private void rotate() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(maxAgeDays);
+
+        List<File> backups = list();
+        for (int i = 0; i < backups.size(); i++) {
+            File file = backups.get(i);
+            // Newest first: drop everything past the count limit or older than the age limit
+            if ((keep > 0 && i >= keep) || (maxAgeDays > 0 && file.lastModified() < cutoff)) {
+                if (!file.delete()) {
+                    plugin.getLogger().warning("Could not delete old backup " + file.getName());
+                }
+            }
+        }
+    }
+
+    /** All backups, newest first. */
+    public List<File> list() {
+        File[] files = backupDir.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) return new ArrayList<>();
+        List<File> backups = new ArrayList<>(Arrays.asList(files));
+        backups.sort(Comparator.comparing(File::getName).reversed());
+        return backups;
+    }
+
+    /**
+     * Loads a backup into the staging registry off the main thread and reports how it differs from the live homes.
+     */
+    public void stage(String name, Consumer<String> report) {
+        scheduler.runAsync(() -> {
+            File file = new File(backupDir, name);
+            if (!file.getParentFile().equals(backupDir) || !file.isFile()) {
+                report(report, "§cBackup not found: " + name);
+                return;
+            }
+            try {
+                HomeFileLoader loader = new HomeFileLoader(plugin.getLogger(), null);
+                Map<UUID, Map<String, HomeData>> homes;
+                try (Reader in = new InputStreamReader(new GZIPInputStream(Files.newInputStream(file.toPath())),
+                        StandardCharsets.UTF_8)) {
+                    homes = loader.load(in, name);
+                }
+                staged = homes;
+                stagedName = name;
+                report(report, "§aStaged " + name + ": " + diff(homes));
+                if (loader.getSummary().getQuarantined() > 0) {
+                    report(report, "§e" + loader.getSummary().getQuarantined()
+                            + " unusable entries in the backup are skipped, see the server log.");
+                }
+                report(report, "§7Use /homebackup apply to swap it in or /homebackup discard.");
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.WARNING, "Could not load backup " + name, e);
+                report(report, "§cCould not load backup " + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private String diff(Map<UUID, Map<String, HomeData>> backup) {
+        int added = 0, removed = 0, changed = 0, players = 0;
+        // One pass over the live homes: looking players up would move every cold one back to the hot tier
+        Set<UUID> seen = new HashSet<>();
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : live.entrySet()) {
+            seen.add(entry.getKey());
+            Map<String, HomeData> current = entry.getValue();
+            Map<String, HomeData> old = backup.get(entry.getKey());
+            if (old == null) {
+                removed += current.size();
+                continue;
+            }
+            if (current.isEmpty()) players++;
+            for (String homeName : current.keySet()) {
+                if (!old.containsKey(homeName)) removed++;
+            }
+            for (Map.Entry<String, HomeData> home : old.entrySet()) {
+                HomeData now = current.get(home.getKey());
+                if (now == null) {
+                    added++;
+                } else if (!samePlace(now, home.getValue()) || now.getIcon() != home.getValue().getIcon()) {
+                    changed++;
+                }
+            }
+        }
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : backup.entrySet()) {
+            if (seen.contains(entry.getKey())) continue;
+            players++;
+            added += entry.getValue().size();
+        }
+        return "+" + added + " homes, -" + removed + " homes, " + changed + " changed, "
+                + players + " players without live homes";
+    }
+
+    // By world name: homes in worlds that are not loaded have no Location to compare
+    private static boolean samePlace(HomeData a, HomeData b) {
+        return a.getWorldName().equals(b.getWorldName()) && a.getX() == b.getX() && a.getY() == b.getY()
+                && a.getZ() == b.getZ() && a.getYaw() == b.getYaw() && a.getPitch() == b.getPitch();
+    }
+
+    /**
+     * Takes the staged homes out of the registry, or null if nothing is staged.
+     */
+    public Map<UUID, Map<String, HomeData>> takeStaged() {
+        Map<UUID, Map<String, HomeData>> homes = staged;
+        staged = null;
+        stagedName = null;
+        return homes;
+    }
+
+    public String getStagedName() {
+        return stagedName;
+    }
+
+    private void report(Consumer<String> report, String message) {
+        scheduler.runGlobal(() -> report.accept(message));
+    }
+}
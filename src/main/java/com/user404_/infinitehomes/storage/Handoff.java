@@ -0,0 +1,22 @@
+package com.user404_.infinitehomes.storage;
+
+import java.util.UUID;
+
+/**
+ * A teleport to a home on another backend, picked up by that backend when the player arrives.
+ */
+public class Handoff {
+    private final UUID owner;
+    private final String homeName;
+    private final long createdAt;
+
+    public Handoff(UUID owner, String homeName, long createdAt) {
+        this.owner = owner;
+        this.homeName = homeName;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getOwner() { return owner; }
+    public String getHomeName() { return homeName; }
+    public long getCreatedAt() { return createdAt; }
+}
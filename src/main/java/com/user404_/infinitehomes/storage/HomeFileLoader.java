@@ -0,0 +1,353 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.api.HomeAccess;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Reads homes in the homes.yml layout one player at a time. Every player is a top-level section, so
+ * the file is cut at top-level keys and each section is parsed on its own with plain SnakeYAML; a
+ * syntax error then only costs that player, and memory use does not depend on the file size.
+ * <p>
+ * Every home is checked before it is built. Homes that cannot be used (no world, no coordinates)
+ * and sections that cannot be parsed are moved to a quarantine file with the reason, in the
+ * homes.yml layout where possible so they can be fixed and copied back. Optional fields with bad
+ * values (e.g. an icon that no longer exists) are dropped and the home is kept. Locations are never
+ * deserialized by Bukkit, which would fail for worlds that are not loaded yet; such homes keep their
+ * world name and are resolved once the world loads.
+ */
+public class HomeFileLoader {
+    // Further than any world border can reach
+    private static final double MAX_COORDINATE = 3.0E7;
+    private static final int MAX_LOGGED_PROBLEMS = 20;
+
+    /**
+     * Counts and timing of one load.
+     */
+    public static final class Summary {
+        private int players;
+        private int homes;
+        private int repaired;
+        private int quarantined;
+        private long bytes;
+        private long millis;
+        // World name -> owners of homes in that world, for worlds not loaded while reading
+        private final Map<String, Set<UUID>> deferredOwners = new HashMap<>();
+        private final Map<String, Integer> deferredHomes = new HashMap<>();
+
+        public int getPlayers() { return players; }
+        public int getHomes() { return homes; }
+        /** Homes kept after dropping a field with a bad value. */
+        public int getRepaired() { return repaired; }
+        /** Homes and unreadable player sections moved to the quarantine file. */
+        public int getQuarantined() { return quarantined; }
+        public long getMillis() { return millis; }
+        public Map<String, Set<UUID>> getDeferredOwners() { return deferredOwners; }
+        public Map<String, Integer> getDeferredHomes() { return deferredHomes; }
+
+        public int getDeferred() {
+            int total = 0;
+            for (int count : deferredHomes.values()) total += count;
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(homes).append(" homes of ").append(players).append(" players (")
+                    .append(bytes / 1024).append(" KiB) in ").append(millis).append(" ms");
+            if (!deferredHomes.isEmpty()) {
+                text.append(", ").append(getDeferred()).append(" waiting for worlds ").append(deferredHomes.keySet());
+            }
+            if (repaired > 0) text.append(", ").append(repaired).append(" repaired");
+            if (quarantined > 0) text.append(", ").append(quarantined).append(" quarantined");
+            return text.toString();
+        }
+    }
+
+    private final Logger logger;
+    private final File quarantineFile; // null to only count problems
+    private final Yaml yaml;
+    private final Summary summary = new Summary();
+    private final StringBuilder quarantine = new StringBuilder();
+    private int loggedProblems;
+
+    public HomeFileLoader(Logger logger, File quarantineFile) {
+        this.logger = logger;
+        this.quarantineFile = quarantineFile;
+        DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        this.yaml = new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(dumperOptions), dumperOptions);
+    }
+
+    /**
+     * Reads all homes from the reader into a new map and writes the quarantined entries, if any.
+     */
+    public Map<UUID, Map<String, HomeData>> load(Reader source, String sourceName) throws IOException {
+        long started = System.currentTimeMillis();
+        Map<UUID, Map<String, HomeData>> homes = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(source)) {
+            StringBuilder section = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                summary.bytes += line.length() + 1;
+                if (startsSection(line) && section.length() > 0) {
+                    readSection(section.toString(), homes);
+                    section.setLength(0);
+                }
+                section.append(line).append('\n');
+            }
+            if (section.length() > 0) {
+                readSection(section.toString(), homes);
+            }
+        }
+        summary.players = homes.size();
+        summary.millis = System.currentTimeMillis() - started;
+        writeQuarantine(sourceName);
+        return homes;
+    }
+
+    public Summary getSummary() {
+        return summary;
+    }
+
+    private static boolean startsSection(String line) {
+        if (line.isEmpty()) return false;
+        char first = line.charAt(0);
+        return first != ' ' && first != '\t' && first != '#' && first != '-' && first != '.';
+    }
+
+    private void readSection(String text, Map<UUID, Map<String, HomeData>> homes) {
+        Object parsed;
+        try {
+            parsed = yaml.load(text);
+        } catch (RuntimeException e) {
+            quarantineText(text, "unreadable YAML: " + firstLine(e.getMessage()));
+            return;
+        }
+        if (parsed == null) return; // only comments
+        if (!(parsed instanceof Map)) {
+            quarantineText(text, "not a player section");
+            return;
+        }
+        for (Map.Entry<?, ?> player : ((Map<?, ?>) parsed).entrySet()) {
+            String key = String.valueOf(player.getKey());
+            UUID owner;
+            try {
+                owner = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                quarantineEntry(key, null, player.getValue(), "'" + key + "' is not a player UUID");
+                continue;
+            }
+            if (player.getValue() == null) continue;
+            if (!(player.getValue() instanceof Map)) {
+                quarantineEntry(key, null, player.getValue(), "player has no home list");
+                continue;
+            }
+            Map<String, HomeData> playerHomes = homes.get(owner);
+            for (Map.Entry<?, ?> home : ((Map<?, ?>) player.getValue()).entrySet()) {
+                String homeName = String.valueOf(home.getKey());
+                HomeData data = readHome(owner, homeName, home.getValue());
+                if (data == null) continue;
+                if (playerHomes == null) {
+                    playerHomes = new ConcurrentHashMap<>();
+                    homes.put(owner, playerHomes);
+                }
+                if (playerHomes.put(homeName, data) == null) {
+                    summary.homes++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks one home and builds it, or quarantines it and returns null.
+     */
+    private HomeData readHome(UUID owner, String homeName, Object raw) {
+        String path = owner + "." + homeName;
+        if (!(raw instanceof Map)) {
+            quarantineEntry(owner.toString(), homeName, raw, "not a home");
+            return null;
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) raw).entrySet()) {
+            values.put(String.valueOf(entry.getKey()), entry.getValue());
+        }
+
+        // Older files nest the position in a serialized Location; it is flattened so Bukkit never has to find the world
+        Object location = values.remove("location");
+        if (location instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) location).entrySet()) {
+                values.putIfAbsent(String.valueOf(entry.getKey()), entry.getValue());
+            }
+        } else if (location != null) {
+            quarantineEntry(owner.toString(), homeName, raw, "location is not a map");
+            return null;
+        }
+
+        String problem = null;
+        Object world = values.get("world");
+        if (!(world instanceof String) || ((String) world).isEmpty()) {
+            problem = "no world";
+        }
+        for (String axis : new String[]{"x", "y", "z"}) {
+            Object value = values.get(axis);
+            if (problem == null && !isCoordinate(value)) {
+                problem = value == null ? "no " + axis + " coordinate" : "bad " + axis + " coordinate: " + value;
+            }
+        }
+        if (problem != null) {
+            quarantineEntry(owner.toString(), homeName, raw, problem);
+            return null;
+        }
+
+        List<String> fixes = new ArrayList<>();
+        for (String angle : new String[]{"yaw", "pitch"}) {
+            if (values.containsKey(angle) && !isFinite(values.get(angle))) {
+                values.remove(angle);
+                fixes.add("bad " + angle);
+            }
+        }
+        values.putIfAbsent("yaw", 0);
+        values.putIfAbsent("pitch", 0);
+        Object icon = values.get("icon");
+        if (icon != null && (!(icon instanceof String) || !HomeData.isValidIcon(Material.matchMaterial((String) icon)))) {
+            values.remove("icon");
+            fixes.add("unknown icon " + icon);
+        }
+        for (String number : new String[]{"last-used", "uses", "expires-at", "created-at"}) {
+            if (values.containsKey(number) && !(values.get(number) instanceof Number)) {
+                values.remove(number);
+                fixes.add("bad " + number);
+            }
+        }
+        Object access = values.get("access");
+        if (access != null && (!(access instanceof String) || !isAccess((String) access))) {
+            values.remove("access");
+            fixes.add("unknown access " + access);
+        }
+        for (String text : new String[]{"server", "category"}) {
+            if (values.containsKey(text) && !(values.get(text) instanceof String)) {
+                values.remove(text);
+                fixes.add("bad " + text);
+            }
+        }
+        if (values.containsKey("shared-with") && !(values.get("shared-with") instanceof List)) {
+            values.remove("shared-with");
+            fixes.add("bad shared-with");
+        }
+
+        HomeData data;
+        try {
+            data = new HomeData(values);
+        } catch (RuntimeException e) {
+            quarantineEntry(owner.toString(), homeName, raw, "cannot be read: " + e);
+            return null;
+        }
+        if (!fixes.isEmpty()) {
+            summary.repaired++;
+            problem(path + ": " + String.join(", ", fixes) + " (dropped, home kept)");
+        }
+        String worldName = data.getWorldName();
+        if (Bukkit.getWorld(worldName) == null) {
+            summary.deferredOwners.computeIfAbsent(worldName, name -> new HashSet<>()).add(owner);
+            summary.deferredHomes.merge(worldName, 1, Integer::sum);
+        }
+        return data;
+    }
+
+    private static boolean isCoordinate(Object value) {
+        return isFinite(value) && Math.abs(((Number) value).doubleValue()) <= MAX_COORDINATE;
+    }
+
+    private static boolean isFinite(Object value) {
+        return value instanceof Number && Double.isFinite(((Number) value).doubleValue());
+    }
+
+    private static boolean isAccess(String value) {
+        for (HomeAccess access : HomeAccess.values()) {
+            if (access.name().equalsIgnoreCase(value)) return true;
+        }
+        return false;
+    }
+
+    private void quarantineEntry(String owner, String homeName, Object raw, String reason) {
+        summary.quarantined++;
+        problem(owner + (homeName != null ? "." + homeName : "") + ": " + reason);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        if (homeName != null) {
+            Map<String, Object> home = new LinkedHashMap<>();
+            home.put(homeName, raw);
+            entry.put(owner, home);
+        } else {
+            entry.put(owner, raw);
+        }
+        quarantine.append("# ").append(reason).append('\n');
+        try {
+            quarantine.append(yaml.dump(entry));
+        } catch (RuntimeException e) {
+            quarantine.append("# (could not be written back: ").append(e.getMessage()).append(")\n");
+        }
+    }
+
+    private void quarantineText(String text, String reason) {
+        summary.quarantined++;
+        problem("section '" + firstLine(text) + "': " + reason);
+        quarantine.append("# ").append(reason.replace('\n', ' ')).append('\n').append(text);
+        if (!text.endsWith("\n")) quarantine.append('\n');
+    }
+
+    private void problem(String message) {
+        if (loggedProblems++ < MAX_LOGGED_PROBLEMS) {
+            logger.warning("Home data: " + message);
+        } else if (loggedProblems == MAX_LOGGED_PROBLEMS + 1) {
+            logger.warning("Home data: more problems, see the load summary" + (quarantineFile != null
+                    ? " and " + quarantineFile.getName() : ""));
+        }
+    }
+
+    private static String firstLine(String text) {
+        if (text == null) return "";
+        int end = text.indexOf('\n');
+        return (end < 0 ? text : text.substring(0, end)).trim();
+    }
+
+    /**
+     * Appends this load's quarantined entries, so earlier ones are never overwritten.
+     */
+    private void writeQuarantine(String sourceName) {
+        if (quarantineFile == null || quarantine.length() == 0) return;
+        appendQuarantine(quarantineFile, sourceName, quarantine.toString(), logger);
+    }
+
+    /**
+     * Appends entries (commented reasons followed by homes in the homes.yml layout) under a dated header.
+     * If the file cannot be written, the entries go to the log instead.
+     */
+    public static synchronized void appendQuarantine(File quarantineFile, String sourceName, String entries, Logger logger) {
+        String header = "# ---- " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date())
+                + ", from " + sourceName + " ----\n";
+        try {
+            Files.write(quarantineFile.toPath(), (header + entries).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.severe("Could not write " + quarantineFile.getName() + ", quarantined homes are only in the log: " + e);
+            logger.severe(entries);
+        }
+    }
+}
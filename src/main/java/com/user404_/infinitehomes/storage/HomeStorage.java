@@ -0,0 +1,24 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistence backend for homes. Changes are staged per player and written out by {@link #flush()}.
+ */
+public interface HomeStorage {
+
+    /** Loads every stored home, keyed by player UUID and home name. */
+    Map<UUID, Map<String, HomeData>> loadAll();
+
+    /** Stages the complete home set of one player. A null or empty map removes the player. */
+    void savePlayer(UUID playerUuid, Map<String, HomeData> homes);
+
+    /** Stages a complete replacement of all stored homes. */
+    void saveAll(Map<UUID, Map<String, HomeData>> homes);
+
+    /** Writes all staged changes. */
+    void flush();
+}
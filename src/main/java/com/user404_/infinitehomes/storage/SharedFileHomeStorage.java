@@ -0,0 +1,257 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.api.HomeAccess;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * File-based stand-in for a shared database: one &lt;uuid&gt;.yml per player in a directory all backends can reach.
+ * Useful for tests and small networks on one machine.
+ */
+public class SharedFileHomeStorage implements SharedHomeStorage {
+    private final Logger logger;
+    private final File directory;
+    private final File handoffDir;
+    private final File noticeDir;
+    // Snapshot of the staged player homes; an empty map means "delete all homes of the player"
+    private final Map<UUID, Map<String, HomeData>> staged = new ConcurrentHashMap<>();
+    // Homes whose usage counters changed, patched into the current file so other changes are kept
+    private final Map<UUID, Map<String, HomeData>> stagedUsage = new ConcurrentHashMap<>();
+
+    public SharedFileHomeStorage(File directory, Logger logger) {
+        this.logger = logger;
+        this.directory = directory;
+        this.handoffDir = new File(directory, "handoffs");
+        handoffDir.mkdirs();
+        this.noticeDir = new File(directory, "expired-notices");
+        noticeDir.mkdirs();
+    }
+
+    @Override
+    public Map<UUID, Map<String, HomeData>> loadAll() {
+        Map<UUID, Map<String, HomeData>> homes = new HashMap<>();
+        forEachPlayer(homes::put);
+        return homes;
+    }
+
+    @Override
+    public void forEachPlayer(BiConsumer<UUID, Map<String, HomeData>> visitor) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files == null) return;
+        for (File file : files) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(file.getName().substring(0, file.getName().length() - 4));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Skipping unexpected file in shared home directory: " + file.getName());
+                continue;
+            }
+            Map<String, HomeData> playerHomes = loadPlayer(uuid);
+            if (!playerHomes.isEmpty()) visitor.accept(uuid, playerHomes);
+        }
+    }
+
+    @Override
+    public Map<String, HomeData> loadPlayer(UUID playerUuid) {
+        Map<String, HomeData> homes = new ConcurrentHashMap<>();
+        File file = new File(directory, playerUuid + ".yml");
+        if (!file.exists()) return homes;
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        for (String homeName : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(homeName);
+            if (section == null) continue;
+            HomeData home = new HomeData(section.getString("world"), section.getDouble("x"), section.getDouble("y"),
+                    section.getDouble("z"), (float) section.getDouble("yaw"), (float) section.getDouble("pitch"),
+                    HomeData.parseIcon(section.getString("icon")), section.getString("server"));
+            home.setUsage(section.getLong("last-used"), section.getInt("uses"));
+            home.setExpiresAt(section.getLong("expires-at"));
+            home.setCreatedAt(section.getLong("created-at"));
+            home.setAccess(HomeData.parseAccess(section.getString("access")),
+                    HomeData.parseUuids(section.getStringList("shared-with")), section.getString("category"));
+            homes.put(homeName, home);
+        }
+        return homes;
+    }
+
+    @Override
+    public void savePlayer(UUID playerUuid, Map<String, HomeData> homes) {
+        staged.put(playerUuid, homes == null ? Collections.emptyMap() : new HashMap<>(homes));
+    }
+
+    @Override
+    public void saveUsage(UUID playerUuid, Map<String, HomeData> homes) {
+        stagedUsage.merge(playerUuid, new HashMap<>(homes), (staged, added) -> {
+            staged.putAll(added);
+            return staged;
+        });
+    }
+
+    @Override
+    public void saveAll(Map<UUID, Map<String, HomeData>> homes) {
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : homes.entrySet()) {
+            savePlayer(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (UUID uuid : new ArrayList<>(staged.keySet())) {
+            Map<String, HomeData> homes = staged.remove(uuid);
+            File file = new File(directory, uuid + ".yml");
+            if (homes.isEmpty()) {
+                file.delete();
+                continue;
+            }
+
+            YamlConfiguration config = new YamlConfiguration();
+            for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+                HomeData data = home.getValue();
+                String path = home.getKey();
+                config.set(path + ".world", data.getWorldName());
+                config.set(path + ".x", data.getX());
+                config.set(path + ".y", data.getY());
+                config.set(path + ".z", data.getZ());
+                config.set(path + ".yaw", data.getYaw());
+                config.set(path + ".pitch", data.getPitch());
+                config.set(path + ".icon", data.getIcon().name());
+                config.set(path + ".server", data.getServer());
+                config.set(path + ".last-used", data.getLastUsed());
+                config.set(path + ".uses", data.getUseCount());
+                if (data.getExpiresAt() > 0) {
+                    config.set(path + ".expires-at", data.getExpiresAt());
+                }
+                if (data.getCreatedAt() > 0) {
+                    config.set(path + ".created-at", data.getCreatedAt());
+                }
+                if (data.getAccess() != HomeAccess.PRIVATE) {
+                    config.set(path + ".access", data.getAccess().name());
+                }
+                if (!data.getSharedWith().isEmpty()) {
+                    List<String> shared = new ArrayList<>();
+                    for (UUID viewer : data.getSharedWith()) {
+                        shared.add(viewer.toString());
+                    }
+                    config.set(path + ".shared-with", shared);
+                }
+                if (data.getCategory() != null) {
+                    config.set(path + ".category", data.getCategory());
+                }
+            }
+            try {
+                YamlHomeStorage.writeAtomically(file.toPath(), config.saveToString());
+            } catch (IOException e) {
+                staged.putIfAbsent(uuid, homes);
+                logger.log(Level.SEVERE, "Could not save shared homes of " + uuid, e);
+            }
+        }
+        for (UUID uuid : new ArrayList<>(stagedUsage.keySet())) {
+            writeUsage(uuid, stagedUsage.remove(uuid));
+        }
+    }
+
+    /**
+     * Sets the usage counters of the homes still in the player's file; homes deleted meanwhile stay deleted.
+     */
+    private void writeUsage(UUID uuid, Map<String, HomeData> homes) {
+        File file = new File(directory, uuid + ".yml");
+        if (!file.exists()) return;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+            if (!config.isConfigurationSection(home.getKey())) continue;
+            config.set(home.getKey() + ".last-used", home.getValue().getLastUsed());
+            config.set(home.getKey() + ".uses", home.getValue().getUseCount());
+        }
+        try {
+            YamlHomeStorage.writeAtomically(file.toPath(), config.saveToString());
+        } catch (IOException e) {
+            stagedUsage.merge(uuid, homes, (newer, failed) -> {
+                failed.forEach(newer::putIfAbsent);
+                return newer;
+            });
+            logger.log(Level.SEVERE, "Could not save home usage of " + uuid, e);
+        }
+    }
+
+    @Override
+    public synchronized Map<UUID, Map<String, HomeData>> takeExpired(long now) {
+        Map<UUID, Map<String, HomeData>> expired = new HashMap<>();
+        forEachPlayer((uuid, homes) -> {
+            Map<String, HomeData> due = new HashMap<>();
+            for (Map.Entry<String, HomeData> home : homes.entrySet()) {
+                long expiresAt = home.getValue().getExpiresAt();
+                if (expiresAt > 0 && expiresAt <= now) due.put(home.getKey(), home.getValue());
+            }
+            if (due.isEmpty()) return;
+            homes.keySet().removeAll(due.keySet());
+            savePlayer(uuid, homes);
+            expired.put(uuid, due);
+        });
+        if (!expired.isEmpty()) flush();
+        return expired;
+    }
+
+    @Override
+    public synchronized void addExpiredNotices(UUID playerUuid, List<String> homeNames) {
+        File file = new File(noticeDir, playerUuid + ".yml");
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        List<String> names = new ArrayList<>(config.getStringList("homes"));
+        names.addAll(homeNames);
+        config.set("homes", names);
+        try {
+            YamlHomeStorage.writeAtomically(file.toPath(), config.saveToString());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not store expired home notices for " + playerUuid, e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> takeExpiredNotices(UUID playerUuid) {
+        File file = new File(noticeDir, playerUuid + ".yml");
+        if (!file.exists()) return new ArrayList<>();
+        List<String> names = YamlConfiguration.loadConfiguration(file).getStringList("homes");
+        file.delete();
+        return names;
+    }
+
+    @Override
+    public void putHandoff(UUID playerUuid, Handoff handoff) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("owner", handoff.getOwner().toString());
+        config.set("name", handoff.getHomeName());
+        config.set("created", handoff.getCreatedAt());
+        try {
+            YamlHomeStorage.writeAtomically(new File(handoffDir, playerUuid + ".yml").toPath(), config.saveToString());
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not store teleport handoff for " + playerUuid, e);
+        }
+    }
+
+    @Override
+    public Handoff takeHandoff(UUID playerUuid) {
+        File file = new File(handoffDir, playerUuid + ".yml");
+        if (!file.exists()) return null;
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
+        file.delete();
+        try {
+            return new Handoff(UUID.fromString(config.getString("owner")), config.getString("name"), config.getLong("created"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warning("Ignoring invalid teleport handoff for " + playerUuid);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
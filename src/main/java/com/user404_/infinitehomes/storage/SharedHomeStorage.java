@@ -0,0 +1,53 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Storage shared by several backend servers. Servers only cache the players they need,
+ * so homes are loaded per player and {@link #saveAll(Map)} never drops players missing from the map.
+ * All methods may block and must not be called on the main thread.
+ */
+public interface SharedHomeStorage extends HomeStorage {
+
+    /**
+     * Stages only the usage counters of the given homes. Unlike {@link #savePlayer}, homes another server
+     * changed, added or deleted meanwhile are left as they are.
+     */
+    void saveUsage(UUID playerUuid, Map<String, HomeData> homes);
+
+    /** Loads the current homes of one player; empty if the player has none. */
+    Map<String, HomeData> loadPlayer(UUID playerUuid);
+
+    /**
+     * Hands every player's homes to the visitor, one player at a time, without loading the whole storage
+     * at once. The maps are fresh copies the visitor may change. Throws IllegalStateException if the
+     * storage cannot be read.
+     */
+    void forEachPlayer(BiConsumer<UUID, Map<String, HomeData>> visitor);
+
+    /**
+     * Deletes homes whose expiry time has passed and returns them, a limited number per call. When several
+     * servers ask at once, each expired home is returned to only one of them.
+     */
+    Map<UUID, Map<String, HomeData>> takeExpired(long now);
+
+    /** Remembers homes of the player that expired while they were not on this server, for their next join. */
+    void addExpiredNotices(UUID playerUuid, List<String> homeNames);
+
+    /** Removes and returns the names of the player's expired homes they were not told about yet. */
+    List<String> takeExpiredNotices(UUID playerUuid);
+
+    /** Remembers that the player is on the way to another server to teleport to a home there. */
+    void putHandoff(UUID playerUuid, Handoff handoff);
+
+    /** Removes and returns the pending handoff of the player, or null. */
+    Handoff takeHandoff(UUID playerUuid);
+
+    /** Releases connections and other resources. */
+    void close();
+}
@@ -0,0 +1,552 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Homes in a SQL database shared by all backends (MySQL/MariaDB or SQLite, both drivers ship with Spigot).
+ * Staged players are rewritten in one transaction per flush; staged usage only updates the usage columns
+ * of the rows that are there. If the database rejects a home (e.g. a
+ * name longer than the column), the players are written one by one and the rejected homes are logged,
+ * copied to the quarantine file and left out, so everyone else is still saved.
+ */
+public class SqlHomeStorage implements SharedHomeStorage {
+    private static final int PAGE_SIZE = 1000;
+    private static final int EXPIRE_BATCH = 500;
+
+    private final Logger logger;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final String homesTable;
+    private final String handoffTable;
+    private final String noticeTable;
+    // Snapshot of the staged player homes; an empty map means "delete all homes of the player"
+    private final Map<UUID, Map<String, HomeData>> staged = new ConcurrentHashMap<>();
+    // Homes whose usage counters changed, written with UPDATE so other columns are left alone
+    private final Map<UUID, Map<String, HomeData>> stagedUsage = new ConcurrentHashMap<>();
+    // Homes the database refused ("owner.name"), skipped on later flushes until the home is replaced
+    private final Map<String, HomeData> quarantined = new ConcurrentHashMap<>();
+    private final File quarantineFile; // null to only log rejected homes
+    private Connection connection;
+
+    public SqlHomeStorage(String url, String user, String password, String tablePrefix, Logger logger, File quarantineFile) {
+        this.logger = logger;
+        this.quarantineFile = quarantineFile;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.homesTable = tablePrefix + "homes";
+        this.handoffTable = tablePrefix + "handoffs";
+        this.noticeTable = tablePrefix + "expired_notices";
+        try (Statement statement = connection().createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + homesTable + " ("
+                    + "owner CHAR(36) NOT NULL, name VARCHAR(64) NOT NULL, server VARCHAR(64), world VARCHAR(128) NOT NULL, "
+                    + "x DOUBLE NOT NULL, y DOUBLE NOT NULL, z DOUBLE NOT NULL, yaw FLOAT NOT NULL, pitch FLOAT NOT NULL, "
+                    + "icon VARCHAR(64) NOT NULL, last_used BIGINT NOT NULL DEFAULT 0, uses INT NOT NULL DEFAULT 0, "
+                    + "expires_at BIGINT NOT NULL DEFAULT 0, access VARCHAR(16) NOT NULL DEFAULT 'PRIVATE', "
+                    + "shared_with TEXT, category VARCHAR(32), created_at BIGINT NOT NULL DEFAULT 0, PRIMARY KEY (owner, name))");
+            // Tables created by older versions lack the newer columns
+            if (!hasColumn(homesTable, "last_used")) {
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN last_used BIGINT NOT NULL DEFAULT 0");
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN uses INT NOT NULL DEFAULT 0");
+            }
+            if (!hasColumn(homesTable, "expires_at")) {
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN expires_at BIGINT NOT NULL DEFAULT 0");
+            }
+            if (!hasColumn(homesTable, "access")) {
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN access VARCHAR(16) NOT NULL DEFAULT 'PRIVATE'");
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN shared_with TEXT");
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN category VARCHAR(32)");
+            }
+            if (!hasColumn(homesTable, "created_at")) {
+                statement.executeUpdate("ALTER TABLE " + homesTable + " ADD COLUMN created_at BIGINT NOT NULL DEFAULT 0");
+            }
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + handoffTable + " ("
+                    + "player CHAR(36) NOT NULL PRIMARY KEY, owner CHAR(36) NOT NULL, name VARCHAR(64) NOT NULL, "
+                    + "created BIGINT NOT NULL)");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + noticeTable + " ("
+                    + "player CHAR(36) NOT NULL, name VARCHAR(64) NOT NULL)");
+            // Expiry looks up due homes by time on every run
+            if (!hasIndex(homesTable, homesTable + "_expires")) {
+                statement.executeUpdate("CREATE INDEX " + homesTable + "_expires ON " + homesTable + " (expires_at)");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not set up home tables in " + url, e);
+        }
+    }
+
+    private static String joinUuids(Set<UUID> uuids) {
+        if (uuids.isEmpty()) return null;
+        StringJoiner joined = new StringJoiner(",");
+        for (UUID uuid : uuids) {
+            joined.add(uuid.toString());
+        }
+        return joined.toString();
+    }
+
+    private boolean hasColumn(String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection().getMetaData();
+        for (String name : new String[] {table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getColumns(null, null, name, null)) {
+                while (rs.next()) {
+                    if (rs.getString("COLUMN_NAME").equalsIgnoreCase(column)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasIndex(String table, String index) throws SQLException {
+        DatabaseMetaData meta = connection().getMetaData();
+        for (String name : new String[] {table, table.toUpperCase()}) {
+            try (ResultSet rs = meta.getIndexInfo(null, null, name, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private synchronized Connection connection() throws SQLException {
+        if (connection == null || !connection.isValid(2)) {
+            connection = DriverManager.getConnection(url, user, password);
+        }
+        return connection;
+    }
+
+    @Override
+    public synchronized Map<UUID, Map<String, HomeData>> loadAll() {
+        Map<UUID, Map<String, HomeData>> homes = new HashMap<>();
+        try (Statement statement = connection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT * FROM " + homesTable)) {
+            while (rs.next()) {
+                homes.computeIfAbsent(UUID.fromString(rs.getString("owner")), uuid -> new ConcurrentHashMap<>())
+                        .put(rs.getString("name"), read(rs));
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not load homes from database", e);
+        }
+        return homes;
+    }
+
+    @Override
+    public synchronized Map<String, HomeData> loadPlayer(UUID playerUuid) {
+        Map<String, HomeData> homes = new ConcurrentHashMap<>();
+        try (PreparedStatement statement = connection().prepareStatement("SELECT * FROM " + homesTable + " WHERE owner = ?")) {
+            statement.setString(1, playerUuid.toString());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    homes.put(rs.getString("name"), read(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not load homes of " + playerUuid + " from database", e);
+        }
+        return homes;
+    }
+
+    @Override
+    public void forEachPlayer(BiConsumer<UUID, Map<String, HomeData>> visitor) {
+        // Pages in primary key order; the last player of a page may continue on the next one
+        String afterOwner = "";
+        String afterName = "";
+        String owner = null;
+        Map<String, HomeData> playerHomes = null;
+        List<Row> page;
+        do {
+            page = page(afterOwner, afterName);
+            for (Row row : page) {
+                if (!row.owner.equals(owner)) {
+                    if (owner != null) visitor.accept(UUID.fromString(owner), playerHomes);
+                    owner = row.owner;
+                    playerHomes = new ConcurrentHashMap<>();
+                }
+                playerHomes.put(row.name, row.home);
+                afterOwner = row.owner;
+                afterName = row.name;
+            }
+        } while (page.size() == PAGE_SIZE);
+        if (owner != null) visitor.accept(UUID.fromString(owner), playerHomes);
+    }
+
+    private synchronized List<Row> page(String afterOwner, String afterName) {
+        List<Row> rows = new ArrayList<>(PAGE_SIZE);
+        try (PreparedStatement statement = connection().prepareStatement("SELECT * FROM " + homesTable
+                + " WHERE owner > ? OR (owner = ? AND name > ?) ORDER BY owner, name LIMIT " + PAGE_SIZE)) {
+            statement.setFetchSize(PAGE_SIZE);
+            statement.setString(1, afterOwner);
+            statement.setString(2, afterOwner);
+            statement.setString(3, afterName);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row(rs.getString("owner"), rs.getString("name"), read(rs)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read homes from database", e);
+        }
+        return rows;
+    }
+
+    private HomeData read(ResultSet rs) throws SQLException {
+        HomeData home = new HomeData(rs.getString("world"), rs.getDouble("x"), rs.getDouble("y"), rs.getDouble("z"),
+                rs.getFloat("yaw"), rs.getFloat("pitch"), HomeData.parseIcon(rs.getString("icon")), rs.getString("server"));
+        home.setUsage(rs.getLong("last_used"), rs.getInt("uses"));
+        home.setExpiresAt(rs.getLong("expires_at"));
+        home.setCreatedAt(rs.getLong("created_at"));
+        String shared = rs.getString("shared_with");
+        home.setAccess(HomeData.parseAccess(rs.getString("access")),
+                shared == null || shared.isEmpty() ? Collections.emptySet() : HomeData.parseUuids(Arrays.asList(shared.split(","))),
+                rs.getString("category"));
+        return home;
+    }
+
+    @Override
+    public void savePlayer(UUID playerUuid, Map<String, HomeData> homes) {
+        staged.put(playerUuid, homes == null ? Collections.emptyMap() : new HashMap<>(homes));
+    }
+
+    @Override
+    public void saveUsage(UUID playerUuid, Map<String, HomeData> homes) {
+        stagedUsage.merge(playerUuid, new HashMap<>(homes), (staged, added) -> {
+            staged.putAll(added);
+            return staged;
+        });
+    }
+
+    @Override
+    public void saveAll(Map<UUID, Map<String, HomeData>> homes) {
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : homes.entrySet()) {
+            savePlayer(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!staged.isEmpty()) flushPlayers();
+        if (!stagedUsage.isEmpty()) flushUsage();
+    }
+
+    private void flushPlayers() {
+        Map<UUID, Map<String, HomeData>> batch = new HashMap<>();
+        for (UUID uuid : new ArrayList<>(staged.keySet())) {
+            batch.put(uuid, staged.remove(uuid));
+        }
+
+        try {
+            write(connection(), batch, false);
+        } catch (SQLException e) {
+            if (!isRejectedData(e)) {
+                restage(batch);
+                logger.log(Level.SEVERE, "Could not save homes to database", e);
+                return;
+            }
+            // Some home does not fit the table: find it player by player, then home by home
+            logger.warning("The database rejected some homes (" + e.getMessage() + "), saving players one at a time");
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : batch.entrySet()) {
+                Map<UUID, Map<String, HomeData>> single = Collections.singletonMap(entry.getKey(), entry.getValue());
+                try {
+                    Connection con = connection();
+                    try {
+                        write(con, single, false);
+                    } catch (SQLException playerFailure) {
+                        if (!isRejectedData(playerFailure)) throw playerFailure;
+                        write(con, single, true);
+                    }
+                } catch (SQLException playerFailure) {
+                    restage(single);
+                    logger.log(Level.SEVERE, "Could not save homes of " + entry.getKey() + " to database", playerFailure);
+                }
+            }
+        }
+    }
+
+    private void flushUsage() {
+        Map<UUID, Map<String, HomeData>> batch = new HashMap<>();
+        for (UUID uuid : new ArrayList<>(stagedUsage.keySet())) {
+            batch.put(uuid, stagedUsage.remove(uuid));
+        }
+        try (PreparedStatement update = connection().prepareStatement(
+                "UPDATE " + homesTable + " SET last_used = ?, uses = ? WHERE owner = ? AND name = ?")) {
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : batch.entrySet()) {
+                for (Map.Entry<String, HomeData> home : entry.getValue().entrySet()) {
+                    update.setLong(1, home.getValue().getLastUsed());
+                    update.setInt(2, home.getValue().getUseCount());
+                    update.setString(3, entry.getKey().toString());
+                    update.setString(4, home.getKey());
+                    update.addBatch();
+                }
+            }
+            // Homes deleted meanwhile match no row and stay deleted
+            update.executeBatch();
+        } catch (SQLException e) {
+            // Retried with the next flush; homes staged again meanwhile keep the newer entry
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : batch.entrySet()) {
+                stagedUsage.merge(entry.getKey(), entry.getValue(), (newer, failed) -> {
+                    failed.forEach(newer::putIfAbsent);
+                    return newer;
+                });
+            }
+            logger.log(Level.SEVERE, "Could not save home usage to database", e);
+        }
+    }
+
+    /**
+     * Replaces the homes of the given players in one transaction. Homes already quarantined are left
+     * out; with perHome set, each home is inserted on its own savepoint and homes the database rejects
+     * are quarantined while the rest is committed.
+     */
+    private void write(Connection con, Map<UUID, Map<String, HomeData>> players, boolean perHome) throws SQLException {
+        con.setAutoCommit(false);
+        try (PreparedStatement delete = con.prepareStatement("DELETE FROM " + homesTable + " WHERE owner = ?");
+             PreparedStatement insert = con.prepareStatement("INSERT INTO " + homesTable
+                     + " (owner, name, server, world, x, y, z, yaw, pitch, icon, last_used, uses, expires_at, access, shared_with, category, created_at)"
+                     + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : players.entrySet()) {
+                String owner = entry.getKey().toString();
+                delete.setString(1, owner);
+                delete.addBatch();
+            }
+            delete.executeBatch();
+            for (Map.Entry<UUID, Map<String, HomeData>> entry : players.entrySet()) {
+                String owner = entry.getKey().toString();
+                for (Map.Entry<String, HomeData> home : entry.getValue().entrySet()) {
+                    HomeData data = home.getValue();
+                    HomeData rejected = quarantined.get(owner + "." + home.getKey());
+                    if (rejected == data) continue;
+                    if (rejected != null) quarantined.remove(owner + "." + home.getKey(), rejected);
+                    bind(insert, owner, home.getKey(), data);
+                    if (!perHome) {
+                        insert.addBatch();
+                        continue;
+                    }
+                    Savepoint savepoint = con.setSavepoint();
+                    try {
+                        insert.executeUpdate();
+                    } catch (SQLException e) {
+                        if (!isRejectedData(e)) throw e;
+                        con.rollback(savepoint);
+                        quarantine(owner, home.getKey(), data, e);
+                    }
+                }
+            }
+            if (!perHome) insert.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+        }
+    }
+
+    private static void bind(PreparedStatement insert, String owner, String name, HomeData data) throws SQLException {
+        insert.setString(1, owner);
+        insert.setString(2, name);
+        insert.setString(3, data.getServer());
+        insert.setString(4, data.getWorldName());
+        insert.setDouble(5, data.getX());
+        insert.setDouble(6, data.getY());
+        insert.setDouble(7, data.getZ());
+        insert.setFloat(8, data.getYaw());
+        insert.setFloat(9, data.getPitch());
+        insert.setString(10, data.getIcon().name());
+        insert.setLong(11, data.getLastUsed());
+        insert.setInt(12, data.getUseCount());
+        insert.setLong(13, data.getExpiresAt());
+        insert.setString(14, data.getAccess().name());
+        insert.setString(15, joinUuids(data.getSharedWith()));
+        insert.setString(16, data.getCategory());
+        insert.setLong(17, data.getCreatedAt());
+    }
+
+    /**
+     * Whether the database refused the values themselves (too long, out of range, constraint) rather
+     * than failing for connection or server reasons, which are worth retrying.
+     */
+    static boolean isRejectedData(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLDataException || cause instanceof SQLIntegrityConstraintViolationException
+                    || cause instanceof DataTruncation) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+                SQLException next = ((SQLException) cause).getNextException();
+                if (next != null && next != cause && isRejectedData(next)) return true;
+            }
+        }
+        return false;
+    }
+
+    private void restage(Map<UUID, Map<String, HomeData>> batch) {
+        // Keep the changes staged for the next flush unless newer ones arrived meanwhile
+        for (Map.Entry<UUID, Map<String, HomeData>> entry : batch.entrySet()) {
+            staged.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void quarantine(String owner, String name, HomeData data, SQLException reason) {
+        quarantined.put(owner + "." + name, data);
+        logger.severe("Database rejected home '" + name + "' of " + owner + ", it stays in memory only"
+                + (quarantineFile != null ? " and is copied to " + quarantineFile.getName() : "") + ": " + reason.getMessage());
+        if (quarantineFile == null) return;
+        YamlConfiguration entry = new YamlConfiguration();
+        entry.set(owner + "." + name, data);
+        HomeFileLoader.appendQuarantine(quarantineFile, homesTable,
+                "# rejected by the database: " + String.valueOf(reason.getMessage()).replace('\n', ' ') + "\n"
+                        + entry.saveToString(), logger);
+    }
+
+    @Override
+    public synchronized Map<UUID, Map<String, HomeData>> takeExpired(long now) {
+        Map<UUID, Map<String, HomeData>> expired = new HashMap<>();
+        try {
+            Connection con = connection();
+            List<Row> due = new ArrayList<>();
+            try (PreparedStatement select = con.prepareStatement("SELECT * FROM " + homesTable
+                    + " WHERE expires_at > 0 AND expires_at <= ? ORDER BY expires_at LIMIT " + EXPIRE_BATCH)) {
+                select.setLong(1, now);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        due.add(new Row(rs.getString("owner"), rs.getString("name"), read(rs)));
+                    }
+                }
+            }
+            try (PreparedStatement delete = con.prepareStatement("DELETE FROM " + homesTable
+                    + " WHERE owner = ? AND name = ? AND expires_at = ?")) {
+                for (Row row : due) {
+                    delete.setString(1, row.owner);
+                    delete.setString(2, row.name);
+                    delete.setLong(3, row.home.getExpiresAt());
+                    // Only the server whose delete removed the row expires the home
+                    if (delete.executeUpdate() == 1) {
+                        expired.computeIfAbsent(UUID.fromString(row.owner), uuid -> new HashMap<>()).put(row.name, row.home);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not expire homes in database", e);
+        }
+        return expired;
+    }
+
+    @Override
+    public synchronized void addExpiredNotices(UUID playerUuid, List<String> homeNames) {
+        try (PreparedStatement insert = connection().prepareStatement("INSERT INTO " + noticeTable
+                + " (player, name) VALUES (?, ?)")) {
+            for (String homeName : homeNames) {
+                insert.setString(1, playerUuid.toString());
+                insert.setString(2, homeName);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not store expired home notices for " + playerUuid, e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> takeExpiredNotices(UUID playerUuid) {
+        List<String> homeNames = new ArrayList<>();
+        try {
+            Connection con = connection();
+            try (PreparedStatement select = con.prepareStatement("SELECT name FROM " + noticeTable + " WHERE player = ?")) {
+                select.setString(1, playerUuid.toString());
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        homeNames.add(rs.getString("name"));
+                    }
+                }
+            }
+            if (!homeNames.isEmpty()) {
+                try (PreparedStatement delete = con.prepareStatement("DELETE FROM " + noticeTable + " WHERE player = ?")) {
+                    delete.setString(1, playerUuid.toString());
+                    delete.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not read expired home notices for " + playerUuid, e);
+        }
+        return homeNames;
+    }
+
+    @Override
+    public synchronized void putHandoff(UUID playerUuid, Handoff handoff) {
+        try {
+            Connection con = connection();
+            try (PreparedStatement delete = con.prepareStatement("DELETE FROM " + handoffTable + " WHERE player = ?");
+                 PreparedStatement insert = con.prepareStatement("INSERT INTO " + handoffTable
+                         + " (player, owner, name, created) VALUES (?, ?, ?, ?)")) {
+                delete.setString(1, playerUuid.toString());
+                delete.executeUpdate();
+                insert.setString(1, playerUuid.toString());
+                insert.setString(2, handoff.getOwner().toString());
+                insert.setString(3, handoff.getHomeName());
+                insert.setLong(4, handoff.getCreatedAt());
+                insert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not store teleport handoff for " + playerUuid, e);
+        }
+    }
+
+    @Override
+    public synchronized Handoff takeHandoff(UUID playerUuid) {
+        try {
+            Connection con = connection();
+            Handoff handoff = null;
+            try (PreparedStatement select = con.prepareStatement("SELECT * FROM " + handoffTable + " WHERE player = ?")) {
+                select.setString(1, playerUuid.toString());
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        handoff = new Handoff(UUID.fromString(rs.getString("owner")), rs.getString("name"), rs.getLong("created"));
+                    }
+                }
+            }
+            if (handoff != null) {
+                try (PreparedStatement delete = con.prepareStatement("DELETE FROM " + handoffTable + " WHERE player = ?")) {
+                    delete.setString(1, playerUuid.toString());
+                    delete.executeUpdate();
+                }
+            }
+            return handoff;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Could not read teleport handoff for " + playerUuid, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            if (connection != null) connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not close database connection", e);
+        }
+    }
+
+    private static final class Row {
+        final String owner;
+        final String name;
+        final HomeData home;
+
+        Row(String owner, String name, HomeData home) {
+            this.owner = owner;
+            this.name = name;
+            this.home = home;
+        }
+    }
+}
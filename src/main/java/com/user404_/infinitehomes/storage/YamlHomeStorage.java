@@ -0,0 +1,153 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores all homes in a single homes.yml. The file is rewritten from the live home map on
+ * {@link #flush()}, one player at a time, instead of from a loaded document: such a document would
+ * hold on to every home and keep the cold tier from freeing anything. Staging only marks the file
+ * as changed, so the maps passed to {@link #savePlayer} and {@link #saveAll} must be (parts of) the live map.
+ * Loading goes through {@link HomeFileLoader}, so a damaged entry only costs itself.
+ */
+public class YamlHomeStorage implements HomeStorage {
+    private final Logger logger;
+    private final File homesFile;
+    private final File quarantineFile;
+    private final Map<UUID, Map<String, HomeData>> live;
+    private volatile boolean dirty;
+    private HomeFileLoader.Summary lastLoad;
+
+    public YamlHomeStorage(File dataFolder, Logger logger, Map<UUID, Map<String, HomeData>> live) {
+        this.logger = logger;
+        this.live = live;
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+
+        homesFile = new File(dataFolder, "homes.yml");
+        quarantineFile = new File(dataFolder, "quarantine.yml");
+
+        if (!homesFile.exists()) {
+            try {
+                homesFile.createNewFile();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Could not create homes.yml", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Map<UUID, Map<String, HomeData>> loadAll() {
+        HomeFileLoader loader = new HomeFileLoader(logger, quarantineFile);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(homesFile.toPath()), StandardCharsets.UTF_8)) {
+            Map<UUID, Map<String, HomeData>> homes = loader.load(reader, homesFile.getName());
+            logger.info("Loaded " + loader.getSummary());
+            if (loader.getSummary().getQuarantined() > 0) {
+                logger.warning(loader.getSummary().getQuarantined() + " unusable home entries were moved to "
+                        + quarantineFile.getName() + " with the reasons; fix them there and copy them back into homes.yml.");
+            }
+            lastLoad = loader.getSummary();
+            return homes;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not read homes.yml", e);
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Counts of the last {@link #loadAll()}, null before the first one.
+     */
+    public HomeFileLoader.Summary getLastLoad() {
+        return lastLoad;
+    }
+
+    @Override
+    public void savePlayer(UUID playerUuid, Map<String, HomeData> homes) {
+        dirty = true;
+    }
+
+    @Override
+    public void saveAll(Map<UUID, Map<String, HomeData>> homes) {
+        dirty = true;
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!dirty) return;
+        dirty = false; // changes made while writing mark the file again
+        Path target = homesFile.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                // Every player is a top-level section, so the sections can simply be written one after another
+                for (Map.Entry<UUID, Map<String, HomeData>> playerEntry : live.entrySet()) {
+                    if (playerEntry.getValue().isEmpty()) continue;
+                    YamlConfiguration section = new YamlConfiguration();
+                    String playerUuidString = playerEntry.getKey().toString();
+                    for (Map.Entry<String, HomeData> homeEntry : playerEntry.getValue().entrySet()) {
+                        section.set(playerUuidString + "." + homeEntry.getKey(), homeEntry.getValue());
+                    }
+                    write(channel, section.saveToString());
+                }
+                channel.force(true);
+            }
+            replace(temp, target);
+        } catch (IOException e) {
+            dirty = true;
+            logger.log(Level.SEVERE, "Could not save homes to config", e);
+        }
+    }
+
+    public File getFile() {
+        return homesFile;
+    }
+
+    /**
+     * Writes to a temp file next to the target, fsyncs it and renames it over the target,
+     * so a crash or full disk never leaves a truncated file behind.
+     */
+    public static void writeAtomically(Path target, String content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, content);
+            channel.force(true);
+        }
+        replace(temp, target);
+    }
+
+    private static void write(FileChannel channel, String content) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.api.HomeAccess;
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColdHomeSlabTest {
+    private final ColdHomeSlab slab = new ColdHomeSlab();
+
+    private static HomeData home(double x) {
+        return new HomeData("world", x, 64, -x, 0, 0, Material.RED_BED, null);
+    }
+
+    private static Map<String, HomeData> homes(int count, double x) {
+        Map<String, HomeData> homes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            homes.put("home" + i, home(x + i));
+        }
+        return homes;
+    }
+
+    @Test
+    void everyFieldSurvivesPackingAndUnpacking() {
+        UUID owner = UUID.randomUUID();
+        Set<UUID> friends = Set.of(UUID.randomUUID(), UUID.randomUUID());
+        HomeData full = new HomeData("the_nether", 12.25, -40.5, 1e6, 91.5f, -12.75f, Material.OAK_LOG, "survival");
+        full.setUsage(1_700_000_000_123L, 42);
+        full.setExpiresAt(1_800_000_000_000L);
+        full.setCreatedAt(1_600_000_000_000L);
+        full.setAccess(HomeAccess.SHARED, friends, "farms");
+        HomeData plain = home(1);
+
+        slab.put(owner, Map.of("base", full, "straße", plain));
+        Map<String, HomeData> unpacked = slab.get(owner);
+
+        assertEquals(Set.of("base", "straße"), unpacked.keySet());
+        HomeData base = unpacked.get("base");
+        assertNotSame(full, base);
+        assertEquals("the_nether", base.getWorldName());
+        assertEquals(12.25, base.getX());
+        assertEquals(-40.5, base.getY());
+        assertEquals(1e6, base.getZ());
+        assertEquals(91.5f, base.getYaw());
+        assertEquals(-12.75f, base.getPitch());
+        assertEquals(Material.OAK_LOG, base.getIcon());
+        assertEquals("survival", base.getServer());
+        assertEquals(1_700_000_000_123L, base.getLastUsed());
+        assertEquals(42, base.getUseCount());
+        assertEquals(1_800_000_000_000L, base.getExpiresAt());
+        assertEquals(1_600_000_000_000L, base.getCreatedAt());
+        assertEquals(HomeAccess.SHARED, base.getAccess());
+        assertEquals(friends, base.getSharedWith());
+        assertEquals("farms", base.getCategory());
+
+        HomeData other = unpacked.get("straße");
+        assertNull(other.getServer());
+        assertNull(other.getCategory());
+        assertEquals(HomeAccess.PRIVATE, other.getAccess());
+        assertTrue(other.getSharedWith().isEmpty());
+        assertTrue(other.isSameHome(plain));
+    }
+
+    @Test
+    void replacingAndRemovingPlayersKeepsTheOthersFindable() {
+        List<UUID> owners = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID owner = UUID.randomUUID();
+            owners.add(owner);
+            slab.put(owner, homes(2, i));
+        }
+        // Removing every other player shifts later entries of the probe runs back
+        for (int i = 0; i < owners.size(); i += 2) {
+            assertEquals(2, slab.remove(owners.get(i)).size());
+        }
+        slab.put(owners.get(1), homes(3, -1));
+
+        assertEquals(1500, slab.getPlayerCount());
+        assertEquals(1499 * 2 + 3, slab.getHomeCount());
+        for (int i = 0; i < owners.size(); i++) {
+            Map<String, HomeData> homes = slab.get(owners.get(i));
+            if (i % 2 == 0) {
+                assertNull(homes);
+                assertFalse(slab.contains(owners.get(i)));
+            } else {
+                double x = i == 1 ? -1 : i;
+                assertEquals(i == 1 ? 3 : 2, homes.size());
+                assertEquals(x, homes.get("home0").getX());
+            }
+        }
+        assertEquals(1500, new HashSet<>(slab.owners()).size());
+    }
+
+    @Test
+    void compactionKeepsEveryLivePlayer() {
+        List<UUID> owners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            owners.add(UUID.randomUUID());
+        }
+        // Three rounds of 5000 homes leave more dead records than live ones, which compacts the buffers
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < owners.size(); i++) {
+                slab.put(owners.get(i), homes(50, round * 1000 + i));
+            }
+        }
+        slab.put(owners.get(0), null);
+
+        assertEquals(99, slab.getPlayerCount());
+        assertEquals(99 * 50, slab.getHomeCount());
+        assertNull(slab.get(owners.get(0)));
+        for (int i = 1; i < owners.size(); i++) {
+            Map<String, HomeData> homes = slab.get(owners.get(i));
+            assertEquals(50, homes.size());
+            assertEquals(2000 + i + 49, homes.get("home49").getX());
+        }
+    }
+}
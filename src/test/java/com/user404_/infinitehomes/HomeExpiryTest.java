@@ -0,0 +1,91 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.storage.HomeStorage;
+import com.user404_.infinitehomes.api.HomeDeleteEvent;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HomeExpiryTest {
+    @TempDir
+    File dataFolder;
+
+    private final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+    private final InfiniteHomes plugin = mock(InfiniteHomes.class);
+    private final HomeStorage storage = mock(HomeStorage.class);
+    private final Map<UUID, Map<String, HomeData>> homes = new ConcurrentHashMap<>();
+    private final PluginManager pluginManager = mock(PluginManager.class);
+    private final UUID owner = UUID.randomUUID();
+    private HomeExpiry expiry;
+
+    @BeforeEach
+    void setUp() {
+        TestServer.reset();
+        when(plugin.getTaskScheduler()).thenReturn(scheduler);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("test"));
+        when(plugin.getHomes()).thenReturn(homes);
+        when(plugin.getStorage()).thenReturn(storage);
+        when(plugin.getWorldCounts()).thenReturn(mock(HomeWorldCounts.class));
+        when(plugin.getNameMatcher()).thenReturn(mock(HomeNameMatcher.class));
+        Server server = mock(Server.class);
+        when(server.getPluginManager()).thenReturn(pluginManager);
+        when(plugin.getServer()).thenReturn(server);
+        expiry = new HomeExpiry(plugin);
+        expiry.start(1);
+    }
+
+    private HomeData home(double x, long expiresAt) {
+        HomeData home = new HomeData("world", x, 64, 0, 0, 0, Material.RED_BED, null);
+        home.setExpiresAt(expiresAt);
+        return home;
+    }
+
+    @Test
+    void homesSetAgainWithTheSameExpiryAreAllTracked() {
+        long due = System.currentTimeMillis() - 1000;
+        // The arena was set twice within the same millisecond; only the second one is still there
+        expiry.track(owner, "arena", home(1, due));
+        HomeData current = home(2, due);
+        homes.put(owner, new ConcurrentHashMap<>(Map.of("arena", current)));
+        expiry.track(owner, "arena", current);
+
+        scheduler.tick(20);
+        assertFalse(homes.get(owner).containsKey("arena"));
+        verify(plugin, times(1)).stagePlayerHomes(owner);
+        verify(storage).flush();
+        scheduler.runUntilIdle();
+        ArgumentCaptor<HomeDeleteEvent> event = ArgumentCaptor.forClass(HomeDeleteEvent.class);
+        verify(pluginManager).callEvent(event.capture());
+        assertEquals("arena", event.getValue().getHome().getName());
+        assertEquals(2, event.getValue().getHome().getX());
+        event.getValue().setCancelled(true);
+        assertFalse(event.getValue().isCancelled(), "expired homes are already gone");
+    }
+
+    @Test
+    void homesThatAreNotDueStay() {
+        HomeData later = home(1, System.currentTimeMillis() + 60_000);
+        homes.put(owner, new ConcurrentHashMap<>(Map.of("arena", later)));
+        expiry.trackAll(owner, homes.get(owner));
+        expiry.trackAll(owner, homes.get(owner));
+
+        scheduler.tick(20);
+        assertSame(later, homes.get(owner).get("arena"));
+        verify(storage, never()).flush();
+    }
+}
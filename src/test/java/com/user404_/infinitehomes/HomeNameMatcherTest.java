@@ -0,0 +1,97 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HomeNameMatcherTest {
+    private final HomeNameMatcher matcher = new HomeNameMatcher();
+    private final UUID owner = UUID.randomUUID();
+
+    private static Map<String, HomeData> homes(Collection<String> names) {
+        Map<String, HomeData> homes = new HashMap<>();
+        for (String name : names) {
+            homes.put(name, new HomeData("world", 0, 64, 0, 0, 0, Material.RED_BED, null));
+        }
+        return homes;
+    }
+
+    private static List<String> names(List<HomeNameMatcher.Match> matches) {
+        return matches.stream().map(HomeNameMatcher.Match::getName).collect(Collectors.toList());
+    }
+
+    private static int distance(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) table[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) table[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int substitute = table[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                table[i][j] = Math.min(substitute, Math.min(table[i - 1][j], table[i][j - 1]) + 1);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+
+    @Test
+    void closestNamesComeFirstWithinTheAllowedTypos() {
+        Map<String, HomeData> homes = homes(List.of("base", "bases", "vase", "farm", "basement", "nether"));
+
+        List<HomeNameMatcher.Match> matches = matcher.suggest(owner, "bse", homes);
+        assertEquals(List.of("base"), names(matches), "one typo for short names");
+        assertEquals(1, matches.get(0).getDistance());
+
+        assertEquals(List.of("basement"), names(matcher.suggest(owner, "basemen", homes)));
+        assertEquals(List.of("base", "bases", "vase"), names(matcher.suggest(owner, "basse", homes)), "two typos for longer names");
+        assertTrue(matcher.suggest(owner, "xyz", homes).isEmpty());
+    }
+
+    @Test
+    void searchAgreesWithAPlainEditDistance() {
+        Random random = new Random(47);
+        String alphabet = "abcde";
+        Set<String> names = new HashSet<>();
+        while (names.size() < 300) {
+            StringBuilder name = new StringBuilder();
+            for (int i = 1 + random.nextInt(7); i > 0; i--) name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            names.add(name.toString());
+        }
+        Map<String, HomeData> homes = homes(names);
+
+        for (int run = 0; run < 200; run++) {
+            StringBuilder typed = new StringBuilder();
+            for (int i = 1 + random.nextInt(8); i > 0; i--) typed.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            String word = typed.toString();
+            int allowed = word.length() <= 4 ? 1 : 2;
+            List<String> expected = names.stream()
+                    .filter(name -> distance(word, name) <= allowed)
+                    .sorted(Comparator.comparingInt((String name) -> distance(word, name)).thenComparing(name -> name))
+                    .limit(HomeNameMatcher.MAX_SUGGESTIONS)
+                    .collect(Collectors.toList());
+
+            List<HomeNameMatcher.Match> matches = matcher.suggest(owner, word, homes);
+            assertEquals(expected, names(matches), word);
+            for (HomeNameMatcher.Match match : matches) {
+                assertEquals(distance(word, match.getName()), match.getDistance());
+            }
+        }
+    }
+
+    @Test
+    void addedAndRemovedNamesAreFoundOrDropped() {
+        Map<String, HomeData> homes = homes(List.of("base", "farm"));
+        matcher.suggest(owner, "bse", homes); // builds the tree
+
+        homes.putAll(homes(List.of("barn")));
+        matcher.added(owner, "barn");
+        homes.remove("base");
+        matcher.removed(owner, "base");
+
+        assertEquals(List.of("barn"), names(matcher.suggest(owner, "bar", homes)));
+        assertTrue(matcher.suggest(owner, "bse", homes).isEmpty());
+    }
+}
@@ -0,0 +1,173 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler.Kind;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SafeDestinationCheckerTest {
+    private final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+    private final InfiniteHomes plugin = mock(InfiniteHomes.class);
+    private final Settings settings = mock(Settings.class);
+    private final World world = mock(World.class);
+    private final UUID owner = UUID.randomUUID();
+    // Snapshots taken per chunk, as "x,z"
+    private final Map<String, Integer> snapshots = new HashMap<>();
+    private final Location home = new Location(null, 8.5, 64, 8.5);
+    private SafeDestinationChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        when(plugin.getTaskScheduler()).thenReturn(scheduler);
+        when(plugin.getSettings()).thenReturn(settings);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("test"));
+        when(settings.getSafeCacheTtlMillis()).thenReturn(60_000L);
+        when(settings.getBlockBudget()).thenReturn(10_000);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getMinHeight()).thenReturn(-64);
+        when(world.getMaxHeight()).thenReturn(320);
+        home.setWorld(world);
+        checker = new SafeDestinationChecker(plugin);
+    }
+
+    /** Stone up to y 63 and air above, plus the given extra stone blocks ({x, y, z}). */
+    private void loadedChunk(int chunkX, int chunkZ, int[]... stone) {
+        ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+        when(snapshot.getBlockType(anyInt(), anyInt(), anyInt())).thenAnswer(call -> {
+            int x = (chunkX << 4) + (int) call.getArgument(0), y = call.getArgument(1), z = (chunkZ << 4) + (int) call.getArgument(2);
+            if (y <= 63) return Material.STONE;
+            for (int[] block : stone) {
+                if (block[0] == x && block[1] == y && block[2] == z) return Material.STONE;
+            }
+            return Material.AIR;
+        });
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getX()).thenReturn(chunkX);
+        when(chunk.getZ()).thenReturn(chunkZ);
+        when(chunk.getChunkSnapshot()).thenAnswer(call -> {
+            snapshots.merge(chunkX + "," + chunkZ, 1, Integer::sum);
+            return snapshot;
+        });
+        when(world.getChunkAt(chunkX, chunkZ)).thenReturn(chunk);
+        when(world.isChunkLoaded(chunkX, chunkZ)).thenReturn(true);
+    }
+
+    private SafeDestinationChecker.Verdict run(CompletableFuture<SafeDestinationChecker.Verdict> check) {
+        scheduler.runUntilIdle();
+        assertTrue(check.isDone());
+        return check.join();
+    }
+
+    private void breakBlock(int x, int z) {
+        Block block = mock(Block.class);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getX()).thenReturn(x);
+        when(block.getZ()).thenReturn(z);
+        BlockBreakEvent event = mock(BlockBreakEvent.class);
+        when(event.getBlock()).thenReturn(block);
+        checker.onBlockBreak(event);
+    }
+
+    @Test
+    void unloadedHomeChunkIsLoadedInTheBackground() {
+        loadedChunk(0, 0);
+        when(world.isChunkLoaded(0, 0)).thenReturn(false);
+
+        CompletableFuture<SafeDestinationChecker.Verdict> check = checker.check(owner, "base", home);
+        scheduler.tick();
+        verify(world, never()).getChunkAt(anyInt(), anyInt());
+        assertEquals(1, scheduler.chunkLoads().size());
+
+        assertTrue(run(check).isSafe());
+        // check, background load, scan
+        assertEquals(Arrays.asList(Kind.REGION, Kind.REGION, Kind.ASYNC), scheduler.history());
+    }
+
+    @Test
+    void nearestSpotIsTheClosestOneInAnyDirection() {
+        when(settings.isFindNearest()).thenReturn(true);
+        when(settings.getSearchRadius()).thenReturn(4);
+        loadedChunk(0, 0, new int[]{8, 64, 8}); // a block where the feet go
+
+        SafeDestinationChecker.Verdict verdict = run(checker.check(owner, "base", home));
+
+        assertFalse(verdict.isSafe());
+        Location destination = verdict.getDestination();
+        assertEquals(1.0, destination.distanceSquared(home), 1e-9);
+        assertEquals(64, destination.getBlockY(), "at equal distance the same height wins");
+    }
+
+    @Test
+    void aBlockChangeDropsTheVerdictFromEveryChunkItScanned() {
+        when(settings.isFindNearest()).thenReturn(true);
+        when(settings.getSearchRadius()).thenReturn(16);
+        loadedChunk(0, 0);
+        loadedChunk(1, 0);
+        run(checker.check(owner, "base", home));
+
+        breakBlock(3, 3);
+        when(world.isChunkLoaded(1, 0)).thenReturn(false);
+        run(checker.check(owner, "base", home)); // only scans the home's chunk now
+        assertEquals(2, snapshots.get("0,0"));
+
+        // The first verdict's entry for the neighbour is gone, so this must not drop the second one
+        breakBlock(20, 3);
+        run(checker.check(owner, "base", home));
+        assertEquals(2, snapshots.get("0,0"));
+    }
+
+    @Test
+    void backIsCachedApartFromAHomeCalledBack() {
+        loadedChunk(0, 0);
+        run(checker.check(owner, "#back", home));
+        run(checker.checkBack(owner, home));
+        assertEquals(2, snapshots.get("0,0"));
+
+        run(checker.checkBack(owner, home));
+        assertEquals(2, snapshots.get("0,0"));
+    }
+
+    @Test
+    void aVerdictIsNotCachedIfABlockChangedWhileItWasScanned() {
+        loadedChunk(0, 0);
+        CompletableFuture<SafeDestinationChecker.Verdict> check = checker.check(owner, "base", home);
+        scheduler.tick(); // snapshot taken, scan not run yet
+        breakBlock(3, 3);
+        assertTrue(run(check).isSafe(), "this teleport still gets an answer");
+
+        run(checker.check(owner, "base", home));
+        assertEquals(2, snapshots.get("0,0"));
+        run(checker.check(owner, "base", home));
+        assertEquals(2, snapshots.get("0,0"), "cached once nothing changed during the scan");
+    }
+
+    @Test
+    void sweepDropsVerdictsPastTheTtl() {
+        loadedChunk(0, 0);
+        run(checker.check(owner, "base", home));
+        when(settings.getSafeCacheTtlMillis()).thenReturn(0L);
+        checker.sweep();
+        when(settings.getSafeCacheTtlMillis()).thenReturn(60_000L);
+
+        run(checker.check(owner, "base", home));
+        assertEquals(2, snapshots.get("0,0"));
+    }
+}
@@ -0,0 +1,216 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler.Kind;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.plugin.PluginManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TeleportManagerTest {
+    private final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+    private final InfiniteHomes plugin = mock(InfiniteHomes.class);
+    private final Settings settings = mock(Settings.class);
+    private final WorldPolicy policy = mock(WorldPolicy.class);
+    private final UsageTracker usageTracker = mock(UsageTracker.class);
+    private final Player player = mock(Player.class);
+    private final World world = mock(World.class);
+    private final UUID playerId = UUID.randomUUID();
+    // Messages as "key@context", so tests can check they were sent on the player's thread
+    private final List<String> messages = new ArrayList<>();
+    private TeleportManager manager;
+    private HomeData home;
+
+    @BeforeEach
+    void setUp() {
+        when(plugin.getTaskScheduler()).thenReturn(scheduler);
+        when(plugin.getSettings()).thenReturn(settings);
+        when(settings.isCancelOnMove()).thenReturn(true);
+        when(settings.getSafeCacheTtlMillis()).thenReturn(60_000L);
+        when(settings.getBlockBudget()).thenReturn(10_000);
+
+        WorldPolicies policies = mock(WorldPolicies.class);
+        when(plugin.getWorldPolicies()).thenReturn(policies);
+        when(policies.get(anyString())).thenReturn(policy);
+        when(policy.forPlayer(any())).thenReturn(policy);
+        when(policy.getTeleportDelay()).thenReturn(3);
+
+        Server server = mock(Server.class);
+        when(plugin.getServer()).thenReturn(server);
+        when(server.getPluginManager()).thenReturn(mock(PluginManager.class));
+        when(server.getPlayer(playerId)).thenReturn(player);
+        when(plugin.getBackHistory()).thenReturn(mock(BackHistory.class));
+        when(plugin.getUsageTracker()).thenReturn(usageTracker);
+        when(plugin.getSafeDestinationChecker()).thenReturn(new SafeDestinationChecker(plugin));
+        when(plugin.getMessage(any(Player.class), anyString())).thenAnswer(call -> call.getArgument(1));
+
+        when(player.getUniqueId()).thenReturn(playerId);
+        when(player.isOnline()).thenReturn(true);
+        doAnswer(call -> messages.add(call.getArgument(0) + "@" + scheduler.currentKind()))
+                .when(player).sendMessage(anyString());
+
+        when(world.getName()).thenReturn("world");
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getMinHeight()).thenReturn(-64);
+        when(world.getMaxHeight()).thenReturn(320);
+        home = new HomeData(new Location(world, 8.5, 64, 8.5), Material.RED_BED);
+        manager = new TeleportManager(plugin);
+    }
+
+    /** Runs the request like a command would, on the player's thread. */
+    private void request() {
+        scheduler.runFor(player, () -> manager.requestTeleport(player, playerId, "base", home));
+        scheduler.tick();
+    }
+
+    private void move(double dx, double dz) {
+        Location from = new Location(world, 8.5, 64, 8.5);
+        Location to = new Location(world, 8.5 + dx, 64, 8.5 + dz);
+        scheduler.runFor(player, () -> manager.onPlayerMove(new PlayerMoveEvent(player, from, to)));
+        scheduler.tick();
+    }
+
+    @Test
+    void teleportsOnThePlayersThreadAfterTheWarmup() {
+        request();
+        assertTrue(messages.contains("teleport.delayed@ENTITY"));
+
+        scheduler.tick(59);
+        assertTrue(scheduler.teleports().isEmpty());
+        scheduler.tick();
+
+        assertEquals(1, scheduler.teleports().size());
+        assertSame(home.getLocation(), scheduler.teleports().get(0).getLocation());
+        assertTrue(messages.contains("home.teleport@ENTITY"));
+        verify(usageTracker).recordUse(playerId, home);
+    }
+
+    @Test
+    void movingToAnotherBlockCancelsTheWarmup() {
+        request();
+        move(1, 0);
+
+        assertTrue(messages.contains("teleport.cancelled-m@ENTITY"));
+        scheduler.runUntilIdle();
+        assertTrue(scheduler.teleports().isEmpty());
+    }
+
+    @Test
+    void turningOnTheSpotKeepsTheWarmup() {
+        request();
+        move(0.3, 0.2);
+
+        scheduler.runUntilIdle();
+        assertEquals(1, scheduler.teleports().size());
+    }
+
+    @Test
+    void movingIsAllowedWhenCancelOnMoveIsOff() {
+        when(settings.isCancelOnMove()).thenReturn(false);
+        request();
+        move(5, 5);
+
+        scheduler.runUntilIdle();
+        assertEquals(1, scheduler.teleports().size());
+    }
+
+    @Test
+    void damageCancelsTheWarmup() {
+        request();
+        EntityDamageEvent damage = mock(EntityDamageEvent.class);
+        when(damage.getEntity()).thenReturn(player);
+        scheduler.runFor(player, () -> manager.onEntityDamage(damage));
+        scheduler.tick();
+
+        scheduler.runUntilIdle();
+        assertTrue(scheduler.teleports().isEmpty());
+        assertTrue(messages.contains("teleport.cancelled-m@ENTITY"));
+    }
+
+    @Test
+    void warmupOfAPlayerWhoLeftIsDropped() {
+        request();
+        scheduler.remove(player);
+
+        scheduler.runUntilIdle();
+        assertTrue(scheduler.teleports().isEmpty());
+    }
+
+    @Test
+    void aNewRequestReplacesThePendingOne() {
+        request();
+        scheduler.tick(30);
+        HomeData other = new HomeData(new Location(world, 100.5, 70, 100.5), Material.RED_BED);
+        scheduler.runFor(player, () -> manager.requestTeleport(player, playerId, "farm", other));
+
+        scheduler.runUntilIdle();
+        assertEquals(1, scheduler.teleports().size());
+        assertSame(other.getLocation(), scheduler.teleports().get(0).getLocation());
+    }
+
+    @Test
+    void safeTeleportSnapshotsOnTheRegionScansAsyncAndTeleportsOnThePlayersThread() {
+        when(settings.isSafeTeleport()).thenReturn(true);
+        when(policy.getTeleportDelay()).thenReturn(0);
+        List<Kind> snapshotThreads = chunkWithFloorAt(63);
+
+        request();
+        assertTrue(scheduler.teleports().isEmpty());
+        scheduler.runUntilIdle();
+
+        assertEquals(Arrays.asList(Kind.REGION), snapshotThreads);
+        // request, snapshot, scan, teleport
+        assertEquals(Arrays.asList(Kind.ENTITY, Kind.REGION, Kind.ASYNC, Kind.ENTITY), scheduler.history());
+        assertEquals(1, scheduler.teleports().size());
+        assertTrue(messages.contains("home.teleport@ENTITY"));
+    }
+
+    @Test
+    void unsafeHomeIsReportedOnThePlayersThread() {
+        when(settings.isSafeTeleport()).thenReturn(true);
+        when(policy.getTeleportDelay()).thenReturn(0);
+        chunkWithFloorAt(10); // nothing to stand on at the home
+
+        request();
+        scheduler.runUntilIdle();
+
+        assertTrue(scheduler.teleports().isEmpty());
+        assertTrue(messages.contains("teleport.unsafe@ENTITY"));
+    }
+
+    /**
+     * Makes the home's chunk stone up to the given height and air above, and records on which
+     * context its snapshot is taken.
+     */
+    private List<Kind> chunkWithFloorAt(int floorY) {
+        List<Kind> snapshotThreads = new ArrayList<>();
+        ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+        when(snapshot.getBlockType(anyInt(), anyInt(), anyInt()))
+                .thenAnswer(call -> (int) call.getArgument(1) <= floorY ? Material.STONE : Material.AIR);
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getChunkSnapshot()).thenAnswer(call -> {
+            snapshotThreads.add(scheduler.currentKind());
+            return snapshot;
+        });
+        when(world.isChunkLoaded(0, 0)).thenReturn(true);
+        when(world.getChunkAt(0, 0)).thenReturn(chunk);
+        return snapshotThreads;
+    }
+}
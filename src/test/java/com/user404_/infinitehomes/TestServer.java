@@ -0,0 +1,49 @@
+package com.user404_.infinitehomes;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The mocked server behind Bukkit's static methods. Bukkit accepts only one server per JVM, so all
+ * tests share it; players are put online and taken offline per test.
+ */
+public final class TestServer {
+    private static final Map<UUID, Player> ONLINE = new ConcurrentHashMap<>();
+
+    private TestServer() {
+    }
+
+    public static synchronized Server get() {
+        if (Bukkit.getServer() == null) {
+            Server server = mock(Server.class);
+            when(server.getLogger()).thenReturn(Logger.getLogger("TestServer"));
+            when(server.getPlayer(any(UUID.class))).thenAnswer(call -> ONLINE.get(call.<UUID>getArgument(0)));
+            Bukkit.setServer(server);
+        }
+        return Bukkit.getServer();
+    }
+
+    public static void join(Player player) {
+        get();
+        ONLINE.put(player.getUniqueId(), player);
+    }
+
+    public static void quit(Player player) {
+        ONLINE.remove(player.getUniqueId());
+    }
+
+    public static void reset() {
+        get();
+        ONLINE.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package com.user404_.infinitehomes;
+
+import com.user404_.infinitehomes.network.NetworkManager;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler.Kind;
+import com.user404_.infinitehomes.storage.HomeStorage;
+import com.user404_.infinitehomes.storage.SharedHomeStorage;
+import org.bukkit.Material;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsageTrackerTest {
+    private final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+    private final InfiniteHomes plugin = mock(InfiniteHomes.class);
+    private final HomeStorage storage = mock(HomeStorage.class);
+    private final SharedHomeStorage sharedStorage = mock(SharedHomeStorage.class);
+    private final NetworkManager network = mock(NetworkManager.class);
+    private final Map<UUID, Map<String, HomeData>> homes = new ConcurrentHashMap<>();
+    private final UUID owner = UUID.randomUUID();
+    private final HomeData home = new HomeData("world", 0, 64, 0, 0, 0, Material.RED_BED, null);
+    private final List<Kind> invalidationThreads = new ArrayList<>();
+    private UsageTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        when(plugin.getTaskScheduler()).thenReturn(scheduler);
+        when(plugin.getHomes()).thenReturn(homes);
+        when(plugin.getStorage()).thenReturn(storage);
+        when(plugin.getNetwork()).thenReturn(network);
+        when(network.getStorage()).thenReturn(sharedStorage);
+        doAnswer(call -> invalidationThreads.add(scheduler.currentKind())).when(network).publishInvalidation(owner);
+        homes.put(owner, new ConcurrentHashMap<>(Collections.singletonMap("base", home)));
+        tracker = new UsageTracker(plugin);
+        tracker.start(1);
+    }
+
+    @Test
+    void usageIsFlushedAsyncAndPublishedOnTheGlobalThread() {
+        tracker.recordUse(owner, home);
+        assertEquals(1, home.getUseCount());
+
+        scheduler.tick(20);
+        verify(sharedStorage).saveUsage(owner, homes.get(owner));
+        verify(sharedStorage).flush();
+        verify(plugin, never()).stagePlayerHomes(owner); // other servers' changes to the homes are kept
+        assertTrue(invalidationThreads.isEmpty(), "published after hopping to the global thread");
+
+        scheduler.tick();
+        assertEquals(Arrays.asList(Kind.GLOBAL), invalidationThreads);
+        assertEquals(Arrays.asList(Kind.ASYNC, Kind.GLOBAL), scheduler.history());
+    }
+
+    @Test
+    void deletedPlayersAreNotWrittenBack() {
+        tracker.recordUse(owner, home);
+        homes.remove(owner);
+
+        scheduler.tick(21);
+        verify(sharedStorage, never()).saveUsage(any(), any());
+        verify(sharedStorage, never()).flush();
+        assertTrue(invalidationThreads.isEmpty());
+    }
+
+    @Test
+    void withLocalStorageThePlayerIsStaged() {
+        when(plugin.getNetwork()).thenReturn(null);
+        tracker.recordUse(owner, home);
+
+        scheduler.tick(20);
+        verify(plugin).stagePlayerHomes(owner);
+        verify(storage).flush();
+    }
+
+    @Test
+    void concurrentUsesAreAllCounted() throws InterruptedException {
+        home.setUsage(1000, 0);
+        long start = System.currentTimeMillis();
+        Thread[] regions = new Thread[8];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = new Thread(() -> {
+                for (int use = 0; use < 10_000; use++) {
+                    tracker.recordUse(owner, home);
+                }
+            });
+            regions[i].start();
+        }
+        for (Thread region : regions) {
+            region.join();
+        }
+
+        assertEquals(80_000, home.getUseCount());
+        assertTrue(home.getLastUsed() >= start);
+    }
+
+    @Test
+    void stopCancelsTheFlush() {
+        tracker.recordUse(owner, home);
+        tracker.stop();
+
+        scheduler.tick(100);
+        verify(sharedStorage, never()).flush();
+        assertEquals(0, scheduler.pending());
+    }
+}
@@ -0,0 +1,390 @@
+package com.user404_.infinitehomes.network;
+
+import com.user404_.infinitehomes.*;
+import com.user404_.infinitehomes.api.HomeDeleteEvent;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.storage.Handoff;
+import com.user404_.infinitehomes.storage.SharedFileHomeStorage;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.messaging.Messenger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Two backends sharing one home directory and talking over the in-JVM bus.
+ */
+class NetworkManagerTest {
+    @TempDir
+    File directory;
+
+    private final UUID owner = UUID.randomUUID();
+    private Backend lobby;
+    private Backend survival;
+
+    /** One backend server: its own scheduler, cache and network manager on the shared directory. */
+    private final class Backend {
+        final String name;
+        final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+        final InfiniteHomes plugin = mock(InfiniteHomes.class);
+        final Map<UUID, Map<String, HomeData>> homes = new ConcurrentHashMap<>();
+        final HomeNameIndex nameIndex = mock(HomeNameIndex.class);
+        final TeleportManager teleportManager = mock(TeleportManager.class);
+        final UsageTracker usageTracker = mock(UsageTracker.class);
+        final PluginManager pluginManager = mock(PluginManager.class);
+        SharedFileHomeStorage storage;
+        NetworkManager network;
+
+        Backend(String name) {
+            this.name = name;
+            Server server = mock(Server.class);
+            when(server.getMessenger()).thenReturn(mock(Messenger.class));
+            when(server.getPluginManager()).thenReturn(pluginManager);
+            when(plugin.getServer()).thenReturn(server);
+            when(plugin.getLogger()).thenReturn(Logger.getLogger(name));
+            when(plugin.getTaskScheduler()).thenReturn(scheduler);
+            when(plugin.getHomes()).thenReturn(homes);
+            when(plugin.getNameIndex()).thenReturn(nameIndex);
+            when(plugin.getAccessIndex()).thenReturn(mock(HomeAccessIndex.class));
+            when(plugin.getWorldCounts()).thenReturn(mock(HomeWorldCounts.class));
+            when(plugin.getNameMatcher()).thenReturn(mock(HomeNameMatcher.class));
+            when(plugin.getHomeExpiry()).thenReturn(mock(HomeExpiry.class));
+            when(plugin.getTeleportManager()).thenReturn(teleportManager);
+            when(plugin.getUsageTracker()).thenReturn(usageTracker);
+            when(plugin.getGlobalIndex()).thenReturn(mock(GlobalHomeIndex.class));
+            when(plugin.getNetwork()).thenAnswer(call -> network);
+            when(plugin.getStorage()).thenAnswer(call -> storage);
+            when(plugin.getMessage(any(Player.class), anyString())).thenAnswer(call -> call.getArgument(1));
+            start();
+        }
+
+        void start() {
+            storage = new SharedFileHomeStorage(directory, plugin.getLogger());
+            network = new NetworkManager(plugin, name, storage, new LocalMessageBus());
+        }
+
+        /** What /infinitehomes reload does in network mode: close everything and set it up again. */
+        void reload() {
+            network.close();
+            start();
+        }
+
+        /** Sets a home the way the commands do: cache, write to the shared storage, announce. */
+        HomeData setHome(UUID player, String homeName) {
+            HomeData home = new HomeData("world", 10, 64, 10, 0, 0, Material.RED_BED, name);
+            homes.computeIfAbsent(player, uuid -> new ConcurrentHashMap<>()).put(homeName, home);
+            storage.savePlayer(player, homes.get(player));
+            storage.flush();
+            network.publishInvalidation(player);
+            return home;
+        }
+
+        /** Loads the player's homes the way an admin opening them or a shared home does. */
+        Map<String, HomeData> load(UUID player) {
+            network.loadAsync(player);
+            scheduler.runUntilIdle();
+            return homes.get(player);
+        }
+
+        Player player(UUID uuid) {
+            Player player = mock(Player.class);
+            when(player.getUniqueId()).thenReturn(uuid);
+            when(player.isOnline()).thenReturn(true);
+            return player;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        TestServer.reset();
+        lobby = new Backend("lobby");
+        survival = new Backend("survival");
+    }
+
+    @AfterEach
+    void tearDown() {
+        lobby.network.close();
+        survival.network.close();
+    }
+
+    @Test
+    void changesReachAServerThatCachesThePlayer() {
+        survival.homes.put(owner, new ConcurrentHashMap<>()); // e.g. an admin has the owner's homes open
+        lobby.setHome(owner, "spawn");
+
+        assertEquals(1, survival.scheduler.pending(), "reload queued off the main thread");
+        survival.scheduler.runUntilIdle();
+        assertTrue(survival.homes.get(owner).containsKey("spawn"));
+        verify(survival.nameIndex).invalidate(owner);
+    }
+
+    @Test
+    void changesOfPlayersAServerDoesNotNeedAreIgnored() {
+        lobby.setHome(owner, "spawn");
+
+        assertEquals(0, survival.scheduler.pending());
+        assertFalse(survival.homes.containsKey(owner));
+    }
+
+    @Test
+    void changesReachAServerThePlayerIsOnline() {
+        TestServer.join(survival.player(owner));
+        lobby.setHome(owner, "spawn");
+
+        survival.scheduler.runUntilIdle();
+        assertTrue(survival.homes.get(owner).containsKey("spawn"));
+    }
+
+    @Test
+    void deletingTheLastHomeDropsThePlayerFromTheOtherCache() {
+        survival.homes.put(owner, new ConcurrentHashMap<>());
+        lobby.setHome(owner, "spawn");
+        survival.scheduler.runUntilIdle();
+
+        lobby.homes.get(owner).remove("spawn");
+        lobby.storage.savePlayer(owner, lobby.homes.get(owner));
+        lobby.storage.flush();
+        lobby.network.publishInvalidation(owner);
+        survival.scheduler.runUntilIdle();
+
+        assertFalse(survival.homes.containsKey(owner));
+    }
+
+    @Test
+    void teleportToAHomeOnAnotherServerHandsThePlayerOff() throws IOException {
+        survival.setHome(owner, "base");
+        lobby.network.loadAsync(owner);
+        lobby.scheduler.runUntilIdle();
+        HomeData remote = lobby.homes.get(owner).get("base");
+        assertTrue(lobby.network.isRemote(remote));
+
+        Player leaving = lobby.player(owner);
+        lobby.network.handOff(leaving, owner, "base", remote.getServer());
+        lobby.scheduler.runUntilIdle();
+
+        ArgumentCaptor<byte[]> message = ArgumentCaptor.forClass(byte[].class);
+        verify(leaving).sendPluginMessage(same(lobby.plugin), eq(PluginMessageBus.BUNGEE_CHANNEL), message.capture());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getValue()));
+        assertEquals("Connect", in.readUTF());
+        assertEquals("survival", in.readUTF());
+
+        Player arriving = survival.player(owner);
+        survival.network.onJoin(new PlayerJoinEvent(arriving, "joined"));
+        survival.scheduler.runUntilIdle();
+        verify(survival.teleportManager).teleportNow(same(arriving), eq(owner), eq("base"), any(HomeData.class));
+
+        // The handoff is used up
+        survival.network.onJoin(new PlayerJoinEvent(arriving, "joined"));
+        survival.scheduler.runUntilIdle();
+        verify(survival.teleportManager, times(1)).teleportNow(any(), any(), any(), any());
+    }
+
+    @Test
+    void staleHandoffsAreIgnored() {
+        survival.setHome(owner, "base");
+        survival.storage.putHandoff(owner, new Handoff(owner, "base", System.currentTimeMillis() - 5 * 60_000));
+
+        survival.network.onJoin(new PlayerJoinEvent(survival.player(owner), "joined"));
+        survival.scheduler.runUntilIdle();
+
+        verify(survival.teleportManager, never()).teleportNow(any(), any(), any(), any());
+    }
+
+    @Test
+    void reloadedServerKeepsReceivingChangesOnce() {
+        survival.homes.put(owner, new ConcurrentHashMap<>());
+        survival.reload();
+
+        lobby.setHome(owner, "spawn");
+        assertEquals(1, survival.scheduler.pending(), "only the new manager listens");
+        survival.scheduler.runUntilIdle();
+        assertTrue(survival.homes.get(owner).containsKey("spawn"));
+    }
+
+    @Test
+    void reloadWritesStagedChangesBeforeClosing() {
+        HomeData home = new HomeData("world", 1, 70, 1, 0, 0, Material.RED_BED, "survival");
+        survival.homes.put(owner, new ConcurrentHashMap<>(Map.of("farm", home)));
+        survival.storage.savePlayer(owner, survival.homes.get(owner));
+        survival.reload();
+
+        lobby.network.loadAsync(owner);
+        lobby.scheduler.runUntilIdle();
+        assertTrue(lobby.homes.get(owner).containsKey("farm"));
+    }
+
+    @Test
+    void refusedLoginsAreNotCached() {
+        survival.setHome(owner, "base");
+        survival.homes.clear();
+
+        survival.network.onPreLogin(preLogin(owner, AsyncPlayerPreLoginEvent.Result.KICK_BANNED));
+        assertFalse(survival.homes.containsKey(owner));
+
+        survival.network.onPreLogin(preLogin(owner, AsyncPlayerPreLoginEvent.Result.ALLOWED));
+        assertTrue(survival.homes.get(owner).containsKey("base"));
+    }
+
+    @Test
+    void idleOfflineOwnersAreDroppedOnceTheirUsageIsWritten() {
+        lobby.setHome(owner, "base");
+        survival.load(owner);
+
+        when(survival.usageTracker.isPending(owner)).thenReturn(true);
+        survival.network.evictIdle(owner);
+        assertTrue(survival.homes.containsKey(owner), "usage not written yet");
+
+        when(survival.usageTracker.isPending(owner)).thenReturn(false);
+        survival.network.evictIdle(owner);
+        assertFalse(survival.homes.containsKey(owner));
+        verify(survival.nameIndex, times(2)).invalidate(owner); // loaded, dropped
+    }
+
+    @Test
+    void homeMapSweepDropsIdleOwnersButNotOnlinePlayers() {
+        TieredHomeMap homes = new TieredHomeMap(survival.plugin);
+        when(survival.plugin.getHomes()).thenReturn(homes);
+        homes.setEvictIdle(survival.network::evictIdle);
+        homes.setColdTier(false, 0);
+        UUID online = UUID.randomUUID();
+        TestServer.join(survival.player(online));
+        lobby.setHome(owner, "base");
+        lobby.setHome(online, "base");
+        survival.load(owner);
+        survival.load(online);
+
+        survival.scheduler.tick(20 * 60);
+        assertFalse(homes.containsKey(owner));
+        assertTrue(homes.containsKey(online));
+    }
+
+    @Test
+    void usageIsWrittenWithoutUndoingOtherServersChanges() {
+        lobby.setHome(owner, "base");
+        lobby.setHome(owner, "mine");
+        Map<String, HomeData> cached = survival.load(owner);
+        cached.get("base").setUsage(System.currentTimeMillis(), 1);
+        cached.get("mine").setUsage(System.currentTimeMillis(), 1);
+
+        // Meanwhile the lobby adds one home and deletes another
+        lobby.setHome(owner, "farm");
+        lobby.homes.get(owner).remove("mine");
+        lobby.storage.savePlayer(owner, lobby.homes.get(owner));
+        lobby.storage.flush();
+
+        survival.storage.saveUsage(owner, cached);
+        survival.storage.flush();
+
+        Map<String, HomeData> stored = lobby.storage.loadPlayer(owner);
+        assertEquals(Set.of("base", "farm"), stored.keySet());
+        assertEquals(1, stored.get("base").getUseCount());
+    }
+
+    @Test
+    void bulkDeleteReachesPlayersThisServerDoesNotCache() {
+        lobby.setHome(owner, "base");
+        HomeData pvp = new HomeData("arena", 0, 64, 0, 0, 0, Material.RED_BED, "lobby");
+        lobby.homes.get(owner).put("pvp", pvp);
+        lobby.storage.savePlayer(owner, lobby.homes.get(owner));
+        lobby.storage.flush();
+
+        HomeFilter filter = new HomeFilter();
+        filter.parse("world:arena", null);
+        new BulkHomeOperation(survival.plugin, mock(CommandSender.class), BulkHomeOperation.Action.DELETE,
+                filter, null, false).run();
+        survival.scheduler.runUntilIdle();
+
+        assertFalse(survival.homes.containsKey(owner), "not cached by the bulk operation");
+        assertEquals(Set.of("base"), survival.storage.loadPlayer(owner).keySet());
+        lobby.scheduler.runUntilIdle();
+        assertEquals(Set.of("base"), lobby.homes.get(owner).keySet(), "the caching server reloaded");
+    }
+
+    @Test
+    void importKeepsTheStoredHomesOfPlayersThisServerDoesNotCache() throws IOException {
+        lobby.setHome(owner, "base");
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(TestServer.get().getWorlds()).thenReturn(List.of(world));
+        File essentials = new File(directory, "essentials");
+        essentials.mkdirs();
+        Files.writeString(new File(essentials, owner + ".yml").toPath(),
+                "homes:\n  mine:\n    world-name: world\n    x: 5.0\n    y: 12.0\n    z: 5.0\n");
+
+        new HomeImporter(survival.plugin, mock(CommandSender.class), HomeImporter.ESSENTIALS, essentials.toPath(),
+                false, false).run();
+        survival.scheduler.runUntilIdle();
+
+        assertEquals(Set.of("base", "mine"), survival.storage.loadPlayer(owner).keySet());
+        lobby.scheduler.runUntilIdle();
+        assertEquals(Set.of("base", "mine"), lobby.homes.get(owner).keySet(), "the caching server reloaded");
+    }
+
+    @Test
+    void temporaryHomesExpireOnOneServerEvenIfNoServerCachesTheOwner() {
+        lobby.setHome(owner, "base");
+        HomeData arena = new HomeData("world", 0, 64, 0, 0, 0, Material.RED_BED, "lobby");
+        arena.setExpiresAt(System.currentTimeMillis() - 1000);
+        lobby.homes.get(owner).put("arena", arena);
+        lobby.storage.savePlayer(owner, lobby.homes.get(owner));
+        lobby.storage.flush();
+        lobby.homes.clear();
+        HomeExpiry lobbyExpiry = new HomeExpiry(lobby.plugin);
+        HomeExpiry survivalExpiry = new HomeExpiry(survival.plugin);
+        lobbyExpiry.start(1);
+        survivalExpiry.start(1);
+
+        lobby.scheduler.tick(20);
+        survival.scheduler.tick(20);
+        lobby.scheduler.runUntilIdle();
+        survival.scheduler.runUntilIdle();
+
+        assertEquals(Set.of("base"), survival.storage.loadPlayer(owner).keySet());
+        ArgumentCaptor<HomeDeleteEvent> event = ArgumentCaptor.forClass(HomeDeleteEvent.class);
+        verify(lobby.pluginManager).callEvent(event.capture());
+        assertTrue(event.getValue().isExpired());
+        assertEquals("arena", event.getValue().getHome().getName());
+        verify(survival.pluginManager, never()).callEvent(any());
+
+        // The owner was told nowhere yet, so the server they join next tells them
+        Player joining = survival.player(owner);
+        survivalExpiry.onJoin(new PlayerJoinEvent(joining, "joined"));
+        survival.scheduler.runUntilIdle();
+        verify(joining).sendMessage("home.expired_offline");
+        lobbyExpiry.stop();
+        survivalExpiry.stop();
+    }
+
+    private static AsyncPlayerPreLoginEvent preLogin(UUID uuid, AsyncPlayerPreLoginEvent.Result result) {
+        AsyncPlayerPreLoginEvent event = mock(AsyncPlayerPreLoginEvent.class);
+        when(event.getUniqueId()).thenReturn(uuid);
+        when(event.getLoginResult()).thenReturn(result);
+        return event;
+    }
+}
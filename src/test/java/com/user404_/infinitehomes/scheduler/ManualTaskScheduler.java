@@ -0,0 +1,243 @@
+package com.user404_.infinitehomes.scheduler;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A scheduler for tests that only runs tasks when the test ticks it, all on the test thread.
+ * It models a regionized server strictly: the calling code only owns a location while a task
+ * scheduled for that location's chunk is running, and entities may only be teleported from their
+ * own tasks. Tasks scheduled without a delay run on the next tick, so every hop between contexts
+ * costs one tick and shows up in {@link #history()}.
+ */
+public class ManualTaskScheduler implements TaskScheduler {
+
+    /** The context a task runs in. */
+    public enum Kind { GLOBAL, REGION, ENTITY, ASYNC }
+
+    /** A teleport requested through {@link #teleport}. */
+    public static final class Teleport {
+        private final Entity entity;
+        private final Location location;
+
+        Teleport(Entity entity, Location location) {
+            this.entity = entity;
+            this.location = location;
+        }
+
+        public Entity getEntity() { return entity; }
+        public Location getLocation() { return location; }
+    }
+
+    private final class ScheduledTask implements Task {
+        private final Kind kind;
+        private final Object target; // the location or entity, null for global and async tasks
+        private final Runnable body;
+        private final long period; // 0 = run once
+        private final long order = nextOrder++;
+        private long due;
+        private boolean cancelled;
+
+        ScheduledTask(Kind kind, Object target, Runnable body, long delay, long period) {
+            this.kind = kind;
+            this.target = target;
+            this.body = body;
+            this.period = period;
+            this.due = tick + Math.max(1, delay);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final List<ScheduledTask> tasks = new ArrayList<>();
+    private final List<Kind> history = new ArrayList<>();
+    private final List<Teleport> teleports = new ArrayList<>();
+    private final List<Location> chunkLoads = new ArrayList<>();
+    private final Set<Entity> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long nextOrder;
+    private long tick;
+    private ScheduledTask running;
+    private boolean refuseTeleports;
+
+    /**
+     * Advances one tick and runs every task that is due, in the order they were scheduled.
+     * Tasks scheduled meanwhile wait for a later tick.
+     */
+    public void tick() {
+        tick++;
+        List<ScheduledTask> due = new ArrayList<>();
+        for (ScheduledTask task : tasks) {
+            if (task.due <= tick) due.add(task);
+        }
+        due.sort(Comparator.comparingLong(task -> task.order));
+        for (ScheduledTask task : due) {
+            if (task.cancelled) {
+                tasks.remove(task);
+                continue;
+            }
+            if (task.kind == Kind.ENTITY && removed.contains(task.target)) {
+                tasks.remove(task); // the entity is gone, its tasks are dropped
+                continue;
+            }
+            if (task.period > 0) {
+                task.due += task.period;
+            } else {
+                tasks.remove(task);
+            }
+            history.add(task.kind);
+            ScheduledTask outer = running;
+            running = task;
+            try {
+                task.body.run();
+            } finally {
+                running = outer;
+            }
+        }
+    }
+
+    public void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    /**
+     * Ticks until no one-off task is left; repeating tasks keep running meanwhile.
+     */
+    public void runUntilIdle() {
+        for (int i = 0; i < 100_000; i++) {
+            if (tasks.stream().allMatch(task -> task.period > 0 || task.cancelled)) return;
+            tick();
+        }
+        throw new IllegalStateException("Tasks keep scheduling new tasks");
+    }
+
+    /** Marks the entity as removed: {@link #runFor} returns null and its queued tasks are dropped. */
+    public void remove(Entity entity) {
+        removed.add(entity);
+    }
+
+    public void setRefuseTeleports(boolean refuseTeleports) {
+        this.refuseTeleports = refuseTeleports;
+    }
+
+    /** Contexts of the tasks run so far, in order. */
+    public List<Kind> history() {
+        return history;
+    }
+
+    public List<Teleport> teleports() {
+        return teleports;
+    }
+
+    /** Chunks loaded through {@link #loadChunk}, as their corner. */
+    public List<Location> chunkLoads() {
+        return chunkLoads;
+    }
+
+    /** Tasks waiting to run, including repeating ones. */
+    public int pending() {
+        int count = 0;
+        for (ScheduledTask task : tasks) {
+            if (!task.cancelled) count++;
+        }
+        return count;
+    }
+
+    /** The context of the running task, or null when called from the test itself. */
+    public Kind currentKind() {
+        return running != null ? running.kind : null;
+    }
+
+    /** Whether the running task belongs to the entity. */
+    public boolean isRunningFor(Entity entity) {
+        return running != null && running.kind == Kind.ENTITY && running.target == entity;
+    }
+
+    private Task add(Kind kind, Object target, Runnable body, long delay, long period) {
+        ScheduledTask task = new ScheduledTask(kind, target, body, delay, period);
+        tasks.add(task);
+        return task;
+    }
+
+    @Override
+    public Task runGlobal(Runnable task) {
+        return add(Kind.GLOBAL, null, task, 0, 0);
+    }
+
+    @Override
+    public Task runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return add(Kind.GLOBAL, null, task, delayTicks, Math.max(1, periodTicks));
+    }
+
+    @Override
+    public Task runAt(Location location, Runnable task) {
+        return add(Kind.REGION, location.clone(), task, 0, 0);
+    }
+
+    @Override
+    public Task runFor(Entity entity, Runnable task) {
+        return runForLater(entity, task, 0);
+    }
+
+    @Override
+    public Task runForLater(Entity entity, Runnable task, long delayTicks) {
+        if (removed.contains(entity)) return null;
+        return add(Kind.ENTITY, entity, task, delayTicks, 0);
+    }
+
+    @Override
+    public Task runAsync(Runnable task) {
+        return add(Kind.ASYNC, null, task, 0, 0);
+    }
+
+    @Override
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        return add(Kind.ASYNC, null, task, delayTicks, Math.max(1, periodTicks));
+    }
+
+    /**
+     * Loads the chunk with {@link World#getChunkAt(int, int)} in a task of the chunk's region, standing
+     * in for a background load that completes on the owning thread.
+     */
+    @Override
+    public CompletableFuture<Chunk> loadChunk(World world, int chunkX, int chunkZ) {
+        CompletableFuture<Chunk> future = new CompletableFuture<>();
+        Location corner = new Location(world, chunkX << 4, 0, chunkZ << 4);
+        chunkLoads.add(corner);
+        add(Kind.REGION, corner, () -> future.complete(world.getChunkAt(chunkX, chunkZ)), 0, 0);
+        return future;
+    }
+
+    @Override
+    public boolean isOwnedByCurrentRegion(Location location) {
+        if (running == null || running.kind != Kind.REGION) return false;
+        Location owned = (Location) running.target;
+        return owned.getWorld() == location.getWorld()
+                && owned.getBlockX() >> 4 == location.getBlockX() >> 4
+                && owned.getBlockZ() >> 4 == location.getBlockZ() >> 4;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> teleport(Entity entity, Location location) {
+        if (!isRunningFor(entity)) {
+            throw new IllegalStateException("Teleport outside the entity's own task (running: " + currentKind() + ")");
+        }
+        if (refuseTeleports) return CompletableFuture.completedFuture(false);
+        teleports.add(new Teleport(entity, location));
+        return CompletableFuture.completedFuture(true);
+    }
+}
@@ -0,0 +1,113 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.TestServer;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler;
+import com.user404_.infinitehomes.scheduler.ManualTaskScheduler.Kind;
+import org.bukkit.Material;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BackupManagerTest {
+    @TempDir
+    File dataFolder;
+
+    private final ManualTaskScheduler scheduler = new ManualTaskScheduler();
+    private final Map<UUID, Map<String, HomeData>> live = new HashMap<>();
+    private File source;
+    private BackupManager backups;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Plugin plugin = mock(Plugin.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("BackupManagerTest"));
+        source = new File(dataFolder, "homes.yml");
+        Files.write(source.toPath(), "homes: {}\n".getBytes(StandardCharsets.UTF_8));
+        backups = new BackupManager(plugin, scheduler, source, live);
+    }
+
+    @Test
+    void backupIsWrittenAsyncAndReportedOnTheGlobalThread() {
+        List<String> names = new ArrayList<>();
+        List<Kind> callbackThreads = new ArrayList<>();
+        backups.backupNow(name -> {
+            names.add(name);
+            callbackThreads.add(scheduler.currentKind());
+        });
+
+        scheduler.tick();
+        assertEquals(1, backups.list().size(), "written by the async task");
+        assertTrue(names.isEmpty(), "the callback waits for the global thread");
+
+        scheduler.tick();
+        assertEquals(Arrays.asList(Kind.GLOBAL), callbackThreads);
+        assertEquals(backups.list().get(0).getName(), names.get(0));
+        assertEquals(Arrays.asList(Kind.ASYNC, Kind.GLOBAL), scheduler.history());
+    }
+
+    @Test
+    void stagingReportsOnTheGlobalThread() {
+        backups.backupNow(name -> { });
+        scheduler.runUntilIdle();
+        List<Kind> reportThreads = new ArrayList<>();
+        backups.stage(backups.list().get(0).getName(), message -> reportThreads.add(scheduler.currentKind()));
+
+        scheduler.tick();
+        assertTrue(reportThreads.isEmpty());
+        assertNotNull(backups.getStagedName());
+        scheduler.tick();
+        assertFalse(reportThreads.isEmpty());
+        assertTrue(reportThreads.stream().allMatch(kind -> kind == Kind.GLOBAL));
+    }
+
+    @Test
+    void backupsInQuickSuccessionGetTheirOwnFiles() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            backups.backupNow(names::add);
+        }
+        scheduler.runUntilIdle();
+
+        assertEquals(3, new HashSet<>(names).size());
+        assertEquals(3, backups.list().size());
+        assertEquals(names.get(2), backups.list().get(0).getName(), "the newest is listed first");
+    }
+
+    @Test
+    void homesMovedInAWorldThatIsNotLoadedCountAsChanged() throws IOException {
+        TestServer.get(); // no worlds loaded
+        UUID owner = UUID.randomUUID();
+        Files.write(source.toPath(), (owner + ":\n  mine:\n    world: mining\n    x: 1.0\n    y: 64.0\n    z: 1.0\n"
+                + "  farm:\n    world: mining\n    x: 5.0\n    y: 64.0\n    z: 5.0\n").getBytes(StandardCharsets.UTF_8));
+        backups.backupNow(name -> { });
+        scheduler.runUntilIdle();
+        live.put(owner, new HashMap<>(Map.of(
+                "mine", new HomeData("mining", 2, 64, 1, 0, 0, Material.RED_BED, null),
+                "farm", new HomeData("mining", 5, 64, 5, 0, 0, Material.RED_BED, null))));
+
+        List<String> messages = new ArrayList<>();
+        backups.stage(backups.list().get(0).getName(), messages::add);
+        scheduler.runUntilIdle();
+
+        assertTrue(messages.get(0).endsWith("+0 homes, -0 homes, 1 changed, 0 players without live homes"), messages.get(0));
+    }
+}
@@ -0,0 +1,117 @@
+package com.user404_.infinitehomes.storage;
+
+import com.user404_.infinitehomes.HomeData;
+import com.user404_.infinitehomes.TestServer;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HomeFileLoaderTest {
+    @TempDir
+    File dataFolder;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private File quarantineFile;
+    private HomeFileLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        World world = mock(World.class);
+        when(TestServer.get().getWorld("world")).thenReturn(world);
+        quarantineFile = new File(dataFolder, "homes-quarantine.yml");
+        loader = new HomeFileLoader(Logger.getLogger("HomeFileLoaderTest"), quarantineFile);
+    }
+
+    private Map<UUID, Map<String, HomeData>> load(String text) throws IOException {
+        return loader.load(new StringReader(text), "homes.yml");
+    }
+
+    private String quarantine() throws IOException {
+        return new String(Files.readAllBytes(quarantineFile.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void aBrokenSectionOnlyCostsThatPlayer() throws IOException {
+        Map<UUID, Map<String, HomeData>> homes = load(alice + ":\n"
+                + "  base: [world, 1, 2\n"
+                + bob + ":\n"
+                + "  base:\n    world: world\n    x: 1.0\n    y: 64.0\n    z: 1.0\n");
+
+        assertEquals(Set.of(bob), homes.keySet());
+        assertEquals(1, loader.getSummary().getQuarantined());
+        assertTrue(quarantine().contains("unreadable YAML"));
+        assertTrue(quarantine().contains(alice.toString()), "the section is kept to be fixed by hand");
+    }
+
+    @Test
+    void anUnknownIconIsDroppedAndTheHomeKept() throws IOException {
+        Map<UUID, Map<String, HomeData>> homes = load(alice + ":\n"
+                + "  base:\n    world: world\n    x: 1.0\n    y: 64.0\n    z: 1.0\n    icon: NO_SUCH_ITEM\n");
+
+        assertEquals(Material.RED_BED, homes.get(alice).get("base").getIcon());
+        assertEquals(1, loader.getSummary().getRepaired());
+        assertEquals(0, loader.getSummary().getQuarantined());
+        assertFalse(quarantineFile.exists());
+    }
+
+    @Test
+    void homesWithoutAWorldOrACoordinateAreQuarantined() throws IOException {
+        Map<UUID, Map<String, HomeData>> homes = load(alice + ":\n"
+                + "  nowhere:\n    x: 1.0\n    y: 64.0\n    z: 1.0\n"
+                + "  flat:\n    world: world\n    x: 1.0\n    z: 1.0\n"
+                + "  base:\n    world: world\n    x: 1.0\n    y: 64.0\n    z: 1.0\n");
+
+        assertEquals(Set.of("base"), homes.get(alice).keySet());
+        assertEquals(2, loader.getSummary().getQuarantined());
+        String quarantined = quarantine();
+        assertTrue(quarantined.contains("# no world"));
+        assertTrue(quarantined.contains("# no y coordinate"));
+        assertTrue(quarantined.contains("nowhere:") && quarantined.contains("flat:"));
+    }
+
+    @Test
+    void theOldNestedLocationLayoutIsRead() throws IOException {
+        Map<UUID, Map<String, HomeData>> homes = load(alice + ":\n"
+                + "  base:\n"
+                + "    location:\n"
+                + "      ==: org.bukkit.Location\n"
+                + "      world: world\n      x: 10.5\n      y: 70.0\n      z: -3.5\n      yaw: 90.0\n      pitch: 0.0\n"
+                + "    icon: OAK_LOG\n");
+
+        HomeData home = homes.get(alice).get("base");
+        assertEquals("world", home.getWorldName());
+        assertEquals(10.5, home.getX());
+        assertEquals(-3.5, home.getZ());
+        assertEquals(90.0f, home.getYaw());
+        assertEquals(Material.OAK_LOG, home.getIcon());
+    }
+
+    @Test
+    void homesInWorldsThatAreNotLoadedAreKeptAndReported() throws IOException {
+        Map<UUID, Map<String, HomeData>> homes = load(alice + ":\n"
+                + "  mine:\n    world: mining\n    x: 1.0\n    y: 12.0\n    z: 1.0\n"
+                + "  base:\n    world: world\n    x: 1.0\n    y: 64.0\n    z: 1.0\n");
+
+        assertEquals(Set.of("mine", "base"), homes.get(alice).keySet());
+        assertEquals("mining", homes.get(alice).get("mine").getWorldName());
+        assertEquals(Map.of("mining", 1), loader.getSummary().getDeferredHomes());
+        assertEquals(Map.of("mining", Set.of(alice)), loader.getSummary().getDeferredOwners());
+        assertEquals(0, loader.getSummary().getQuarantined());
+    }
+}